@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+
+import java.util.Hashtable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jvx.rad.remote.ConnectionInfo;
+import jvx.rad.remote.IConnectionConstants;
+
+import com.sibvisions.rad.remote.vertx.EventBusConnection;
+
+/**
+ * The <code>EventBusBenchmark</code> measures the throughput of JVx calls over the event bus.
+ * <p>
+ * Modes (<code>-mode=...</code>):
+ * <ul>
+ *   <li><code>local</code> starts a server and the clients in one (non clustered) vert.x instance</li>
+ *   <li><code>server</code> starts a clustered server node, e.g. several times on localhost</li>
+ *   <li><code>client</code> starts the clients in a clustered instance, the calls will be distributed
+ *       to all server nodes</li>
+ * </ul>
+ * Other parameters: <code>-application</code>, <code>-user</code>, <code>-password</code>,
+ * <code>-connections</code> (parallel clients) and <code>-duration</code> (seconds).
+ * 
+ * @author agent
+ */
+public final class EventBusBenchmark
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Invisible constructor because <code>EventBusBenchmark</code> is a
+     * standalone application.
+     */
+    private EventBusBenchmark()
+    {
+    }
+    
+    /**
+     * Starts the benchmark.
+     * 
+     * @param pArgs startup arguments
+     * @throws Exception if the benchmark failed
+     */
+    public static void main(String[] pArgs) throws Exception
+    {
+        Hashtable<String, String> htParams = Util.parseCommandLineProperties(pArgs);
+        
+        String sMode = getParameter(htParams, "mode", "local");
+        
+        if ("local".equals(sMode))
+        {
+            Vertx vertx = Vertx.vertx();
+            
+            new EventBusServer(vertx).start();
+            
+            run(vertx, htParams);
+            
+            System.exit(0);
+        }
+        
+        Vertx vertx = clusteredVertx();
+        
+        if ("server".equals(sMode))
+        {
+            EventBusServer srv = new EventBusServer(vertx);
+            srv.start();
+            
+            System.out.println("Server node " + srv.getNodeAddress() + " started");
+        }
+        else
+        {
+            run(vertx, htParams);
+            
+            System.exit(0);
+        }
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Runs the clients and prints the results.
+     * 
+     * @param pVertx the vert.x instance
+     * @param pParams the parameters
+     * @throws Exception if a client failed
+     */
+    private static void run(final Vertx pVertx, final Hashtable<String, String> pParams) throws Exception
+    {
+        int iConnections = Integer.parseInt(getParameter(pParams, "connections", "8"));
+        
+        final long lDuration = Long.parseLong(getParameter(pParams, "duration", "10")) * 1000;
+        
+        final AtomicLong alCalls = new AtomicLong();
+        final AtomicLong alNanos = new AtomicLong();
+        
+        Thread[] clients = new Thread[iConnections];
+        
+        final Throwable[] thError = new Throwable[1];
+        
+        for (int i = 0; i < iConnections; i++)
+        {
+            clients[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        //one connection per client, because calls of a connection are serialized
+                        EventBusConnection con = new EventBusConnection(pVertx);
+                        
+                        ConnectionInfo info = new ConnectionInfo();
+                        info.getProperties().put(IConnectionConstants.APPLICATION, getParameter(pParams, "application", "demo"));
+                        info.getProperties().put(IConnectionConstants.USERNAME, getParameter(pParams, "user", "admin"));
+                        info.getProperties().put(IConnectionConstants.PASSWORD, getParameter(pParams, "password", "admin"));
+                        
+                        con.open(info);
+                        
+                        try
+                        {
+                            long lEnd = System.currentTimeMillis() + lDuration;
+                            
+                            while (System.currentTimeMillis() < lEnd)
+                            {
+                                long lStart = System.nanoTime();
+                                
+                                con.setAndCheckAlive(info, null);
+                                
+                                alNanos.addAndGet(System.nanoTime() - lStart);
+                                alCalls.incrementAndGet();
+                            }
+                        }
+                        finally
+                        {
+                            con.close(info);
+                        }
+                    }
+                    catch (Throwable th)
+                    {
+                        thError[0] = th;
+                    }
+                }
+            }, "EventBusBenchmark-" + i);
+        }
+        
+        for (Thread client : clients)
+        {
+            client.start();
+        }
+        
+        for (Thread client : clients)
+        {
+            client.join();
+        }
+        
+        if (thError[0] != null)
+        {
+            thError[0].printStackTrace();
+        }
+        
+        long lCalls = alCalls.get();
+        
+        System.out.println("Connections: " + iConnections);
+        System.out.println("Calls:       " + lCalls);
+        System.out.println("Calls/s:     " + (lCalls * 1000 / lDuration));
+        
+        if (lCalls > 0)
+        {
+            System.out.println("Avg. (ms):   " + (alNanos.get() / lCalls / 1000000d));
+        }
+    }
+    
+    /**
+     * Creates a clustered vert.x instance.
+     * 
+     * @return the instance
+     * @throws Exception if clustering failed
+     */
+    private static Vertx clusteredVertx() throws Exception
+    {
+        final CompletableFuture<Vertx> future = new CompletableFuture<Vertx>();
+        
+        Vertx.clusteredVertx(new VertxOptions(), new Handler<AsyncResult<Vertx>>()
+        {
+            public void handle(AsyncResult<Vertx> pResult)
+            {
+                if (pResult.succeeded())
+                {
+                    future.complete(pResult.result());
+                }
+                else
+                {
+                    future.completeExceptionally(pResult.cause());
+                }
+            }
+        });
+        
+        return future.get();
+    }
+    
+    /**
+     * Gets a parameter or the default value.
+     * 
+     * @param pParams the parameters
+     * @param pName the parameter name
+     * @param pDefault the default value
+     * @return the value
+     */
+    private static String getParameter(Hashtable<String, String> pParams, String pName, String pDefault)
+    {
+        String sValue = pParams.get(pName);
+        
+        if (sValue == null)
+        {
+            return pDefault;
+        }
+        
+        return sValue;
+    }
+    
+}   // EventBusBenchmark
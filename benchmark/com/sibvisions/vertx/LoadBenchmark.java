@@ -0,0 +1,1218 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - heavy sessions, fairness of admission
+ * 19.10.2026 - [agent] - concurrent transfers
+ */
+package com.sibvisions.vertx;
+
+import io.vertx.core.Vertx;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import jvx.rad.io.FileHandle;
+import jvx.rad.io.RemoteFileHandle;
+import jvx.rad.remote.IConnection;
+import jvx.rad.remote.MasterConnection;
+
+import com.sibvisions.rad.remote.http.HttpConnection;
+import com.sibvisions.rad.remote.vertx.NetSocketConnection;
+import com.sibvisions.rad.remote.vertx.Pipeline;
+import com.sibvisions.vertx.metrics.Histogram;
+import com.sibvisions.vertx.store.LocalFileHandleStore;
+
+/**
+ * The <code>LoadBenchmark</code> is an open-loop load test for the {@link NetSocketServer} and the
+ * {@link HttpServer}. The servers run embedded, with the {@link LoadBenchmarkSession} as life-cycle object.
+ * The configuration will be created in a temporary directory, so no external services are needed.
+ * <p>
+ * The operations are scheduled with a constant rate, independent of the response times. The latency of an
+ * operation is measured from its scheduled start, so a stalled server increases the latency of all waiting
+ * operations (no coordinated omission). Operations: <code>call</code> (small call), <code>fetch</code> (many
+ * records), <code>upload</code> and <code>download</code>.
+ * <p>
+ * Modes (<code>-modes=...</code>, comma separated, run one after another and compared at the end):
+ * <ul>
+ *   <li><code>net</code> NetSocketConnections, every connection has its own server thread</li>
+ *   <li><code>pipeline</code> NetSocketConnections which share a {@link Pipeline}, calls run on worker threads</li>
+ *   <li><code>http</code> HttpConnections, every request has its own server thread</li>
+ * </ul>
+ * Other parameters: <code>-connections</code> (clients), <code>-rate</code> (operations per second),
+ * <code>-duration</code> and <code>-warmup</code> (seconds), <code>-mix</code> (weights, e.g.
+ * <code>call:70,fetch:20,upload:5,download:5</code>), <code>-rows</code> (records per fetch),
+ * <code>-filesize</code> (bytes per upload and download), <code>-thresholds</code> (memory thresholds of the
+ * file handle store in bytes, comma separated, <code>0</code> writes all content to files) and <code>-port</code>
+ * (the NetSocket port, http uses the next port).
+ * <p>
+ * Fairness: <code>-heavy</code> adds sessions which fetch <code>-heavyrows</code> records (a report) in a closed
+ * loop, like power users. <code>-maxcalls</code> and <code>-sessioncalls</code> limit the concurrent calls of the
+ * {@link AdmissionControl}, <code>-weight</code> is the default weight of the sessions and <code>-weights</code>
+ * (comma separated) are the weights of the heavy sessions. The weights of heavy sessions are only known in
+ * <code>pipeline</code> mode, because the session key is the connection id. The result contains the latency of
+ * the reports and the Jain fairness index of the reports per weight: <code>1</code> if every heavy session got
+ * its share. <code>-maxtransfers</code> limits the concurrent uploads and downloads, which are admitted 
+ * independently of calls.
+ * <p>
+ * Allocation rate and threads are measured for the whole process, clients and servers.
+ * 
+ * @author agent
+ */
+public final class LoadBenchmark
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the application name. */
+    private static final String APPLICATION = "loadbenchmark";
+    
+    /** the small call. */
+    private static final int OP_CALL = 0;
+    
+    /** the fetch of many records. */
+    private static final int OP_FETCH = 1;
+    
+    /** the upload. */
+    private static final int OP_UPLOAD = 2;
+    
+    /** the download. */
+    private static final int OP_DOWNLOAD = 3;
+    
+    /** the report of a heavy session. */
+    private static final int OP_REPORT = 4;
+    
+    /** the operation names. */
+    private static final String[] OPERATIONS = new String[] {"call", "fetch", "upload", "download", "report"};
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Invisible constructor because <code>LoadBenchmark</code> is a
+     * standalone application.
+     */
+    private LoadBenchmark()
+    {
+    }
+    
+    /**
+     * Starts the benchmark.
+     * 
+     * @param pArgs startup arguments
+     * @throws Throwable if the benchmark failed
+     */
+    public static void main(String[] pArgs) throws Throwable
+    {
+        Hashtable<String, String> htParams = Util.parseCommandLineProperties(pArgs);
+        
+        createConfiguration();
+        
+        List<Result> liResults = new ArrayList<Result>();
+        
+        for (String sMode : getParameter(htParams, "modes", "net,pipeline,http").split(","))
+        {
+            for (String sThreshold : getParameter(htParams, "thresholds", "262144").split(","))
+            {
+                Result result = run(sMode.trim(), Long.parseLong(sThreshold.trim()), htParams);
+                
+                result.print();
+                
+                liResults.add(result);
+            }
+        }
+        
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-10s %10s %10s %10s %10s %10s %8s %12s %8s", 
+                                         "Mode", "Threshold", "Ops/s", "p50 (ms)", "p99 (ms)", "p999 (ms)", "Errors", "Alloc (MB/s)", "Threads"));
+                                         
+        for (Result result : liResults)
+        {
+            result.printSummary();
+        }
+        
+        System.exit(0);
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Runs the clients of a mode against a new server.
+     * 
+     * @param pMode the mode
+     * @param pThreshold the memory threshold of the file handle store
+     * @param pParams the parameters
+     * @return the result
+     * @throws Throwable if starting the server or the clients failed
+     */
+    private static Result run(String pMode, long pThreshold, Hashtable<String, String> pParams) throws Throwable
+    {
+        int iPort = Integer.parseInt(getParameter(pParams, "port", "16671"));
+        int iConnections = Integer.parseInt(getParameter(pParams, "connections", "8"));
+        int iRate = Integer.parseInt(getParameter(pParams, "rate", "200"));
+        int iRows = Integer.parseInt(getParameter(pParams, "rows", "1000"));
+        int iFileSize = Integer.parseInt(getParameter(pParams, "filesize", "1048576"));
+        int iHeavy = Integer.parseInt(getParameter(pParams, "heavy", "0"));
+        int iHeavyRows = Integer.parseInt(getParameter(pParams, "heavyrows", "50000"));
+        
+        String[] sWeights = getParameter(pParams, "weights", "").split(",");
+        
+        long lDuration = Long.parseLong(getParameter(pParams, "duration", "30"));
+        long lWarmup = Long.parseLong(getParameter(pParams, "warmup", "5"));
+        
+        final int[] iaSchedule = createSchedule(getParameter(pParams, "mix", "call:70,fetch:20,upload:5,download:5"));
+        
+        Vertx vertxServer = Vertx.vertx();
+        Vertx vertxClient = Vertx.vertx();
+        
+        NetSocketServer srvNet = null;
+        HttpServer srvHttp = null;
+        Pipeline pipeline = null;
+        
+        if ("http".equals(pMode))
+        {
+            srvHttp = new HttpServer(vertxServer);
+            srvHttp.setPort(iPort + 1);
+            srvHttp.start();
+            
+            ((LocalFileHandleStore)srvHttp.getFileHandleStore()).setMemoryThreshold(pThreshold);
+        }
+        else if ("net".equals(pMode) || "pipeline".equals(pMode))
+        {
+            srvNet = new NetSocketServer(vertxServer);
+            srvNet.setPort(iPort);
+            srvNet.start();
+            
+            ((LocalFileHandleStore)srvNet.getFileHandleStore()).setMemoryThreshold(pThreshold);
+            
+            if ("pipeline".equals(pMode))
+            {
+                pipeline = new Pipeline(vertxClient, "localhost", iPort);
+                pipeline.open();
+            }
+        }
+        else
+        {
+            throw new IllegalArgumentException("Unknown mode: " + pMode);
+        }
+        
+        AdmissionControl admission = srvHttp != null ? srvHttp.getAdmissionControl() : srvNet.getAdmissionControl();
+        admission.setMaxConcurrentCalls(Integer.parseInt(getParameter(pParams, "maxcalls", "-1")));
+        admission.setMaxSessionCalls(Integer.parseInt(getParameter(pParams, "sessioncalls", "-1")));
+        admission.setDefaultWeight(Integer.parseInt(getParameter(pParams, "weight", "1")));
+        
+        AdmissionControl transfers = srvHttp != null ? srvHttp.getTransferAdmissionControl() : srvNet.getTransferAdmissionControl();
+        transfers.setMaxConcurrentCalls(Integer.parseInt(getParameter(pParams, "maxtransfers", "-1")));
+        
+        byte[] byContent = new byte[iFileSize];
+        new Random(1).nextBytes(byContent);
+        
+        final Client[] clients = new Client[iConnections];
+        
+        for (int i = 0; i < iConnections; i++)
+        {
+            clients[i] = new Client(createConnection(srvHttp, pipeline, vertxClient, iPort), 
+                                    srvHttp != null ? "http://localhost:" + (iPort + 1) : null, byContent, iRows);
+        }
+        
+        final Client[] heavyClients = new Client[iHeavy];
+        final double[] dWeights = new double[iHeavy];
+        
+        for (int i = 0; i < iHeavy; i++)
+        {
+            heavyClients[i] = new Client(createConnection(srvHttp, pipeline, vertxClient, iPort), 
+                                         srvHttp != null ? "http://localhost:" + (iPort + 1) : null, byContent, iHeavyRows);
+            
+            int iWeight = i < sWeights.length && sWeights[i].trim().length() > 0 ? Integer.parseInt(sWeights[i].trim()) 
+                                                                                 : admission.getDefaultWeight();
+            
+            if (pipeline != null)
+            {
+                admission.setWeight(heavyClients[i].getConnectionId(), iWeight);
+                
+                dWeights[i] = iWeight;
+            }
+            else
+            {
+                dWeights[i] = admission.getDefaultWeight();
+            }
+        }
+        
+        final Result result = new Result(pMode, pThreshold, iRate, iHeavy);
+        
+        final long lInterval = 1000000000L / iRate;
+        final long lTickets = iRate * (lWarmup + lDuration);
+        final long lMeasuredTicket = iRate * lWarmup;
+        
+        final long lStart = System.nanoTime() + 100000000L;
+        final long lMeasureStart = lStart + lMeasuredTicket * lInterval;
+        
+        //operations which can't start until the end of a second run are dropped
+        final long lDeadline = lStart + 2 * lTickets * lInterval;
+        
+        final AtomicLong alTicket = new AtomicLong();
+        
+        Thread[] threads = new Thread[iConnections];
+        
+        for (int i = 0; i < iConnections; i++)
+        {
+            final Client client = clients[i];
+            
+            threads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    long lTicket;
+                    
+                    while ((lTicket = alTicket.getAndIncrement()) < lTickets)
+                    {
+                        long lIntended = lStart + lTicket * lInterval;
+                        long lWait;
+                        
+                        while ((lWait = lIntended - System.nanoTime()) > 0)
+                        {
+                            LockSupport.parkNanos(lWait);
+                        }
+                        
+                        boolean bMeasured = lTicket >= lMeasuredTicket;
+                        
+                        if (System.nanoTime() > lDeadline)
+                        {
+                            if (bMeasured)
+                            {
+                                result.drop();
+                            }
+                            
+                            continue;
+                        }
+                        
+                        int iOperation = iaSchedule[(int)(lTicket % iaSchedule.length)];
+                        
+                        try
+                        {
+                            client.execute(iOperation);
+                            
+                            if (bMeasured)
+                            {
+                                result.record(iOperation, System.nanoTime() - lIntended);
+                            }
+                        }
+                        catch (Throwable th)
+                        {
+                            if (bMeasured)
+                            {
+                                result.error(th);
+                            }
+                        }
+                    }
+                }
+            }, "LoadBenchmark-" + i);
+        }
+        
+        final AtomicLong alFinished = new AtomicLong();
+        
+        Thread[] heavyThreads = new Thread[iHeavy];
+        
+        for (int i = 0; i < iHeavy; i++)
+        {
+            final Client client = heavyClients[i];
+            final int iClient = i;
+            
+            heavyThreads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    //closed loop: the next report starts when the previous one is finished
+                    while (alFinished.get() == 0)
+                    {
+                        long lBegin = System.nanoTime();
+                        
+                        try
+                        {
+                            client.execute(OP_FETCH);
+                            
+                            if (lBegin - lMeasureStart >= 0 && alFinished.get() == 0)
+                            {
+                                result.report(iClient, System.nanoTime() - lBegin);
+                            }
+                        }
+                        catch (Throwable th)
+                        {
+                            if (lBegin - lMeasureStart >= 0)
+                            {
+                                result.error(th);
+                            }
+                        }
+                    }
+                }
+            }, "LoadBenchmark-Heavy-" + i);
+        }
+        
+        for (Thread thread : threads)
+        {
+            thread.start();
+        }
+        
+        for (Thread thread : heavyThreads)
+        {
+            thread.start();
+        }
+        
+        Sampler sampler = new Sampler();
+        
+        long lSleep = lMeasureStart - System.nanoTime();
+        
+        if (lSleep > 0)
+        {
+            Thread.sleep(lSleep / 1000000L, (int)(lSleep % 1000000L));
+        }
+        
+        sampler.start();
+        
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        
+        alFinished.set(1);
+        
+        sampler.stop();
+        
+        result.finish(lMeasureStart, sampler, dWeights);
+        
+        for (Thread thread : heavyThreads)
+        {
+            thread.join();
+        }
+        
+        for (Client client : clients)
+        {
+            client.close();
+        }
+        
+        for (Client client : heavyClients)
+        {
+            client.close();
+        }
+        
+        if (pipeline != null)
+        {
+            pipeline.close();
+        }
+        
+        if (srvNet != null)
+        {
+            srvNet.stop();
+        }
+        
+        if (srvHttp != null)
+        {
+            srvHttp.stop();
+        }
+        
+        vertxClient.close();
+        vertxServer.close();
+        
+        return result;
+    }
+    
+    /**
+     * Creates a client connection for the mode.
+     * 
+     * @param pHttpServer the http server or <code>null</code> for NetSocket
+     * @param pPipeline the pipeline or <code>null</code> without pipeline
+     * @param pVertx the vertx of the clients
+     * @param pPort the NetSocket port
+     * @return the connection
+     * @throws Throwable if creating the connection failed
+     */
+    private static IConnection createConnection(HttpServer pHttpServer, Pipeline pPipeline, Vertx pVertx, int pPort) throws Throwable
+    {
+        if (pHttpServer != null)
+        {
+            return new HttpConnection("http://localhost:" + (pPort + 1) + pHttpServer.getServicePath());
+        }
+        else if (pPipeline != null)
+        {
+            return new NetSocketConnection(pPipeline);
+        }
+        else
+        {
+            return new NetSocketConnection(pVertx, "localhost", pPort);
+        }
+    }
+    
+    /**
+     * Creates the order of the operations from the weights of the mix. The order is shuffled with
+     * a fixed seed, so every run executes the same operations.
+     * 
+     * @param pMix the mix, e.g. call:70,fetch:30
+     * @return the operations
+     */
+    private static int[] createSchedule(String pMix)
+    {
+        List<Integer> liOperations = new ArrayList<Integer>();
+        
+        for (String sEntry : pMix.split(","))
+        {
+            String[] sParts = sEntry.trim().split(":");
+            
+            int iOperation = -1;
+            
+            //reports are only executed by heavy sessions
+            for (int i = 0; i < OP_REPORT; i++)
+            {
+                if (OPERATIONS[i].equals(sParts[0]))
+                {
+                    iOperation = i;
+                }
+            }
+            
+            if (iOperation < 0)
+            {
+                throw new IllegalArgumentException("Unknown operation: " + sParts[0]);
+            }
+            
+            for (int i = 0, cnt = Integer.parseInt(sParts[1]); i < cnt; i++)
+            {
+                liOperations.add(Integer.valueOf(iOperation));
+            }
+        }
+        
+        Collections.shuffle(liOperations, new Random(42));
+        
+        int[] iaSchedule = new int[liOperations.size()];
+        
+        for (int i = 0; i < iaSchedule.length; i++)
+        {
+            iaSchedule[i] = liOperations.get(i).intValue();
+        }
+        
+        return iaSchedule;
+    }
+    
+    /**
+     * Creates the server and application configuration in a temporary directory and uses it as
+     * configuration directory.
+     * 
+     * @throws IOException if writing the configuration failed
+     */
+    private static void createConfiguration() throws IOException
+    {
+        File fiBase = Files.createTempDirectory(APPLICATION).toFile();
+        
+        write(new File(fiBase, "rad/server/config.xml"), 
+              "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+              "<server>\n" +
+              "</server>\n");
+              
+        write(new File(fiBase, "rad/apps/" + APPLICATION + "/config.xml"), 
+              "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+              "<application>\n" +
+              "  <securitymanager>\n" +
+              "    <class>com.sibvisions.rad.server.security.NoSecurityManager</class>\n" +
+              "  </securitymanager>\n" +
+              "  <lifecycle>\n" +
+              "    <mastersession>" + LoadBenchmarkSession.class.getName() + "</mastersession>\n" +
+              "  </lifecycle>\n" +
+              "</application>\n");
+              
+        System.setProperty("Configuration.basedir", fiBase.getAbsolutePath());
+    }
+    
+    /**
+     * Writes a file and deletes it on exit.
+     * 
+     * @param pFile the file
+     * @param pContent the content
+     * @throws IOException if writing failed
+     */
+    private static void write(File pFile, String pContent) throws IOException
+    {
+        List<File> liDirectories = new ArrayList<File>();
+        
+        for (File fiParent = pFile.getParentFile(); fiParent != null && !fiParent.exists(); fiParent = fiParent.getParentFile())
+        {
+            liDirectories.add(0, fiParent);
+        }
+        
+        for (File fiDirectory : liDirectories)
+        {
+            fiDirectory.mkdir();
+            fiDirectory.deleteOnExit();
+        }
+        
+        OutputStream out = new FileOutputStream(pFile);
+        
+        try
+        {
+            out.write(pContent.getBytes("UTF-8"));
+        }
+        finally
+        {
+            out.close();
+        }
+        
+        pFile.deleteOnExit();
+    }
+    
+    /**
+     * Gets a parameter or the default value.
+     * 
+     * @param pParams the parameters
+     * @param pName the parameter name
+     * @param pDefault the default value
+     * @return the value
+     */
+    private static String getParameter(Hashtable<String, String> pParams, String pName, String pDefault)
+    {
+        String sValue = pParams.get(pName);
+        
+        if (sValue == null)
+        {
+            return pDefault;
+        }
+        
+        return sValue;
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+    
+    /**
+     * The <code>Client</code> executes the operations with one connection.
+     * 
+     * @author agent
+     */
+    private static final class Client
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the upload counter for unique keys. */
+        private static AtomicLong alUpload = new AtomicLong();
+        
+        /** the master connection. */
+        private MasterConnection connection;
+        
+        /** the NetSocket connection or <code>null</code> for http. */
+        private NetSocketConnection netConnection;
+        
+        /** the http base url or <code>null</code> for NetSocket. */
+        private String sUrl;
+        
+        /** the content of uploads. */
+        private byte[] byContent;
+        
+        /** the number of records per fetch. */
+        private Integer iRows;
+        
+        /** the downloaded content of NetSocket connections. */
+        private RemoteFileHandle rfhDownload;
+        
+        /** the key of the downloaded content of http connections. */
+        private String sDownloadKey;
+        
+        /** the read buffer. */
+        private byte[] byRead = new byte[8192];
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>Client</code>, opens the connection and uploads the content
+         * for downloads.
+         * 
+         * @param pConnection the connection
+         * @param pUrl the http base url or <code>null</code> for NetSocket
+         * @param pContent the content of uploads
+         * @param pRows the number of records per fetch
+         * @throws Throwable if opening the connection or uploading the content failed
+         */
+        private Client(IConnection pConnection, String pUrl, byte[] pContent, int pRows) throws Throwable
+        {
+            connection = new MasterConnection(pConnection);
+            connection.setApplicationName(APPLICATION);
+            connection.setUserName("benchmark");
+            connection.setPassword("benchmark");
+            connection.open();
+            
+            if (pConnection instanceof NetSocketConnection)
+            {
+                netConnection = (NetSocketConnection)pConnection;
+            }
+            
+            sUrl = pUrl;
+            byContent = pContent;
+            iRows = Integer.valueOf(pRows);
+            
+            if (netConnection != null)
+            {
+                rfhDownload = netConnection.writeContent(new FileHandle("download.bin", byContent));
+            }
+            else
+            {
+                sDownloadKey = upload();
+            }
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Executes an operation.
+         * 
+         * @param pOperation the operation
+         * @throws Throwable if the operation failed
+         */
+        private void execute(int pOperation) throws Throwable
+        {
+            switch (pOperation)
+            {
+                case OP_CALL:
+                    connection.callAction("echo", "ping");
+                    break;
+                case OP_FETCH:
+                    connection.callAction("fetch", iRows);
+                    break;
+                case OP_UPLOAD:
+                    if (netConnection != null)
+                    {
+                        netConnection.writeContent(new FileHandle("upload.bin", byContent));
+                    }
+                    else
+                    {
+                        upload();
+                    }
+                    break;
+                default:
+                    if (netConnection != null)
+                    {
+                        drain(netConnection.readContent(rfhDownload));
+                    }
+                    else
+                    {
+                        HttpURLConnection con = (HttpURLConnection)new URL(sUrl + "/services/Download?KEY=" + sDownloadKey).openConnection();
+                        
+                        drain(check(con).getInputStream());
+                    }
+            }
+        }
+        
+        /**
+         * Uploads the content with http.
+         * 
+         * @return the key of the content
+         * @throws IOException if the upload failed
+         */
+        private String upload() throws IOException
+        {
+            String sKey = APPLICATION + "-" + alUpload.incrementAndGet();
+            
+            HttpURLConnection con = (HttpURLConnection)new URL(sUrl + "/services/Upload?KEY=" + sKey).openConnection();
+            con.setDoOutput(true);
+            con.setRequestMethod("POST");
+            con.setRequestProperty("Content-Disposition", "attachment; filename=\"upload.bin\"");
+            con.setRequestProperty("X-JVx-Session", String.valueOf(connection.getConnectionId()));
+            con.setFixedLengthStreamingMode(byContent.length);
+            
+            OutputStream out = con.getOutputStream();
+            out.write(byContent);
+            out.close();
+            
+            drain(check(con).getInputStream());
+            
+            return sKey;
+        }
+        
+        /**
+         * Checks the response code of a http request.
+         * 
+         * @param pConnection the connection
+         * @return <code>pConnection</code>
+         * @throws IOException if the request failed
+         */
+        private HttpURLConnection check(HttpURLConnection pConnection) throws IOException
+        {
+            int iCode = pConnection.getResponseCode();
+            
+            if (iCode != HttpURLConnection.HTTP_OK)
+            {
+                throw new IOException("Request failed with status " + iCode);
+            }
+            
+            return pConnection;
+        }
+        
+        /**
+         * Reads a stream until the end and closes it.
+         * 
+         * @param pStream the stream
+         * @throws IOException if reading failed
+         */
+        private void drain(InputStream pStream) throws IOException
+        {
+            try
+            {
+                while (pStream.read(byRead) >= 0)
+                {
+                    //only read
+                }
+            }
+            finally
+            {
+                pStream.close();
+            }
+        }
+        
+        /**
+         * Gets the connection id, which is the session key of pipelined calls.
+         * 
+         * @return the connection id
+         */
+        private String getConnectionId()
+        {
+            return String.valueOf(connection.getConnectionId());
+        }
+        
+        /**
+         * Closes the connection.
+         */
+        private void close()
+        {
+            try
+            {
+                connection.close();
+            }
+            catch (Throwable th)
+            {
+                //ignore
+            }
+        }
+        
+    }   // Client
+    
+    /**
+     * The <code>Result</code> records the latencies and errors of a run. The reports of heavy sessions
+     * are recorded separately, they don't count as scheduled operations.
+     * 
+     * @author agent
+     */
+    private static final class Result
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the latencies per operation. */
+        private Histogram[] histograms = new Histogram[OPERATIONS.length];
+        
+        /** the latencies of all operations. */
+        private Histogram histogram = new Histogram();
+        
+        /** the number of failed operations. */
+        private AtomicLong alErrors = new AtomicLong();
+        
+        /** the number of dropped operations. */
+        private AtomicLong alDropped = new AtomicLong();
+        
+        /** the time of the last finished operation. */
+        private AtomicLong alEnd = new AtomicLong();
+        
+        /** the finished reports per heavy session. */
+        private AtomicLongArray alaReports;
+        
+        /** the first error. */
+        private volatile Throwable thError;
+        
+        /** the mode. */
+        private String sMode;
+        
+        /** the memory threshold. */
+        private long lThreshold;
+        
+        /** the scheduled operations per second. */
+        private int iRate;
+        
+        /** the measured operations per second. */
+        private double dThroughput;
+        
+        /** the allocated bytes per second. */
+        private double dAllocationRate;
+        
+        /** the maximum number of threads. */
+        private int iPeakThreads;
+        
+        /** the finished reports per second. */
+        private double dReportRate;
+        
+        /** the Jain fairness index of the reports per weight. */
+        private double dFairness;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>Result</code>.
+         * 
+         * @param pMode the mode
+         * @param pThreshold the memory threshold
+         * @param pRate the scheduled operations per second
+         * @param pHeavy the number of heavy sessions
+         */
+        private Result(String pMode, long pThreshold, int pRate, int pHeavy)
+        {
+            sMode = pMode;
+            lThreshold = pThreshold;
+            iRate = pRate;
+            
+            alaReports = new AtomicLongArray(pHeavy);
+            
+            for (int i = 0; i < histograms.length; i++)
+            {
+                histograms[i] = new Histogram();
+            }
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Records a finished operation.
+         * 
+         * @param pOperation the operation
+         * @param pLatency the latency since the scheduled start in nanoseconds
+         */
+        private void record(int pOperation, long pLatency)
+        {
+            histograms[pOperation].record(pLatency);
+            histogram.record(pLatency);
+            
+            long lNow = System.nanoTime();
+            long lEnd = alEnd.get();
+            
+            while (lNow - lEnd > 0 && !alEnd.compareAndSet(lEnd, lNow))
+            {
+                lEnd = alEnd.get();
+            }
+        }
+        
+        /**
+         * Records a finished report of a heavy session.
+         * 
+         * @param pSession the heavy session
+         * @param pLatency the latency in nanoseconds
+         */
+        private void report(int pSession, long pLatency)
+        {
+            histograms[OP_REPORT].record(pLatency);
+            
+            alaReports.incrementAndGet(pSession);
+        }
+        
+        /**
+         * Records a failed operation.
+         * 
+         * @param pError the error
+         */
+        private void error(Throwable pError)
+        {
+            if (alErrors.getAndIncrement() == 0)
+            {
+                thError = pError;
+            }
+        }
+        
+        /**
+         * Records an operation which wasn't started.
+         */
+        private void drop()
+        {
+            alDropped.incrementAndGet();
+        }
+        
+        /**
+         * Calculates the rates after the run.
+         * 
+         * @param pMeasureStart the start of the measurement
+         * @param pSampler the sampler of the run
+         * @param pWeights the weights of the heavy sessions
+         */
+        private void finish(long pMeasureStart, Sampler pSampler, double[] pWeights)
+        {
+            double dSeconds = (Math.max(alEnd.get(), pMeasureStart + 1) - pMeasureStart) / 1e9;
+            
+            dThroughput = histogram.getCount() / dSeconds;
+            dAllocationRate = pSampler.getAllocatedBytes() / dSeconds;
+            iPeakThreads = pSampler.getPeakThreads();
+            
+            double dSum = 0;
+            double dSquares = 0;
+            
+            for (int i = 0; i < pWeights.length; i++)
+            {
+                double dShare = alaReports.get(i) / pWeights[i];
+                
+                dSum += dShare;
+                dSquares += dShare * dShare;
+            }
+            
+            dReportRate = histograms[OP_REPORT].getCount() / dSeconds;
+            dFairness = dSquares > 0 ? dSum * dSum / (pWeights.length * dSquares) : 0;
+        }
+        
+        /**
+         * Prints the details of the run.
+         */
+        private void print()
+        {
+            System.out.println();
+            System.out.println("Mode:       " + sMode + " (memory threshold " + lThreshold + ")");
+            System.out.println(String.format(Locale.ROOT, "Throughput: %.1f ops/s (scheduled %d ops/s)", Double.valueOf(dThroughput), Integer.valueOf(iRate)));
+            System.out.println("Errors:     " + alErrors.get() + ", dropped: " + alDropped.get());
+            System.out.println(String.format(Locale.ROOT, "Allocation: %.1f MB/s", Double.valueOf(dAllocationRate / 1048576)));
+            System.out.println("Threads:    " + iPeakThreads + " (peak)");
+            
+            if (alaReports.length() > 0)
+            {
+                System.out.println(String.format(Locale.ROOT, "Reports:    %.1f reports/s, fairness %.3f (Jain index per weight)", 
+                                                 Double.valueOf(dReportRate), Double.valueOf(dFairness)));
+            }
+            
+            System.out.println(String.format(Locale.ROOT, "%-10s %10s %10s %10s %10s %10s", "Operation", "Count", "p50 (ms)", "p99 (ms)", "p999 (ms)", "max (ms)"));
+            
+            for (int i = 0; i < OPERATIONS.length; i++)
+            {
+                if (histograms[i].getCount() > 0)
+                {
+                    printLatency(OPERATIONS[i], histograms[i]);
+                }
+            }
+            
+            printLatency("all", histogram);
+            
+            if (thError != null)
+            {
+                thError.printStackTrace(System.out);
+            }
+        }
+        
+        /**
+         * Prints the latencies of an operation.
+         * 
+         * @param pName the operation name
+         * @param pHistogram the latencies
+         */
+        private void printLatency(String pName, Histogram pHistogram)
+        {
+            System.out.println(String.format(Locale.ROOT, "%-10s %10d %10.3f %10.3f %10.3f %10.3f", 
+                                             pName, 
+                                             Long.valueOf(pHistogram.getCount()), 
+                                             Double.valueOf(pHistogram.getPercentile(50) / 1e6), 
+                                             Double.valueOf(pHistogram.getPercentile(99) / 1e6), 
+                                             Double.valueOf(pHistogram.getPercentile(99.9) / 1e6), 
+                                             Double.valueOf(pHistogram.getMax() / 1e6)));
+        }
+        
+        /**
+         * Prints the summary line of the run.
+         */
+        private void printSummary()
+        {
+            System.out.println(String.format(Locale.ROOT, "%-10s %10d %10.1f %10.3f %10.3f %10.3f %8d %12.1f %8d", 
+                                             sMode, 
+                                             Long.valueOf(lThreshold), 
+                                             Double.valueOf(dThroughput), 
+                                             Double.valueOf(histogram.getPercentile(50) / 1e6), 
+                                             Double.valueOf(histogram.getPercentile(99) / 1e6), 
+                                             Double.valueOf(histogram.getPercentile(99.9) / 1e6), 
+                                             Long.valueOf(alErrors.get() + alDropped.get()), 
+                                             Double.valueOf(dAllocationRate / 1048576), 
+                                             Integer.valueOf(iPeakThreads)));
+        }
+        
+    }   // Result
+    
+    /**
+     * The <code>Sampler</code> measures the allocated bytes and the number of threads of the process.
+     * The allocated bytes are sampled per thread, allocations of threads which end between two samples
+     * are missing.
+     * 
+     * @author agent
+     */
+    private static final class Sampler implements Runnable
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the thread bean. */
+        private ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        
+        /** the allocated bytes per thread at the last sample. */
+        private Map<Long, Long> mpAllocated = new HashMap<Long, Long>();
+        
+        /** the sampling thread. */
+        private Thread thSampler;
+        
+        /** the allocated bytes since the start. */
+        private long lAllocated;
+        
+        /** whether sampling is active. */
+        private volatile boolean bActive;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Interface implementation
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * {@inheritDoc}
+         */
+        public void run()
+        {
+            while (bActive)
+            {
+                sample(true);
+                
+                try
+                {
+                    Thread.sleep(100);
+                }
+                catch (InterruptedException ie)
+                {
+                    return;
+                }
+            }
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Starts sampling.
+         */
+        private void start()
+        {
+            bean.resetPeakThreadCount();
+            
+            sample(false);
+            
+            bActive = true;
+            
+            thSampler = new Thread(this, "LoadBenchmark-Sampler");
+            thSampler.setDaemon(true);
+            thSampler.start();
+        }
+        
+        /**
+         * Stops sampling.
+         * 
+         * @throws InterruptedException if waiting for the sampling thread was interrupted
+         */
+        private void stop() throws InterruptedException
+        {
+            bActive = false;
+            
+            thSampler.join();
+            
+            sample(true);
+        }
+        
+        /**
+         * Samples the allocated bytes of all threads.
+         * 
+         * @param pCount <code>true</code> to count the allocations since the last sample
+         */
+        private synchronized void sample(boolean pCount)
+        {
+            if (!(bean instanceof com.sun.management.ThreadMXBean))
+            {
+                return;
+            }
+            
+            long[] lIds = bean.getAllThreadIds();
+            long[] lBytes = ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(lIds);
+            
+            for (int i = 0; i < lIds.length; i++)
+            {
+                if (lBytes[i] >= 0)
+                {
+                    Long lLast = mpAllocated.put(Long.valueOf(lIds[i]), Long.valueOf(lBytes[i]));
+                    
+                    if (pCount)
+                    {
+                        //new threads count completely
+                        lAllocated += lBytes[i] - (lLast != null ? lLast.longValue() : 0);
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Gets the allocated bytes since the start.
+         * 
+         * @return the number of bytes
+         */
+        private long getAllocatedBytes()
+        {
+            return lAllocated;
+        }
+        
+        /**
+         * Gets the maximum number of threads since the start.
+         * 
+         * @return the number of threads
+         */
+        private int getPeakThreads()
+        {
+            return bean.getPeakThreadCount();
+        }
+        
+    }   // Sampler
+    
+}   // LoadBenchmark
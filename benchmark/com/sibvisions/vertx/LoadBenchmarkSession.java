@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sibvisions.rad.server.GenericBean;
+
+/**
+ * The <code>LoadBenchmarkSession</code> is the life-cycle object of the {@link LoadBenchmark} application.
+ * It offers a small call and a fetch of many records.
+ * 
+ * @author agent
+ */
+public class LoadBenchmarkSession extends GenericBean
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Returns the given value.
+     * 
+     * @param pValue the value
+     * @return <code>pValue</code>
+     */
+    public String echo(String pValue)
+    {
+        return pValue;
+    }
+    
+    /**
+     * Creates records, like a fetch of a table.
+     * 
+     * @param pRows the number of records
+     * @return the records
+     */
+    public List<Object[]> fetch(Integer pRows)
+    {
+        int iRows = pRows.intValue();
+        
+        List<Object[]> liRecords = new ArrayList<Object[]>(iRows);
+        
+        for (int i = 0; i < iRows; i++)
+        {
+            liRecords.add(new Object[] {BigDecimal.valueOf(i), 
+                                        "Customer " + i, 
+                                        "Main Street " + (i % 250), 
+                                        Integer.valueOf(1000 + i % 9000), 
+                                        new Timestamp(1790000000000L + i * 60000L)});
+        }
+        
+        return liRecords;
+    }
+    
+}   // LoadBenchmarkSession
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx;
+
+import io.vertx.core.Vertx;
+
+import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jvx.rad.remote.ConnectionInfo;
+import jvx.rad.remote.IConnectionConstants;
+
+import com.sibvisions.rad.remote.vertx.NetSocketConnection;
+import com.sibvisions.rad.remote.vertx.Pipeline;
+
+/**
+ * The <code>SessionForwardingBenchmark</code> measures the overhead of session-affine forwarding. Two
+ * {@link NetSocketServer}s with enabled session directory share one vert.x instance. The sessions will be
+ * opened on the first server and the calls will be sent directly to the first server and afterwards to the
+ * second server, which forwards them to the owner.
+ * <p>
+ * Parameters: <code>-application</code>, <code>-user</code>, <code>-password</code>,
+ * <code>-connections</code> (parallel clients), <code>-duration</code> (seconds per run),
+ * <code>-warmup</code> (seconds per warm-up run) and <code>-port</code> (the port of the first server, the second server uses the next port).
+ * 
+ * @author agent
+ */
+public final class SessionForwardingBenchmark
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Invisible constructor because <code>SessionForwardingBenchmark</code> is a
+     * standalone application.
+     */
+    private SessionForwardingBenchmark()
+    {
+    }
+    
+    /**
+     * Starts the benchmark.
+     * 
+     * @param pArgs startup arguments
+     * @throws Throwable if the benchmark failed
+     */
+    public static void main(String[] pArgs) throws Throwable
+    {
+        Hashtable<String, String> htParams = Util.parseCommandLineProperties(pArgs);
+        
+        int iPort = Integer.parseInt(getParameter(htParams, "port", "16661"));
+        
+        Vertx vertx = Vertx.vertx();
+        
+        NetSocketServer srvOwner = new NetSocketServer(vertx);
+        srvOwner.setPort(iPort);
+        srvOwner.setSessionDirectoryEnabled(true);
+        srvOwner.start();
+        
+        NetSocketServer srvEntry = new NetSocketServer(vertx);
+        srvEntry.setPort(iPort + 1);
+        srvEntry.setSessionDirectoryEnabled(true);
+        srvEntry.start();
+        
+        Pipeline pipeOwner = new Pipeline(vertx, "localhost", iPort);
+        pipeOwner.open();
+        
+        Pipeline pipeEntry = new Pipeline(vertx, "localhost", iPort + 1);
+        pipeEntry.open();
+        
+        int iConnections = Integer.parseInt(getParameter(htParams, "connections", "8"));
+        
+        NetSocketConnection con = new NetSocketConnection(pipeOwner);
+        
+        ConnectionInfo[] infos = new ConnectionInfo[iConnections];
+        
+        for (int i = 0; i < iConnections; i++)
+        {
+            infos[i] = new ConnectionInfo();
+            infos[i].getProperties().put(IConnectionConstants.APPLICATION, getParameter(htParams, "application", "demo"));
+            infos[i].getProperties().put(IConnectionConstants.USERNAME, getParameter(htParams, "user", "admin"));
+            infos[i].getProperties().put(IConnectionConstants.PASSWORD, getParameter(htParams, "password", "admin"));
+            
+            con.open(infos[i]);
+        }
+        
+        long lDuration = Long.parseLong(getParameter(htParams, "duration", "10")) * 1000;
+        
+        try
+        {
+            //JIT
+            System.out.println("Warm-up:");
+            run(pipeOwner, infos, Long.parseLong(getParameter(htParams, "warmup", "5")) * 1000);
+            run(pipeEntry, infos, Long.parseLong(getParameter(htParams, "warmup", "5")) * 1000);
+            
+            System.out.println("Direct:");
+            run(pipeOwner, infos, lDuration);
+            
+            System.out.println("Forwarded:");
+            run(pipeEntry, infos, lDuration);
+        }
+        finally
+        {
+            for (ConnectionInfo info : infos)
+            {
+                con.close(info);
+            }
+            
+            pipeOwner.close();
+            pipeEntry.close();
+            
+            srvEntry.stop();
+            srvOwner.stop();
+        }
+        
+        System.exit(0);
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Sends calls of all open connections over the given pipeline and prints the results.
+     * 
+     * @param pPipeline the pipeline
+     * @param pInfos the open connections
+     * @param pDuration the duration in milliseconds
+     * @throws Exception if a client failed
+     */
+    private static void run(final Pipeline pPipeline, ConnectionInfo[] pInfos, final long pDuration) throws Exception
+    {
+        final AtomicLong alCalls = new AtomicLong();
+        final AtomicLong alNanos = new AtomicLong();
+        
+        Thread[] clients = new Thread[pInfos.length];
+        
+        final Throwable[] thError = new Throwable[1];
+        
+        for (int i = 0; i < pInfos.length; i++)
+        {
+            final ConnectionInfo info = pInfos[i];
+            
+            clients[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        //one connection per client, because calls of a connection are serialized
+                        NetSocketConnection con = new NetSocketConnection(pPipeline);
+                        
+                        long lEnd = System.currentTimeMillis() + pDuration;
+                        
+                        while (System.currentTimeMillis() < lEnd)
+                        {
+                            long lStart = System.nanoTime();
+                            
+                            con.setAndCheckAlive(info, null);
+                            
+                            alNanos.addAndGet(System.nanoTime() - lStart);
+                            alCalls.incrementAndGet();
+                        }
+                    }
+                    catch (Throwable th)
+                    {
+                        thError[0] = th;
+                    }
+                }
+            }, "SessionForwardingBenchmark-" + i);
+        }
+        
+        for (Thread client : clients)
+        {
+            client.start();
+        }
+        
+        for (Thread client : clients)
+        {
+            client.join();
+        }
+        
+        if (thError[0] != null)
+        {
+            thError[0].printStackTrace();
+        }
+        
+        long lCalls = alCalls.get();
+        
+        System.out.println("  Connections: " + pInfos.length);
+        System.out.println("  Calls:       " + lCalls);
+        System.out.println("  Calls/s:     " + (lCalls * 1000 / pDuration));
+        
+        if (lCalls > 0)
+        {
+            System.out.println("  Avg. (ms):   " + (alNanos.get() / lCalls / 1000000d));
+        }
+    }
+    
+    /**
+     * Gets a parameter or the default value.
+     * 
+     * @param pParams the parameters
+     * @param pName the parameter name
+     * @param pDefault the default value
+     * @return the value
+     */
+    private static String getParameter(Hashtable<String, String> pParams, String pName, String pDefault)
+    {
+        String sValue = pParams.get(pName);
+        
+        if (sValue == null)
+        {
+            return pDefault;
+        }
+        
+        return sValue;
+    }
+    
+}   // SessionForwardingBenchmark
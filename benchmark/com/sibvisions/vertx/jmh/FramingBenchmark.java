@@ -0,0 +1,164 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.jmh;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sibvisions.util.io.MagicByteInputStream;
+import com.sibvisions.util.io.NonClosingInputStream;
+
+/**
+ * The <code>FramingBenchmark</code> measures reading consecutive requests which are framed with magic bytes,
+ * like the JVx server reads requests from a connection. Reading the same bytes without framing is the
+ * baseline.
+ * 
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FramingBenchmark
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the magic bytes of the JVx server. */
+    private static final byte[] MAGIC_BYTES = new byte[] {(byte)0x80, 0x17, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF};
+    
+    /** the number of requests. */
+    private static final int FRAMES = 16;
+    
+    /** the size of a request. */
+    @Param({"256", "65536"})
+    public int frameSize;
+    
+    /** the framed requests. */
+    private byte[] byFramed;
+    
+    /** the requests without framing. */
+    private byte[] byPlain;
+    
+    /** the read buffer. */
+    private byte[] byRead;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates the requests.
+     * 
+     * @throws Exception if creating the requests failed
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        byte[] byPayload = Payload.create(frameSize);
+        
+        ByteArrayOutputStream bosFramed = new ByteArrayOutputStream();
+        ByteArrayOutputStream bosPlain = new ByteArrayOutputStream();
+        
+        for (int i = 0; i < FRAMES; i++)
+        {
+            bosFramed.write(byPayload);
+            bosFramed.write(MAGIC_BYTES);
+            
+            bosPlain.write(byPayload);
+        }
+        
+        byFramed = bosFramed.toByteArray();
+        byPlain = bosPlain.toByteArray();
+        
+        byRead = new byte[frameSize];
+    }
+    
+    /**
+     * Reads the requests with magic byte framing.
+     * 
+     * @return the checksum of the read bytes
+     * @throws IOException if reading failed
+     */
+    @Benchmark
+    public long magicByte() throws IOException
+    {
+        ByteArrayInputStream in = new ByteArrayInputStream(byFramed);
+        
+        long lChecksum = 0;
+        
+        for (int i = 0; i < FRAMES; i++)
+        {
+            MagicByteInputStream stream = new MagicByteInputStream(new NonClosingInputStream(in), MAGIC_BYTES);
+            
+            new DataInputStream(stream).readFully(byRead);
+            
+            //validates the magic bytes
+            stream.close();
+            
+            lChecksum += byRead[0];
+        }
+        
+        return lChecksum;
+    }
+    
+    /**
+     * Reads the requests without framing.
+     * 
+     * @return the checksum of the read bytes
+     * @throws IOException if reading failed
+     */
+    @Benchmark
+    public long plain() throws IOException
+    {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(byPlain));
+        
+        long lChecksum = 0;
+        
+        for (int i = 0; i < FRAMES; i++)
+        {
+            in.readFully(byRead);
+            
+            lChecksum += byRead[0];
+        }
+        
+        return lChecksum;
+    }
+    
+}   // FramingBenchmark
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.jmh;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sibvisions.rad.remote.vertx.io.BufferOutputStream;
+import com.sibvisions.rad.remote.vertx.io.SyncedInputStream;
+
+/**
+ * The <code>GzipBenchmark</code> measures the gzip transfer encoding of JVx requests: compressing into a
+ * {@link BufferOutputStream} and decompressing from a {@link SyncedInputStream}.
+ * 
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GzipBenchmark
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the size of the uncompressed request. */
+    @Param({"1024", "262144"})
+    public int payloadSize;
+    
+    /** the uncompressed request. */
+    private byte[] byPayload;
+    
+    /** the compressed request. */
+    private Buffer bufCompressed;
+    
+    /** the read buffer. */
+    private byte[] byRead = new byte[8192];
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates the request.
+     * 
+     * @throws Exception if creating the request failed
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        byPayload = Payload.create(payloadSize);
+        
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        
+        GZIPOutputStream gzos = new GZIPOutputStream(bos);
+        gzos.write(byPayload);
+        gzos.close();
+        
+        bufCompressed = Buffer.buffer(bos.toByteArray());
+    }
+    
+    /**
+     * Compresses the request into a {@link BufferOutputStream}.
+     * 
+     * @return the written bytes
+     * @throws IOException if compression failed
+     */
+    @Benchmark
+    public long compress() throws IOException
+    {
+        NullWriteStream stream = new NullWriteStream();
+        
+        GZIPOutputStream gzos = new GZIPOutputStream(new BufferOutputStream(stream));
+        gzos.write(byPayload);
+        gzos.close();
+        
+        return stream.getBytes();
+    }
+    
+    /**
+     * Decompresses the request from a {@link SyncedInputStream}.
+     * 
+     * @return the read bytes
+     * @throws IOException if decompression failed
+     */
+    @Benchmark
+    public long decompress() throws IOException
+    {
+        SyncedInputStream stream = new SyncedInputStream();
+        stream.receive(bufCompressed);
+        
+        GZIPInputStream gzis = new GZIPInputStream(stream);
+        
+        long lTotal = 0;
+        
+        while (lTotal < payloadSize)
+        {
+            lTotal += gzis.read(byRead, 0, byRead.length);
+        }
+        
+        return lTotal;
+    }
+    
+}   // GzipBenchmark
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.jmh;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * The <code>NullHttpServerResponse</code> creates {@link HttpServerResponse}s which only count the
+ * written bytes. It replaces the http response, to measure the output streams without network.
+ * 
+ * @author agent
+ */
+final class NullHttpServerResponse implements InvocationHandler
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the written bytes. */
+    private long lBytes;
+    
+    /** whether the response is chunked. */
+    private boolean bChunked;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>NullHttpServerResponse</code>.
+     * 
+     * @param pChunked whether the response is chunked
+     */
+    private NullHttpServerResponse(boolean pChunked)
+    {
+        bChunked = pChunked;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Object invoke(Object pProxy, Method pMethod, Object[] pArgs)
+    {
+        String sName = pMethod.getName();
+        
+        if ("isChunked".equals(sName))
+        {
+            return Boolean.valueOf(bChunked);
+        }
+        
+        if (("write".equals(sName) || "end".equals(sName)) && pArgs != null && pArgs[0] instanceof Buffer)
+        {
+            lBytes += ((Buffer)pArgs[0]).length();
+        }
+        
+        Class<?> clsReturn = pMethod.getReturnType();
+        
+        if (clsReturn == boolean.class)
+        {
+            return Boolean.FALSE;
+        }
+        else if (clsReturn == int.class)
+        {
+            return Integer.valueOf(0);
+        }
+        else if (clsReturn == long.class)
+        {
+            return Long.valueOf(lBytes);
+        }
+        else if (clsReturn.isInstance(pProxy))
+        {
+            return pProxy;
+        }
+        
+        return null;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a response.
+     * 
+     * @param pChunked whether the response is chunked
+     * @return the response
+     */
+    static HttpServerResponse create(boolean pChunked)
+    {
+        return (HttpServerResponse)Proxy.newProxyInstance(NullHttpServerResponse.class.getClassLoader(), 
+                                                          new Class<?>[] {HttpServerResponse.class}, 
+                                                          new NullHttpServerResponse(pChunked));
+    }
+    
+}   // NullHttpServerResponse
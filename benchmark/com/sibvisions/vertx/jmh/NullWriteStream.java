@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.jmh;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * The <code>NullWriteStream</code> is a {@link WriteStream} which only counts the written bytes.
+ * It replaces the socket, to measure the output streams without network.
+ * 
+ * @author agent
+ */
+final class NullWriteStream implements WriteStream<Buffer>
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the written bytes. */
+    private long lBytes;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public NullWriteStream exceptionHandler(Handler<Throwable> pHandler)
+    {
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public NullWriteStream write(Buffer pBuffer)
+    {
+        lBytes += pBuffer.length();
+        
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public NullWriteStream setWriteQueueMaxSize(int pMaxSize)
+    {
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean writeQueueFull()
+    {
+        return false;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public NullWriteStream drainHandler(Handler<Void> pHandler)
+    {
+        return this;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Gets the written bytes.
+     * 
+     * @return the number of bytes
+     */
+    long getBytes()
+    {
+        return lBytes;
+    }
+    
+}   // NullWriteStream
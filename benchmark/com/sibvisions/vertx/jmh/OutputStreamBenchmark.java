@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.jmh;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.http.HttpServerResponse;
+
+import com.sibvisions.rad.remote.vertx.io.BufferOutputStream;
+import com.sibvisions.vertx.io.HttpResponseOutputStream;
+
+/**
+ * The <code>OutputStreamBenchmark</code> measures writing a response to a {@link BufferOutputStream} and
+ * to a {@link HttpResponseOutputStream}, with and without chunked transfer encoding. The write patterns
+ * are single bytes, small and large arrays. The streams write to a socket or response which only counts
+ * the bytes.
+ * 
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OutputStreamBenchmark
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the size of the response. */
+    @Param({"262144"})
+    public int payloadSize;
+    
+    /** the size of a write, <code>1</code> writes single bytes. */
+    @Param({"1", "64", "8192"})
+    public int writeSize;
+    
+    /** the response. */
+    private byte[] byPayload;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates the response.
+     * 
+     * @throws Exception if creating the response failed
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        byPayload = Payload.create(payloadSize);
+    }
+    
+    /**
+     * Writes the response to a {@link BufferOutputStream}, like a NetSocket response.
+     * 
+     * @return the written bytes
+     * @throws IOException if writing failed
+     */
+    @Benchmark
+    public long bufferOutputStream() throws IOException
+    {
+        NullWriteStream stream = new NullWriteStream();
+        
+        write(new BufferOutputStream(stream));
+        
+        return stream.getBytes();
+    }
+    
+    /**
+     * Writes the response to a {@link HttpResponseOutputStream} with chunked transfer encoding.
+     * 
+     * @return the response
+     * @throws IOException if writing failed
+     */
+    @Benchmark
+    public HttpServerResponse httpResponseChunked() throws IOException
+    {
+        HttpServerResponse response = NullHttpServerResponse.create(true);
+        
+        write(new HttpResponseOutputStream(response));
+        
+        return response;
+    }
+    
+    /**
+     * Writes the response to a {@link HttpResponseOutputStream} without chunked transfer encoding,
+     * the response will be sent with close.
+     * 
+     * @return the response
+     * @throws IOException if writing failed
+     */
+    @Benchmark
+    public HttpServerResponse httpResponse() throws IOException
+    {
+        HttpServerResponse response = NullHttpServerResponse.create(false);
+        
+        write(new HttpResponseOutputStream(response));
+        
+        return response;
+    }
+    
+    /**
+     * Writes the response with the write size and closes the stream.
+     * 
+     * @param pStream the stream
+     * @throws IOException if writing failed
+     */
+    private void write(OutputStream pStream) throws IOException
+    {
+        if (writeSize == 1)
+        {
+            for (int i = 0; i < payloadSize; i++)
+            {
+                pStream.write(byPayload[i]);
+            }
+        }
+        else
+        {
+            for (int i = 0; i < payloadSize; i += writeSize)
+            {
+                pStream.write(byPayload, i, Math.min(writeSize, payloadSize - i));
+            }
+        }
+        
+        pStream.close();
+    }
+    
+}   // OutputStreamBenchmark
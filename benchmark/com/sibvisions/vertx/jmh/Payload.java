@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.jmh;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sibvisions.rad.remote.UniversalSerializer;
+
+/**
+ * The <code>Payload</code> creates serialized JVx results for the benchmarks. The content is a
+ * list of records, like a fetch result, which compresses like real transfers.
+ * 
+ * @author agent
+ */
+final class Payload
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Invisible constructor because <code>Payload</code> is a utility class.
+     */
+    private Payload()
+    {
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a serialized result with the given size.
+     * 
+     * @param pSize the size in bytes
+     * @return the serialized result
+     * @throws Exception if serialization failed
+     */
+    static byte[] create(int pSize) throws Exception
+    {
+        byte[] bySample = serialize(100);
+        
+        byte[] byResult = serialize(Math.max(1, (int)((long)pSize * 100 / bySample.length) + 1));
+        
+        byte[] byPayload = new byte[pSize];
+        
+        //repeat the result for small rounding errors
+        for (int i = 0; i < pSize; i += byResult.length)
+        {
+            System.arraycopy(byResult, 0, byPayload, i, Math.min(byResult.length, pSize - i));
+        }
+        
+        return byPayload;
+    }
+    
+    /**
+     * Serializes a list of records.
+     * 
+     * @param pRecords the number of records
+     * @return the serialized list
+     * @throws Exception if serialization failed
+     */
+    private static byte[] serialize(int pRecords) throws Exception
+    {
+        List<Object[]> liRecords = new ArrayList<Object[]>(pRecords);
+        
+        for (int i = 0; i < pRecords; i++)
+        {
+            liRecords.add(new Object[] {BigDecimal.valueOf(i), 
+                                        "Customer " + i, 
+                                        "Main Street " + (i % 250), 
+                                        Integer.valueOf(1000 + i % 9000), 
+                                        new Timestamp(1790000000000L + i * 60000L)});
+        }
+        
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        
+        DataOutputStream dos = new DataOutputStream(bos);
+        
+        new UniversalSerializer().write(dos, liRecords);
+        
+        dos.flush();
+        
+        return bos.toByteArray();
+    }
+    
+}   // Payload
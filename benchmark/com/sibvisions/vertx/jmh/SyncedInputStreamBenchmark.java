@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.jmh;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sibvisions.rad.remote.vertx.io.SyncedInputStream;
+
+/**
+ * The <code>SyncedInputStreamBenchmark</code> measures reading a request from a {@link SyncedInputStream},
+ * which received the request in chunks, like from a socket. The read patterns are single bytes, small and
+ * large arrays and single bytes through a {@link BufferedInputStream}, like the JVx server.
+ * 
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SyncedInputStreamBenchmark
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the size of the request. */
+    @Param({"262144"})
+    public int payloadSize;
+    
+    /** the size of the received chunks. */
+    @Param({"1024", "65536"})
+    public int chunkSize;
+    
+    /** the size of a read, <code>1</code> reads single bytes. */
+    @Param({"1", "64", "8192"})
+    public int readSize;
+    
+    /** the received chunks. */
+    private Buffer[] chunks;
+    
+    /** the read buffer. */
+    private byte[] byRead;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates the request and splits it into chunks.
+     * 
+     * @throws Exception if creating the request failed
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        byte[] byPayload = Payload.create(payloadSize);
+        
+        chunks = new Buffer[(payloadSize + chunkSize - 1) / chunkSize];
+        
+        for (int i = 0; i < chunks.length; i++)
+        {
+            int iOffset = i * chunkSize;
+            
+            chunks[i] = Buffer.buffer().appendBytes(byPayload, iOffset, Math.min(chunkSize, payloadSize - iOffset));
+        }
+        
+        byRead = new byte[readSize];
+    }
+    
+    /**
+     * Receives the chunks and reads the request with the read size.
+     * 
+     * @return the checksum of the read bytes
+     * @throws IOException if reading failed
+     */
+    @Benchmark
+    public long read() throws IOException
+    {
+        return read(receive());
+    }
+    
+    /**
+     * Receives the chunks and reads the request through a {@link BufferedInputStream}
+     * with the read size.
+     * 
+     * @return the checksum of the read bytes
+     * @throws IOException if reading failed
+     */
+    @Benchmark
+    public long readBuffered() throws IOException
+    {
+        return read(new BufferedInputStream(receive()));
+    }
+    
+    /**
+     * Creates a stream and receives all chunks.
+     * 
+     * @return the stream
+     */
+    private SyncedInputStream receive()
+    {
+        SyncedInputStream stream = new SyncedInputStream();
+        
+        for (int i = 0; i < chunks.length; i++)
+        {
+            stream.receive(chunks[i]);
+        }
+        
+        return stream;
+    }
+    
+    /**
+     * Reads the request from a stream.
+     * 
+     * @param pStream the stream
+     * @return the checksum of the read bytes
+     * @throws IOException if reading failed
+     */
+    private long read(InputStream pStream) throws IOException
+    {
+        long lChecksum = 0;
+        
+        int iTotal = 0;
+        
+        if (readSize == 1)
+        {
+            for (; iTotal < payloadSize; iTotal++)
+            {
+                lChecksum += pStream.read();
+            }
+        }
+        else
+        {
+            while (iTotal < payloadSize)
+            {
+                int iLength = pStream.read(byRead, 0, Math.min(readSize, payloadSize - iTotal));
+                
+                lChecksum += byRead[0];
+                
+                iTotal += iLength;
+            }
+        }
+        
+        return lChecksum;
+    }
+    
+}   // SyncedInputStreamBenchmark
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.rad.remote.vertx;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import jvx.rad.remote.ConnectionInfo;
+
+import com.sibvisions.rad.remote.AbstractSerializedConnection;
+import com.sibvisions.rad.remote.ISerializer;
+
+/**
+ * The <code>EventBusConnection</code> is an {@link jvx.rad.remote.IConnection} that sends serialized
+ * requests over the vert.x event bus to an {@link com.sibvisions.vertx.EventBusServer}.
+ * <p>
+ * The first request of a connection will be sent to the shared address, so every clustered node which
+ * consumes the address may open the session. The reply contains the address of the node and all further
+ * requests of the connection (and its sub connections) will be sent to this node, because the session only
+ * exists there.
+ * 
+ * @author agent
+ */
+public class EventBusConnection extends AbstractSerializedConnection
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the default shared address. */
+    public static final String DEFAULT_ADDRESS = "jvx.server";
+    
+    /** the reply header with the node address. */
+    public static final String HEADER_NODE = "jvx.node";
+    
+    /** the vert.x instance. */
+    private Vertx vertx;
+    
+    /** the node addresses of the open connections. */
+    private Map<ConnectionInfo, String> mpNodes = new Hashtable<ConnectionInfo, String>();
+    
+    /** the current request. */
+    private ByteArrayOutputStream baosRequest;
+    
+    /** the shared address. */
+    private String sAddress;
+    
+    /** the timeout for a reply. */
+    private long lTimeout = 30000;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>EventBusConnection</code> that uses the
+     * default address.
+     * 
+     * @param pVertx the vert.x instance or <code>null</code> to create a new (standalone) instance
+     */
+    public EventBusConnection(Vertx pVertx)
+    {
+        this(pVertx, DEFAULT_ADDRESS);
+    }
+    
+    /**
+     * Creates a new instance of <code>EventBusConnection</code> that uses the
+     * given address.
+     * 
+     * @param pVertx the vert.x instance or <code>null</code> to create a new (standalone) instance
+     * @param pAddress the shared address of the servers
+     */
+    public EventBusConnection(Vertx pVertx, String pAddress)
+    {
+        super((ISerializer)null);
+        
+        if (pVertx == null)
+        {
+            vertx = Vertx.vertx();
+        }
+        else
+        {
+            vertx = pVertx;
+        }
+        
+        sAddress = pAddress;
+        
+        setRetryCount(0);
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Overwritten methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void open(ConnectionInfo pConnectionInfo) throws Throwable
+    {
+        try
+        {
+            super.open(pConnectionInfo);
+        }
+        catch (Throwable th)
+        {
+            mpNodes.remove(pConnectionInfo);
+            
+            throw th;
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void openSub(ConnectionInfo pConnectionInfo, ConnectionInfo pSubConnectionInfo) throws Throwable
+    {
+        //the sub connection needs the session of the master connection
+        String sNode = mpNodes.get(pConnectionInfo);
+        
+        if (sNode != null)
+        {
+            mpNodes.put(pSubConnectionInfo, sNode);
+        }
+        
+        try
+        {
+            super.openSub(pConnectionInfo, pSubConnectionInfo);
+        }
+        catch (Throwable th)
+        {
+            mpNodes.remove(pSubConnectionInfo);
+            
+            throw th;
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close(ConnectionInfo pConnectionInfo) throws Throwable
+    {
+        try
+        {
+            super.close(pConnectionInfo);
+        }
+        finally
+        {
+            mpNodes.remove(pConnectionInfo);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OutputStream getOutputStream(ConnectionInfo pConnectionInfo) throws Throwable
+    {
+        baosRequest = new ByteArrayOutputStream();
+        
+        return baosRequest;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream getInputStream(ConnectionInfo pConnectionInfo) throws Throwable
+    {
+        //the request was written completely
+        String sNode = mpNodes.get(pConnectionInfo);
+        
+        final CompletableFuture<Message<Buffer>> future = new CompletableFuture<Message<Buffer>>();
+        
+        DeliveryOptions options = new DeliveryOptions();
+        options.setSendTimeout(lTimeout);
+        
+        vertx.eventBus().send(sNode == null ? sAddress : sNode, Buffer.buffer(baosRequest.toByteArray()), options,
+                              new Handler<AsyncResult<Message<Buffer>>>()
+        {
+            public void handle(AsyncResult<Message<Buffer>> pResult)
+            {
+                if (pResult.succeeded())
+                {
+                    future.complete(pResult.result());
+                }
+                else
+                {
+                    future.completeExceptionally(pResult.cause());
+                }
+            }
+        });
+        
+        Message<Buffer> reply;
+        
+        try
+        {
+            reply = future.get();
+        }
+        catch (InterruptedException ie)
+        {
+            throw new InterruptedIOException("Request interrupted!");
+        }
+        catch (ExecutionException ee)
+        {
+            throw new IOException(ee.getCause().getMessage(), ee.getCause());
+        }
+        
+        if (sNode == null)
+        {
+            String sReplyNode = reply.headers().get(HEADER_NODE);
+            
+            if (sReplyNode != null)
+            {
+                mpNodes.put(pConnectionInfo, sReplyNode);
+            }
+        }
+        
+        return new ByteArrayInputStream(reply.body().getBytes());
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Throwable prepareException(Throwable pThrowable)
+    {
+        return fillInStackTrace(pThrowable);
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Gets the current Vertx instance.
+     * 
+     * @return the instance
+     */
+    public Vertx getVertx()
+    {
+        return vertx;
+    }
+    
+    /**
+     * Gets the shared address of the servers.
+     * 
+     * @return the address
+     */
+    public String getAddress()
+    {
+        return sAddress;
+    }
+    
+    /**
+     * Gets the address of the node which handles the connection.
+     * 
+     * @param pConnectionInfo the connection information
+     * @return the node address or <code>null</code> if the connection isn't open
+     */
+    public String getNodeAddress(ConnectionInfo pConnectionInfo)
+    {
+        return mpNodes.get(pConnectionInfo);
+    }
+    
+    /**
+     * Sets the timeout for a reply. A call which takes longer will fail.
+     * 
+     * @param pTimeout the timeout in milliseconds
+     */
+    public void setTimeout(long pTimeout)
+    {
+        lTimeout = pTimeout;
+    }
+    
+    /**
+     * Gets the timeout for a reply.
+     * 
+     * @return the timeout in milliseconds
+     */
+    public long getTimeout()
+    {
+        return lTimeout;
+    }
+    
+}   // EventBusConnection
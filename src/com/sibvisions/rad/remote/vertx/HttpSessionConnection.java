@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.rad.remote.vertx;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import jvx.rad.remote.ConnectionInfo;
+
+import com.sibvisions.rad.remote.ISerializer;
+import com.sibvisions.rad.remote.http.HttpConnection;
+import com.sibvisions.vertx.cluster.SessionDirectory;
+
+/**
+ * The <code>HttpSessionConnection</code> is a {@link HttpConnection} that sends the session of every call
+ * with the {@link SessionDirectory#HEADER_SESSION} header to a {@link com.sibvisions.vertx.HttpServer}. The 
+ * server needs the session before it reads the request: calls are admitted per session and by the admission 
+ * control of the application of the session, and a clustered server forwards calls to the node of the session.
+ * The open call has no session, so it's sent without header.
+ * 
+ * @author agent
+ */
+public class HttpSessionConnection extends HttpConnection
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the client property of the session header, the {@link HttpConnection} sends client.http. properties as headers. */
+    private static final String PROP_HEADER_SESSION = "client.http." + SessionDirectory.HEADER_SESSION;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>HttpSessionConnection</code> with connection properties.
+     * 
+     * @param pProperties the connection properties, e.g. {@link HttpConnection#PROP_SERVICE}
+     * @throws MalformedURLException if the service URL is invalid
+     * @throws NoSuchAlgorithmException if self-signed certificates aren't supported
+     * @throws KeyManagementException if self-signed certificates aren't supported
+     * @throws ClassNotFoundException if the serializer wasn't found
+     */
+    public HttpSessionConnection(Properties pProperties) throws MalformedURLException, 
+                                                                NoSuchAlgorithmException, 
+                                                                KeyManagementException, 
+                                                                ClassNotFoundException
+    {
+        super(pProperties);
+    }
+    
+    /**
+     * Creates a new instance of <code>HttpSessionConnection</code> with the default serializer.
+     * 
+     * @param pServletURL the service URL of the server
+     * @throws MalformedURLException if the service URL is invalid
+     * @throws NoSuchAlgorithmException if self-signed certificates aren't supported
+     * @throws KeyManagementException if self-signed certificates aren't supported
+     */
+    public HttpSessionConnection(String pServletURL) throws MalformedURLException, 
+                                                            NoSuchAlgorithmException, 
+                                                            KeyManagementException
+    {
+        super(pServletURL);
+    }
+    
+    /**
+     * Creates a new instance of <code>HttpSessionConnection</code>.
+     * 
+     * @param pSerializer the serializer
+     * @param pServletURL the service URL of the server
+     * @throws MalformedURLException if the service URL is invalid
+     * @throws NoSuchAlgorithmException if self-signed certificates aren't supported
+     * @throws KeyManagementException if self-signed certificates aren't supported
+     */
+    public HttpSessionConnection(ISerializer pSerializer, String pServletURL) throws MalformedURLException, 
+                                                                                     NoSuchAlgorithmException, 
+                                                                                     KeyManagementException
+    {
+        super(pSerializer, pServletURL);
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Overwritten methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OutputStream getOutputStream(ConnectionInfo pConnectionInfo) throws IOException
+    {
+        Object oConId = pConnectionInfo.getConnectionId();
+        
+        //the header isn't a property change for the server
+        if (oConId == null)
+        {
+            pConnectionInfo.getProperties().remove(PROP_HEADER_SESSION, false, false);
+        }
+        else
+        {
+            pConnectionInfo.getProperties().put(PROP_HEADER_SESSION, oConId.toString(), false, false);
+        }
+        
+        return super.getOutputStream(pConnectionInfo);
+    }
+    
+}   // HttpSessionConnection
@@ -18,10 +18,28 @@
  *
  * 29.12.2012 - [JR] - creation
  * 24.01.2012 - [JR] - close "old" socket otherwise events from old sockets will call notify()
+ * 19.10.2026 - [agent] - segmented uploads (parallel transfer connections)
+ * 19.10.2026 - [agent] - resumable uploads
+ * 19.10.2026 - [agent] - asynchronous API (open, call, upload, download)
+ * 19.10.2026 - [agent] - pipelined communication
+ * 19.10.2026 - [agent] - one socket and client for all connections (master and sub connections)
+ * 19.10.2026 - [agent] - session of segmented uploads
+ * 19.10.2026 - [agent] - busy response of the admission control
+ * 19.10.2026 - [agent] - call timeout (deadline)
+ * 19.10.2026 - [agent] - cancel calls
+ * 19.10.2026 - [agent] - busy response for transfers
+ * 19.10.2026 - [agent] - session of downloads
+ * 19.10.2026 - [agent] - one transfer connection per segment writer, connect of transfers with a future
+ * 19.10.2026 - [agent] - request, response stream and deadline per call
+ * 19.10.2026 - [agent] - busy response before the server closes the connection
+ * 19.10.2026 - [agent] - reconnect after an interrupted call
+ * 19.10.2026 - [agent] - write operations of transfers on the context of the socket
  */
 package com.sibvisions.rad.remote.vertx;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
@@ -29,13 +47,31 @@ import io.vertx.core.net.NetClient;
 import io.vertx.core.net.NetClientOptions;
 import io.vertx.core.net.NetSocket;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -45,6 +81,7 @@ import jvx.rad.io.IUploadExecutor;
 import jvx.rad.io.RemoteFileHandle;
 import jvx.rad.io.TransferContext;
 import jvx.rad.remote.ConnectionInfo;
+import jvx.rad.remote.event.ICallBackListener;
 
 import com.sibvisions.rad.remote.AbstractSerializedConnection;
 import com.sibvisions.rad.remote.ISerializer;
@@ -53,11 +90,34 @@ import com.sibvisions.rad.remote.vertx.io.SyncedInputStream;
 import com.sibvisions.util.io.MagicByteInputStream;
 import com.sibvisions.util.io.NonClosingInputStream;
 import com.sibvisions.util.log.LoggerFactory;
+import com.sibvisions.util.type.CommonUtil;
 import com.sibvisions.util.type.FileUtil;
 
 /**
  * The <code>NetSocketConnection</code> is an {@link jvx.rad.remote.IConnection} that uses a {@link NetSocket} for
  * the communication to a {@link io.vertx.core.net.NetServer}.
+ * <p>
+ * All connections which are opened with the same instance, e.g. sub connections, share one communication socket.
+ * The socket will be closed after the last connection was closed and a lost socket will be reconnected with
+ * the next request.
+ * <p>
+ * Beside the blocking {@link jvx.rad.remote.IConnection} API, the connection offers an asynchronous API, e.g. 
+ * {@link #openAsync(ConnectionInfo)} or {@link #callAsync(ConnectionInfo, String[], String[], Object[][], ICallBackListener[])}.
+ * The asynchronous methods never block the calling thread, so they can be used from an event-loop. The connect
+ * will be completed by the socket handler. The serialization is blocking, so it runs ordered on a worker thread 
+ * of vert.x and the returned futures will be completed on the context of the connection. Dependent actions
+ * shouldn't block.
+ * <p>
+ * A connection which was created with a {@link Pipeline} doesn't use its own communication socket. All
+ * connections with the same pipeline share one socket and their requests will be sent without waiting 
+ * for the responses of other connections.
+ * <p>
+ * If the server rejects a call because it is busy, the call throws a {@link ServerBusyException} and
+ * can be retried later. The communication socket will be reconnected with the next request.
+ * <p>
+ * With a call timeout, the server gets the deadline of every call and drops calls which waited too long.
+ * The connection stops waiting for the response when the deadline passed. Calls in progress can be 
+ * cancelled with {@link #cancel()}.
  * 
  * @author Ren Jahn
  */
@@ -72,6 +132,8 @@ public class NetSocketConnection extends AbstractSerializedConnection
 
     /** the communication identifier. */
     public static final byte STREAM_COMMUNICATION = 0x43;
+    /** the pipelined communication identifier. */
+    public static final byte STREAM_PIPELINE = 0x50;
     /** the download identifier. */
     public static final byte STREAM_DOWNLOAD = 0x44;
     /** the data download identifier. */
@@ -80,6 +142,18 @@ public class NetSocketConnection extends AbstractSerializedConnection
     public static final byte DOWNLOAD_LENGTH = 0x4C;
     /** the download identifier. */
     public static final byte STREAM_UPLOAD = 0x55;
+    /** the segmented upload identifier. */
+    public static final byte STREAM_UPLOAD_SEGMENT = 0x53;
+    /** the segmented upload open identifier. */
+    public static final byte SEGMENT_OPEN = 0x4F;
+    /** the segment data identifier. */
+    public static final byte SEGMENT_DATA = 0x44;
+    /** the segmented upload status identifier. */
+    public static final byte SEGMENT_STATUS = 0x53;
+    /** the busy response identifier, followed by the retry time in milliseconds (int). */
+    public static final byte RESPONSE_BUSY = 0x52;
+    /** the call deadline identifier, followed by the timeout in milliseconds (int) and the request. */
+    public static final byte CALL_DEADLINE = 0x54;
     
     /** the magic byte sequence. */
     public static final byte[] MAGIC_BYTES = new byte[] {(byte)0xA0, (byte)0x19, (byte)0xAA, (byte)0xFF, (byte)0xEE, (byte)0xAA};
@@ -91,29 +165,56 @@ public class NetSocketConnection extends AbstractSerializedConnection
 	/** the client. */
 	private NetClient client;
 	
-    /** the transfer client. */
-    private NetClient clientTransfer;
-
     /** the established socket connection. */
 	private NetSocket socket;
-
-	/** the transfer socket. */
-	private NetSocket socketTransfer;
 	
+    /** the context of the socket connection. */
+    private Context ctxSocket;
+    
+    /** the connect of the socket connection. */
+    private CompletableFuture<NetSocket> cfSocket;
+    
+    /** the context for ordered execution of asynchronous requests. */
+    private Context ctxAsync;
+    
+    /** the shared communication socket. */
+    private Pipeline pipeline;
+    
+    /** the call of the current thread. */
+    private ThreadLocal<Call> tlCall = new ThreadLocal<Call>();
+    
+    /** the calls in progress. */
+    private Set<Call> stCalls = Collections.newSetFromMap(new ConcurrentHashMap<Call, Boolean>());
+
+    /** the pool for parallel segment uploads. */
+    private ForkJoinPool fjpUpload;
+    
 	/** the server hostname or ip. */
 	private String sHost;
 
-    /** the initial connection id for closing the net client. */
-    private Object oInitialConId = null;
+    /** the open connections (master and sub connections) which use the socket. */
+    private List<ConnectionInfo> liConnections = new ArrayList<ConnectionInfo>();
 	
 	/** the input stream. */
 	private SyncedInputStream inputStream;
 	
-    /** the transfer input stream. */
-    private SyncedInputStream isTransfer;
-
     /** the server port. */
     private int iPort = 8888;
+    
+    /** the size of one upload segment. */
+    private int iSegmentSize = 4 * 1024 * 1024;
+    
+    /** the number of parallel segment transfers. */
+    private int iUploadParallelism = 1;
+    
+    /** the number of attempts to resume an interrupted upload. */
+    private int iUploadRetryCount = 3;
+    
+    /** the timeout of a call in milliseconds. */
+    private long lCallTimeout = -1;
+    
+    /** whether uploads are resumable. */
+    private boolean bResumableUpload = false;
 
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 	// Initialization
@@ -174,6 +275,19 @@ public class NetSocketConnection extends AbstractSerializedConnection
 		setRetryCount(0);
 	}
 	
+    /**
+     * Creates a new instance of <code>NetSocketConnection</code> that uses a shared
+     * communication socket. The pipeline won't be closed by the connection.
+     * 
+     * @param pPipeline the pipeline
+     */
+    public NetSocketConnection(Pipeline pPipeline)
+    {
+        this(pPipeline.getVertx(), pPipeline.getHost(), pPipeline.getPort());
+        
+        pipeline = pPipeline;
+    }
+	
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Interface implementation
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -221,11 +335,18 @@ public class NetSocketConnection extends AbstractSerializedConnection
      */
     public RemoteFileHandle writeContent(IFileHandle pFileHandle) throws IOException
     {
-        openTransfer();
+        long lLength = pFileHandle.getLength();
+        
+        if (bResumableUpload || (iUploadParallelism > 1 && lLength > iSegmentSize))
+        {
+            return writeSegments(pFileHandle, lLength);
+        }
+        
+        Transfer transfer = openTransfer();
     
-        socketTransfer.write(Buffer.buffer(new byte[] {STREAM_UPLOAD}));
+        transfer.write(STREAM_UPLOAD);
             
-        BufferOutputStream bos = new BufferOutputStream(socketTransfer);
+        BufferOutputStream bos = new BufferOutputStream(transfer.socket, transfer.context);
             
         try
         {
@@ -234,7 +355,7 @@ public class NetSocketConnection extends AbstractSerializedConnection
             GZIPOutputStream gzos = new GZIPOutputStream(bos);
 
             DataOutputStream dos = new DataOutputStream(gzos);
-            dos.writeLong(pFileHandle.getLength());
+            dos.writeLong(lLength);
             
             FileUtil.copy(pFileHandle.getInputStream(), true, gzos, false);
 
@@ -245,7 +366,7 @@ public class NetSocketConnection extends AbstractSerializedConnection
             
             // RESPONSE
 
-            MagicByteInputStream mbis = new MagicByteInputStream(new NonClosingInputStream(isTransfer), MAGIC_BYTES);
+            MagicByteInputStream mbis = new MagicByteInputStream(new NonClosingInputStream(checkBusy(transfer.input, false)), MAGIC_BYTES);
             
             GZIPInputStream gzis = new GZIPInputStream(mbis);
             
@@ -270,7 +391,7 @@ public class NetSocketConnection extends AbstractSerializedConnection
         }
         finally
         {
-            closeTransfer();
+            transfer.close();
         }
     }
 	
@@ -284,6 +405,11 @@ public class NetSocketConnection extends AbstractSerializedConnection
     @Override
     protected Object initCall(ConnectionInfo pConnectionInfo)
     {
+        Call call = new Call();
+        
+        tlCall.set(call);
+        stCalls.add(call);
+        
         return new TransferContext(pConnectionInfo, this, this);
     }
     
@@ -293,6 +419,15 @@ public class NetSocketConnection extends AbstractSerializedConnection
     @Override
     protected void releaseCall(ConnectionInfo pConnectionInfo, Object pInit)
     {
+        Call call = tlCall.get();
+        
+        if (call != null)
+        {
+            stCalls.remove(call);
+            
+            tlCall.remove();
+        }
+        
         ((TransferContext)pInit).release();
     }    
     
@@ -302,95 +437,28 @@ public class NetSocketConnection extends AbstractSerializedConnection
 	@Override
 	public void open(ConnectionInfo pConnectionInfo) throws Throwable
 	{
-		closeSocket();
-		
-        NetClientOptions options = new NetClientOptions();
-        options.setReconnectAttempts(3);
-        options.setConnectTimeout(5000);
-        options.setReconnectInterval(1000);
-        
-        client = vertx.createNetClient(options);
-		client.connect(iPort, sHost, new Handler<AsyncResult<NetSocket>>()
-		{
-			public void handle(final AsyncResult<NetSocket> pCommunication)
-			{
-			    NetSocket sock = pCommunication.result();
-			    
-			    if (sock != null)
-			    {
-    			    sock.handler(new Handler<Buffer>()
-    				{
-    					public void handle(Buffer pBuffer)
-    					{
-                            if (inputStream != null)
-                            {
-                                inputStream.receive(pBuffer);
-                            }
-    					}
-    				});
-    
-    				sock.exceptionHandler(new Handler<Throwable>()
-    				{
-    					public void handle(Throwable pException)
-    					{
-                            if (inputStream != null)
-                            {
-                                inputStream.finish();
-                            }
-    					}
-    				});
-    				
-    				sock.endHandler(new Handler<Void>()
-    				{
-    					public void handle(Void pParam)
-    					{
-    					    if (inputStream != null)
-    					    {
-    					        inputStream.finish();
-    					    }
-    					}
-    				});
-			    }
-
-			    synchronized (NetSocketConnection.this)
-				{
-			        if (pCommunication.succeeded())
-			        {
-			            socket = sock;
-			        }
-			        else
-			        {
-			            LoggerFactory.getInstance(NetSocketConnection.class).error(pCommunication.cause());
-
-	                    socket = null;
-			        }
-
-	                NetSocketConnection.this.notify();
-				}
-			}
-		});
-		
-		synchronized (this)
-		{
-		    if (socket == null)
-		    {
-		        wait(15000);
-		    }
-		}
-        
-		if (socket == null)
-		{
-			throw new ConnectException("Can't establish connection!"); 
-		}
-
-		socket.write(Buffer.buffer(new byte[] {STREAM_COMMUNICATION}));
-		
-		super.open(pConnectionInfo);
-		
-        if (oInitialConId == null)
-        {
-            oInitialConId = pConnectionInfo.getConnectionId();
-        }
+	    if (pipeline != null)
+	    {
+	        pipeline.open();
+	        
+	        openCommunication(pConnectionInfo);
+	        
+	        return;
+	    }
+	    
+	    //an open socket will be reused, e.g. for sub connections
+	    openSocket();
+	    
+	    try
+	    {
+	        openCommunication(pConnectionInfo);
+	    }
+	    catch (Throwable th)
+	    {
+	        releaseSocket();
+	        
+	        throw th;
+	    }
 	}
 
 	/**
@@ -399,22 +467,20 @@ public class NetSocketConnection extends AbstractSerializedConnection
 	@Override
 	public void close(ConnectionInfo pConnectionInfo) throws Throwable
 	{
-        //be sure to close the client not too early
-        boolean bCloseClient = pConnectionInfo.getConnectionId() == oInitialConId;
-
-        super.close(pConnectionInfo);
-		
-		if (bCloseClient)
-		{
-    		closeTransfer();
-    		
-            closeSocket();
-
-            if (client != null)
-            {
-                client.close();
-            }
-		}
+	    try
+	    {
+	        super.close(pConnectionInfo);
+	    }
+	    finally
+	    {
+	        synchronized (this)
+	        {
+	            liConnections.remove(pConnectionInfo);
+	        }
+	        
+	        //be sure to close the client not too early
+	        releaseSocket();
+	    }
 	}
 	
 	/**
@@ -423,14 +489,48 @@ public class NetSocketConnection extends AbstractSerializedConnection
 	@Override
 	public OutputStream getOutputStream(ConnectionInfo pConnectionInfo) throws Throwable
 	{
+	    Call call = getCall();
+	    
+	    call.lDeadline = lCallTimeout >= 0 ? System.currentTimeMillis() + lCallTimeout : -1;
+	    
+	    if (pipeline != null)
+	    {
+	        call.request = new ByteArrayOutputStream();
+	        
+	        writeDeadline(call.request);
+	        
+	        return call.request;
+	    }
+	    
+	    //the response of an expired or interrupted call could still arrive
+	    if (inputStream != null && (inputStream.isExpired() || inputStream.isInterrupted()))
+	    {
+	        closeSocket();
+	    }
+	    
+	    //reconnect if the socket was lost
+	    NetSocket sock = openSocket();
+	    
 	    if (inputStream != null)
 	    {
 	        inputStream.close();
 	    }
 	    
         inputStream = new SyncedInputStream();
+        inputStream.setDeadline(call.lDeadline);
 
-        return new BufferOutputStream(socket);
+        Context ctx;
+        
+        synchronized (this)
+        {
+            ctx = ctxSocket;
+        }
+        
+        OutputStream os = new BufferOutputStream(sock, ctx);
+        
+        writeDeadline(os);
+        
+        return os;
 	}
 
 	/**
@@ -439,7 +539,30 @@ public class NetSocketConnection extends AbstractSerializedConnection
 	@Override
 	public InputStream getInputStream(ConnectionInfo pConnectionInfo) throws Throwable
 	{
-	    return inputStream;
+	    if (pipeline != null)
+	    {
+	        Call call = getCall();
+	        
+	        //the request was written completely
+	        Object oConId = pConnectionInfo.getConnectionId();
+	        
+	        SyncedInputStream stream = pipeline.send(oConId == null ? "" : oConId.toString(), call.request.toByteArray());
+	        stream.setDeadline(call.lDeadline);
+	        
+	        call.request = null;
+	        call.response = stream;
+	        
+	        return checkBusy(stream, false);
+	    }
+	    
+	    SyncedInputStream stream = inputStream;
+	    
+	    if (stream == null)
+	    {
+	        throw new IOException("Connection lost!");
+	    }
+	    
+	    return checkBusy(stream, true);
 	}
 	
     /**
@@ -455,142 +578,908 @@ public class NetSocketConnection extends AbstractSerializedConnection
 	// User-defined methods
 	//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~	
 
-	/**
-	 * Close the "old" socket.
-	 */
-	private void closeSocket()
-	{
-		if (socket != null)
-		{
-		    inputStream.finish();
-            inputStream = null;
-
-            socket.exceptionHandler(null);
-            socket.endHandler(null);
-			socket.handler(null);
-			
-			socket.close();
-			socket = null;
-		}
-	}
-	
-	/**
-	 * Closes the transfer client.
-	 */
-	private void closeTransfer()
-	{
-	    if (socketTransfer != null)
-	    {
-            isTransfer.finish();
-            isTransfer = null;
-            
-            socketTransfer.endHandler(null);
-            socketTransfer.exceptionHandler(null);
-            socketTransfer.handler(null);
-            
-            socketTransfer.close();
-            socketTransfer = null;
-            
-            clientTransfer.close();
-	    }
-	}
-	
-	/**
-	 * Opens a new transfer client.
-	 * 
-	 * @throws IOException if opening failed
-	 */
-	private void openTransfer() throws IOException
-	{
-	    closeTransfer();
-	    
-        if (socketTransfer != null)
+    /**
+     * Opens the connection asynchronously.
+     * 
+     * @param pConnectionInfo the connection information
+     * @return the future which will be completed after the connection was opened
+     * @see #open(ConnectionInfo)
+     */
+    public CompletableFuture<Void> openAsync(final ConnectionInfo pConnectionInfo)
+    {
+        if (pipeline != null)
         {
-            socketTransfer.close();
-            socketTransfer = null;
+            return execute(new Callable<Void>()
+            {
+                public Void call() throws Exception
+                {
+                    try
+                    {
+                        open(pConnectionInfo);
+                    }
+                    catch (Exception e)
+                    {
+                        throw e;
+                    }
+                    catch (Throwable th)
+                    {
+                        throw new ExecutionException(th);
+                    }
+                    
+                    return null;
+                }
+            });
         }
         
-        NetClientOptions options = new NetClientOptions();
-        options.setReconnectAttempts(3);
-        options.setReconnectInterval(1000);
-        
-        clientTransfer = vertx.createNetClient(options);
-        
-        isTransfer = new SyncedInputStream();
-        
-        clientTransfer.connect(iPort, sHost, new Handler<AsyncResult<NetSocket>>()
+        return getSocket().thenCompose(new Function<NetSocket, CompletableFuture<Void>>()
         {
-            public void handle(AsyncResult<NetSocket> pCommunication)
+            public CompletableFuture<Void> apply(NetSocket pSocket)
             {
-                NetSocket sock = pCommunication.result();
-                
-                if (sock != null)
+                return execute(new Callable<Void>()
                 {
-                    sock.handler(new Handler<Buffer>()
+                    public Void call() throws Exception
                     {
-                        public void handle(Buffer pBuffer)
+                        try
                         {
-                            if (isTransfer != null)
-                            {
-                                isTransfer.receive(pBuffer);
-                            }
+                            openCommunication(pConnectionInfo);
                         }
-                    });
-    
-                    sock.exceptionHandler(new Handler<Throwable>()
-                    {
-                        public void handle(Throwable pException)
+                        catch (Exception e)
                         {
-                            if (isTransfer != null)
-                            {
-                                isTransfer.finish();
-                            }
+                            releaseSocket();
+                            
+                            throw e;
                         }
-                    });
-                    
-                    sock.endHandler(new Handler<Void>()
-                    {
-                        public void handle(Void pParam)
+                        catch (Throwable th)
                         {
-                            if (isTransfer != null)
-                            {
-                                isTransfer.finish();
-                            }
+                            releaseSocket();
+                            
+                            throw new ExecutionException(th);
                         }
-                
-                    });
+                        
+                        return null;
+                    }
+                });
+            }
+        });
+    }
+    
+    /**
+     * Closes the connection asynchronously.
+     * 
+     * @param pConnectionInfo the connection information
+     * @return the future which will be completed after the connection was closed
+     * @see #close(ConnectionInfo)
+     */
+    public CompletableFuture<Void> closeAsync(final ConnectionInfo pConnectionInfo)
+    {
+        return execute(new Callable<Void>()
+        {
+            public Void call() throws Exception
+            {
+                try
+                {
+                    close(pConnectionInfo);
                 }
-                
-                synchronized (clientTransfer)
+                catch (Exception e)
                 {
-                    socketTransfer = sock;
-
-                    clientTransfer.notify();
+                    throw e;
+                }
+                catch (Throwable th)
+                {
+                    throw new ExecutionException(th);
                 }
+                
+                return null;
             }
         });
-        
-        try
+    }
+    
+    /**
+     * Calls remote methods asynchronously.
+     * 
+     * @param pConnectionInfo the connection information
+     * @param pObjectName the object names
+     * @param pMethod the method names
+     * @param pParams the method parameters
+     * @param pCallBack the callback listeners
+     * @return the future for the results of the calls
+     * @see #call(ConnectionInfo, String[], String[], Object[][], ICallBackListener[])
+     */
+    public CompletableFuture<Object[]> callAsync(final ConnectionInfo pConnectionInfo, 
+                                                 final String[] pObjectName, 
+                                                 final String[] pMethod, 
+                                                 final Object[][] pParams, 
+                                                 final ICallBackListener[] pCallBack)
+    {
+        return execute(new Callable<Object[]>()
         {
-            synchronized (clientTransfer)
+            public Object[] call() throws Exception
             {
-                if (socketTransfer == null)
+                try
+                {
+                    return NetSocketConnection.this.call(pConnectionInfo, pObjectName, pMethod, pParams, pCallBack);
+                }
+                catch (Exception e)
                 {
-                    clientTransfer.wait(15000);
+                    throw e;
+                }
+                catch (Throwable th)
+                {
+                    throw new ExecutionException(th);
                 }
             }
-        }
-        catch (InterruptedException ie)
-        {
-            throw new IOException(ie);
-        }
-        
-        if (socketTransfer == null)
+        });
+    }
+    
+    /**
+     * Uploads content asynchronously.
+     * 
+     * @param pFileHandle the content
+     * @return the future for the remote file handle
+     * @see #writeContent(IFileHandle)
+     */
+    public CompletableFuture<RemoteFileHandle> writeContentAsync(final IFileHandle pFileHandle)
+    {
+        return execute(new Callable<RemoteFileHandle>()
         {
-            throw new ConnectException("Can't establish transfer connection!"); 
-        }
-	}
+            public RemoteFileHandle call() throws Exception
+            {
+                return writeContent(pFileHandle);
+            }
+        });
+    }
+    
+    /**
+     * Starts a download asynchronously. The future will be completed if the download
+     * was started. Reading the content stream blocks until data is available.
+     * 
+     * @param pFileHandle the remote file handle
+     * @return the future for the content stream
+     * @see #readContent(RemoteFileHandle)
+     */
+    public CompletableFuture<InputStream> readContentAsync(final RemoteFileHandle pFileHandle)
+    {
+        return execute(new Callable<InputStream>()
+        {
+            public InputStream call() throws Exception
+            {
+                return readContent(pFileHandle);
+            }
+        });
+    }
+    
+    /**
+     * Connects the communication socket. The future will be completed by the connect handler.
+     * 
+     * @return the future for the connected socket
+     */
+    private CompletableFuture<NetSocket> connect()
+    {
+        final CompletableFuture<NetSocket> future = new CompletableFuture<NetSocket>();
+        
+		getClient().connect(iPort, sHost, new Handler<AsyncResult<NetSocket>>()
+		{
+			public void handle(final AsyncResult<NetSocket> pCommunication)
+			{
+			    final NetSocket sock = pCommunication.result();
+			    
+			    if (sock != null)
+			    {
+    			    sock.handler(new Handler<Buffer>()
+    				{
+    					public void handle(Buffer pBuffer)
+    					{
+                            if (inputStream != null)
+                            {
+                                inputStream.receive(pBuffer);
+                            }
+    					}
+    				});
+    
+    				sock.exceptionHandler(new Handler<Throwable>()
+    				{
+    					public void handle(Throwable pException)
+    					{
+    					    LoggerFactory.getInstance(NetSocketConnection.class).debug(pException);
+    					    
+    					    disconnected(sock);
+    					}
+    				});
+    				
+    				sock.endHandler(new Handler<Void>()
+    				{
+    					public void handle(Void pParam)
+    					{
+    					    disconnected(sock);
+    					}
+    				});
+			    }
+
+			    synchronized (NetSocketConnection.this)
+				{
+			        if (!pCommunication.succeeded())
+			        {
+			            LoggerFactory.getInstance(NetSocketConnection.class).error(pCommunication.cause());
+			            
+			            future.completeExceptionally(pCommunication.cause());
+			            
+			            return;
+			        }
+			        
+			        //don't use a socket after timeout
+			        if (future.isDone())
+			        {
+			            sock.close();
+			            
+			            return;
+			        }
+			        
+		            socket = sock;
+		            ctxSocket = Vertx.currentContext();
+		            
+		            socket.write(Buffer.buffer(new byte[] {STREAM_COMMUNICATION}));
+				}
+			    
+			    future.complete(sock);
+			}
+		});
+		
+		return future;
+    }
+    
+    /**
+     * Starts the communication on the connected socket.
+     * 
+     * @param pConnectionInfo the connection information
+     * @throws Throwable if opening the connection failed
+     */
+    private void openCommunication(ConnectionInfo pConnectionInfo) throws Throwable
+    {
+		super.open(pConnectionInfo);
+		
+		synchronized (this)
+		{
+		    if (!liConnections.contains(pConnectionInfo))
+		    {
+		        liConnections.add(pConnectionInfo);
+		    }
+		}
+    }
+    
+    /**
+     * Executes a blocking task, ordered, on a worker thread.
+     * 
+     * @param <T> the result type
+     * @param pTask the task
+     * @return the future for the result of the task
+     */
+    private <T> CompletableFuture<T> execute(final Callable<T> pTask)
+    {
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        
+        getAsyncContext().runOnContext(new Handler<Void>()
+        {
+            public void handle(Void pParam)
+            {
+                vertx.executeBlocking(new Handler<Future<T>>()
+                {
+                    public void handle(Future<T> pFuture)
+                    {
+                        try
+                        {
+                            pFuture.complete(pTask.call());
+                        }
+                        catch (ExecutionException ee)
+                        {
+                            pFuture.fail(ee.getCause());
+                        }
+                        catch (Exception e)
+                        {
+                            pFuture.fail(e);
+                        }
+                    }
+                }, 
+                true, 
+                new Handler<AsyncResult<T>>()
+                {
+                    public void handle(AsyncResult<T> pResult)
+                    {
+                        if (pResult.succeeded())
+                        {
+                            future.complete(pResult.result());
+                        }
+                        else
+                        {
+                            future.completeExceptionally(pResult.cause());
+                        }
+                    }
+                });
+            }
+        });
+        
+        return future;
+    }
+    
+    /**
+     * Gets the call of the current thread.
+     * 
+     * @return the call
+     */
+    private Call getCall()
+    {
+        Call call = tlCall.get();
+        
+        //a request without initCall, e.g. by a subclass
+        if (call == null)
+        {
+            call = new Call();
+            
+            tlCall.set(call);
+        }
+        
+        return call;
+    }
+    
+    /**
+     * Gets the context for ordered execution of asynchronous requests.
+     * 
+     * @return the context
+     */
+    private synchronized Context getAsyncContext()
+    {
+        if (ctxAsync == null)
+        {
+            ctxAsync = vertx.getOrCreateContext();
+        }
+        
+        return ctxAsync;
+    }
+    
+    /**
+     * Gets the client for the communication socket. The client will be reused for reconnects.
+     * 
+     * @return the client
+     */
+    private synchronized NetClient getClient()
+    {
+        if (client == null)
+        {
+            NetClientOptions options = new NetClientOptions();
+            options.setReconnectAttempts(3);
+            options.setConnectTimeout(5000);
+            options.setReconnectInterval(1000);
+            
+            client = vertx.createNetClient(options);
+        }
+        
+        return client;
+    }
+    
+    /**
+     * Gets the connect of the communication socket. A new connect will be started if the socket
+     * isn't connected and no connect is pending.
+     * 
+     * @return the future for the connected socket
+     */
+    private synchronized CompletableFuture<NetSocket> getSocket()
+    {
+        if (cfSocket == null || cfSocket.isCompletedExceptionally())
+        {
+            cfSocket = connect();
+        }
+        
+        return cfSocket;
+    }
+    
+    /**
+     * Opens the communication socket, if it's not connected, and waits for the connect.
+     * 
+     * @return the connected socket
+     * @throws IOException if connecting failed
+     */
+    private NetSocket openSocket() throws IOException
+    {
+        CompletableFuture<NetSocket> future = getSocket();
+        
+        try
+        {
+            return future.get(15000, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException te)
+        {
+            future.cancel(false);
+            
+            throw new ConnectException("Can't establish connection!");
+        }
+        catch (ExecutionException ee)
+        {
+            throw new ConnectException("Can't establish connection!");
+        }
+        catch (InterruptedException ie)
+        {
+            throw new InterruptedIOException("Connect interrupted!");
+        }
+    }
+    
+    /**
+     * Gets the session of transfers. Uploaded content belongs to the first open connection,
+     * because sub connections end with their master connection. Downloads are shaped per session.
+     * 
+     * @return the connection id or an empty string if no connection is open
+     */
+    private synchronized String getTransferSessionId()
+    {
+        if (!liConnections.isEmpty())
+        {
+            Object oConId = liConnections.get(0).getConnectionId();
+            
+            if (oConId != null)
+            {
+                return oConId.toString();
+            }
+        }
+        
+        return "";
+    }
+    
+    /**
+     * Closes the communication socket and the client, if no connection is open.
+     */
+    private synchronized void releaseSocket()
+    {
+        if (!liConnections.isEmpty())
+        {
+            return;
+        }
+        
+        closeSocket();
+        
+        if (client != null)
+        {
+            client.close();
+            client = null;
+        }
+        
+        if (fjpUpload != null)
+        {
+            fjpUpload.shutdown();
+            fjpUpload = null;
+        }
+    }
+    
+    /**
+     * Handles a lost communication socket. The next request will reconnect.
+     * 
+     * @param pSocket the lost socket
+     */
+    private synchronized void disconnected(NetSocket pSocket)
+    {
+        if (socket == pSocket)
+        {
+            SyncedInputStream stream = inputStream;
+            
+            inputStream = null;
+            
+            closeSocket();
+            
+            //the response before the close, e.g. the busy response, can still be read
+            if (stream != null)
+            {
+                stream.end();
+                
+                inputStream = stream;
+            }
+        }
+    }
+    
+	/**
+	 * Writes the deadline of the current call, if a call timeout is set.
+	 * 
+	 * @param pStream the request stream
+	 * @throws IOException if writing failed
+	 */
+	private void writeDeadline(OutputStream pStream) throws IOException
+	{
+	    if (lCallTimeout >= 0)
+	    {
+	        int iTimeout = (int)Math.min(Integer.MAX_VALUE, lCallTimeout);
+	        
+	        pStream.write(new byte[] {CALL_DEADLINE, 
+	                                  (byte)(iTimeout >>> 24), (byte)(iTimeout >>> 16), (byte)(iTimeout >>> 8), (byte)iTimeout});
+	    }
+	}
 	
+	/**
+	 * Checks whether the server rejected the call or transfer with the busy response.
+	 * 
+	 * @param pStream the response stream
+	 * @param pCloseSocket <code>true</code> to close the communication socket if the call was rejected, because
+	 *                     the server doesn't read the rest of the request
+	 * @return the response stream
+	 * @throws IOException if reading failed
+	 * @throws ServerBusyException if the server was busy
+	 */
+	private InputStream checkBusy(InputStream pStream, boolean pCloseSocket) throws IOException
+	{
+	    PushbackInputStream stream = new PushbackInputStream(pStream);
+	    
+	    int iByte = stream.read();
+	    
+	    if (iByte != RESPONSE_BUSY)
+	    {
+	        if (iByte >= 0)
+	        {
+	            stream.unread(iByte);
+	        }
+	        
+	        return stream;
+	    }
+	    
+	    long lRetryAfter = new DataInputStream(stream).readInt();
+	    
+	    if (pCloseSocket)
+	    {
+	        closeSocket();
+	    }
+	    
+	    throw new ServerBusyException(lRetryAfter);
+	}
+	
+	/**
+	 * Close the "old" socket.
+	 */
+	private synchronized void closeSocket()
+	{
+	    if (cfSocket != null)
+	    {
+	        //a pending connect won't use the socket
+	        cfSocket.cancel(false);
+	        cfSocket = null;
+	    }
+	    
+		if (socket != null)
+		{
+		    if (inputStream != null)
+		    {
+		        inputStream.finish();
+		        inputStream = null;
+		    }
+
+            socket.exceptionHandler(null);
+            socket.endHandler(null);
+			socket.handler(null);
+			
+			socket.close();
+			socket = null;
+			ctxSocket = null;
+		}
+	}
+	
+	/**
+	 * Opens a new transfer connection.
+	 * 
+	 * @return the connected transfer
+	 * @throws IOException if opening failed
+	 */
+	private Transfer openTransfer() throws IOException
+	{
+	    Transfer transfer = new Transfer();
+	    transfer.open();
+	    
+	    return transfer;
+	}
+	
+    /**
+     * Opens a new transfer connection for segmented uploads. The connection sends its segment requests
+     * one after another.
+     * 
+     * @return the connected transfer
+     * @throws IOException if opening failed
+     */
+    private Transfer openSegmentTransfer() throws IOException
+    {
+        Transfer transfer = openTransfer();
+        
+        transfer.write(STREAM_UPLOAD_SEGMENT);
+        
+        return transfer;
+    }
+    
+    /**
+     * Uploads the content of a file handle in segments. The segments are compressed and sent in parallel, 
+     * every writer sends its segments over its own transfer connection. If uploads are resumable, an 
+     * interrupted upload continues from the committed offset of the server.
+     * 
+     * @param pFileHandle the file handle
+     * @param pLength the content length
+     * @return the remote file handle
+     * @throws IOException if upload failed
+     */
+    private RemoteFileHandle writeSegments(IFileHandle pFileHandle, long pLength) throws IOException
+    {
+        String sKey = openSegments(pLength);
+        
+        SegmentReader reader = new SegmentReader(pFileHandle, pLength);
+        
+        try
+        {
+            int iRetry = 0;
+            
+            while (true)
+            {
+                try
+                {
+                    if (iRetry > 0)
+                    {
+                        long lCommitted = querySegments(sKey);
+                        
+                        if (lCommitted < 0)
+                        {
+                            throw new UploadExpiredException(sKey);
+                        }
+                        
+                        reader.reset(lCommitted);
+                    }
+                    
+                    sendSegments(sKey, reader);
+                    
+                    return new RemoteFileHandle(pFileHandle.getFileName(), sKey);
+                }
+                catch (UploadExpiredException uee)
+                {
+                    throw uee;
+                }
+                catch (IOException ioe)
+                {
+                    if (!bResumableUpload || iRetry >= iUploadRetryCount)
+                    {
+                        throw ioe;
+                    }
+                    
+                    iRetry++;
+                    
+                    LoggerFactory.getInstance(NetSocketConnection.class).debug("Resume upload '", sKey, "' (", Integer.valueOf(iRetry), ")", ioe);
+                    
+                    try
+                    {
+                        Thread.sleep(getRetryInterval());
+                    }
+                    catch (InterruptedException ie)
+                    {
+                        throw new InterruptedIOException("Upload '" + sKey + "' interrupted!");
+                    }
+                }
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+    
+    /**
+     * Sends all available segments of the reader in parallel.
+     * 
+     * @param pKey the key of the upload
+     * @param pReader the segment source
+     * @throws IOException if sending a segment failed
+     */
+    private void sendSegments(String pKey, SegmentReader pReader) throws IOException
+    {
+        ForkJoinPool pool = getUploadPool();
+        
+        List<ForkJoinTask<Void>> liTasks = new ArrayList<ForkJoinTask<Void>>();
+        
+        for (int i = 0; i < iUploadParallelism; i++)
+        {
+            liTasks.add(pool.submit(new SegmentWriter(pKey, pReader)));
+        }
+        
+        Throwable thError = null;
+        
+        for (ForkJoinTask<Void> task : liTasks)
+        {
+            try
+            {
+                task.get();
+            }
+            catch (ExecutionException ee)
+            {
+                pReader.abort();
+                
+                if (thError == null)
+                {
+                    thError = ee.getCause();
+                    
+                    //the pool wraps checked exceptions
+                    while (thError instanceof RuntimeException && thError.getCause() != null)
+                    {
+                        thError = thError.getCause();
+                    }
+                }
+            }
+            catch (InterruptedException ie)
+            {
+                pReader.abort();
+                
+                if (thError == null)
+                {
+                    thError = ie;
+                }
+            }
+        }
+        
+        if (thError instanceof IOException)
+        {
+            throw (IOException)thError;
+        }
+        else if (thError != null)
+        {
+            throw new IOException(thError);
+        }
+    }
+    
+    /**
+     * Opens a segmented upload on the server.
+     * 
+     * @param pLength the content length
+     * @return the key of the upload
+     * @throws IOException if opening failed
+     */
+    private String openSegments(long pLength) throws IOException
+    {
+        Transfer transfer = openSegmentTransfer();
+        
+        try
+        {
+            transfer.write(SEGMENT_OPEN);
+            
+            // REQUEST
+            
+            BufferOutputStream bos = new BufferOutputStream(transfer.socket, transfer.context);
+            GZIPOutputStream gzos = new GZIPOutputStream(bos);
+            
+            DataOutputStream dos = new DataOutputStream(gzos);
+            dos.writeLong(pLength);
+            dos.writeUTF(getTransferSessionId());
+            dos.flush();
+            
+            gzos.finish();
+            
+            bos.write(MAGIC_BYTES);
+            bos.flush();
+            
+            // RESPONSE
+            
+            return readResponse(transfer).readUTF();
+        }
+        finally
+        {
+            transfer.close();
+        }
+    }
+    
+    /**
+     * Gets the committed offset of a segmented upload.
+     * 
+     * @param pKey the key of the upload
+     * @return the committed offset or <code>-1</code> if the upload is unknown
+     * @throws IOException if the request failed
+     */
+    private long querySegments(String pKey) throws IOException
+    {
+        Transfer transfer = openSegmentTransfer();
+        
+        try
+        {
+            transfer.write(SEGMENT_STATUS);
+            
+            // REQUEST
+            
+            BufferOutputStream bos = new BufferOutputStream(transfer.socket, transfer.context);
+            GZIPOutputStream gzos = new GZIPOutputStream(bos);
+            
+            DataOutputStream dos = new DataOutputStream(gzos);
+            dos.writeUTF(pKey);
+            dos.flush();
+            
+            gzos.finish();
+            
+            bos.write(MAGIC_BYTES);
+            bos.flush();
+            
+            // RESPONSE
+            
+            return readResponse(transfer).readLong();
+        }
+        finally
+        {
+            transfer.close();
+        }
+    }
+    
+    /**
+     * Sends a single segment of a segmented upload. The transfer connection stays open for the
+     * next segment.
+     * 
+     * @param pTransfer the transfer connection for segmented uploads
+     * @param pKey the key of the upload
+     * @param pSegment the segment
+     * @return the committed offset of the server
+     * @throws IOException if sending failed
+     * @see #openSegmentTransfer()
+     */
+    private long sendSegment(Transfer pTransfer, String pKey, Segment pSegment) throws IOException
+    {
+        pTransfer.write(SEGMENT_DATA);
+        
+        // REQUEST
+        
+        BufferOutputStream bos = new BufferOutputStream(pTransfer.socket, pTransfer.context);
+        GZIPOutputStream gzos = new GZIPOutputStream(bos);
+        
+        DataOutputStream dos = new DataOutputStream(gzos);
+        dos.writeUTF(pKey);
+        dos.writeLong(pSegment.offset);
+        dos.writeInt(pSegment.length);
+        dos.write(pSegment.data, 0, pSegment.length);
+        dos.flush();
+        
+        gzos.finish();
+        
+        bos.write(MAGIC_BYTES);
+        bos.flush();
+        
+        // RESPONSE
+        
+        return readResponse(pTransfer).readLong();
+    }
+    
+    /**
+     * Reads the complete (compressed) response of a transfer connection.
+     * 
+     * @param pTransfer the transfer
+     * @return the uncompressed response
+     * @throws IOException if reading failed
+     */
+    private DataInputStream readResponse(Transfer pTransfer) throws IOException
+    {
+        MagicByteInputStream mbis = new MagicByteInputStream(new NonClosingInputStream(checkBusy(pTransfer.input, false)), MAGIC_BYTES);
+        
+        try
+        {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            
+            FileUtil.copy(new GZIPInputStream(mbis), baos);
+            
+            return new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        }
+        finally
+        {
+            mbis.close();
+        }
+    }
+    
+    /**
+     * Gets the pool for parallel segment uploads.
+     * 
+     * @return the pool
+     */
+    private synchronized ForkJoinPool getUploadPool()
+    {
+        if (fjpUpload == null || fjpUpload.getParallelism() != iUploadParallelism)
+        {
+            if (fjpUpload != null)
+            {
+                fjpUpload.shutdown();
+            }
+            
+            fjpUpload = new ForkJoinPool(iUploadParallelism);
+        }
+        
+        return fjpUpload;
+    }
+    
 	/**
 	 * Gets the current Vertx instance.
 	 * 
@@ -601,6 +1490,172 @@ public class NetSocketConnection extends AbstractSerializedConnection
 		return vertx;
 	}
 	
+    /**
+     * Gets the shared communication socket.
+     * 
+     * @return the pipeline or <code>null</code> if the connection uses its own socket
+     */
+    public Pipeline getPipeline()
+    {
+        return pipeline;
+    }
+	
+    /**
+     * Sets the size of one upload segment. Uploads bigger than one segment will be sent 
+     * in segments if the upload parallelism is greater than <code>1</code>.
+     * 
+     * @param pSize the size in bytes
+     * @see #setUploadParallelism(int)
+     */
+    public void setSegmentSize(int pSize)
+    {
+        if (pSize <= 0)
+        {
+            throw new IllegalArgumentException("Invalid segment size: " + pSize);
+        }
+        
+        iSegmentSize = pSize;
+    }
+    
+    /**
+     * Gets the size of one upload segment.
+     * 
+     * @return the size in bytes
+     */
+    public int getSegmentSize()
+    {
+        return iSegmentSize;
+    }
+    
+    /**
+     * Sets the number of segments which will be compressed and sent in parallel. Every parallel
+     * writer sends its segments, one after another, over its own transfer connection.
+     * 
+     * @param pParallelism the number of parallel segments, <code>1</code> to upload the content
+     *                     as single stream
+     */
+    public void setUploadParallelism(int pParallelism)
+    {
+        if (pParallelism <= 0)
+        {
+            throw new IllegalArgumentException("Invalid parallelism: " + pParallelism);
+        }
+        
+        iUploadParallelism = pParallelism;
+    }
+    
+    /**
+     * Gets the number of segments which will be compressed and sent in parallel.
+     * 
+     * @return the number of parallel segments
+     */
+    public int getUploadParallelism()
+    {
+        return iUploadParallelism;
+    }
+    
+    /**
+     * Sets whether uploads are resumable. A resumable upload is always sent in segments and 
+     * continues from the last committed offset after a lost transfer connection.
+     * 
+     * @param pResumable <code>true</code> to resume interrupted uploads, <code>false</code> otherwise
+     * @see #setUploadRetryCount(int)
+     */
+    public void setResumableUpload(boolean pResumable)
+    {
+        bResumableUpload = pResumable;
+    }
+    
+    /**
+     * Gets whether uploads are resumable.
+     * 
+     * @return <code>true</code> if interrupted uploads will be resumed, <code>false</code> otherwise
+     */
+    public boolean isResumableUpload()
+    {
+        return bResumableUpload;
+    }
+    
+    /**
+     * Sets the number of attempts to resume an interrupted upload. The delay between two attempts
+     * is the retry interval.
+     * 
+     * @param pRetryCount the number of attempts
+     * @see #setRetryInterval(int)
+     */
+    public void setUploadRetryCount(int pRetryCount)
+    {
+        iUploadRetryCount = pRetryCount;
+    }
+    
+    /**
+     * Gets the number of attempts to resume an interrupted upload.
+     * 
+     * @return the number of attempts
+     */
+    public int getUploadRetryCount()
+    {
+        return iUploadRetryCount;
+    }
+    
+    /**
+     * Cancels the calls in progress, e.g. if the user closed the screen. The server interrupts the 
+     * processing of the calls and the calls fail. A pipelined call will be cancelled with a cancel frame.
+     * Otherwise the communication socket, which is shared with all sub connections, will be closed and
+     * reconnected with the next request.
+     */
+    public void cancel()
+    {
+        if (pipeline != null)
+        {
+            SyncedInputStream stream;
+            
+            for (Call call : stCalls)
+            {
+                stream = call.response;
+                
+                if (stream != null)
+                {
+                    pipeline.cancel(stream);
+                }
+            }
+        }
+        else
+        {
+            synchronized (this)
+            {
+                if (inputStream != null)
+                {
+                    inputStream.cancel();
+                }
+            }
+            
+            closeSocket();
+        }
+    }
+    
+    /**
+     * Sets the timeout of calls. The server gets the deadline of every call and drops calls which 
+     * waited longer, e.g. in a queue. The connection stops waiting for the response after the timeout
+     * with a {@link java.net.SocketTimeoutException}.
+     * 
+     * @param pTimeout the timeout in milliseconds or <code>-1</code> to wait without limit
+     */
+    public void setCallTimeout(long pTimeout)
+    {
+        lCallTimeout = pTimeout;
+    }
+    
+    /**
+     * Gets the timeout of calls.
+     * 
+     * @return the timeout in milliseconds or <code>-1</code> if calls wait without limit
+     */
+    public long getCallTimeout()
+    {
+        return lCallTimeout;
+    }
+	
     /**
      * Gets the input stream for a given download identifier.
      * 
@@ -614,150 +1669,654 @@ public class NetSocketConnection extends AbstractSerializedConnection
     }
     
     /**
-     * Gets the length of the content for a given download identifier.
+     * Gets the length of the content for a given download identifier.
+     * 
+     * @param pIdentifier the identifier
+     * @return the length or <code>0</code> if content isn't available
+     * @throws Exception if starting download failed
+     */
+    protected long getLength(Object pIdentifier) throws Exception
+    {
+        Object obj = startDownload(DOWNLOAD_LENGTH, pIdentifier);
+        
+        if (obj == null)
+        {
+            return 0;
+        }
+        
+        return ((Long)obj).longValue();
+    }
+
+    /**
+     * Starts a download operation in with a separate connection.
+     * 
+     * @param pOperation the download operation
+     * @param pIdentifier the identifier for the download
+     * @return the result from the server or <code>null</code> if operation is unknown or given
+     *         identifier is <code>null</code> 
+     * @throws Exception if executing download operation failed
+     */
+    private Object startDownload(byte pOperation, Object pIdentifier) throws Exception
+    {
+        if (pIdentifier != null)
+        {
+            Transfer transfer = openTransfer();
+    
+            try
+            {
+                transfer.write(STREAM_DOWNLOAD, pOperation);
+                
+                // REQUEST
+                
+                BufferOutputStream bos = new BufferOutputStream(transfer.socket, transfer.context);
+                GZIPOutputStream gzos = new GZIPOutputStream(bos);
+                
+                @SuppressWarnings("resource")
+                DataOutputStream dos = new DataOutputStream(gzos);
+                dos.writeUTF((String)pIdentifier);
+                dos.writeUTF(getTransferSessionId());
+                
+                gzos.finish();
+                
+                bos.write(NetSocketConnection.MAGIC_BYTES);
+                bos.flush();
+                
+                // RESPONSE: get length or content (don't check magic byte sequence -> stream won't be re-used)
+                
+                GZIPInputStream gzis = new GZIPInputStream(checkBusy(transfer.input, false));
+    
+                if (pOperation == DOWNLOAD_LENGTH)
+                {
+                    DataInputStream dis = new DataInputStream(gzis);
+    
+                    try
+                    {
+                        return Long.valueOf(dis.readLong());
+                    }
+                    finally
+                    {
+                        dis.close();
+                    }
+                }
+                else if (pOperation == DOWNLOAD_DATA)
+                {
+                    DownloadStream stream = new DownloadStream(transfer, gzis);
+                    
+                    //don't close the transfer - otherwise download would fail!
+                    transfer = null;
+                    
+                    return stream; 
+                }
+            }
+            finally
+            {
+                if (transfer != null)
+                {
+                    transfer.close();
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+
+    /**
+     * The <code>DownloadStream</code> is a stream that is connected to a {@link Transfer}.
+     * If the stream will be closed, the transfer will be closed too.
+     * 
+     * @author Ren Jahn
+     */
+    private static final class DownloadStream extends FilterInputStream
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the transfer. */
+        private Transfer transfer;
+
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>DownloadStream</code>.
+         * 
+         * @param pTransfer the transfer
+         * @param pStream the wrapped stream
+         */
+        private DownloadStream(Transfer pTransfer, InputStream pStream)
+        {
+            super(pStream);
+            
+            transfer = pTransfer;
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Overwritten methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                super.close();
+            }
+            finally
+            {
+                transfer.close();
+            }
+        }
+        
+    }   // DownloadStream
+    
+    /**
+     * The <code>Call</code> is the state of a call in progress. Every call has its own request and 
+     * response stream, because all connections of a pipeline send their requests without waiting.
+     * 
+     * @author agent
+     */
+    private static final class Call
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the request, if pipelined. */
+        private ByteArrayOutputStream request;
+        
+        /** the response stream, if pipelined. */
+        private volatile SyncedInputStream response;
+        
+        /** the deadline of the call. */
+        private long lDeadline = -1;
+        
+    }   // Call
+    
+    /**
+     * The <code>Transfer</code> is a separate connection for up- and downloading content.
+     * 
+     * @author agent
+     */
+    private final class Transfer
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the transfer client. */
+        private NetClient client;
+        
+        /** the transfer socket. */
+        private NetSocket socket;
+        
+        /** the context of the transfer socket. */
+        private Context context;
+        
+        /** the transfer input stream. */
+        private SyncedInputStream input;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Opens the transfer connection.
+         * 
+         * @throws IOException if opening failed
+         */
+        private void open() throws IOException
+        {
+            NetClientOptions options = new NetClientOptions();
+            options.setReconnectAttempts(3);
+            options.setReconnectInterval(1000);
+            
+            client = vertx.createNetClient(options);
+            
+            input = new SyncedInputStream();
+            
+            final SyncedInputStream isTransfer = input;
+            
+            final CompletableFuture<NetSocket> future = new CompletableFuture<NetSocket>();
+            
+            client.connect(iPort, sHost, new Handler<AsyncResult<NetSocket>>()
+            {
+                public void handle(AsyncResult<NetSocket> pCommunication)
+                {
+                    if (!pCommunication.succeeded())
+                    {
+                        future.completeExceptionally(pCommunication.cause());
+                        
+                        return;
+                    }
+                    
+                    NetSocket sock = pCommunication.result();
+                    
+                    sock.handler(new Handler<Buffer>()
+                    {
+                        public void handle(Buffer pBuffer)
+                        {
+                            isTransfer.receive(pBuffer);
+                        }
+                    });
+    
+                    sock.exceptionHandler(new Handler<Throwable>()
+                    {
+                        public void handle(Throwable pException)
+                        {
+                            isTransfer.finish();
+                        }
+                    });
+                    
+                    sock.endHandler(new Handler<Void>()
+                    {
+                        public void handle(Void pParam)
+                        {
+                            isTransfer.end();
+                        }
+                    });
+                    
+                    //visible for the waiting thread, through the future
+                    context = Vertx.currentContext();
+                    
+                    //don't use a socket after timeout
+                    if (!future.complete(sock))
+                    {
+                        sock.close();
+                    }
+                }
+            });
+            
+            NetSocket sock;
+            
+            try
+            {
+                sock = future.get(15000, TimeUnit.MILLISECONDS);
+            }
+            catch (TimeoutException te)
+            {
+                future.cancel(false);
+                
+                close();
+                
+                throw new ConnectException("Can't establish transfer connection!");
+            }
+            catch (ExecutionException ee)
+            {
+                close();
+                
+                throw new ConnectException("Can't establish transfer connection!");
+            }
+            catch (InterruptedException ie)
+            {
+                future.cancel(false);
+                
+                close();
+                
+                throw new InterruptedIOException("Connect interrupted!");
+            }
+            
+            synchronized (this)
+            {
+                socket = sock;
+            }
+        }
+        
+        /**
+         * Writes bytes on the context of the socket, in the same order as the {@link BufferOutputStream} 
+         * of the transfer.
+         * 
+         * @param pBytes the bytes
+         */
+        private void write(byte... pBytes)
+        {
+            final NetSocket sock = socket;
+            final Buffer buffer = Buffer.buffer(pBytes);
+            
+            if (Vertx.currentContext() == context)
+            {
+                sock.write(buffer);
+            }
+            else
+            {
+                context.runOnContext(new Handler<Void>()
+                {
+                    public void handle(Void pParam)
+                    {
+                        sock.write(buffer);
+                    }
+                });
+            }
+        }
+        
+        /**
+         * Closes the transfer connection.
+         */
+        private synchronized void close()
+        {
+            if (socket != null)
+            {
+                input.finish();
+                
+                socket.endHandler(null);
+                socket.exceptionHandler(null);
+                socket.handler(null);
+                
+                socket.close();
+                socket = null;
+            }
+            
+            if (client != null)
+            {
+                client.close();
+                client = null;
+            }
+        }
+        
+    }   // Transfer
+    
+    /**
+     * The <code>Segment</code> is a part of the uploaded content.
      * 
-     * @param pIdentifier the identifier
-     * @return the length or <code>0</code> if content isn't available
-     * @throws Exception if starting download failed
+     * @author agent
      */
-    protected long getLength(Object pIdentifier) throws Exception
+    private static final class Segment
     {
-        Object obj = startDownload(DOWNLOAD_LENGTH, pIdentifier);
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
         
-        if (obj == null)
+        /** the position in the content. */
+        private long offset;
+        
+        /** the segment data. */
+        private byte[] data;
+        
+        /** the number of valid bytes in data. */
+        private int length;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>Segment</code>.
+         * 
+         * @param pOffset the position in the content
+         * @param pData the segment data
+         * @param pLength the number of valid bytes
+         */
+        private Segment(long pOffset, byte[] pData, int pLength)
         {
-            return 0;
+            offset = pOffset;
+            data = pData;
+            length = pLength;
         }
         
-        return ((Long)obj).longValue();
-    }
-
+    }   // Segment
+    
     /**
-     * Starts a download operation in with a separate connection.
+     * The <code>SegmentReader</code> splits the content of an input stream into {@link Segment}s. 
+     * The content will be read sequentially and segments will be handed out to the parallel writers.
      * 
-     * @param pOperation the download operation
-     * @param pIdentifier the identifier for the download
-     * @return the result from the server or <code>null</code> if operation is unknown or given
-     *         identifier is <code>null</code> 
-     * @throws Exception if executing download operation failed
+     * @author agent
      */
-    private Object startDownload(byte pOperation, Object pIdentifier) throws Exception
+    private final class SegmentReader
     {
-        if (pIdentifier != null)
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the content. */
+        private IFileHandle fileHandle;
+        
+        /** the content stream. */
+        private InputStream stream;
+        
+        /** the content length. */
+        private long lLength;
+        
+        /** the position of the next segment. */
+        private long lOffset;
+        
+        /** whether reading was aborted. */
+        private boolean bAborted;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>SegmentReader</code>.
+         * 
+         * @param pFileHandle the content
+         * @param pLength the content length
+         * @throws IOException if opening the content failed
+         */
+        private SegmentReader(IFileHandle pFileHandle, long pLength) throws IOException
         {
-            openTransfer();
-    
-            try
+            fileHandle = pFileHandle;
+            lLength = pLength;
+            
+            stream = pFileHandle.getInputStream();
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Reads the next segment.
+         * 
+         * @return the segment or <code>null</code> if all segments were read or reading was aborted
+         * @throws IOException if reading failed
+         */
+        private synchronized Segment next() throws IOException
+        {
+            if (bAborted || lOffset >= lLength)
             {
-                socketTransfer.write(Buffer.buffer(new byte[] {STREAM_DOWNLOAD, pOperation}));
-                
-                // REQUEST
-                
-                BufferOutputStream bos = new BufferOutputStream(socketTransfer);
-                GZIPOutputStream gzos = new GZIPOutputStream(bos);
-                
-                @SuppressWarnings("resource")
-                DataOutputStream dos = new DataOutputStream(gzos);
-                dos.writeUTF((String)pIdentifier);
-                
-                gzos.finish();
+                return null;
+            }
+            
+            int iLength = (int)Math.min(iSegmentSize, lLength - lOffset);
+            
+            byte[] byData = new byte[iLength];
+            
+            int iRead = 0;
+            int iLen;
+            
+            while (iRead < iLength)
+            {
+                iLen = stream.read(byData, iRead, iLength - iRead);
                 
-                bos.write(NetSocketConnection.MAGIC_BYTES);
-                bos.flush();
+                if (iLen < 0)
+                {
+                    throw new EOFException("Content is shorter than " + lLength + " bytes!");
+                }
                 
-                // RESPONSE: get length or content (don't check magic byte sequence -> stream won't be re-used)
+                iRead += iLen;
+            }
+            
+            Segment segment = new Segment(lOffset, byData, iLength);
+            
+            lOffset += iLength;
+            
+            return segment;
+        }
+        
+        /**
+         * Continues reading at the given position. The content will be re-opened because the
+         * current stream may be broken.
+         * 
+         * @param pOffset the position of the next segment
+         * @throws IOException if re-opening the content failed
+         */
+        private synchronized void reset(long pOffset) throws IOException
+        {
+            CommonUtil.close(stream);
+            
+            stream = fileHandle.getInputStream();
+            
+            lOffset = 0;
+            
+            long lSkipped;
+            
+            while (lOffset < pOffset)
+            {
+                lSkipped = stream.skip(pOffset - lOffset);
                 
-                GZIPInputStream gzis = new GZIPInputStream(isTransfer);
-    
-                if (pOperation == DOWNLOAD_LENGTH)
+                if (lSkipped <= 0)
                 {
-                    DataInputStream dis = new DataInputStream(gzis);
-    
-                    try
-                    {
-                        return Long.valueOf(dis.readLong());
-                    }
-                    finally
+                    if (stream.read() < 0)
                     {
-                        dis.close();
+                        throw new EOFException("Content is shorter than " + pOffset + " bytes!");
                     }
-                }
-                else if (pOperation == DOWNLOAD_DATA)
-                {
-                    DownloadStream stream = new DownloadStream(clientTransfer, gzis);
-                    
-                    //reset instances because we won't close the transfer client - otherwise download would fail!
-                    isTransfer = null;
-                    clientTransfer = null;
                     
-                    return stream; 
+                    lSkipped = 1;
                 }
+                
+                lOffset += lSkipped;
             }
-            finally
-            {
-                closeTransfer();
-            }
+            
+            bAborted = false;
         }
         
-        return null;
-    }
+        /**
+         * Aborts reading. No more segments will be returned.
+         */
+        private synchronized void abort()
+        {
+            bAborted = true;
+        }
+        
+        /**
+         * Closes the content stream.
+         * 
+         * @throws IOException if closing failed
+         */
+        private synchronized void close() throws IOException
+        {
+            stream.close();
+        }
+        
+    }   // SegmentReader
     
-    //****************************************************************
-    // Subclass definition
-    //****************************************************************
-
     /**
-     * The <code>DownloadStream</code> is a stream that is connected to a {@link CommunicationClient}.
-     * If the stream will be closed, the client will be closed too.
+     * The <code>SegmentWriter</code> sends {@link Segment}s of a {@link SegmentReader} as long 
+     * as segments are available.
      * 
-     * @author Ren Jahn
+     * @author agent
      */
-    private static final class DownloadStream extends FilterInputStream
+    private final class SegmentWriter implements Callable<Void>
     {
         //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
         // Class members
         //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
         
-        /** the client. */
-        private NetClient client;
-
+        /** the key of the upload. */
+        private String sKey;
+        
+        /** the segment source. */
+        private SegmentReader reader;
+        
         //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
         // Initialization
         //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
         
         /**
-         * Creates a new instance of <code>DownloadStream</code>.
+         * Creates a new instance of <code>SegmentWriter</code>.
          * 
-         * @param pClient the communication client
-         * @param pStream the wrapped stream
+         * @param pKey the key of the upload
+         * @param pReader the segment source
          */
-        private DownloadStream(NetClient pClient, InputStream pStream)
+        private SegmentWriter(String pKey, SegmentReader pReader)
         {
-            super(pStream);
-            
-            client = pClient;
+            sKey = pKey;
+            reader = pReader;
         }
         
         //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
-        // Overwritten methods
+        // Interface implementation
         //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
         
         /**
          * {@inheritDoc}
          */
-        @Override
-        public void close() throws IOException
+        public Void call() throws Exception
         {
+            Transfer transfer = null;
+            
             try
             {
-                super.close();
+                Segment segment;
+                
+                while ((segment = reader.next()) != null)
+                {
+                    //connect with the first segment
+                    if (transfer == null)
+                    {
+                        transfer = openSegmentTransfer();
+                    }
+                    
+                    sendSegment(transfer, sKey, segment);
+                }
+                
+                return null;
+            }
+            catch (Exception e)
+            {
+                reader.abort();
+                
+                throw e;
             }
             finally
             {
-                client.close();
+                if (transfer != null)
+                {
+                    transfer.close();
+                }
             }
         }
         
-    }   // DownloadStream
+    }   // SegmentWriter
+    
+    /**
+     * The <code>UploadExpiredException</code> will be thrown if a resumable upload is no longer 
+     * available on the server.
+     * 
+     * @author agent
+     */
+    private static final class UploadExpiredException extends IOException
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the serial version. */
+        private static final long serialVersionUID = 1L;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>UploadExpiredException</code>.
+         * 
+         * @param pKey the key of the upload
+         */
+        private UploadExpiredException(String pKey)
+        {
+            super("Upload '" + pKey + "' is no longer available!");
+        }
+        
+    }   // UploadExpiredException
 	
 }	// NetSocketConnection
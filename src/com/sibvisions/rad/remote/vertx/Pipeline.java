@@ -0,0 +1,597 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - cancel frames
+ * 19.10.2026 - [agent] - connect with a future
+ * 19.10.2026 - [agent] - maximum frame length, frame state independent of the id
+ */
+package com.sibvisions.rad.remote.vertx;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetClientOptions;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.parsetools.RecordParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sibvisions.rad.remote.vertx.io.SyncedInputStream;
+import com.sibvisions.util.log.LoggerFactory;
+
+/**
+ * The <code>Pipeline</code> is a communication socket which is shared between multiple
+ * {@link NetSocketConnection}s. Every request gets an id and many requests can be sent
+ * without waiting for the responses. The server answers in any order and the responses will
+ * be matched by id.
+ * <p>
+ * A frame starts with the request id and the length of the frame content (both <code>int</code>).
+ * The content of a request frame starts with the ordering key (<code>short</code> length and UTF-8
+ * bytes). The server processes requests with the same ordering key in the sent order. The ordering
+ * key is the connection id, so the requests of different connections will be processed concurrently.
+ * A request can be cancelled with a frame without content and the length {@link #FRAME_CANCEL}. The server
+ * closes the connection after a frame with an invalid length or a length above its maximum, by default 
+ * {@link #MAX_FRAME_LENGTH}.
+ * 
+ * @author agent
+ */
+public class Pipeline
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the length of a frame header. */
+    public static final int HEADER_LENGTH = 8;
+    
+    /** the length of a cancel frame. */
+    public static final int FRAME_CANCEL = -1;
+    
+    /** the default maximum length of a request frame. */
+    public static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+    
+    /** the vert.x instance. */
+    private Vertx vertx;
+    
+    /** the client. */
+    private NetClient client;
+    
+    /** the socket. */
+    private NetSocket socket;
+    
+    /** the context of the socket. */
+    private Context context;
+    
+    /** the pending connect. */
+    private CompletableFuture<NetSocket> cfConnect;
+    
+    /** the pending requests. */
+    private Map<Integer, SyncedInputStream> mpPending = new ConcurrentHashMap<Integer, SyncedInputStream>();
+    
+    /** the id sequence. */
+    private AtomicInteger aiNextId = new AtomicInteger();
+    
+    /** the server hostname or ip. */
+    private String sHost;
+    
+    /** the server port. */
+    private int iPort;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>Pipeline</code>.
+     * 
+     * @param pVertx the vert.x instance or <code>null</code> to create a new (standalone) instance
+     * @param pHost the server hostname or ip
+     * @param pPort the server port
+     */
+    public Pipeline(Vertx pVertx, String pHost, int pPort)
+    {
+        if (pVertx == null)
+        {
+            vertx = Vertx.vertx();
+        }
+        else
+        {
+            vertx = pVertx;
+        }
+        
+        sHost = pHost;
+        iPort = pPort;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Opens the pipeline, if it's not open, and waits for the connect.
+     * 
+     * @throws IOException if connecting failed
+     */
+    public void open() throws IOException
+    {
+        CompletableFuture<NetSocket> future;
+        
+        synchronized (this)
+        {
+            if (socket != null)
+            {
+                return;
+            }
+            
+            if (cfConnect == null || cfConnect.isDone())
+            {
+                cfConnect = connect();
+            }
+            
+            future = cfConnect;
+        }
+        
+        try
+        {
+            future.get(15000, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException te)
+        {
+            //a late connect closes its socket
+            if (future.cancel(false))
+            {
+                throw new ConnectException("Can't establish pipeline!");
+            }
+        }
+        catch (ExecutionException ee)
+        {
+            throw new ConnectException("Can't establish pipeline!");
+        }
+        catch (CancellationException ce)
+        {
+            throw new ConnectException("Can't establish pipeline!");
+        }
+        catch (InterruptedException ie)
+        {
+            throw new InterruptedIOException("Connect interrupted!");
+        }
+    }
+    
+    /**
+     * Connects the socket. The future will be completed by the connect handler, after the socket
+     * was set up.
+     * 
+     * @return the future for the connected socket
+     */
+    private CompletableFuture<NetSocket> connect()
+    {
+        NetClientOptions options = new NetClientOptions();
+        options.setReconnectAttempts(3);
+        options.setConnectTimeout(5000);
+        options.setReconnectInterval(1000);
+        
+        final NetClient netClient = vertx.createNetClient(options);
+        
+        final CompletableFuture<NetSocket> future = new CompletableFuture<NetSocket>();
+        
+        netClient.connect(iPort, sHost, new Handler<AsyncResult<NetSocket>>()
+        {
+            public void handle(AsyncResult<NetSocket> pResult)
+            {
+                synchronized (Pipeline.this)
+                {
+                    if (cfConnect == future)
+                    {
+                        cfConnect = null;
+                    }
+                    
+                    if (!pResult.succeeded())
+                    {
+                        LoggerFactory.getInstance(Pipeline.class).error(pResult.cause());
+                        
+                        netClient.close();
+                        
+                        future.completeExceptionally(pResult.cause());
+                        
+                        return;
+                    }
+                    
+                    final NetSocket sock = pResult.result();
+                    
+                    //don't use a socket after timeout
+                    if (future.isCancelled())
+                    {
+                        sock.close();
+                        netClient.close();
+                        
+                        return;
+                    }
+                    
+                    client = netClient;
+                    socket = sock;
+                    context = Vertx.currentContext();
+                    
+                    FrameHandler handler = new FrameHandler();
+                    handler.parser = RecordParser.newFixed(HEADER_LENGTH, handler);
+                    handler.sockFrames = sock;
+                    
+                    sock.handler(handler.parser);
+                    sock.exceptionHandler(new Handler<Throwable>()
+                    {
+                        public void handle(Throwable pException)
+                        {
+                            LoggerFactory.getInstance(Pipeline.class).debug(pException);
+                            
+                            disconnected(sock);
+                        }
+                    });
+                    sock.endHandler(new Handler<Void>()
+                    {
+                        public void handle(Void pParam)
+                        {
+                            disconnected(sock);
+                        }
+                    });
+                    
+                    sock.write(Buffer.buffer(new byte[] {NetSocketConnection.STREAM_PIPELINE}));
+                    
+                    future.complete(sock);
+                }
+            }
+        });
+        
+        return future;
+    }
+    
+    /**
+     * Closes the pipeline. All pending requests will be finished.
+     */
+    public synchronized void close()
+    {
+        if (cfConnect != null)
+        {
+            cfConnect.cancel(false);
+            cfConnect = null;
+        }
+        
+        if (socket != null)
+        {
+            socket.exceptionHandler(null);
+            socket.endHandler(null);
+            socket.handler(null);
+            
+            socket.close();
+            socket = null;
+        }
+        
+        if (client != null)
+        {
+            client.close();
+            client = null;
+        }
+        
+        finishPending();
+    }
+    
+    /**
+     * Gets whether the pipeline is open.
+     * 
+     * @return <code>true</code> if the socket is connected
+     */
+    public synchronized boolean isOpen()
+    {
+        return socket != null;
+    }
+    
+    /**
+     * Gets the number of requests which wait for a response.
+     * 
+     * @return the number of pending requests
+     */
+    public int getPendingCount()
+    {
+        return mpPending.size();
+    }
+    
+    /**
+     * Gets the vert.x instance.
+     * 
+     * @return the instance
+     */
+    public Vertx getVertx()
+    {
+        return vertx;
+    }
+    
+    /**
+     * Gets the server hostname or ip.
+     * 
+     * @return the hostname or ip
+     */
+    public String getHost()
+    {
+        return sHost;
+    }
+    
+    /**
+     * Gets the server port.
+     * 
+     * @return the port
+     */
+    public int getPort()
+    {
+        return iPort;
+    }
+    
+    /**
+     * Sends a request.
+     * 
+     * @param pKey the ordering key
+     * @param pRequest the request
+     * @return the stream for reading the response
+     * @throws IOException if the pipeline is closed
+     */
+    SyncedInputStream send(String pKey, byte[] pRequest) throws IOException
+    {
+        final NetSocket sock;
+        final Context ctx;
+        
+        synchronized (this)
+        {
+            sock = socket;
+            ctx = context;
+        }
+        
+        if (sock == null)
+        {
+            throw new IOException("Pipeline is closed!");
+        }
+        
+        Integer id = Integer.valueOf(aiNextId.incrementAndGet());
+        
+        SyncedInputStream stream = new SyncedInputStream();
+        
+        mpPending.put(id, stream);
+        
+        Buffer bufKey = Buffer.buffer(pKey == null ? "" : pKey, "UTF-8");
+        
+        final Buffer buffer = Buffer.buffer(HEADER_LENGTH + 2 + bufKey.length() + pRequest.length);
+        buffer.appendInt(id.intValue());
+        buffer.appendInt(2 + bufKey.length() + pRequest.length);
+        buffer.appendShort((short)bufKey.length());
+        buffer.appendBuffer(bufKey);
+        buffer.appendBytes(pRequest);
+        
+        //write on the context of the socket, otherwise the request won't be flushed
+        //while a response is read
+        ctx.runOnContext(new Handler<Void>()
+        {
+            public void handle(Void pParam)
+            {
+                sock.write(buffer);
+            }
+        });
+        
+        return stream;
+    }
+    
+    /**
+     * Removes a pending request, e.g. if the response is no longer needed.
+     * 
+     * @param pStream the response stream of the request
+     */
+    void release(InputStream pStream)
+    {
+        mpPending.values().remove(pStream);
+    }
+    
+    /**
+     * Cancels a pending request. The server stops processing the request and the response stream
+     * will be finished.
+     * 
+     * @param pStream the response stream of the request
+     */
+    void cancel(SyncedInputStream pStream)
+    {
+        Integer id = null;
+        
+        for (Map.Entry<Integer, SyncedInputStream> entry : mpPending.entrySet())
+        {
+            if (entry.getValue() == pStream)
+            {
+                id = entry.getKey();
+                
+                break;
+            }
+        }
+        
+        //the response was already received
+        if (id == null || mpPending.remove(id) == null)
+        {
+            return;
+        }
+        
+        pStream.cancel();
+        
+        final NetSocket sock;
+        final Context ctx;
+        
+        synchronized (this)
+        {
+            sock = socket;
+            ctx = context;
+        }
+        
+        if (sock == null)
+        {
+            return;
+        }
+        
+        final Buffer buffer = Buffer.buffer(HEADER_LENGTH);
+        buffer.appendInt(id.intValue());
+        buffer.appendInt(FRAME_CANCEL);
+        
+        ctx.runOnContext(new Handler<Void>()
+        {
+            public void handle(Void pParam)
+            {
+                sock.write(buffer);
+            }
+        });
+    }
+    
+    /**
+     * Handles a lost connection.
+     * 
+     * @param pSocket the lost socket
+     */
+    private synchronized void disconnected(NetSocket pSocket)
+    {
+        if (socket == pSocket)
+        {
+            socket = null;
+            
+            if (client != null)
+            {
+                client.close();
+                client = null;
+            }
+        }
+        
+        finishPending();
+    }
+    
+    /**
+     * Finishes all pending requests.
+     */
+    private void finishPending()
+    {
+        for (SyncedInputStream stream : mpPending.values())
+        {
+            stream.finish();
+        }
+        
+        mpPending.clear();
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+    
+    /**
+     * The <code>FrameHandler</code> parses response frames and forwards the content
+     * to the pending request.
+     * 
+     * @author agent
+     */
+    private final class FrameHandler implements Handler<Buffer>
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the parser. */
+        private RecordParser parser;
+        
+        /** the socket of the frames. */
+        private NetSocket sockFrames;
+        
+        /** the id of the current frame. */
+        private int iId;
+        
+        /** whether the content of the current frame is expected. */
+        private boolean bContent;
+        
+        /** whether the frames are out of sync. */
+        private boolean bInvalid;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Interface implementation
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * {@inheritDoc}
+         */
+        public void handle(Buffer pBuffer)
+        {
+            if (bInvalid)
+            {
+                return;
+            }
+            
+            if (!bContent)
+            {
+                iId = pBuffer.getInt(0);
+                
+                int iLength = pBuffer.getInt(4);
+                
+                if (iLength < 0)
+                {
+                    LoggerFactory.getInstance(Pipeline.class).error("Invalid frame length: ", Integer.valueOf(iLength));
+                    
+                    bInvalid = true;
+                    
+                    sockFrames.close();
+                    
+                    disconnected(sockFrames);
+                    
+                    return;
+                }
+                
+                if (iLength > 0)
+                {
+                    bContent = true;
+                    
+                    parser.fixedSizeMode(iLength);
+                    
+                    return;
+                }
+                
+                pBuffer = Buffer.buffer();
+            }
+            
+            SyncedInputStream stream = mpPending.remove(Integer.valueOf(iId));
+            
+            if (stream != null)
+            {
+                stream.receive(pBuffer);
+            }
+            
+            bContent = false;
+            
+            parser.fixedSizeMode(HEADER_LENGTH);
+        }
+        
+    }   // FrameHandler
+    
+}   // Pipeline
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.rad.remote.vertx;
+
+import java.io.IOException;
+
+/**
+ * The <code>ServerBusyException</code> will be thrown if the server rejected a call because it was busy.
+ * The call wasn't executed and can be retried after {@link #getRetryAfter()}.
+ * 
+ * @author agent
+ */
+public class ServerBusyException extends IOException
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** serialization version. */
+    private static final long serialVersionUID = 1L;
+    
+    /** the time in milliseconds, after which the call should be retried. */
+    private long lRetryAfter;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>ServerBusyException</code>.
+     * 
+     * @param pRetryAfter the time in milliseconds, after which the call should be retried
+     */
+    public ServerBusyException(long pRetryAfter)
+    {
+        super("Server is busy, retry after " + pRetryAfter + " ms!");
+        
+        lRetryAfter = pRetryAfter;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Gets the time after which the call should be retried.
+     * 
+     * @return the time in milliseconds
+     */
+    public long getRetryAfter()
+    {
+        return lRetryAfter;
+    }
+    
+}   // ServerBusyException
@@ -17,9 +17,13 @@
  * History
  *
  * 07.02.2015 - [JR] - creation
+ * 19.10.2026 - [agent] - write on the context of the stream
  */
 package com.sibvisions.rad.remote.vertx.io;
 
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.streams.WriteStream;
 
@@ -29,6 +33,10 @@ import java.io.OutputStream;
 /**
  * The <code>BufferOutputStream</code> is a simple OutputStream that stores written content into
  * a {@link Buffer} and flushes automatically if buffer is "full".
+ * <p>
+ * If a context is set, buffers which are flushed from other threads will be written on this
+ * context. A socket which is written from a foreign thread while the event loop reads from it,
+ * wouldn't flush the written data.
  * 
  * @author Ren Jahn
  */
@@ -44,6 +52,9 @@ public class BufferOutputStream extends OutputStream
     /** the buffer. */
     protected Buffer buffer = Buffer.buffer();
     
+    /** the context of the write stream. */
+    private Context context;
+    
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Initialization
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -54,8 +65,20 @@ public class BufferOutputStream extends OutputStream
      * @param pStream the write stream
      */
     public BufferOutputStream(WriteStream<Buffer> pStream)
+    {
+        this(pStream, null);
+    }
+    
+    /**
+     * Creates a new instance of <code>BufferOutputStream</code>.
+     * 
+     * @param pStream the write stream
+     * @param pContext the context of the write stream or <code>null</code> to write from the current thread
+     */
+    public BufferOutputStream(WriteStream<Buffer> pStream, Context pContext)
     {
         stream = pStream;
+        context = pContext;
     }
     
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -86,9 +109,24 @@ public class BufferOutputStream extends OutputStream
     @Override
     public synchronized void flush()
     {
-        stream.write(buffer);
+        final Buffer bufWrite = buffer;
         
         buffer = Buffer.buffer();
+        
+        if (context == null || Vertx.currentContext() == context)
+        {
+            stream.write(bufWrite);
+        }
+        else
+        {
+            context.runOnContext(new Handler<Void>()
+            {
+                public void handle(Void pParam)
+                {
+                    stream.write(bufWrite);
+                }
+            });
+        }
     }
     
     /**
@@ -17,6 +17,15 @@
  * History
  *
  * 07.02.2015 - [JR] - creation
+ * 19.10.2026 - [agent] - fixed lost notification (check for data while holding the monitor)
+ * 19.10.2026 - [agent] - waitStarted, waitFinished
+ * 19.10.2026 - [agent] - deadline, peek
+ * 19.10.2026 - [agent] - cancel
+ * 19.10.2026 - [agent] - available
+ * 19.10.2026 - [agent] - read timeout, minimum data rate
+ * 19.10.2026 - [agent] - end
+ * 19.10.2026 - [agent] - interrupted reads fail
+ * 19.10.2026 - [agent] - compact
  */
 package com.sibvisions.rad.remote.vertx.io;
 
@@ -24,10 +33,19 @@ import io.vertx.core.buffer.Buffer;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
 
 /**
  * The <code>SyncedInputStream</code> is a simple {@link InputStream} that syncs the
  * access to received content.
+ * <p>
+ * Reading fails with a {@link SocketTimeoutException}, if no bytes were received within the read timeout or
+ * the bytes were received slower than the minimum data rate. The rate will be checked after the grace period,
+ * from the first received byte.
+ * <p>
+ * Reading fails with an {@link InterruptedIOException}, if the reading thread was interrupted while waiting
+ * for data. The interrupt status of the thread stays set.
  * 
  * @author Ren Jahn
  */
@@ -37,6 +55,15 @@ public class SyncedInputStream extends InputStream
     // Class members
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     
+    /** the reason of a failed read, if no bytes were received within the read timeout. */
+    public static final String TIMEOUT_IDLE = "idle";
+    
+    /** the reason of a failed read, if the bytes were received slower than the minimum data rate. */
+    public static final String TIMEOUT_DATA_RATE = "data_rate";
+    
+    /** the synchronization object for the buffer. */
+    private final Object syncBuffer = new Object();
+    
     /** the current data buffer. */ 
     private Buffer buffer;
 
@@ -45,6 +72,42 @@ public class SyncedInputStream extends InputStream
     
     /** whether the stream is finished. */
     boolean bFinish;
+    
+    /** whether no further bytes will be received. */
+    private boolean bEnd;
+    
+    /** the time in milliseconds, after which reading fails or <code>-1</code> to wait without limit. */
+    private volatile long lDeadline = -1;
+    
+    /** whether reading failed because the deadline passed. */
+    private volatile boolean bExpired;
+    
+    /** whether reading failed because the reading thread was interrupted. */
+    private volatile boolean bInterrupted;
+    
+    /** whether the stream was cancelled. */
+    private volatile boolean bCancelled;
+    
+    /** the maximum time in milliseconds without received bytes or <code>-1</code> to wait without limit. */
+    private volatile long lReadTimeout = -1;
+    
+    /** the minimum data rate in bytes per second or <code>-1</code> for no minimum. */
+    private volatile long lMinDataRate = -1;
+    
+    /** the time in milliseconds before the data rate will be checked. */
+    private volatile long lGracePeriod;
+    
+    /** the time in milliseconds, when the first bytes were received. */
+    private volatile long lFirstReceived;
+    
+    /** the time in milliseconds, when bytes were received for the last time. */
+    private volatile long lLastReceived;
+    
+    /** the number of received bytes. */
+    private volatile long lReceivedBytes;
+    
+    /** the reason of a failed read because of the read timeout or the data rate. */
+    private volatile String sTimeoutReason;
 
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Initialization
@@ -68,7 +131,7 @@ public class SyncedInputStream extends InputStream
     @Override
     public int read(byte[] pByte, int pOffset, int pLength) throws IOException
     {
-        if (bFinish)
+        if (bFinish && !bCancelled)
         {
             return -1;
         }
@@ -87,36 +150,11 @@ public class SyncedInputStream extends InputStream
             return 0;
         }
 
-        int iBufferLength;
+        int iBufferLength = waitForData();
         
-        synchronized (buffer)
-        {
-            iBufferLength = buffer.length();
-        }
-
-        if (iPos == iBufferLength)
-        {
-            synchronized(this)
-            {
-                try
-                {
-                    wait();
-                }
-                catch (Exception e)
-                {
-                    //ignore
-                }
-            }
-            
-            if (bFinish)
-            {
-                throw new IOException("Stream already closed!");
-            }
-        }
-
-        synchronized (buffer)
+        if (iPos == iBufferLength && bFinish)
         {
-            iBufferLength = buffer.length();
+            throw new IOException("Stream already closed!");
         }
 
         if (iPos == iBufferLength)
@@ -146,44 +184,34 @@ public class SyncedInputStream extends InputStream
     @Override
     public int read() throws IOException
     {
-        if (bFinish)
+        if (bFinish && !bCancelled)
         {
             return -1;
         }
 
-        int iBufferLength;
-            
-        synchronized (buffer)
+        if (iPos == waitForData())
         {
-            iBufferLength = buffer.length();
+            return -1;
         }
         
-        if (iPos == iBufferLength)
+        return buffer.getByte(iPos++) & 0xFF;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int available()
+    {
+        if (bFinish)
         {
-            synchronized(this)
-            {
-                try
-                {
-                    wait();
-                }
-                catch (Exception e)
-                {
-                    //ignore
-                }
-            }
+            return 0;
         }
         
-        synchronized (buffer)
+        synchronized (syncBuffer)
         {
-            iBufferLength = buffer.length();
+            return buffer.length() - iPos;
         }
-        
-        if (iPos == iBufferLength)
-        {
-            return -1;
-        }
-        
-        return buffer.getByte(iPos++) & 0xFF;
     }
     
     /**
@@ -206,9 +234,17 @@ public class SyncedInputStream extends InputStream
      */
     public void receive(Buffer pBuffer)
     {
-        synchronized (buffer)
+        synchronized (syncBuffer)
         {
             buffer.appendBuffer(pBuffer);
+            
+            lLastReceived = System.currentTimeMillis();
+            lReceivedBytes += pBuffer.length();
+            
+            if (lFirstReceived == 0)
+            {
+                lFirstReceived = lLastReceived;
+            }
         }
 
         synchronized(this)
@@ -217,6 +253,302 @@ public class SyncedInputStream extends InputStream
         }           
     }
     
+    /**
+     * Drops the read bytes. A stream which is read by several requests would keep all their bytes
+     * otherwise. Has to be called by the reading thread.
+     */
+    public void compact()
+    {
+        synchronized (syncBuffer)
+        {
+            if (iPos > 0)
+            {
+                buffer = buffer.getBuffer(iPos, buffer.length());
+                
+                iPos = 0;
+            }
+        }
+    }
+    
+    /**
+     * Gets the next byte without reading it. Waits until data is available.
+     * 
+     * @return the next byte or <code>-1</code> if the stream is finished
+     * @throws IOException if the deadline passed, the stream was cancelled or the reading thread was interrupted
+     */
+    public int peek() throws IOException
+    {
+        if (bFinish && !bCancelled)
+        {
+            return -1;
+        }
+        
+        if (iPos == waitForData())
+        {
+            return -1;
+        }
+        
+        return buffer.getByte(iPos) & 0xFF;
+    }
+    
+    /**
+     * Sets the time after which reading fails, if no data is available.
+     * 
+     * @param pDeadline the time in milliseconds (see {@link System#currentTimeMillis()}) or <code>-1</code> to
+     *                  wait without limit
+     */
+    public void setDeadline(long pDeadline)
+    {
+        lDeadline = pDeadline;
+    }
+    
+    /**
+     * Gets the time after which reading fails, if no data is available.
+     * 
+     * @return the time in milliseconds or <code>-1</code> if reading waits without limit
+     */
+    public long getDeadline()
+    {
+        return lDeadline;
+    }
+    
+    /**
+     * Gets whether reading failed because the deadline passed.
+     * 
+     * @return <code>true</code> if the deadline passed while waiting for data
+     */
+    public boolean isExpired()
+    {
+        return bExpired;
+    }
+    
+    /**
+     * Gets whether reading failed because the reading thread was interrupted.
+     * 
+     * @return <code>true</code> if the thread was interrupted while waiting for data
+     */
+    public boolean isInterrupted()
+    {
+        return bInterrupted;
+    }
+    
+    /**
+     * Sets the maximum time without received bytes, while reading waits for data.
+     * 
+     * @param pTimeout the time in milliseconds or <code>-1</code> to wait without limit
+     */
+    public void setReadTimeout(long pTimeout)
+    {
+        lReadTimeout = pTimeout;
+    }
+    
+    /**
+     * Gets the maximum time without received bytes.
+     * 
+     * @return the time in milliseconds or <code>-1</code> if reading waits without limit
+     */
+    public long getReadTimeout()
+    {
+        return lReadTimeout;
+    }
+    
+    /**
+     * Sets the minimum data rate. Reading fails, if it waits for data and the bytes since the first received
+     * byte were received slower.
+     * 
+     * @param pRate the rate in bytes per second or <code>-1</code> for no minimum
+     * @param pGracePeriod the time in milliseconds after the first received byte, before the rate will be checked
+     */
+    public void setMinDataRate(long pRate, long pGracePeriod)
+    {
+        lMinDataRate = pRate;
+        lGracePeriod = pGracePeriod;
+    }
+    
+    /**
+     * Gets the minimum data rate.
+     * 
+     * @return the rate in bytes per second or <code>-1</code> if there's no minimum
+     */
+    public long getMinDataRate()
+    {
+        return lMinDataRate;
+    }
+    
+    /**
+     * Gets the time before the data rate will be checked.
+     * 
+     * @return the time in milliseconds after the first received byte
+     */
+    public long getMinDataRateGracePeriod()
+    {
+        return lGracePeriod;
+    }
+    
+    /**
+     * Gets the reason, if reading failed because of the read timeout or the minimum data rate.
+     * 
+     * @return {@link #TIMEOUT_IDLE}, {@link #TIMEOUT_DATA_RATE} or <code>null</code> if reading didn't fail
+     *         because of the client
+     */
+    public String getTimeoutReason()
+    {
+        return sTimeoutReason;
+    }
+    
+    /**
+     * Waits until unread data is available or the stream is finished. The buffer length
+     * will be checked while holding the monitor, otherwise a notification between the check
+     * and the wait would be lost.
+     * 
+     * @return the current buffer length
+     * @throws SocketTimeoutException if the deadline passed, the read timeout elapsed or the data rate is too low
+     * @throws InterruptedIOException if the stream was cancelled or the reading thread was interrupted
+     */
+    private synchronized int waitForData() throws InterruptedIOException
+    {
+        if (bCancelled)
+        {
+            throw new InterruptedIOException("Call cancelled!");
+        }
+        
+        int iBufferLength;
+        
+        synchronized (syncBuffer)
+        {
+            iBufferLength = buffer.length();
+        }
+        
+        if (iPos < iBufferLength || bFinish || bEnd)
+        {
+            return iBufferLength;
+        }
+        
+        waitStarted();
+        
+        long lWaitStart = System.currentTimeMillis();
+        
+        try
+        {
+            while (iPos == iBufferLength && !bFinish && !bEnd)
+            {
+                try
+                {
+                    long lWait = getWaitTime(lWaitStart);
+                    
+                    if (lWait < 0)
+                    {
+                        wait();
+                    }
+                    else
+                    {
+                        wait(lWait);
+                    }
+                }
+                catch (InterruptedException ie)
+                {
+                    bInterrupted = true;
+                    
+                    Thread.currentThread().interrupt();
+                    
+                    //the stream didn't end, so don't report end of stream
+                    throw new InterruptedIOException("Read interrupted!");
+                }
+                
+                synchronized (syncBuffer)
+                {
+                    iBufferLength = buffer.length();
+                }
+            }
+        }
+        finally
+        {
+            waitFinished();
+        }
+        
+        if (bCancelled)
+        {
+            throw new InterruptedIOException("Call cancelled!");
+        }
+        
+        return iBufferLength;
+    }
+    
+    /**
+     * Gets the maximum time to wait for data, until the deadline passes, the read timeout elapses or the
+     * data rate falls below the minimum.
+     * 
+     * @param pWaitStart the time in milliseconds, when waiting started
+     * @return the time in milliseconds or <code>-1</code> to wait without limit
+     * @throws SocketTimeoutException if the deadline passed, the read timeout elapsed or the data rate is too low
+     */
+    private long getWaitTime(long pWaitStart) throws SocketTimeoutException
+    {
+        long lNow = System.currentTimeMillis();
+        
+        long lWait = -1;
+        
+        if (lDeadline >= 0)
+        {
+            lWait = lDeadline - lNow;
+            
+            if (lWait <= 0)
+            {
+                bExpired = true;
+                
+                throw new SocketTimeoutException("Deadline passed!");
+            }
+        }
+        
+        if (lReadTimeout >= 0)
+        {
+            long lRemaining = Math.max(pWaitStart, lLastReceived) + lReadTimeout - lNow;
+            
+            if (lRemaining <= 0)
+            {
+                sTimeoutReason = TIMEOUT_IDLE;
+                
+                throw new SocketTimeoutException("Read timed out!");
+            }
+            
+            lWait = lWait < 0 ? lRemaining : Math.min(lWait, lRemaining);
+        }
+        
+        long lFirst = lFirstReceived;
+        
+        if (lMinDataRate > 0 && lFirst > 0)
+        {
+            //without further bytes, the rate falls below the minimum at this time
+            long lRemaining = lFirst + Math.max(lGracePeriod, lReceivedBytes * 1000 / lMinDataRate) - lNow;
+            
+            if (lRemaining <= 0)
+            {
+                sTimeoutReason = TIMEOUT_DATA_RATE;
+                
+                throw new SocketTimeoutException("Data rate too low!");
+            }
+            
+            lWait = lWait < 0 ? lRemaining : Math.min(lWait, lRemaining);
+        }
+        
+        return lWait;
+    }
+    
+    /**
+     * Notification that the reading thread starts waiting for data, because all received data
+     * was read.
+     */
+    protected void waitStarted()
+    {
+    }
+    
+    /**
+     * Notification that the reading thread stopped waiting for data.
+     */
+    protected void waitFinished()
+    {
+    }
+    
     /**
      * Finish the stream. It no longer reads bytes.
      */
@@ -230,4 +562,38 @@ public class SyncedInputStream extends InputStream
         }           
     }
     
+    /**
+     * Ends the stream, because no further bytes will be received, e.g. the connection was closed.
+     * The received bytes can still be read.
+     */
+    public void end()
+    {
+        synchronized(this)
+        {
+            bEnd = true;
+            
+            notify();
+        }           
+    }
+    
+    /**
+     * Cancels the stream. Reading fails, because nobody will send the remaining data.
+     */
+    public void cancel()
+    {
+        bCancelled = true;
+        
+        finish();
+    }
+    
+    /**
+     * Gets whether the stream was cancelled.
+     * 
+     * @return <code>true</code> if reading fails because the stream was cancelled
+     */
+    public boolean isCancelled()
+    {
+        return bCancelled;
+    }
+    
 }   // SyncedInputStream
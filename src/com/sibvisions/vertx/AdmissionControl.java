@@ -0,0 +1,1085 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - weighted fair scheduling per session
+ * 19.10.2026 - [agent] - named lanes for calls and transfers
+ * 19.10.2026 - [agent] - documented threads of waiting NetSocket calls
+ * 19.10.2026 - [agent] - remove sessions of closed connections and destroyed sessions
+ */
+package com.sibvisions.vertx;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sibvisions.rad.remote.vertx.NetSocketConnection;
+import com.sibvisions.vertx.metrics.Metrics;
+
+/**
+ * The <code>AdmissionControl</code> limits the number of concurrent JVx calls. If all permits are in use,
+ * a call waits in a bounded queue until a call finishes or the queue timeout elapses. If the queue is full,
+ * the call will be rejected immediately. Rejected calls get an answer which tells the client when to retry:
+ * http calls get <code>503 Service Unavailable</code> with <code>Retry-After</code>, NetSocket calls the
+ * {@link NetSocketConnection#RESPONSE_BUSY} response.
+ * <p>
+ * Calls are queued per session key, e.g. the connection id. A free permit goes to the waiting session with
+ * the lowest pass. The pass of a session grows with the execution time of its calls divided by its weight,
+ * so sessions get worker time in proportion to their weights and one session with long running calls 
+ * can't starve the others. A session which was idle starts with the pass of the last admitted call, it 
+ * doesn't save up worker time. The calls of a session are admitted in the received order. Additionally,
+ * the number of concurrent calls per session can be limited. A busy session keeps its pass until its
+ * connection is closed or it was destroyed, see {@link #remove(String)}.
+ * <p>
+ * Every admission control is an independent lane with its own limits and metrics, e.g. the servers use
+ * one lane for JVx calls and another one for uploads and downloads. A long running transfer occupies a 
+ * permit of the transfer lane and doesn't block short calls.
+ * <p>
+ * The event loop admits calls asynchronously, worker threads which already exist wait for admission.
+ * Every NetSocket connection has its own processing thread, which blocks until the start of the next 
+ * request was received, reads the call deadline and waits for admission. So a waiting NetSocket call holds
+ * the thread of its connection and the admission control limits the concurrent execution, not the number 
+ * of threads. Http calls and pipelined calls don't hold a thread while they wait.
+ * By default, the number of concurrent calls isn't limited.
+ * 
+ * @author agent
+ */
+public class AdmissionControl
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the rejection reason if the queue is full. */
+    public static final String REJECTED_QUEUE_FULL = "full";
+    
+    /** the rejection reason if the queue timeout elapsed. */
+    public static final String REJECTED_TIMEOUT = "timeout";
+    
+    /** the lane of JVx calls. */
+    public static final String LANE_CALLS = "calls";
+    
+    /** the lane of uploads and downloads. */
+    public static final String LANE_TRANSFERS = "transfers";
+    
+    /** the sessions with running or waiting calls. */
+    private Map<String, Lane> mpLanes = new LinkedHashMap<String, Lane>();
+    
+    /** the weights per session key. */
+    private Map<String, Integer> mpWeights = new HashMap<String, Integer>();
+    
+    /** the metrics. */
+    private Metrics metrics;
+    
+    /** the lane name. */
+    private String sName;
+    
+    /** the pass of the last admitted call in milliseconds of worker time. */
+    private double dVirtualTime;
+    
+    /** the number of running calls. */
+    private int iRunning;
+    
+    /** the number of waiting calls. */
+    private int iQueued;
+    
+    /** the maximum number of concurrent calls. */
+    private int iMaxConcurrentCalls = -1;
+    
+    /** the maximum number of concurrent calls per session. */
+    private int iMaxSessionCalls = -1;
+    
+    /** the maximum number of waiting calls. */
+    private int iMaxQueuedCalls = 100;
+    
+    /** the weight of sessions without configured weight. */
+    private int iDefaultWeight = 1;
+    
+    /** the maximum wait time in milliseconds. */
+    private long lQueueTimeout = 5000;
+    
+    /** the time in milliseconds, after which a rejected client should retry. */
+    private long lRetryAfter = 1000;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>AdmissionControl</code> for JVx calls.
+     */
+    public AdmissionControl()
+    {
+        this(LANE_CALLS);
+    }
+    
+    /**
+     * Creates a new instance of <code>AdmissionControl</code>.
+     * 
+     * @param pName the lane name, e.g. {@link #LANE_CALLS} or {@link #LANE_TRANSFERS}
+     */
+    public AdmissionControl(String pName)
+    {
+        sName = pName;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Admits a call without session asynchronously.
+     * 
+     * @param pContext the context of the caller
+     * @param pHandler the handler which gets <code>true</code> if the call was admitted, <code>false</code> 
+     *                 if it was rejected
+     * @see #acquire(String, Context, Handler)
+     */
+    public void acquire(Context pContext, Handler<Boolean> pHandler)
+    {
+        acquire(null, pContext, pHandler);
+    }
+    
+    /**
+     * Admits a call asynchronously. The handler will be notified on the given context, immediately if
+     * a permit is available or the queue is full, otherwise when a call finishes or the queue timeout
+     * elapses. An admitted call has to be released with {@link #release(String)}.
+     * 
+     * @param pKey the session key or <code>null</code> if the call has no session
+     * @param pContext the context of the caller
+     * @param pHandler the handler which gets <code>true</code> if the call was admitted, <code>false</code> 
+     *                 if it was rejected
+     */
+    public void acquire(String pKey, Context pContext, Handler<Boolean> pHandler)
+    {
+        final Waiter waiter;
+        
+        synchronized (this)
+        {
+            Lane lane = getLane(pKey);
+            
+            if (tryAcquire(lane))
+            {
+                waiter = null;
+            }
+            else if (iQueued < iMaxQueuedCalls)
+            {
+                waiter = new Waiter(lane, pContext, pHandler);
+                
+                enqueue(waiter);
+                
+                waiter.lTimerId = pContext.owner().setTimer(Math.max(1, lQueueTimeout), new Handler<Long>()
+                {
+                    public void handle(Long pTimerId)
+                    {
+                        expire(waiter);
+                    }
+                });
+            }
+            else
+            {
+                removeIfIdle(lane);
+                
+                rejected(REJECTED_QUEUE_FULL);
+                
+                pHandler.handle(Boolean.FALSE);
+                
+                return;
+            }
+        }
+        
+        if (waiter == null)
+        {
+            pHandler.handle(Boolean.TRUE);
+        }
+    }
+    
+    /**
+     * Admits a call without session of the current thread.
+     * 
+     * @return <code>true</code> if the call was admitted, <code>false</code> if it was rejected
+     * @see #acquire(String)
+     */
+    public boolean acquire()
+    {
+        return acquire(null);
+    }
+    
+    /**
+     * Admits a call of the current thread. The thread waits until a permit is available or the queue timeout
+     * elapses. An admitted call has to be released with {@link #release(String)}.
+     * 
+     * @param pKey the session key or <code>null</code> if the call has no session
+     * @return <code>true</code> if the call was admitted, <code>false</code> if it was rejected
+     */
+    public synchronized boolean acquire(String pKey)
+    {
+        Lane lane = getLane(pKey);
+        
+        if (tryAcquire(lane))
+        {
+            return true;
+        }
+        
+        if (iQueued >= iMaxQueuedCalls)
+        {
+            removeIfIdle(lane);
+            
+            rejected(REJECTED_QUEUE_FULL);
+            
+            return false;
+        }
+        
+        Waiter waiter = new Waiter(lane, null, null);
+        
+        enqueue(waiter);
+        
+        long lEnd = System.currentTimeMillis() + lQueueTimeout;
+        long lWait = lQueueTimeout;
+        
+        try
+        {
+            while (!waiter.bAdmitted && lWait > 0)
+            {
+                wait(lWait);
+                
+                lWait = lEnd - System.currentTimeMillis();
+            }
+        }
+        catch (InterruptedException ie)
+        {
+            Thread.currentThread().interrupt();
+        }
+        
+        if (waiter.bAdmitted)
+        {
+            return true;
+        }
+        
+        dequeue(waiter);
+        
+        rejected(REJECTED_TIMEOUT);
+        
+        return false;
+    }
+    
+    /**
+     * Releases the permit of a finished call without session.
+     * 
+     * @see #release(String)
+     */
+    public void release()
+    {
+        release(null);
+    }
+    
+    /**
+     * Releases the permit of a finished call. The free permits will be handed over to the waiting calls
+     * of the sessions with the lowest pass.
+     * 
+     * @param pKey the session key which was used for admission
+     */
+    public void release(String pKey)
+    {
+        List<Waiter> liAdmitted;
+        
+        synchronized (this)
+        {
+            Lane lane = mpLanes.get(toKey(pKey));
+            
+            iRunning--;
+            
+            running(-1);
+            
+            if (lane != null)
+            {
+                accrue(lane, System.nanoTime());
+                
+                lane.iRunning--;
+            }
+            
+            liAdmitted = dispatch();
+            
+            removeIdle();
+        }
+        
+        if (liAdmitted != null)
+        {
+            for (Waiter waiter : liAdmitted)
+            {
+                waiter.context.owner().cancelTimer(waiter.lTimerId);
+                
+                waiter.notify(Boolean.TRUE);
+            }
+        }
+    }
+    
+    /**
+     * Removes a session, because its connection was closed or it was destroyed. A session with running or
+     * waiting calls will be removed after its last call. A new call with the key starts a new session.
+     * 
+     * @param pKey the session key
+     */
+    public synchronized void remove(String pKey)
+    {
+        Lane lane = mpLanes.get(toKey(pKey));
+        
+        if (lane != null)
+        {
+            lane.bRemoved = true;
+            
+            removeIfIdle(lane);
+        }
+    }
+    
+    /**
+     * Creates the NetSocket response for a rejected call.
+     * 
+     * @return the {@link NetSocketConnection#RESPONSE_BUSY} response with the retry time in milliseconds
+     */
+    public byte[] createBusyResponse()
+    {
+        long lRetry = Math.min(Integer.MAX_VALUE, Math.max(0, lRetryAfter));
+        
+        return new byte[] {NetSocketConnection.RESPONSE_BUSY, 
+                           (byte)(lRetry >>> 24), (byte)(lRetry >>> 16), (byte)(lRetry >>> 8), (byte)lRetry};
+    }
+    
+    /**
+     * Gets a permit if a permit is available and no call of the session waits.
+     * 
+     * @param pLane the session
+     * @return <code>true</code> if the call got a permit
+     */
+    private boolean tryAcquire(Lane pLane)
+    {
+        if (pLane.queue.isEmpty() && isPermitAvailable() && isPermitAvailable(pLane))
+        {
+            start(pLane);
+            
+            return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Gets whether the number of running calls is below the limit.
+     * 
+     * @return <code>true</code> if a call can start
+     */
+    private boolean isPermitAvailable()
+    {
+        return iMaxConcurrentCalls < 0 || iRunning < iMaxConcurrentCalls;
+    }
+    
+    /**
+     * Gets whether the number of running calls of a session is below the limit.
+     * 
+     * @param pLane the session
+     * @return <code>true</code> if a call of the session can start
+     */
+    private boolean isPermitAvailable(Lane pLane)
+    {
+        return iMaxSessionCalls < 0 || pLane.iRunning < iMaxSessionCalls;
+    }
+    
+    /**
+     * Starts a call of a session.
+     * 
+     * @param pLane the session
+     */
+    private void start(Lane pLane)
+    {
+        accrue(pLane, System.nanoTime());
+        
+        //an idle session doesn't save up worker time
+        pLane.dPass = Math.max(pLane.dPass, dVirtualTime);
+        pLane.iRunning++;
+        
+        dVirtualTime = pLane.dPass;
+        
+        iRunning++;
+        
+        running(1);
+    }
+    
+    /**
+     * Adds the execution time of the running calls of a session to its pass.
+     * 
+     * @param pLane the session
+     * @param pNow the current time in nanoseconds
+     */
+    private static void accrue(Lane pLane, long pNow)
+    {
+        pLane.dPass = getPass(pLane, pNow);
+        pLane.lChanged = pNow;
+    }
+    
+    /**
+     * Gets the pass of a session including the execution time of its running calls.
+     * 
+     * @param pLane the session
+     * @param pNow the current time in nanoseconds
+     * @return the pass in milliseconds of worker time
+     */
+    private static double getPass(Lane pLane, long pNow)
+    {
+        return pLane.dPass + pLane.iRunning * ((pNow - pLane.lChanged) / 1000000.0) / pLane.iWeight;
+    }
+    
+    /**
+     * Admits waiting calls while permits are available. Waiting threads will be notified, asynchronous
+     * calls have to be notified by the caller without holding the monitor.
+     * 
+     * @return the admitted asynchronous calls or <code>null</code> if no asynchronous call was admitted
+     */
+    private List<Waiter> dispatch()
+    {
+        List<Waiter> liAdmitted = null;
+        
+        boolean bNotify = false;
+        
+        while (iQueued > 0 && isPermitAvailable())
+        {
+            Lane lane = nextLane();
+            
+            if (lane == null)
+            {
+                break;
+            }
+            
+            Waiter waiter = lane.queue.poll();
+            
+            iQueued--;
+            
+            queued(-1);
+            
+            start(lane);
+            
+            waiter.bAdmitted = true;
+            
+            if (waiter.context == null)
+            {
+                bNotify = true;
+            }
+            else
+            {
+                if (liAdmitted == null)
+                {
+                    liAdmitted = new ArrayList<Waiter>();
+                }
+                
+                liAdmitted.add(waiter);
+            }
+        }
+        
+        if (bNotify)
+        {
+            notifyAll();
+        }
+        
+        return liAdmitted;
+    }
+    
+    /**
+     * Gets the session with waiting calls and the lowest pass, which didn't reach its limit.
+     * 
+     * @return the session or <code>null</code> if no session can start a call
+     */
+    private Lane nextLane()
+    {
+        Lane laneNext = null;
+        
+        double dNext = 0;
+        
+        long lNow = System.nanoTime();
+        
+        for (Lane lane : mpLanes.values())
+        {
+            if (!lane.queue.isEmpty() && isPermitAvailable(lane))
+            {
+                double dPass = Math.max(getPass(lane, lNow), dVirtualTime);
+                
+                if (laneNext == null || dPass < dNext)
+                {
+                    laneNext = lane;
+                    dNext = dPass;
+                }
+            }
+        }
+        
+        return laneNext;
+    }
+    
+    /**
+     * Gets the session of a key. A new session will be created, if the key has no running or waiting
+     * calls.
+     * 
+     * @param pKey the session key or <code>null</code>
+     * @return the session
+     */
+    private Lane getLane(String pKey)
+    {
+        String sKey = toKey(pKey);
+        
+        Lane lane = mpLanes.get(sKey);
+        
+        if (lane == null)
+        {
+            lane = new Lane(sKey, getWeight(sKey));
+            
+            mpLanes.put(sKey, lane);
+        }
+        else
+        {
+            //the session is in use again
+            lane.bRemoved = false;
+        }
+        
+        return lane;
+    }
+    
+    /**
+     * Removes a session without running or waiting calls. A session with a pass beyond the virtual time
+     * will be kept, because the next call of a busy session must not start with a lower pass.
+     * 
+     * @param pLane the session
+     */
+    private void removeIfIdle(Lane pLane)
+    {
+        if (isIdle(pLane))
+        {
+            mpLanes.remove(pLane.sKey);
+        }
+    }
+    
+    /**
+     * Removes all sessions which are idle.
+     * 
+     * @see #removeIfIdle(Lane)
+     */
+    private void removeIdle()
+    {
+        for (Iterator<Lane> it = mpLanes.values().iterator(); it.hasNext();)
+        {
+            if (isIdle(it.next()))
+            {
+                it.remove();
+            }
+        }
+    }
+    
+    /**
+     * Gets whether a session has no running or waiting calls and no pass beyond the virtual time, or
+     * was removed.
+     * 
+     * @param pLane the session
+     * @return <code>true</code> if the session can be removed without losing its state
+     */
+    private boolean isIdle(Lane pLane)
+    {
+        return pLane.iRunning <= 0 && pLane.queue.isEmpty() && (pLane.bRemoved || pLane.dPass <= dVirtualTime);
+    }
+    
+    /**
+     * Gets the key of calls without session.
+     * 
+     * @param pKey the session key or <code>null</code>
+     * @return <code>pKey</code> or an empty string for <code>null</code>
+     */
+    private static String toKey(String pKey)
+    {
+        return pKey == null ? "" : pKey;
+    }
+    
+    /**
+     * Adds a call to the queue of its session.
+     * 
+     * @param pWaiter the waiting call
+     */
+    private void enqueue(Waiter pWaiter)
+    {
+        pWaiter.lane.queue.add(pWaiter);
+        
+        iQueued++;
+        
+        queued(1);
+    }
+    
+    /**
+     * Removes a call from the queue of its session.
+     * 
+     * @param pWaiter the waiting call
+     * @return <code>true</code> if the call was removed, <code>false</code> if it wasn't in the queue
+     */
+    private boolean dequeue(Waiter pWaiter)
+    {
+        if (!pWaiter.lane.queue.remove(pWaiter))
+        {
+            return false;
+        }
+        
+        iQueued--;
+        
+        queued(-1);
+        
+        removeIfIdle(pWaiter.lane);
+        
+        return true;
+    }
+    
+    /**
+     * Rejects a waiting call, if it wasn't admitted.
+     * 
+     * @param pWaiter the waiting call
+     */
+    private void expire(Waiter pWaiter)
+    {
+        synchronized (this)
+        {
+            if (pWaiter.bAdmitted || !dequeue(pWaiter))
+            {
+                return;
+            }
+            
+            rejected(REJECTED_TIMEOUT);
+        }
+        
+        pWaiter.notify(Boolean.FALSE);
+    }
+    
+    /**
+     * Counts waiting calls.
+     * 
+     * @param pDelta the number of new waiting calls
+     */
+    private void queued(int pDelta)
+    {
+        if (metrics != null)
+        {
+            metrics.getAdmissionQueue(sName).add(pDelta);
+        }
+    }
+    
+    /**
+     * Counts running calls.
+     * 
+     * @param pDelta the number of new running calls
+     */
+    private void running(int pDelta)
+    {
+        if (metrics != null)
+        {
+            metrics.getAdmissionRunning(sName).add(pDelta);
+        }
+    }
+    
+    /**
+     * Counts a rejected call.
+     * 
+     * @param pReason the reason
+     */
+    private void rejected(String pReason)
+    {
+        if (metrics != null)
+        {
+            metrics.recordRejected(sName, pReason);
+        }
+    }
+    
+    /**
+     * Gets the lane name.
+     * 
+     * @return the name, e.g. {@link #LANE_CALLS} or {@link #LANE_TRANSFERS}
+     */
+    public String getName()
+    {
+        return sName;
+    }
+    
+    /**
+     * Sets the metrics for running, waiting and rejected calls.
+     * 
+     * @param pMetrics the metrics or <code>null</code> to record nothing
+     */
+    public synchronized void setMetrics(Metrics pMetrics)
+    {
+        //the gauges follow the current calls
+        queued(-iQueued);
+        running(-iRunning);
+        
+        metrics = pMetrics;
+        
+        queued(iQueued);
+        running(iRunning);
+    }
+    
+    /**
+     * Gets the metrics for running, waiting and rejected calls.
+     * 
+     * @return the metrics or <code>null</code> if nothing will be recorded
+     */
+    public synchronized Metrics getMetrics()
+    {
+        return metrics;
+    }
+    
+    /**
+     * Sets the maximum number of concurrent calls.
+     * 
+     * @param pMaxConcurrentCalls the number of calls or <code>-1</code> for no limit
+     */
+    public void setMaxConcurrentCalls(int pMaxConcurrentCalls)
+    {
+        iMaxConcurrentCalls = pMaxConcurrentCalls;
+    }
+    
+    /**
+     * Gets the maximum number of concurrent calls.
+     * 
+     * @return the number of calls or <code>-1</code> if there's no limit
+     */
+    public int getMaxConcurrentCalls()
+    {
+        return iMaxConcurrentCalls;
+    }
+    
+    /**
+     * Sets the maximum number of concurrent calls per session. Further calls of the session wait, even
+     * if permits are available.
+     * 
+     * @param pMaxSessionCalls the number of calls or <code>-1</code> for no limit
+     */
+    public void setMaxSessionCalls(int pMaxSessionCalls)
+    {
+        iMaxSessionCalls = pMaxSessionCalls;
+    }
+    
+    /**
+     * Gets the maximum number of concurrent calls per session.
+     * 
+     * @return the number of calls or <code>-1</code> if there's no limit
+     */
+    public int getMaxSessionCalls()
+    {
+        return iMaxSessionCalls;
+    }
+    
+    /**
+     * Sets the maximum number of calls which wait for admission.
+     * 
+     * @param pMaxQueuedCalls the number of calls, <code>0</code> to reject calls immediately if no permit is available
+     */
+    public void setMaxQueuedCalls(int pMaxQueuedCalls)
+    {
+        iMaxQueuedCalls = pMaxQueuedCalls;
+    }
+    
+    /**
+     * Gets the maximum number of calls which wait for admission.
+     * 
+     * @return the number of calls
+     */
+    public int getMaxQueuedCalls()
+    {
+        return iMaxQueuedCalls;
+    }
+    
+    /**
+     * Sets the maximum time a call waits for admission.
+     * 
+     * @param pTimeout the time in milliseconds
+     */
+    public void setQueueTimeout(long pTimeout)
+    {
+        lQueueTimeout = pTimeout;
+    }
+    
+    /**
+     * Gets the maximum time a call waits for admission.
+     * 
+     * @return the time in milliseconds
+     */
+    public long getQueueTimeout()
+    {
+        return lQueueTimeout;
+    }
+    
+    /**
+     * Sets the time after which a rejected client should retry.
+     * 
+     * @param pRetryAfter the time in milliseconds
+     */
+    public void setRetryAfter(long pRetryAfter)
+    {
+        lRetryAfter = pRetryAfter;
+    }
+    
+    /**
+     * Gets the time after which a rejected client should retry.
+     * 
+     * @return the time in milliseconds
+     */
+    public long getRetryAfter()
+    {
+        return lRetryAfter;
+    }
+    
+    /**
+     * Sets the weight of a session. A session with weight 2 gets twice as much worker time as a session
+     * with weight 1, if both have waiting calls.
+     * 
+     * @param pKey the session key
+     * @param pWeight the weight, at least <code>1</code>, or <code>-1</code> to use the default weight
+     */
+    public synchronized void setWeight(String pKey, int pWeight)
+    {
+        String sKey = toKey(pKey);
+        
+        if (pWeight < 0)
+        {
+            mpWeights.remove(sKey);
+        }
+        else
+        {
+            mpWeights.put(sKey, Integer.valueOf(Math.max(1, pWeight)));
+        }
+        
+        Lane lane = mpLanes.get(sKey);
+        
+        if (lane != null)
+        {
+            accrue(lane, System.nanoTime());
+            
+            lane.iWeight = getWeight(sKey);
+        }
+    }
+    
+    /**
+     * Gets the weight of a session.
+     * 
+     * @param pKey the session key
+     * @return the configured weight or the default weight
+     */
+    public synchronized int getWeight(String pKey)
+    {
+        Integer iWeight = mpWeights.get(toKey(pKey));
+        
+        if (iWeight == null)
+        {
+            return iDefaultWeight;
+        }
+        
+        return iWeight.intValue();
+    }
+    
+    /**
+     * Sets the weight of sessions without configured weight.
+     * 
+     * @param pWeight the weight, at least <code>1</code>
+     */
+    public synchronized void setDefaultWeight(int pWeight)
+    {
+        iDefaultWeight = Math.max(1, pWeight);
+    }
+    
+    /**
+     * Gets the weight of sessions without configured weight.
+     * 
+     * @return the weight
+     */
+    public synchronized int getDefaultWeight()
+    {
+        return iDefaultWeight;
+    }
+    
+    /**
+     * Gets the number of running calls.
+     * 
+     * @return the number of calls
+     */
+    public synchronized int getRunningCalls()
+    {
+        return iRunning;
+    }
+    
+    /**
+     * Gets the number of running calls of a session.
+     * 
+     * @param pKey the session key
+     * @return the number of calls
+     */
+    public synchronized int getRunningCalls(String pKey)
+    {
+        Lane lane = mpLanes.get(toKey(pKey));
+        
+        return lane == null ? 0 : lane.iRunning;
+    }
+    
+    /**
+     * Gets the number of calls which wait for admission.
+     * 
+     * @return the number of calls
+     */
+    public synchronized int getQueuedCalls()
+    {
+        return iQueued;
+    }
+    
+    /**
+     * Gets the number of calls of a session which wait for admission.
+     * 
+     * @param pKey the session key
+     * @return the number of calls
+     */
+    public synchronized int getQueuedCalls(String pKey)
+    {
+        Lane lane = mpLanes.get(toKey(pKey));
+        
+        return lane == null ? 0 : lane.queue.size();
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+    
+    /**
+     * The <code>Lane</code> contains the running and waiting calls of a session.
+     * 
+     * @author agent
+     */
+    private static final class Lane
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the waiting calls. */
+        private ArrayDeque<Waiter> queue = new ArrayDeque<Waiter>();
+        
+        /** the session key. */
+        private String sKey;
+        
+        /** the pass in milliseconds of worker time, without the running calls since the last change. */
+        private double dPass;
+        
+        /** the time of the last change of the pass or the number of running calls in nanoseconds. */
+        private long lChanged;
+        
+        /** the weight. */
+        private int iWeight;
+        
+        /** the number of running calls. */
+        private int iRunning;
+        
+        /** whether the session will be removed after its last call. */
+        private boolean bRemoved;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>Lane</code>.
+         * 
+         * @param pKey the session key
+         * @param pWeight the weight
+         */
+        private Lane(String pKey, int pWeight)
+        {
+            sKey = pKey;
+            iWeight = pWeight;
+        }
+        
+    }   // Lane
+    
+    /**
+     * The <code>Waiter</code> is a call which waits for admission.
+     * 
+     * @author agent
+     */
+    private static final class Waiter
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the session of the call. */
+        private Lane lane;
+        
+        /** the context of an asynchronous call or <code>null</code> for a waiting thread. */
+        private Context context;
+        
+        /** the handler of an asynchronous call. */
+        private Handler<Boolean> handler;
+        
+        /** the timer of the queue timeout. */
+        private long lTimerId;
+        
+        /** whether the call was admitted. */
+        private boolean bAdmitted;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>Waiter</code>.
+         * 
+         * @param pLane the session of the call
+         * @param pContext the context of an asynchronous call or <code>null</code> for a waiting thread
+         * @param pHandler the handler of an asynchronous call
+         */
+        private Waiter(Lane pLane, Context pContext, Handler<Boolean> pHandler)
+        {
+            lane = pLane;
+            context = pContext;
+            handler = pHandler;
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Notifies the handler of an asynchronous call on its context.
+         * 
+         * @param pAdmitted whether the call was admitted
+         */
+        private void notify(final Boolean pAdmitted)
+        {
+            context.runOnContext(new Handler<Void>()
+            {
+                public void handle(Void pEvent)
+                {
+                    handler.handle(pAdmitted);
+                }
+            });
+        }
+        
+    }   // Waiter
+    
+}   // AdmissionControl
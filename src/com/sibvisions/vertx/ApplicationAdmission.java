@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - remove destroyed sessions from the admission control
+ */
+package com.sibvisions.vertx;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jvx.rad.server.ISession;
+import jvx.rad.server.event.ISessionListener;
+
+import com.sibvisions.vertx.metrics.Metrics;
+
+/**
+ * The <code>ApplicationAdmission</code> partitions the admission of JVx calls by application. Every configured
+ * application gets its own {@link AdmissionControl} with its own limits, queue and metrics, so an application
+ * with slow calls can't take the permits of other applications. Applications without configuration share the
+ * admission control of the server.
+ * <p>
+ * The application of a session is the application of the connection properties, which were sent with the open
+ * call. The open call itself is admitted by the admission control of the server, because the session doesn't
+ * exist before. The lane name of an application is {@link #LANE_PREFIX} followed by the application name.
+ * 
+ * @author agent
+ */
+public class ApplicationAdmission implements ISessionListener
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the prefix of the lane names. */
+    public static final String LANE_PREFIX = "application:";
+    
+    /** the application per session id. */
+    private Map<String, String> mpSessions = new ConcurrentHashMap<String, String>();
+    
+    /** the admission control per application. */
+    private Map<String, AdmissionControl> mpApplications = new ConcurrentHashMap<String, AdmissionControl>();
+    
+    /** the metrics. */
+    private Metrics metrics;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void sessionCreated(ISession pSession)
+    {
+        String sApplication = pSession.getApplicationName();
+        
+        if (sApplication != null)
+        {
+            mpSessions.put(String.valueOf(pSession.getId()), sApplication);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void sessionDestroyed(ISession pSession)
+    {
+        String sSessionId = String.valueOf(pSession.getId());
+        
+        AdmissionControl admission = getAdmissionControl(mpSessions.remove(sSessionId));
+        
+        if (admission != null)
+        {
+            admission.remove(sSessionId);
+        }
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Configures the admission control of an application. The admission control will be created, if the
+     * application has none. Other settings, e.g. the queue timeout, can be changed with the returned
+     * admission control.
+     * 
+     * @param pApplication the application name
+     * @param pMaxConcurrentCalls the maximum number of concurrent calls or <code>-1</code> for no limit
+     * @param pMaxQueuedCalls the maximum number of waiting calls
+     * @return the admission control of the application
+     */
+    public synchronized AdmissionControl configure(String pApplication, int pMaxConcurrentCalls, int pMaxQueuedCalls)
+    {
+        AdmissionControl admission = mpApplications.get(pApplication);
+        
+        if (admission == null)
+        {
+            admission = new AdmissionControl(LANE_PREFIX + pApplication);
+            admission.setMetrics(metrics);
+            
+            mpApplications.put(pApplication, admission);
+        }
+        
+        admission.setMaxConcurrentCalls(pMaxConcurrentCalls);
+        admission.setMaxQueuedCalls(pMaxQueuedCalls);
+        
+        return admission;
+    }
+    
+    /**
+     * Sets the admission control of an application.
+     * 
+     * @param pApplication the application name
+     * @param pAdmission the admission control or <code>null</code> to use the admission control of the server
+     */
+    public synchronized void setAdmissionControl(String pApplication, AdmissionControl pAdmission)
+    {
+        if (pAdmission == null)
+        {
+            mpApplications.remove(pApplication);
+        }
+        else
+        {
+            if (metrics != null && pAdmission.getMetrics() == null)
+            {
+                pAdmission.setMetrics(metrics);
+            }
+            
+            mpApplications.put(pApplication, pAdmission);
+        }
+    }
+    
+    /**
+     * Gets the admission control of an application.
+     * 
+     * @param pApplication the application name
+     * @return the admission control or <code>null</code> if the application uses the admission control of the server
+     */
+    public AdmissionControl getAdmissionControl(String pApplication)
+    {
+        if (pApplication == null)
+        {
+            return null;
+        }
+        
+        return mpApplications.get(pApplication);
+    }
+    
+    /**
+     * Gets the admission control of the application of a session.
+     * 
+     * @param pSessionId the session id, e.g. the connection id of a call
+     * @return the admission control or <code>null</code> if the session is unknown or its application uses the 
+     *         admission control of the server
+     */
+    public AdmissionControl getSessionAdmissionControl(String pSessionId)
+    {
+        return getAdmissionControl(getApplicationName(pSessionId));
+    }
+    
+    /**
+     * Gets the application of a session.
+     * 
+     * @param pSessionId the session id
+     * @return the application name or <code>null</code> if the session is unknown
+     */
+    public String getApplicationName(String pSessionId)
+    {
+        if (pSessionId == null)
+        {
+            return null;
+        }
+        
+        return mpSessions.get(pSessionId);
+    }
+    
+    /**
+     * Gets the applications with their own admission control.
+     * 
+     * @return the sorted application names
+     */
+    public Set<String> getApplicationNames()
+    {
+        return new TreeSet<String>(mpApplications.keySet());
+    }
+    
+    /**
+     * Sets the metrics for the admission controls of all applications.
+     * 
+     * @param pMetrics the metrics or <code>null</code> to record nothing
+     */
+    public synchronized void setMetrics(Metrics pMetrics)
+    {
+        metrics = pMetrics;
+        
+        for (AdmissionControl admission : mpApplications.values())
+        {
+            admission.setMetrics(pMetrics);
+        }
+    }
+    
+    /**
+     * Gets the metrics for the admission controls of all applications.
+     * 
+     * @return the metrics or <code>null</code> if nothing will be recorded
+     */
+    public synchronized Metrics getMetrics()
+    {
+        return metrics;
+    }
+    
+}   // ApplicationAdmission
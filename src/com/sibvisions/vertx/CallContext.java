@@ -0,0 +1,233 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - cancellation
+ */
+package com.sibvisions.vertx;
+
+/**
+ * The <code>CallContext</code> describes the JVx call of the current thread. Server code, e.g. a long
+ * running query, can ask for the remaining time of the call and stop working if nobody waits for the
+ * result:
+ * <pre>
+ * CallContext context = CallContext.getCurrent();
+ * 
+ * if (context != null &amp;&amp; (context.isExpired() || context.isCancelled()))
+ * {
+ *     throw new InterruptedException("Call expired");
+ * }
+ * </pre>
+ * The deadline is sent by the client as timeout and starts when the server received the request, so the
+ * clocks of client and server don't have to be synchronized.
+ * <p>
+ * A call will be cancelled if the client cancels it or closes the connection. The thread which executes
+ * the call will be interrupted.
+ * 
+ * @author agent
+ */
+public final class CallContext
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the context of the current thread. */
+    private static ThreadLocal<CallContext> tlCurrent = new ThreadLocal<CallContext>();
+    
+    /** the thread which executes the call. */
+    private Thread thCall;
+    
+    /** the deadline in milliseconds. */
+    private long lDeadline;
+    
+    /** whether the call was cancelled. */
+    private volatile boolean bCancelled;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>CallContext</code>.
+     * 
+     * @param pDeadline the deadline in milliseconds (see {@link System#currentTimeMillis()}) or <code>-1</code>
+     *                  if the call has no deadline
+     */
+    private CallContext(long pDeadline)
+    {
+        lDeadline = pDeadline;
+        thCall = Thread.currentThread();
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Gets the context of the call of the current thread.
+     * 
+     * @return the context or <code>null</code> if the thread doesn't execute a call
+     */
+    public static CallContext getCurrent()
+    {
+        return tlCurrent.get();
+    }
+    
+    /**
+     * Starts a call on the current thread. The call has to be ended with {@link #end()}.
+     * 
+     * @param pDeadline the deadline in milliseconds (see {@link System#currentTimeMillis()}) or <code>-1</code>
+     *                  if the call has no deadline
+     * @return the context of the call
+     */
+    public static CallContext begin(long pDeadline)
+    {
+        CallContext context = new CallContext(pDeadline);
+        
+        tlCurrent.set(context);
+        
+        return context;
+    }
+    
+    /**
+     * Ends the call of the current thread. The interrupt of a cancelled call will be cleared, because
+     * the thread executes other calls.
+     */
+    public void end()
+    {
+        synchronized (this)
+        {
+            thCall = null;
+            
+            if (bCancelled)
+            {
+                Thread.interrupted();
+            }
+        }
+        
+        if (tlCurrent.get() == this)
+        {
+            tlCurrent.remove();
+        }
+    }
+    
+    /**
+     * Cancels the call. The thread which executes the call will be interrupted, if the call didn't end.
+     */
+    public void cancel()
+    {
+        synchronized (this)
+        {
+            bCancelled = true;
+            
+            if (thCall != null)
+            {
+                thCall.interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Gets whether the call was cancelled.
+     * 
+     * @return <code>true</code> if nobody waits for the result of the call
+     */
+    public boolean isCancelled()
+    {
+        return bCancelled;
+    }
+    
+    /**
+     * Gets the deadline of the call.
+     * 
+     * @return the deadline in milliseconds (see {@link System#currentTimeMillis()}) or <code>-1</code> if the 
+     *         call has no deadline
+     */
+    public long getDeadline()
+    {
+        return lDeadline;
+    }
+    
+    /**
+     * Gets the remaining time until the deadline.
+     * 
+     * @return the time in milliseconds, <code>0</code> if the deadline passed or {@link Long#MAX_VALUE} if
+     *         the call has no deadline
+     */
+    public long getRemainingTime()
+    {
+        return getRemainingTime(lDeadline);
+    }
+    
+    /**
+     * Gets whether the deadline passed.
+     * 
+     * @return <code>true</code> if nobody waits for the result of the call
+     */
+    public boolean isExpired()
+    {
+        return isExpired(lDeadline);
+    }
+    
+    /**
+     * Calculates the deadline of a timeout which was sent by the client.
+     * 
+     * @param pReceived the time in milliseconds, when the request was received
+     * @param pTimeout the timeout in milliseconds or a negative value if the call has no timeout
+     * @return the deadline in milliseconds or <code>-1</code> if the call has no deadline
+     */
+    public static long getDeadline(long pReceived, long pTimeout)
+    {
+        if (pTimeout < 0)
+        {
+            return -1;
+        }
+        
+        return pReceived + pTimeout;
+    }
+    
+    /**
+     * Gets the remaining time until a deadline.
+     * 
+     * @param pDeadline the deadline in milliseconds or <code>-1</code> for no deadline
+     * @return the time in milliseconds, <code>0</code> if the deadline passed or {@link Long#MAX_VALUE} if
+     *         there's no deadline
+     */
+    public static long getRemainingTime(long pDeadline)
+    {
+        if (pDeadline < 0)
+        {
+            return Long.MAX_VALUE;
+        }
+        
+        return Math.max(0, pDeadline - System.currentTimeMillis());
+    }
+    
+    /**
+     * Gets whether a deadline passed.
+     * 
+     * @param pDeadline the deadline in milliseconds or <code>-1</code> for no deadline
+     * @return <code>true</code> if the deadline passed
+     */
+    public static boolean isExpired(long pDeadline)
+    {
+        return pDeadline >= 0 && System.currentTimeMillis() >= pDeadline;
+    }
+    
+}   // CallContext
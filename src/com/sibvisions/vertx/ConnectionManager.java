@@ -0,0 +1,829 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.net.NetSocket;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.sibvisions.util.log.LoggerFactory;
+import com.sibvisions.vertx.handler.AbstractDataHandler;
+import com.sibvisions.vertx.metrics.Metrics;
+
+/**
+ * The <code>ConnectionManager</code> limits the number of open connections and closes idle connections. If 
+ * the maximum is reached, a new connection is paused and waits until another connection was closed. The 
+ * oldest idle connection will be closed for the waiting connection. If too many connections wait or a connection
+ * waits longer than the accept timeout, the connection will be refused.
+ * <p>
+ * A connection is idle if no request is in progress. Connected JVx clients send an alive check after every 
+ * alive interval, so a connection will be closed if it was idle longer than the idle timeout, but at least 
+ * twice the alive interval. Under memory pressure, i.e. the heap usage after the last garbage collection 
+ * is above the threshold, the oldest idle connections will be closed first. A client reconnects with its next
+ * request.
+ * <p>
+ * By default, the connections aren't limited and idle connections stay open.
+ * 
+ * @author agent
+ */
+public class ConnectionManager
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the default alive interval of JVx clients. */
+    public static final long DEFAULT_ALIVE_INTERVAL = 30000;
+    
+    /** the interval of the idle check. */
+    private static final long CHECK_INTERVAL = 1000;
+    
+    /** the open connections. */
+    private Map<NetSocket, Connection> mpConnections = new HashMap<NetSocket, Connection>();
+    
+    /** the connections which wait for acceptance. */
+    private ArrayDeque<Connection> dqPending = new ArrayDeque<Connection>();
+    
+    /** the vert.x instance. */
+    private Vertx vertx;
+    
+    /** the metrics. */
+    private Metrics metrics;
+    
+    /** the timer id of the idle check. */
+    private long lTimerId = -1;
+    
+    /** the number of garbage collections at the last close because of memory pressure. */
+    private long lReapedCollections = -1;
+    
+    /** the maximum number of open connections. */
+    private volatile int iMaxConnections = -1;
+    
+    /** the maximum number of waiting connections. */
+    private volatile int iMaxPendingConnections = 100;
+    
+    /** the maximum wait time of a connection. */
+    private volatile long lAcceptTimeout = 10000;
+    
+    /** the maximum idle time of a connection. */
+    private volatile long lIdleTimeout = -1;
+    
+    /** the alive interval of the clients. */
+    private volatile long lAliveInterval = DEFAULT_ALIVE_INTERVAL;
+    
+    /** the heap usage which triggers closing of idle connections. */
+    private volatile double dMemoryThreshold = -1;
+    
+    /** the ratio of idle connections, which will be closed under memory pressure. */
+    private volatile double dMemoryReapRatio = 0.1;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Starts the idle check.
+     * 
+     * @param pVertx the vert.x instance
+     */
+    public synchronized void start(Vertx pVertx)
+    {
+        stop();
+        
+        vertx = pVertx;
+        
+        lTimerId = vertx.setPeriodic(CHECK_INTERVAL, new Handler<Long>()
+        {
+            public void handle(Long pTimerId)
+            {
+                check();
+            }
+        });
+    }
+    
+    /**
+     * Stops the idle check. Waiting connections will be closed.
+     */
+    public void stop()
+    {
+        List<Connection> liPending;
+        
+        synchronized (this)
+        {
+            if (lTimerId >= 0)
+            {
+                vertx.cancelTimer(lTimerId);
+                
+                lTimerId = -1;
+            }
+            
+            liPending = new ArrayList<Connection>(dqPending);
+        }
+        
+        for (Connection con : liPending)
+        {
+            con.close();
+        }
+    }
+    
+    /**
+     * Opens a new connection. The connection will be paused, if the maximum number of connections is
+     * reached, and refused, if too many connections wait. This method has to be called on the context of 
+     * the socket.
+     * 
+     * @param pSocket the socket
+     * @param pHandler the data handler of the socket
+     */
+    public void open(final NetSocket pSocket, AbstractDataHandler pHandler)
+    {
+        Connection con = new Connection(pSocket, pHandler, Vertx.currentContext());
+        
+        pSocket.closeHandler(new Handler<Void>()
+        {
+            public void handle(Void pEvent)
+            {
+                closed(pSocket);
+            }
+        });
+        
+        synchronized (this)
+        {
+            if (iMaxConnections <= 0 || mpConnections.size() < iMaxConnections)
+            {
+                add(con);
+                
+                return;
+            }
+            
+            if (dqPending.size() < iMaxPendingConnections)
+            {
+                //the socket doesn't read until it was accepted
+                pSocket.pause();
+                
+                con.lPending = System.currentTimeMillis();
+                
+                dqPending.add(con);
+                
+                if (metrics != null)
+                {
+                    metrics.getPendingConnections().increment();
+                }
+                
+                con = null;
+            }
+        }
+        
+        if (con != null)
+        {
+            refuse(con);
+        }
+        else
+        {
+            reapOldest(1, Metrics.REAPED_LIMIT);
+        }
+    }
+    
+    /**
+     * Removes a closed connection and accepts the next waiting connection.
+     * 
+     * @param pSocket the socket
+     */
+    private void closed(NetSocket pSocket)
+    {
+        Connection conNext = null;
+        
+        synchronized (this)
+        {
+            if (mpConnections.remove(pSocket) != null)
+            {
+                if (metrics != null)
+                {
+                    metrics.getConnections().decrement();
+                }
+                
+                conNext = dqPending.poll();
+                
+                if (conNext != null)
+                {
+                    if (metrics != null)
+                    {
+                        metrics.getPendingConnections().decrement();
+                    }
+                    
+                    add(conNext);
+                }
+            }
+            else
+            {
+                removePending(pSocket);
+            }
+        }
+        
+        if (conNext != null)
+        {
+            conNext.resume();
+        }
+    }
+    
+    /**
+     * Adds an open connection.
+     * 
+     * @param pConnection the connection
+     */
+    private void add(Connection pConnection)
+    {
+        mpConnections.put(pConnection.socket, pConnection);
+        
+        if (metrics != null)
+        {
+            metrics.getConnections().increment();
+        }
+    }
+    
+    /**
+     * Removes a waiting connection.
+     * 
+     * @param pSocket the socket
+     * @return <code>true</code> if the connection was waiting
+     */
+    private boolean removePending(NetSocket pSocket)
+    {
+        for (Iterator<Connection> it = dqPending.iterator(); it.hasNext();)
+        {
+            if (it.next().socket == pSocket)
+            {
+                it.remove();
+                
+                if (metrics != null)
+                {
+                    metrics.getPendingConnections().decrement();
+                }
+                
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Refuses a connection.
+     * 
+     * @param pConnection the connection
+     */
+    private void refuse(Connection pConnection)
+    {
+        LoggerFactory.getInstance(ConnectionManager.class).info("Connection refused: ", pConnection.handler.getDescription());
+        
+        if (metrics != null)
+        {
+            metrics.recordRefused();
+        }
+        
+        pConnection.close();
+    }
+    
+    /**
+     * Checks the waiting and idle connections.
+     */
+    private void check()
+    {
+        long lNow = System.currentTimeMillis();
+        
+        List<Connection> liExpired = new ArrayList<Connection>();
+        
+        synchronized (this)
+        {
+            for (Iterator<Connection> it = dqPending.iterator(); it.hasNext();)
+            {
+                Connection con = it.next();
+                
+                if (lNow - con.lPending >= lAcceptTimeout)
+                {
+                    it.remove();
+                    
+                    if (metrics != null)
+                    {
+                        metrics.getPendingConnections().decrement();
+                    }
+                    
+                    liExpired.add(con);
+                }
+            }
+        }
+        
+        for (Connection con : liExpired)
+        {
+            refuse(con);
+        }
+        
+        long lTimeout = lIdleTimeout;
+        
+        if (lTimeout > 0)
+        {
+            //a connected client sends an alive check after every alive interval
+            lTimeout = Math.max(lTimeout, 2 * lAliveInterval);
+            
+            for (Connection con : getIdleConnections())
+            {
+                if (lNow - con.lLastActive >= lTimeout)
+                {
+                    reap(con, Metrics.REAPED_IDLE);
+                }
+            }
+        }
+        
+        int iPending;
+        
+        synchronized (this)
+        {
+            iPending = dqPending.size();
+        }
+        
+        if (iPending > 0)
+        {
+            reapOldest(iPending, Metrics.REAPED_LIMIT);
+        }
+        
+        double dThreshold = dMemoryThreshold;
+        
+        if (dThreshold > 0)
+        {
+            long lCollections = getCollectionCount();
+            
+            //the usage won't change before the next garbage collection
+            if (lCollections != lReapedCollections && getMemoryUsage() >= dThreshold)
+            {
+                List<Connection> liIdle = getIdleConnections();
+                
+                if (!liIdle.isEmpty())
+                {
+                    lReapedCollections = lCollections;
+                    
+                    reapOldest(liIdle, Math.max(1, (int)Math.ceil(liIdle.size() * dMemoryReapRatio)), Metrics.REAPED_MEMORY);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Gets the idle connections which aren't closing.
+     * 
+     * @return the idle connections
+     */
+    private List<Connection> getIdleConnections()
+    {
+        List<Connection> liConnections;
+        
+        synchronized (this)
+        {
+            liConnections = new ArrayList<Connection>(mpConnections.values());
+        }
+        
+        List<Connection> liIdle = new ArrayList<Connection>();
+        
+        for (Connection con : liConnections)
+        {
+            if (!con.bClosing && con.handler.isIdle())
+            {
+                //the sort order mustn't change
+                con.lLastActive = con.handler.getLastActive();
+                
+                liIdle.add(con);
+            }
+        }
+        
+        return liIdle;
+    }
+    
+    /**
+     * Closes the oldest idle connections.
+     * 
+     * @param pCount the maximum number of connections
+     * @param pReason the reason, e.g. {@link Metrics#REAPED_LIMIT}
+     */
+    private void reapOldest(int pCount, String pReason)
+    {
+        reapOldest(getIdleConnections(), pCount, pReason);
+    }
+    
+    /**
+     * Closes the oldest idle connections.
+     * 
+     * @param pIdle the idle connections
+     * @param pCount the maximum number of connections
+     * @param pReason the reason, e.g. {@link Metrics#REAPED_LIMIT}
+     */
+    private void reapOldest(List<Connection> pIdle, int pCount, String pReason)
+    {
+        Collections.sort(pIdle, new Comparator<Connection>()
+        {
+            public int compare(Connection pFirst, Connection pSecond)
+            {
+                return Long.compare(pFirst.lLastActive, pSecond.lLastActive);
+            }
+        });
+        
+        for (int i = 0, cnt = Math.min(pCount, pIdle.size()); i < cnt; i++)
+        {
+            reap(pIdle.get(i), pReason);
+        }
+    }
+    
+    /**
+     * Closes an idle connection. The connection stays open, if it isn't idle on its context, because a 
+     * request was received since the check.
+     * 
+     * @param pConnection the connection
+     * @param pReason the reason, e.g. {@link Metrics#REAPED_IDLE}
+     */
+    private void reap(final Connection pConnection, final String pReason)
+    {
+        synchronized (this)
+        {
+            if (pConnection.bClosing)
+            {
+                return;
+            }
+            
+            pConnection.bClosing = true;
+        }
+        
+        pConnection.context.runOnContext(new Handler<Void>()
+        {
+            public void handle(Void pEvent)
+            {
+                if (pConnection.handler.isIdle())
+                {
+                    LoggerFactory.getInstance(ConnectionManager.class).debug("Idle connection closed (", pReason, "): ", 
+                                                                              pConnection.handler.getDescription());
+                    
+                    if (metrics != null)
+                    {
+                        metrics.recordReaped(pReason);
+                    }
+                    
+                    pConnection.socket.close();
+                }
+                else
+                {
+                    pConnection.bClosing = false;
+                }
+            }
+        });
+    }
+    
+    /**
+     * Gets the heap usage after the last garbage collection. The usage of the tenured generation will be
+     * used, if available.
+     * 
+     * @return the usage between 0 and 1
+     */
+    private static double getMemoryUsage()
+    {
+        double dUsage = -1;
+        
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            //only the tenured generation supports both thresholds
+            if (pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported() && pool.isCollectionUsageThresholdSupported())
+            {
+                MemoryUsage usage = pool.getCollectionUsage();
+                
+                if (usage != null && usage.getMax() > 0)
+                {
+                    dUsage = Math.max(dUsage, (double)usage.getUsed() / usage.getMax());
+                }
+            }
+        }
+        
+        if (dUsage < 0)
+        {
+            Runtime rt = Runtime.getRuntime();
+            
+            dUsage = (double)(rt.totalMemory() - rt.freeMemory()) / rt.maxMemory();
+        }
+        
+        return dUsage;
+    }
+    
+    /**
+     * Gets the number of garbage collections.
+     * 
+     * @return the number of collections
+     */
+    private static long getCollectionCount()
+    {
+        long lCount = 0;
+        
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            lCount += Math.max(0, gc.getCollectionCount());
+        }
+        
+        return lCount;
+    }
+    
+    /**
+     * Sets the metrics.
+     * 
+     * @param pMetrics the metrics or <code>null</code> to record nothing
+     */
+    public synchronized void setMetrics(Metrics pMetrics)
+    {
+        metrics = pMetrics;
+    }
+    
+    /**
+     * Gets the metrics.
+     * 
+     * @return the metrics or <code>null</code> if nothing will be recorded
+     */
+    public synchronized Metrics getMetrics()
+    {
+        return metrics;
+    }
+    
+    /**
+     * Gets the number of open connections.
+     * 
+     * @return the number of connections
+     */
+    public synchronized int getConnections()
+    {
+        return mpConnections.size();
+    }
+    
+    /**
+     * Gets the number of connections which wait for acceptance.
+     * 
+     * @return the number of connections
+     */
+    public synchronized int getPendingConnections()
+    {
+        return dqPending.size();
+    }
+    
+    /**
+     * Sets the maximum number of open connections. A new connection waits, if the maximum is reached.
+     * 
+     * @param pMax the maximum or <code>-1</code> for no limit
+     */
+    public void setMaxConnections(int pMax)
+    {
+        iMaxConnections = pMax;
+    }
+    
+    /**
+     * Gets the maximum number of open connections.
+     * 
+     * @return the maximum or <code>-1</code> if the connections aren't limited
+     */
+    public int getMaxConnections()
+    {
+        return iMaxConnections;
+    }
+    
+    /**
+     * Sets the maximum number of connections which wait for acceptance. Further connections will be refused.
+     * 
+     * @param pMax the maximum
+     */
+    public void setMaxPendingConnections(int pMax)
+    {
+        iMaxPendingConnections = pMax;
+    }
+    
+    /**
+     * Gets the maximum number of connections which wait for acceptance.
+     * 
+     * @return the maximum
+     */
+    public int getMaxPendingConnections()
+    {
+        return iMaxPendingConnections;
+    }
+    
+    /**
+     * Sets the maximum time, a connection waits for acceptance. The connection will be refused afterwards.
+     * 
+     * @param pTimeout the time in milliseconds
+     */
+    public void setAcceptTimeout(long pTimeout)
+    {
+        lAcceptTimeout = pTimeout;
+    }
+    
+    /**
+     * Gets the maximum time, a connection waits for acceptance.
+     * 
+     * @return the time in milliseconds
+     */
+    public long getAcceptTimeout()
+    {
+        return lAcceptTimeout;
+    }
+    
+    /**
+     * Sets the maximum idle time of a connection. The time is at least twice the alive interval, so a
+     * connected client isn't closed if it missed one alive check.
+     * 
+     * @param pTimeout the time in milliseconds or <code>-1</code> to keep idle connections open
+     * @see #setAliveInterval(long)
+     */
+    public void setIdleTimeout(long pTimeout)
+    {
+        lIdleTimeout = pTimeout;
+    }
+    
+    /**
+     * Gets the maximum idle time of a connection.
+     * 
+     * @return the time in milliseconds or <code>-1</code> if idle connections stay open
+     */
+    public long getIdleTimeout()
+    {
+        return lIdleTimeout;
+    }
+    
+    /**
+     * Sets the alive interval of the clients, i.e. the alive interval of the JVx connections.
+     * 
+     * @param pInterval the interval in milliseconds
+     */
+    public void setAliveInterval(long pInterval)
+    {
+        lAliveInterval = pInterval;
+    }
+    
+    /**
+     * Gets the alive interval of the clients.
+     * 
+     * @return the interval in milliseconds
+     */
+    public long getAliveInterval()
+    {
+        return lAliveInterval;
+    }
+    
+    /**
+     * Sets the heap usage after garbage collection, which triggers closing of idle connections.
+     * 
+     * @param pThreshold the usage between 0 and 1, e.g. <code>0.9</code>, or <code>-1</code> to ignore 
+     *                   the heap usage
+     */
+    public void setMemoryThreshold(double pThreshold)
+    {
+        dMemoryThreshold = pThreshold;
+    }
+    
+    /**
+     * Gets the heap usage after garbage collection, which triggers closing of idle connections.
+     * 
+     * @return the usage between 0 and 1 or <code>-1</code> if the heap usage is ignored
+     */
+    public double getMemoryThreshold()
+    {
+        return dMemoryThreshold;
+    }
+    
+    /**
+     * Sets the ratio of idle connections, which will be closed after every garbage collection, while the
+     * heap usage is above the threshold.
+     * 
+     * @param pRatio the ratio between 0 and 1, e.g. <code>0.1</code> for the oldest 10%
+     */
+    public void setMemoryReapRatio(double pRatio)
+    {
+        dMemoryReapRatio = pRatio;
+    }
+    
+    /**
+     * Gets the ratio of idle connections, which will be closed under memory pressure.
+     * 
+     * @return the ratio between 0 and 1
+     */
+    public double getMemoryReapRatio()
+    {
+        return dMemoryReapRatio;
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+    
+    /**
+     * The <code>Connection</code> is an open or waiting connection.
+     * 
+     * @author agent
+     */
+    private static final class Connection
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the socket. */
+        private NetSocket socket;
+        
+        /** the data handler. */
+        private AbstractDataHandler handler;
+        
+        /** the context of the socket. */
+        private Context context;
+        
+        /** the time when the connection started waiting. */
+        private long lPending;
+        
+        /** the time of the last activity when the idle connections were checked. */
+        private long lLastActive;
+        
+        /** whether the connection will be closed. */
+        private volatile boolean bClosing;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>Connection</code>.
+         * 
+         * @param pSocket the socket
+         * @param pHandler the data handler
+         * @param pContext the context of the socket
+         */
+        private Connection(NetSocket pSocket, AbstractDataHandler pHandler, Context pContext)
+        {
+            socket = pSocket;
+            handler = pHandler;
+            context = pContext;
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Resumes reading of the socket on its context.
+         */
+        private void resume()
+        {
+            context.runOnContext(new Handler<Void>()
+            {
+                public void handle(Void pEvent)
+                {
+                    socket.resume();
+                }
+            });
+        }
+        
+        /**
+         * Closes the socket on its context.
+         */
+        private void close()
+        {
+            context.runOnContext(new Handler<Void>()
+            {
+                public void handle(Void pEvent)
+                {
+                    socket.close();
+                }
+            });
+        }
+        
+    }   // Connection
+    
+}   // ConnectionManager
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - log the failed start
+ */
+package com.sibvisions.vertx;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageConsumer;
+
+import java.util.Hashtable;
+import java.util.UUID;
+
+import jvx.rad.server.ISession;
+import jvx.rad.server.InjectObject;
+import jvx.rad.server.event.ISessionListener;
+
+import com.sibvisions.rad.remote.vertx.EventBusConnection;
+import com.sibvisions.rad.server.AbstractSession;
+import com.sibvisions.rad.server.Server;
+import com.sibvisions.util.log.LoggerFactory;
+import com.sibvisions.vertx.handler.EventBusHandler;
+
+/**
+ * The <code>EventBusServer</code> uses {@link Server} and consumes serialized JVx requests from
+ * an event bus address. If the vert.x instance is clustered, all nodes which consume the same
+ * address share the load, because the event bus delivers every new connection to one of them.
+ * 
+ * @author agent
+ * @see EventBusConnection
+ */
+public class EventBusServer implements ISessionListener
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the vert.x instance. */
+    private Vertx vertx;
+    
+    /** the JVx server. */
+    private Server srvJVx;
+    
+    /** the injection object for our vert.x instance. */
+    private InjectObject ijoVertx;
+    
+    /** the consumer of the shared address. */
+    private MessageConsumer<Buffer> mcAddress;
+    
+    /** the consumer of the node address. */
+    private MessageConsumer<Buffer> mcNode;
+    
+    /** the shared address. */
+    private String sAddress = EventBusConnection.DEFAULT_ADDRESS;
+    
+    /** the address of this node. */
+    private String sNodeAddress;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Starts a standalone event bus server.
+     * 
+     * @param pArgs startup arguments
+     */
+    public static void main(String[] pArgs)
+    {
+        Hashtable<String, String> htParams = Util.parseCommandLineProperties(pArgs);
+        
+        final String sAddress = htParams.get("address");
+        
+        if (htParams.get("cluster") != null)
+        {
+            Vertx.clusteredVertx(new VertxOptions(), new Handler<AsyncResult<Vertx>>()
+            {
+                public void handle(AsyncResult<Vertx> pResult)
+                {
+                    if (pResult.succeeded())
+                    {
+                        start(new EventBusServer(pResult.result()), sAddress);
+                    }
+                    else
+                    {
+                        LoggerFactory.getInstance(EventBusServer.class).error(pResult.cause());
+                        
+                        System.exit(1);
+                    }
+                }
+            });
+        }
+        else
+        {
+            EventBusServer srv = new EventBusServer();
+            
+            start(srv, sAddress);
+            
+            synchronized(srv)
+            {
+                try
+                {
+                    srv.wait();
+                }
+                catch (Exception e)
+                {
+                    //nothing to be done
+                }
+            }
+        }
+    }
+    
+    /**
+     * Creates a new instance of <code>EventBusServer</code> without clustering.
+     */
+    public EventBusServer()
+    {
+        this(null);
+    }
+    
+    /**
+     * Creates a new instance of <code>EventBusServer</code> with the given Vertx instance.
+     * 
+     * @param pVertx the Vertx instance
+     */
+    public EventBusServer(Vertx pVertx)
+    {
+        srvJVx = new Server();
+        srvJVx.getSessionManager().addSessionListener(this);
+        
+        vertx = pVertx;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void sessionCreated(ISession pSession)
+    {
+        if (ijoVertx == null)
+        {
+            ijoVertx = new InjectObject("vertx", vertx, true);
+        }
+        
+        ((AbstractSession)pSession).putObject(ijoVertx);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void sessionDestroyed(ISession pSession)
+    {
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Starts the given server with an optional address.
+     * 
+     * @param pServer the server
+     * @param pAddress the address or <code>null</code> to use the default address
+     */
+    private static void start(EventBusServer pServer, String pAddress)
+    {
+        if (pAddress != null)
+        {
+            pServer.setAddress(pAddress);
+        }
+        
+        pServer.start();
+    }
+    
+    /**
+     * Gets the current Vertx instance.
+     * 
+     * @return the instance
+     */
+    public Vertx getVertx()
+    {
+        return vertx;
+    }
+    
+    /**
+     * Starts the server to consume the configured address.
+     */
+    public void start()
+    {
+        if (vertx == null)
+        {
+            vertx = Vertx.vertx();
+        }
+        
+        sNodeAddress = sAddress + "." + UUID.randomUUID().toString();
+        
+        EventBusHandler handler = new EventBusHandler(vertx, srvJVx, sNodeAddress);
+        
+        mcAddress = vertx.eventBus().consumer(sAddress, handler);
+        mcNode = vertx.eventBus().consumer(sNodeAddress, handler);
+    }
+    
+    /**
+     * Stops the server.
+     */
+    public void stop()
+    {
+        if (mcAddress != null)
+        {
+            mcAddress.unregister();
+            mcAddress = null;
+            
+            mcNode.unregister();
+            mcNode = null;
+            
+            //stops main thread
+            synchronized (this)
+            {
+                notifyAll();
+            }
+        }
+    }
+    
+    /**
+     * Sets the shared address. The address will be used after the next start of the server.
+     * 
+     * @param pAddress the address
+     */
+    public void setAddress(String pAddress)
+    {
+        sAddress = pAddress;
+    }
+    
+    /**
+     * Gets the shared address.
+     * 
+     * @return the address
+     */
+    public String getAddress()
+    {
+        return sAddress;
+    }
+    
+    /**
+     * Gets the address which is only consumed by this node.
+     * 
+     * @return the node address or <code>null</code> if the server wasn't started
+     */
+    public String getNodeAddress()
+    {
+        return sNodeAddress;
+    }
+    
+}   // EventBusServer
@@ -17,10 +17,29 @@
  * History
  *
  * 28.12.2012 - [JR] - creation
+ * 19.10.2026 - [agent] - session directory
+ * 19.10.2026 - [agent] - file handle store
+ * 19.10.2026 - [agent] - uploads to temporary content, zero-copy downloads
+ * 19.10.2026 - [agent] - upload limits, release content with session
+ * 19.10.2026 - [agent] - metrics
+ * 19.10.2026 - [agent] - slow call log
+ * 19.10.2026 - [agent] - watchdog
+ * 19.10.2026 - [agent] - admission control
+ * 19.10.2026 - [agent] - call deadline
+ * 19.10.2026 - [agent] - cancel service calls if the connection will be closed
+ * 19.10.2026 - [agent] - session key for fair admission
+ * 19.10.2026 - [agent] - admission lane for transfers, stream downloads on a worker thread
+ * 19.10.2026 - [agent] - admission per application
+ * 19.10.2026 - [agent] - bandwidth shaping of downloads, backpressure for streamed downloads
+ * 19.10.2026 - [agent] - slow client protection
+ * 19.10.2026 - [agent] - remove destroyed sessions from the admission control
  */
 package com.sibvisions.vertx;
 
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
@@ -28,31 +47,58 @@ import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.http.impl.MimeMapping;
+import io.vertx.core.streams.WriteStream;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Hashtable;
 
 import jvx.rad.io.IFileHandle;
-import jvx.rad.io.RemoteFileHandle;
 import jvx.rad.server.ISession;
 import jvx.rad.server.InjectObject;
 import jvx.rad.server.event.ISessionListener;
 
 import com.sibvisions.rad.server.AbstractSession;
 import com.sibvisions.rad.server.Server;
-import com.sibvisions.util.ObjectCache;
+import com.sibvisions.util.log.LoggerFactory;
+import com.sibvisions.util.type.CommonUtil;
 import com.sibvisions.util.type.FileUtil;
+import com.sibvisions.vertx.cluster.SessionDirectory;
 import com.sibvisions.vertx.handler.AbstractDataHandler;
 import com.sibvisions.vertx.handler.ExceptionHandler;
 import com.sibvisions.vertx.handler.HttpDataHandler;
 import com.sibvisions.vertx.handler.StopHandler;
+import com.sibvisions.vertx.metrics.Metrics;
+import com.sibvisions.vertx.metrics.MetricsHandler;
+import com.sibvisions.vertx.metrics.Watchdog;
+import com.sibvisions.vertx.shaping.BandwidthShaper;
+import com.sibvisions.vertx.shaping.ShapedWriteStream;
+import com.sibvisions.vertx.shaping.Throttle;
+import com.sibvisions.vertx.store.IFileHandleStore;
+import com.sibvisions.vertx.store.LocalFileHandleStore;
+import com.sibvisions.vertx.store.TempContent;
 
 /**
  * The <code>HttpServer</code> uses {@link Server} and offers a lightweight http server based
  * on {@link io.vertx.core.http.HttpServer}. It offers an eventbus bridge for relevant
  * server functionality.
+ * <p>
+ * Service requests have to be admitted by the {@link AdmissionControl}. A rejected request gets 
+ * <code>503 Service Unavailable</code> with a <code>Retry-After</code> header. A request with the
+ * {@link #HEADER_TIMEOUT} header will be answered with <code>504 Gateway Timeout</code>, if the timeout
+ * elapsed before the call was executed. Requests of sessions with a configured application are admitted by
+ * the {@link ApplicationAdmission}.
+ * <p>
+ * The session of a service request is the {@link SessionDirectory#HEADER_SESSION} header, because the
+ * request is admitted before it will be read. The {@link com.sibvisions.rad.remote.vertx.HttpSessionConnection}
+ * sends the header. Requests without header are admitted by the host of the client.
+ * <p>
+ * Uploads and downloads are admitted by their own {@link AdmissionControl}, so long running transfers don't
+ * occupy the permits of service calls. Downloads of content which isn't available as file will be streamed
+ * by a worker thread, files will be sent zero-copy. Downloads are shaped by the {@link BandwidthShaper} per
+ * session, a shaped download is always streamed.
  * 
  * @author Ren Jahn
  */
@@ -62,6 +108,9 @@ public class HttpServer implements ISessionListener
 	// Class members
 	//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 
+	/** the header with the timeout of a call in milliseconds. */
+	public static final String HEADER_TIMEOUT = "X-JVx-Timeout";
+	
 	/** the vert.x instance. */
 	private Vertx vertx;
 	
@@ -74,6 +123,33 @@ public class HttpServer implements ISessionListener
 	/** the injection object for our vert.x instance. */
 	private InjectObject ijoVertx;
 
+	/** the session directory. */
+	private SessionDirectory directory;
+	
+	/** the store for uploaded and downloadable content. */
+	private IFileHandleStore store = new LocalFileHandleStore();
+	
+	/** the metrics. */
+	private Metrics metrics = new Metrics();
+	
+	/** the watchdog for event loop and worker threads. */
+	private Watchdog watchdog;
+	
+	/** the admission control for JVx calls. */
+	private AdmissionControl admission = new AdmissionControl();
+	
+	/** the admission control for uploads and downloads. */
+	private AdmissionControl transfers = new AdmissionControl(AdmissionControl.LANE_TRANSFERS);
+	
+	/** the admission control per application. */
+	private ApplicationAdmission applications = new ApplicationAdmission();
+	
+	/** the bandwidth shaper for downloads. */
+	private BandwidthShaper shaper = new BandwidthShaper();
+	
+	/** the protection against slow clients. */
+	private SlowClientProtection protection = new SlowClientProtection();
+
 	/** the service path. */
 	private String sServicePath = "/services/Server";
 	
@@ -83,6 +159,9 @@ public class HttpServer implements ISessionListener
     /** the upload path. */
     private String sUploadPath = "/services/Upload";
     
+    /** the metrics path. */
+    private String sMetricsPath = "/services/Metrics";
+    
     /** the webcontent path. */
 	private String sWebContentPath = "WebContent";
 
@@ -92,6 +171,18 @@ public class HttpServer implements ISessionListener
 	/** the http port. */
 	private int iPort = 8080;
 	
+	/** the duration in milliseconds, after which a call will be logged as slow call. */
+	private long lSlowCallThreshold = -1;
+	
+	/** the duration in milliseconds, after which a blocked event loop thread will be reported. */
+	private long lBlockedEventLoopThreshold = 2000;
+	
+	/** the duration in milliseconds, after which a waiting worker thread will be reported. */
+	private long lStalledWorkerThreshold = 60000;
+	
+	/** whether the session directory is enabled. */
+	private boolean bSessionDirectoryEnabled = false;
+	
 	//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 	// Initialization
 	//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -175,6 +266,8 @@ public class HttpServer implements ISessionListener
 		}
 		
 		((AbstractSession)pSession).putObject(ijoVertx);
+		
+		applications.sessionCreated(pSession);
 	}
 
 	/**
@@ -182,6 +275,14 @@ public class HttpServer implements ISessionListener
 	 */
 	public void sessionDestroyed(ISession pSession)
 	{
+	    String sSessionId = String.valueOf(pSession.getId());
+	    
+	    store.releaseSession(sSessionId);
+	    
+	    admission.remove(sSessionId);
+	    transfers.remove(sSessionId);
+	    
+	    applications.sessionDestroyed(pSession);
 	}
 	
 	//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -218,28 +319,41 @@ public class HttpServer implements ISessionListener
 			vertx = Vertx.vertx();
 		}
 
+		if (bSessionDirectoryEnabled)
+		{
+		    directory = new SessionDirectory(vertx, srvJVx);
+		    directory.start();
+		    
+		    srvJVx.getSessionManager().addSessionListener(directory);
+		}
+		
+		store.start(vertx);
+		
+		watchdog = new Watchdog(metrics);
+		watchdog.setEventLoopThreshold(lBlockedEventLoopThreshold);
+		watchdog.setWorkerThreshold(lStalledWorkerThreshold);
+		watchdog.start();
+		
+		admission.setMetrics(metrics);
+		transfers.setMetrics(metrics);
+		applications.setMetrics(metrics);
+		
+		final MetricsHandler metricsHandler = new MetricsHandler(metrics);
+		
 		srvVertx = vertx.createHttpServer().requestHandler(new Handler<HttpServerRequest>() 
 		{
 		    public void handle(HttpServerRequest pRequest) 
 		    {
-		        String sPath = pRequest.path(); 
-
-		        if (sPath.equals(sServicePath))
-		    	{
-		            handleService(pRequest);
-		    	}
-		    	else if (sPath.equals(sUploadPath))
-		    	{
-		    	    handleUpload(pRequest);
-		    	}
-		    	else if (sPath.equals(sDownloadPath))
-		    	{
-		    	    handleDownload(pRequest);
-		    	}
-		    	else
-		    	{
-		    		pRequest.response().sendFile(sWebContentPath + pRequest.path());
-		    	}
+		        Watchdog.Task task = watchdog.begin(Watchdog.EVENT_LOOP, describe(pRequest));
+		        
+		        try
+		        {
+		            dispatch(pRequest, metricsHandler);
+		        }
+		        finally
+		        {
+		            watchdog.end(task);
+		        }
 		    }
 		});
 	    
@@ -255,6 +369,21 @@ public class HttpServer implements ISessionListener
 	    {
 	        srvVertx.close();
 	    }
+	    
+	    if (directory != null)
+	    {
+	        srvJVx.getSessionManager().removeSessionListener(directory);
+	        
+	        directory.stop();
+	        directory = null;
+	    }
+	    
+	    store.stop();
+	    
+	    if (watchdog != null)
+	    {
+	        watchdog.stop();
+	    }
 	}
 	
 	/**
@@ -317,6 +446,26 @@ public class HttpServer implements ISessionListener
         return sDownloadPath;
     }
     
+    /**
+     * Sets the path of the metrics. The metrics are available as JSON or in the Prometheus text format.
+     * 
+     * @param pMetricsPath the path, e.g. /services/Metrics or <code>null</code> to hide the metrics
+     */
+    public void setMetricsPath(String pMetricsPath)
+    {
+        sMetricsPath = pMetricsPath;
+    }
+    
+    /**
+     * Gets the path of the metrics.
+     * 
+     * @return the path, e.g. /services/Metrics
+     */
+    public String getMetricsPath()
+    {
+        return sMetricsPath;
+    }
+    
     /**
      * Sets the listening interface.
      * 
@@ -388,36 +537,556 @@ public class HttpServer implements ISessionListener
 		return sWebContentPath;
 	}
 	
+	/**
+	 * Sets whether the sessions of this server will be recorded in a {@link SessionDirectory}. Service
+	 * requests with the {@link SessionDirectory#HEADER_SESSION} header for sessions of other nodes will be
+	 * forwarded to the owner. The setting will be used after the next start of the server.
+	 * 
+	 * @param pEnabled <code>true</code> to enable the session directory
+	 */
+	public void setSessionDirectoryEnabled(boolean pEnabled)
+	{
+	    bSessionDirectoryEnabled = pEnabled;
+	}
+	
+	/**
+	 * Gets whether the session directory is enabled.
+	 * 
+	 * @return <code>true</code> if the session directory is enabled
+	 */
+	public boolean isSessionDirectoryEnabled()
+	{
+	    return bSessionDirectoryEnabled;
+	}
+	
+	/**
+	 * Sets the store for uploaded and downloadable content. The store will be used after the next
+	 * start of the server.
+	 * 
+	 * @param pStore the store, e.g. a {@link com.sibvisions.vertx.store.ClusterFileHandleStore}
+	 */
+	public void setFileHandleStore(IFileHandleStore pStore)
+	{
+	    if (pStore == null)
+	    {
+	        store = new LocalFileHandleStore();
+	    }
+	    else
+	    {
+	        store = pStore;
+	    }
+	}
+	
+	/**
+	 * Gets the store for uploaded and downloadable content.
+	 * 
+	 * @return the store
+	 */
+	public IFileHandleStore getFileHandleStore()
+	{
+	    return store;
+	}
+	
+	/**
+	 * Sets the admission control for JVx calls. Servers can share their admission control to limit
+	 * the calls of both servers.
+	 * 
+	 * @param pAdmission the admission control or <code>null</code> for an admission control without limit
+	 */
+	public void setAdmissionControl(AdmissionControl pAdmission)
+	{
+	    if (pAdmission == null)
+	    {
+	        admission = new AdmissionControl();
+	    }
+	    else
+	    {
+	        admission = pAdmission;
+	    }
+	}
+	
+	/**
+	 * Gets the admission control for JVx calls.
+	 * 
+	 * @return the admission control
+	 */
+	public AdmissionControl getAdmissionControl()
+	{
+	    return admission;
+	}
+	
+	/**
+	 * Sets the admission control for uploads and downloads. Transfers are admitted independently of
+	 * service calls, so long running transfers don't block calls.
+	 * 
+	 * @param pAdmission the admission control or <code>null</code> for an admission control without limit
+	 */
+	public void setTransferAdmissionControl(AdmissionControl pAdmission)
+	{
+	    if (pAdmission == null)
+	    {
+	        transfers = new AdmissionControl(AdmissionControl.LANE_TRANSFERS);
+	    }
+	    else
+	    {
+	        transfers = pAdmission;
+	    }
+	}
+	
+	/**
+	 * Gets the admission control for uploads and downloads.
+	 * 
+	 * @return the admission control
+	 */
+	public AdmissionControl getTransferAdmissionControl()
+	{
+	    return transfers;
+	}
+	
+	/**
+	 * Sets the admission control per application. Calls of sessions with a configured application are 
+	 * admitted by the admission control of the application instead of the admission control for JVx calls.
+	 * Servers can share the admission per application.
+	 * 
+	 * @param pApplications the admission per application or <code>null</code> for new admission per application
+	 */
+	public void setApplicationAdmission(ApplicationAdmission pApplications)
+	{
+	    if (pApplications == null)
+	    {
+	        applications = new ApplicationAdmission();
+	    }
+	    else
+	    {
+	        applications = pApplications;
+	    }
+	}
+	
+	/**
+	 * Gets the admission control per application.
+	 * 
+	 * @return the admission per application
+	 */
+	public ApplicationAdmission getApplicationAdmission()
+	{
+	    return applications;
+	}
+	
+	/**
+	 * Sets the bandwidth shaper for downloads. Servers can share the shaper, e.g. for a global limit.
+	 * 
+	 * @param pShaper the shaper or <code>null</code> for a new shaper without limit
+	 */
+	public void setBandwidthShaper(BandwidthShaper pShaper)
+	{
+	    if (pShaper == null)
+	    {
+	        shaper = new BandwidthShaper();
+	    }
+	    else
+	    {
+	        shaper = pShaper;
+	    }
+	}
+	
+	/**
+	 * Gets the bandwidth shaper for downloads.
+	 * 
+	 * @return the shaper
+	 */
+	public BandwidthShaper getBandwidthShaper()
+	{
+	    return shaper;
+	}
+	
+	/**
+	 * Sets the protection against slow clients. Servers can share the protection.
+	 * 
+	 * @param pProtection the protection or <code>null</code> for a new protection without limit
+	 */
+	public void setSlowClientProtection(SlowClientProtection pProtection)
+	{
+	    if (pProtection == null)
+	    {
+	        protection = new SlowClientProtection();
+	    }
+	    else
+	    {
+	        protection = pProtection;
+	    }
+	}
+	
+	/**
+	 * Gets the protection against slow clients.
+	 * 
+	 * @return the protection
+	 */
+	public SlowClientProtection getSlowClientProtection()
+	{
+	    return protection;
+	}
+	
+	/**
+	 * Sets the metrics of this server. Servers can share their metrics.
+	 * 
+	 * @param pMetrics the metrics or <code>null</code> for new metrics
+	 */
+	public void setMetrics(Metrics pMetrics)
+	{
+	    if (pMetrics == null)
+	    {
+	        metrics = new Metrics();
+	    }
+	    else
+	    {
+	        metrics = pMetrics;
+	    }
+	}
+	
+	/**
+	 * Gets the metrics of this server.
+	 * 
+	 * @return the metrics
+	 */
+	public Metrics getMetrics()
+	{
+	    return metrics;
+	}
+	
+	/**
+	 * Sets the duration after which a JVx call will be logged as slow call, with the duration
+	 * of its phases.
+	 * 
+	 * @param pThreshold the duration in milliseconds or <code>-1</code> to log no calls
+	 */
+	public void setSlowCallThreshold(long pThreshold)
+	{
+	    lSlowCallThreshold = pThreshold;
+	}
+	
+	/**
+	 * Gets the duration after which a JVx call will be logged as slow call.
+	 * 
+	 * @return the duration in milliseconds or <code>-1</code> if no calls will be logged
+	 */
+	public long getSlowCallThreshold()
+	{
+	    return lSlowCallThreshold;
+	}
+	
+	/**
+	 * Gets the session directory.
+	 * 
+	 * @return the directory or <code>null</code> if the directory isn't enabled or the server isn't started
+	 */
+	public SessionDirectory getSessionDirectory()
+	{
+	    return directory;
+	}
+	
+	/**
+	 * Dispatches a request by path.
+	 * 
+	 * @param pRequest the request
+	 * @param pMetricsHandler the handler for the metrics path
+	 */
+	private void dispatch(HttpServerRequest pRequest, MetricsHandler pMetricsHandler)
+	{
+        String sPath = pRequest.path(); 
+
+        if (sPath.equals(sServicePath))
+        {
+            handleService(pRequest, track(pRequest, Metrics.ROUTE_SERVICE));
+        }
+        else if (sPath.equals(sUploadPath) || sPath.equals(sDownloadPath))
+        {
+            handleTransfer(pRequest, track(pRequest, sPath.equals(sUploadPath) ? Metrics.ROUTE_UPLOAD : Metrics.ROUTE_DOWNLOAD));
+        }
+        else if (sPath.equals(sMetricsPath))
+        {
+            pMetricsHandler.handle(pRequest);
+        }
+        else
+        {
+            track(pRequest, Metrics.ROUTE_STATIC);
+            
+            pRequest.response().sendFile(sWebContentPath + pRequest.path());
+        }
+	}
+	
+	/**
+	 * Records a request in the metrics. The request ends with the response or when the connection
+	 * will be closed. A service call in progress will be cancelled, if the connection will be closed
+	 * before the response.
+	 * 
+	 * @param pRequest the request
+	 * @param pRoute the route
+	 * @return the handler for the end of the request
+	 */
+	private RequestEnd track(HttpServerRequest pRequest, String pRoute)
+	{
+	    final RequestEnd hndEnd = new RequestEnd(pRoute);
+	    
+	    pRequest.response().bodyEndHandler(hndEnd);
+	    pRequest.response().closeHandler(new Handler<Void>()
+	    {
+	        public void handle(Void pEvent)
+	        {
+	            hndEnd.closed();
+	        }
+	    });
+	    
+	    return hndEnd;
+	}
+	
 	/**
 	 * Handles a service/server request.
 	 * 
 	 * @param pRequest the request
+	 * @param pEnd the handler for the end of the request
 	 */
-	private void handleService(HttpServerRequest pRequest)
+	private void handleService(final HttpServerRequest pRequest, final RequestEnd pEnd)
+	{
+	    String sSessionId = pRequest.headers().get(SessionDirectory.HEADER_SESSION);
+	    
+	    if (directory == null || sSessionId == null)
+	    {
+	        processService(pRequest, pEnd);
+	        
+	        return;
+	    }
+	    
+	    //don't lose the body while we ask the directory
+	    pRequest.pause();
+	    
+	    directory.getOwner(sSessionId, new Handler<String>()
+	    {
+	        public void handle(String pOwner)
+	        {
+	            if (pOwner == null)
+	            {
+	                //resumes after admission
+	                processService(pRequest, pEnd);
+	            }
+	            else
+	            {
+	                forwardService(pRequest, pOwner);
+	                
+	                pRequest.resume();
+	            }
+	        }
+	    });
+	}
+	
+	/**
+	 * Processes a service/server request with this server, if the request was admitted. The request 
+	 * will be paused while it waits for admission.
+	 * 
+	 * @param pRequest the request
+	 * @param pEnd the handler for the end of the request
+	 */
+	private void processService(final HttpServerRequest pRequest, final RequestEnd pEnd)
+	{
+	    final long lDeadline = CallContext.getDeadline(System.currentTimeMillis(), getTimeout(pRequest));
+	    
+	    final String sKey = getSessionKey(pRequest);
+	    
+	    AdmissionControl acApplication = applications.getSessionAdmissionControl(pRequest.headers().get(SessionDirectory.HEADER_SESSION));
+	    
+	    final AdmissionControl acCall = acApplication != null ? acApplication : admission;
+	    
+	    pRequest.pause();
+	    
+	    acCall.acquire(sKey, vertx.getOrCreateContext(), new Handler<Boolean>()
+	    {
+	        public void handle(Boolean pAdmitted)
+	        {
+	            if (pAdmitted.booleanValue())
+	            {
+	                pEnd.admitted(acCall, sKey);
+	                
+	                if (CallContext.isExpired(lDeadline))
+	                {
+	                    expireService(pRequest);
+	                }
+	                else
+	                {
+	                    startService(pRequest, pEnd, lDeadline);
+	                }
+	            }
+	            else
+	            {
+	                reject(pRequest, acCall);
+	            }
+	            
+	            pRequest.resume();
+	        }
+	    });
+	}
+	
+	/**
+	 * Handles an upload or download request, if the request was admitted by the admission control for 
+	 * transfers. The request will be paused while it waits for admission.
+	 * 
+	 * @param pRequest the request
+	 * @param pEnd the handler for the end of the request
+	 */
+	private void handleTransfer(final HttpServerRequest pRequest, final RequestEnd pEnd)
+	{
+	    final String sKey = getSessionKey(pRequest);
+	    
+	    pRequest.pause();
+	    
+	    transfers.acquire(sKey, vertx.getOrCreateContext(), new Handler<Boolean>()
+	    {
+	        public void handle(Boolean pAdmitted)
+	        {
+	            if (pAdmitted.booleanValue())
+	            {
+	                pEnd.admitted(transfers, sKey);
+	                
+	                if (pRequest.path().equals(sUploadPath))
+	                {
+	                    handleUpload(pRequest);
+	                }
+	                else
+	                {
+	                    handleDownload(pRequest);
+	                }
+	            }
+	            else
+	            {
+	                reject(pRequest, transfers);
+	            }
+	            
+	            pRequest.resume();
+	        }
+	    });
+	}
+	
+	/**
+	 * Starts processing of an admitted service/server request.
+	 * 
+	 * @param pRequest the request
+	 * @param pEnd the handler for the end of the request
+	 * @param pDeadline the deadline of the call or <code>-1</code> if the call has no deadline
+	 */
+	private void startService(HttpServerRequest pRequest, RequestEnd pEnd, long pDeadline)
 	{
         AbstractDataHandler dataHandler = new HttpDataHandler(srvJVx, pRequest.response()); 
+        dataHandler.setMetrics(metrics);
+        dataHandler.setSlowCallThreshold(lSlowCallThreshold);
+        dataHandler.setSlowClientProtection(protection);
+        dataHandler.setWatchdog(watchdog);
+        dataHandler.setDescription(describe(pRequest));
+        dataHandler.setDeadline(pDeadline);
+        
+        pEnd.started(dataHandler);
 
-        pRequest.handler(dataHandler);
+        pRequest.handler(watchdog.watch(dataHandler, dataHandler.getDescription()));
         pRequest.endHandler(new StopHandler(dataHandler));
         pRequest.exceptionHandler(new ExceptionHandler(dataHandler));
 	}
 	
+	/**
+	 * Rejects a request with <code>503 Service Unavailable</code>. The <code>Retry-After</code> header 
+	 * contains the retry time of the admission control in seconds.
+	 * 
+	 * @param pRequest the request
+	 * @param pAdmission the admission control which rejected the request
+	 */
+	private void reject(HttpServerRequest pRequest, AdmissionControl pAdmission)
+	{
+	    HttpServerResponse response = pRequest.response();
+	    
+	    response.setStatusCode(HttpResponseStatus.SERVICE_UNAVAILABLE.code());
+	    response.putHeader("Retry-After", String.valueOf((Math.max(0, pAdmission.getRetryAfter()) + 999) / 1000));
+	    response.end();
+	}
+	
+	/**
+	 * Drops a service/server request because its timeout elapsed before it was admitted.
+	 * 
+	 * @param pRequest the request
+	 */
+	private void expireService(HttpServerRequest pRequest)
+	{
+	    metrics.recordExpired();
+	    
+	    HttpServerResponse response = pRequest.response();
+	    
+	    response.setStatusCode(HttpResponseStatus.GATEWAY_TIMEOUT.code());
+	    response.end();
+	}
+	
+	/**
+	 * Forwards a service/server request to the owner of the session.
+	 * 
+	 * @param pRequest the request
+	 * @param pOwner the node address of the owner
+	 */
+	private void forwardService(final HttpServerRequest pRequest, final String pOwner)
+	{
+	    pRequest.bodyHandler(new Handler<Buffer>()
+	    {
+	        public void handle(Buffer pBody)
+	        {
+	            metrics.addBytesIn(pBody.length());
+	            
+	            directory.forward(pOwner, pBody.getBytes(), new Handler<AsyncResult<byte[]>>()
+	            {
+	                public void handle(AsyncResult<byte[]> pResult)
+	                {
+	                    HttpServerResponse response = pRequest.response();
+	                    
+	                    if (pResult.succeeded())
+	                    {
+	                        metrics.addBytesOut(pResult.result().length);
+	                        
+	                        response.end(Buffer.buffer(pResult.result()));
+	                    }
+	                    else
+	                    {
+	                        response.setStatusCode(HttpResponseStatus.BAD_GATEWAY.code());
+	                        response.end();
+	                    }
+	                }
+	            });
+	        }
+	    });
+	}
+	
     /**
-     * Handles an upload request.
+     * Handles an upload request. The content belongs to the session of the
+     * {@link SessionDirectory#HEADER_SESSION} header and will be rejected, if it exceeds a limit of the store.
      * 
      * @param pRequest the request
      */
 	private void handleUpload(final HttpServerRequest pRequest)
 	{
-        pRequest.handler(new Handler<Buffer>()
+	    final String sKey = pRequest.params().get("KEY");
+	    final String sSessionId = pRequest.headers().get(SessionDirectory.HEADER_SESSION);
+	    
+	    final TempContent[] content = new TempContent[1];
+	    final OutputStream[] os = new OutputStream[1];
+	    final boolean[] rejected = new boolean[1];
+	    
+	    String sDescription = describe(pRequest);
+	    
+        pRequest.handler(watchdog.watch(new Handler<Buffer>()
         {
-            private OutputStream os;
-            
             public void handle(Buffer event)
             {
+                if (rejected[0])
+                {
+                    return;
+                }
+                
+                metrics.addBytesIn(event.length());
+                
                 try
                 {
-                    if (os == null)
+                    if (os[0] == null)
                     {
                         String sFileName = getFileName(pRequest.headers().get("Content-Disposition"));
                         
@@ -429,34 +1098,76 @@ public class HttpServer implements ISessionListener
                             return;
                         }
                         
-                        RemoteFileHandle rfh = new RemoteFileHandle(sFileName, pRequest.params().get("KEY"));
-                        os = rfh.getOutputStream();
+                        try
+                        {
+                            content[0] = store.create(sSessionId, sFileName, sKey, getContentLength(pRequest));
+                        }
+                        catch (IOException ioe)
+                        {
+                            LoggerFactory.getInstance(HttpServer.class).debug(ioe);
+                            
+                            rejected[0] = true;
+                            
+                            pRequest.response().setStatusCode(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE.code());
+                            pRequest.response().end();
+                            
+                            return;
+                        }
+                        
+                        os[0] = content[0].getOutputStream();
                     }
                     
-                    os.write(event.getBytes());
+                    os[0].write(event.getBytes());
                 }
                 catch (IOException ioe)
                 {
                     throw new RuntimeException(ioe);
                 }
             }
-        });
+        }, sDescription));
         
         pRequest.exceptionHandler(new Handler<Throwable>()
         {
             public void handle(Throwable event)
             {
+                if (content[0] != null)
+                {
+                    content[0].invalidate(sKey);
+                }
+                
                 pRequest.response().end();
             }
         });
                 
-        pRequest.endHandler(new Handler<Void>()
+        pRequest.endHandler(watchdog.watch(new Handler<Void>()
         {
             public void handle(Void event)
             {
+                if (rejected[0])
+                {
+                    return;
+                }
+                
+                if (os[0] != null)
+                {
+                    try
+                    {
+                        //publishes the content
+                        os[0].close();
+                        
+                        store.register(sKey);
+                    }
+                    catch (IOException ioe)
+                    {
+                        LoggerFactory.getInstance(HttpServer.class).debug(ioe);
+                        
+                        pRequest.response().setStatusCode(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE.code());
+                    }
+                }
+                
                 pRequest.response().end();
             }
-        });
+        }, sDescription));
 	}
 
     /**
@@ -464,7 +1175,7 @@ public class HttpServer implements ISessionListener
      * 
      * @param pRequest the request
      */
-    private void handleDownload(HttpServerRequest pRequest)
+    private void handleDownload(final HttpServerRequest pRequest)
     {
         String sKey = pRequest.params().get("KEY");
         
@@ -476,47 +1187,166 @@ public class HttpServer implements ISessionListener
             return;
         }
         
-        IFileHandle fh = (IFileHandle)ObjectCache.get(sKey);
-
+        //the store could complete on another event loop
+        store.get(sKey, watchdog.watch(new Handler<AsyncResult<IFileHandle>>()
+        {
+            public void handle(AsyncResult<IFileHandle> pResult)
+            {
+                if (pResult.failed())
+                {
+                    pRequest.response().setStatusCode(HttpResponseStatus.BAD_GATEWAY.code());
+                    pRequest.response().end();
+                }
+                else if (pResult.result() == null)
+                {
+                    pRequest.response().setStatusCode(HttpResponseStatus.NOT_FOUND.code());
+                    pRequest.response().end();
+                }
+                else
+                {
+                    sendContent(pRequest, pResult.result());
+                }
+            }
+        }, describe(pRequest)));
+    }
+    
+    /**
+     * Sends content to the client. A file will be sent zero-copy, other content will be streamed by a
+     * worker thread, because reading the content could block. Shaped downloads are always streamed,
+     * because the rate of zero-copy transfers can't be limited.
+     * 
+     * @param pRequest the request
+     * @param pContent the content
+     */
+    private void sendContent(HttpServerRequest pRequest, IFileHandle pContent)
+    {
         HttpServerResponse response = pRequest.response();
         
-        String sType = MimeMapping.getMimeTypeForExtension(FileUtil.getExtension(fh.getFileName()));
+        String sType = MimeMapping.getMimeTypeForExtension(FileUtil.getExtension(pContent.getFileName()));
         
         if (sType != null)
         {
             response.putHeader(HttpHeaders.CONTENT_TYPE, sType);
         }
         
-        response.putHeader("Content-Disposition", "attachment; filename=\"" + fh.getFileName() + "\"");
+        response.putHeader("Content-Disposition", "attachment; filename=\"" + pContent.getFileName() + "\"");
 
-        int iLen;
+        Throttle throttle = shaper.open(getSessionKey(pRequest));
         
-        byte[] byContent = new byte[4096];
-
-        try
+        if (throttle == null && pContent instanceof TempContent)
         {
-            response.putHeader(HttpHeaders.CONTENT_LENGTH, "" + fh.getLength());
-
-            InputStream in = fh.getInputStream();
-            
-            Buffer buffer;
+            File file = ((TempContent)pContent).getFile();
             
-            while ((iLen = in.read(byContent)) >= 0)
+            if (file != null)
             {
-                buffer = Buffer.buffer();
-                buffer.appendBytes(byContent, 0, iLen);
-
-                response.write(buffer);
+                metrics.addBytesOut(file.length());
+                
+                //zero-copy
+                response.sendFile(file.getAbsolutePath());
+                
+                return;
             }
         }
+        
+        try
+        {
+            response.putHeader(HttpHeaders.CONTENT_LENGTH, "" + pContent.getLength());
+        }
         catch (IOException ioe)
         {
+            if (throttle != null)
+            {
+                throttle.close();
+            }
+            
             throw new RuntimeException(ioe);
         }
-
-        response.end();
+        
+        new ContentCopy(pContent, response, throttle).next();
     }
 	
+	/**
+	 * Describes a request for the reports of the watchdog.
+	 * 
+	 * @param pRequest the request
+	 * @return the method, uri and remote address
+	 */
+	private String describe(HttpServerRequest pRequest)
+	{
+	    return pRequest.method() + " " + pRequest.uri() + " from " + pRequest.remoteAddress();
+	}
+	
+	/**
+	 * Gets the timeout of a call from the {@link #HEADER_TIMEOUT} header.
+	 * 
+	 * @param pRequest the request
+	 * @return the timeout in milliseconds or <code>-1</code> if the call has no timeout
+	 */
+	private long getTimeout(HttpServerRequest pRequest)
+	{
+	    String sTimeout = pRequest.headers().get(HEADER_TIMEOUT);
+	    
+	    if (sTimeout == null)
+	    {
+	        return -1;
+	    }
+	    
+	    try
+	    {
+	        return Math.max(0, Long.parseLong(sTimeout.trim()));
+	    }
+	    catch (NumberFormatException nfe)
+	    {
+	        return -1;
+	    }
+	}
+	
+	/**
+	 * Gets the session key of a call for admission. The key is the session from the 
+	 * {@link SessionDirectory#HEADER_SESSION} header or the host of the client, because every call of
+	 * a http client can use another connection. The header is sent by the 
+	 * {@link com.sibvisions.rad.remote.vertx.HttpSessionConnection}.
+	 * 
+	 * @param pRequest the request
+	 * @return the session key
+	 */
+	private String getSessionKey(HttpServerRequest pRequest)
+	{
+	    String sSessionId = pRequest.headers().get(SessionDirectory.HEADER_SESSION);
+	    
+	    if (sSessionId != null)
+	    {
+	        return sSessionId;
+	    }
+	    
+	    return pRequest.remoteAddress().host();
+	}
+	
+	/**
+	 * Gets the content length of a request.
+	 * 
+	 * @param pRequest the request
+	 * @return the content length or <code>-1</code> if the length is unknown
+	 */
+	private long getContentLength(HttpServerRequest pRequest)
+	{
+	    String sLength = pRequest.headers().get(HttpHeaders.CONTENT_LENGTH);
+	    
+	    if (sLength == null)
+	    {
+	        return -1;
+	    }
+	    
+	    try
+	    {
+	        return Long.parseLong(sLength.trim());
+	    }
+	    catch (NumberFormatException nfe)
+	    {
+	        return -1;
+	    }
+	}
+	
 	/**
 	 * Gets the filename from the given content disposition.
 	 * 
@@ -552,4 +1382,352 @@ public class HttpServer implements ISessionListener
         return sName;
 	}
 	
+	//****************************************************************
+	// Subclass definition
+	//****************************************************************
+	
+	/**
+	 * The <code>RequestEnd</code> records a request in the metrics and releases the admission of
+	 * a service request. The request ends with the response or when the connection will be closed.
+	 * If the connection will be closed before the response, the service call will be cancelled.
+	 * 
+	 * @author agent
+	 */
+	private final class RequestEnd implements Handler<Void>
+	{
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    // Class members
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    
+	    /** the route. */
+	    private String sRoute;
+	    
+	    /** the admission control of an admitted request. */
+	    private AdmissionControl acAdmitted;
+	    
+	    /** the session key of an admitted request. */
+	    private String sAdmittedKey;
+	    
+	    /** the data handler of a started service request. */
+	    private volatile AbstractDataHandler dataHandler;
+	    
+	    /** the start time. */
+	    private long lStart;
+	    
+	    /** whether the request ended. */
+	    private volatile boolean bEnded;
+	    
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    // Initialization
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    
+	    /**
+	     * Creates a new instance of <code>RequestEnd</code>.
+	     * 
+	     * @param pRoute the route
+	     */
+	    private RequestEnd(String pRoute)
+	    {
+	        sRoute = pRoute;
+	        lStart = metrics.begin();
+	    }
+	    
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    // Interface implementation
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    
+	    /**
+	     * {@inheritDoc}
+	     */
+	    public void handle(Void pEvent)
+	    {
+	        if (!bEnded)
+	        {
+	            bEnded = true;
+	            
+	            metrics.end(sRoute, lStart);
+	            
+	            release();
+	        }
+	    }
+	    
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    // User-defined methods
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    
+	    /**
+	     * Remembers the admission of the request. The admission will be released immediately, if
+	     * the request already ended.
+	     * 
+	     * @param pAdmission the admission control
+	     * @param pKey the session key
+	     */
+	    private void admitted(AdmissionControl pAdmission, String pKey)
+	    {
+	        acAdmitted = pAdmission;
+	        sAdmittedKey = pKey;
+	        
+	        if (bEnded)
+	        {
+	            release();
+	        }
+	    }
+	    
+	    /**
+	     * Remembers the data handler of a started service request.
+	     * 
+	     * @param pHandler the data handler
+	     */
+	    private void started(AbstractDataHandler pHandler)
+	    {
+	        dataHandler = pHandler;
+	    }
+	    
+	    /**
+	     * Ends the request because the connection was closed. A service call without response will be
+	     * cancelled, because nobody reads the response.
+	     */
+	    private void closed()
+	    {
+	        AbstractDataHandler handler = dataHandler;
+	        
+	        if (!bEnded && handler != null)
+	        {
+	            handler.cancel();
+	        }
+	        
+	        handle(null);
+	    }
+	    
+	    /**
+	     * Releases the admission of the request.
+	     */
+	    private void release()
+	    {
+	        if (acAdmitted != null)
+	        {
+	            acAdmitted.release(sAdmittedKey);
+	            
+	            acAdmitted = null;
+	        }
+	    }
+	    
+	}   // RequestEnd
+	
+	/**
+	 * The <code>ContentCopy</code> streams content to the client. A worker thread reads the next chunk,
+	 * when the write queue of the response isn't full, so the content will be read as fast as the client
+	 * receives it and a shaped download waits for the refill of its buckets without blocking a thread.
+	 * The download will be aborted, if the client doesn't read within the write stall timeout.
+	 * 
+	 * @author agent
+	 */
+	private final class ContentCopy implements Handler<Void>
+	{
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    // Class members
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    
+	    /** the content. */
+	    private IFileHandle content;
+	    
+	    /** the response. */
+	    private HttpServerResponse response;
+	    
+	    /** the stream of the response. */
+	    private WriteStream<Buffer> stream;
+	    
+	    /** the throttle of a shaped download. */
+	    private Throttle throttle;
+	    
+	    /** the input stream of the content. */
+	    private InputStream in;
+	    
+	    /** whether the download was aborted. */
+	    private boolean bAborted;
+	    
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    // Initialization
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    
+	    /**
+	     * Creates a new instance of <code>ContentCopy</code>.
+	     * 
+	     * @param pContent the content
+	     * @param pResponse the response
+	     * @param pThrottle the throttle or <code>null</code> to send without limit
+	     */
+	    private ContentCopy(IFileHandle pContent, HttpServerResponse pResponse, Throttle pThrottle)
+	    {
+	        content = pContent;
+	        response = pResponse;
+	        throttle = pThrottle;
+	        
+	        Context context = vertx.getOrCreateContext();
+	        
+	        stream = protection.guard(pResponse, context, new Handler<Void>()
+	        {
+	            public void handle(Void pEvent)
+	            {
+	                metrics.recordClosed(Metrics.CLOSED_WRITE_STALL);
+	                
+	                abort(new IOException("Write stalled!"));
+	            }
+	        });
+	        
+	        if (pThrottle != null)
+	        {
+	            stream = new ShapedWriteStream(stream, pThrottle, context);
+	        }
+	    }
+	    
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    // Interface implementation
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    
+	    /**
+	     * Continues after the drain of the response.
+	     * 
+	     * @param pEvent the event
+	     */
+	    public void handle(Void pEvent)
+	    {
+	        next();
+	    }
+	    
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    // User-defined methods
+	    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	    
+	    /**
+	     * Reads the next chunk with a worker thread and writes it on the context of the response.
+	     */
+	    private void next()
+	    {
+	        metrics.getWorkerQueue().increment();
+	        
+	        vertx.executeBlocking(new Handler<Future<Buffer>>()
+	        {
+	            public void handle(Future<Buffer> pFuture)
+	            {
+	                metrics.getWorkerQueue().decrement();
+	                
+	                try
+	                {
+	                    if (in == null)
+	                    {
+	                        in = content.getInputStream();
+	                    }
+	                    
+	                    byte[] byContent = new byte[8192];
+	                    
+	                    int iLen = in.read(byContent);
+	                    
+	                    if (iLen < 0)
+	                    {
+	                        pFuture.complete(null);
+	                    }
+	                    else
+	                    {
+	                        pFuture.complete(Buffer.buffer(iLen).appendBytes(byContent, 0, iLen));
+	                    }
+	                }
+	                catch (Exception e)
+	                {
+	                    pFuture.fail(e);
+	                }
+	            }
+	        },
+	        false,
+	        new Handler<AsyncResult<Buffer>>()
+	        {
+	            public void handle(AsyncResult<Buffer> pResult)
+	            {
+	                if (bAborted)
+	                {
+	                    CommonUtil.close(in);
+	                }
+	                else if (pResult.failed())
+	                {
+	                    abort(pResult.cause());
+	                }
+	                else if (pResult.result() == null)
+	                {
+	                    finish();
+	                    
+	                    response.end();
+	                }
+	                else
+	                {
+	                    try
+	                    {
+	                        stream.write(pResult.result());
+	                    }
+	                    catch (RuntimeException re)
+	                    {
+	                        //the connection was closed
+	                        abort(re);
+	                        
+	                        return;
+	                    }
+	                    
+	                    metrics.addBytesOut(pResult.result().length());
+	                    
+	                    if (stream.writeQueueFull())
+	                    {
+	                        stream.drainHandler(ContentCopy.this);
+	                    }
+	                    else
+	                    {
+	                        next();
+	                    }
+	                }
+	            }
+	        });
+	    }
+	    
+	    /**
+	     * Stops the download because reading or writing failed.
+	     * 
+	     * @param pCause the cause
+	     */
+	    private void abort(Throwable pCause)
+	    {
+	        if (bAborted)
+	        {
+	            return;
+	        }
+	        
+	        bAborted = true;
+	        
+	        LoggerFactory.getInstance(HttpServer.class).debug(pCause);
+	        
+	        finish();
+	        
+	        try
+	        {
+	            //the content length was sent
+	            response.close();
+	        }
+	        catch (RuntimeException re)
+	        {
+	            //already closed
+	        }
+	    }
+	    
+	    /**
+	     * Closes the input stream and the throttle.
+	     */
+	    private void finish()
+	    {
+	        CommonUtil.close(in);
+	        
+	        if (throttle != null)
+	        {
+	            throttle.close();
+	        }
+	    }
+	    
+	}   // ContentCopy
+	
 }	// HttpServer
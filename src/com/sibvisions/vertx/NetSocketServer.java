@@ -17,11 +17,31 @@
  * History
  *
  * 28.12.2012 - [JR] - creation
+ * 19.10.2026 - [agent] - expiration of abandoned segmented uploads
+ * 19.10.2026 - [agent] - session directory
+ * 19.10.2026 - [agent] - file handle store
+ * 19.10.2026 - [agent] - release content with session
+ * 19.10.2026 - [agent] - metrics
+ * 19.10.2026 - [agent] - slow call log
+ * 19.10.2026 - [agent] - watchdog
+ * 19.10.2026 - [agent] - admission control
+ * 19.10.2026 - [agent] - session key for fair admission
+ * 19.10.2026 - [agent] - admission lane for transfers
+ * 19.10.2026 - [agent] - admission per application
+ * 19.10.2026 - [agent] - bandwidth shaping of downloads
+ * 19.10.2026 - [agent] - slow client protection
+ * 19.10.2026 - [agent] - connection limit and idle connections
+ * 19.10.2026 - [agent] - release connections and uploads of destroyed sessions
+ * 19.10.2026 - [agent] - segmented uploads per server
+ * 19.10.2026 - [agent] - remove destroyed sessions from the admission control
+ * 19.10.2026 - [agent] - maximum frame length of pipelined requests
  */
 package com.sibvisions.vertx;
 
+import io.netty.handler.codec.http.HttpResponseStatus;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.net.NetServer;
 import io.vertx.core.net.NetServerOptions;
 import io.vertx.core.net.NetSocket;
@@ -32,12 +52,20 @@ import jvx.rad.server.ISession;
 import jvx.rad.server.InjectObject;
 import jvx.rad.server.event.ISessionListener;
 
+import com.sibvisions.rad.remote.vertx.Pipeline;
 import com.sibvisions.rad.server.AbstractSession;
 import com.sibvisions.rad.server.Server;
-import com.sibvisions.vertx.handler.AbstractDataHandler;
+import com.sibvisions.vertx.cluster.SessionDirectory;
 import com.sibvisions.vertx.handler.ExceptionHandler;
 import com.sibvisions.vertx.handler.NetDataHandler;
+import com.sibvisions.vertx.handler.SegmentedUploadRegistry;
 import com.sibvisions.vertx.handler.StopHandler;
+import com.sibvisions.vertx.metrics.Metrics;
+import com.sibvisions.vertx.metrics.MetricsHandler;
+import com.sibvisions.vertx.metrics.Watchdog;
+import com.sibvisions.vertx.shaping.BandwidthShaper;
+import com.sibvisions.vertx.store.IFileHandleStore;
+import com.sibvisions.vertx.store.LocalFileHandleStore;
 
 /**
  * The <code>NetSocketServer</code> uses {@link Server} and offers a lightweight socket server based
@@ -57,18 +85,84 @@ public class NetSocketServer implements ISessionListener
 	/** the vertx net server. */
 	private NetServer srvVertx;
 	
+	/** the http server for metrics. */
+	private io.vertx.core.http.HttpServer srvMetrics;
+	
 	/** the JVx server. */
 	private Server srvJVx;
 
 	/** the injection object for our vert.x instance. */
 	private InjectObject ijoVertx;
 	
+	/** the session directory. */
+	private SessionDirectory directory;
+	
+	/** the store for uploaded and downloadable content. */
+	private IFileHandleStore store = new LocalFileHandleStore();
+	
+	/** the metrics. */
+	private Metrics metrics = new Metrics();
+	
+	/** the watchdog for event loop and worker threads. */
+	private Watchdog watchdog;
+	
+	/** the admission control for JVx calls. */
+	private AdmissionControl admission = new AdmissionControl();
+	
+	/** the admission control for uploads and downloads. */
+	private AdmissionControl transfers = new AdmissionControl(AdmissionControl.LANE_TRANSFERS);
+	
+	/** the admission control per application. */
+	private ApplicationAdmission applications = new ApplicationAdmission();
+	
+	/** the bandwidth shaper for downloads. */
+	private BandwidthShaper shaper = new BandwidthShaper();
+	
+	/** the protection against slow clients. */
+	private SlowClientProtection protection = new SlowClientProtection();
+	
+	/** the connection limit and idle connections. */
+	private ConnectionManager connections = new ConnectionManager();
+	
+	/** the connections per session. */
+	private SessionIndex sessions = new SessionIndex();
+	
+	/** the pending segmented uploads. */
+	private SegmentedUploadRegistry uploads = new SegmentedUploadRegistry();
+	
 	/** the interface for listening. */
 	private String sInterface = "localhost";
 	
+	/** the path of the metrics. */
+	private String sMetricsPath = "/services/Metrics";
+	
 	/** the port. */
 	private int iPort = 8888;
 	
+	/** the http port for metrics. */
+	private int iMetricsPort = -1;
+	
+	/** the maximum length of a pipelined request frame. */
+	private int iMaxFrameLength = Pipeline.MAX_FRAME_LENGTH;
+	
+	/** the timeout for abandoned uploads. */
+	private long lUploadTimeout = 600000;
+	
+	/** the timer id for upload expiration. */
+	private long lUploadTimerId = -1;
+	
+	/** the duration in milliseconds, after which a call will be logged as slow call. */
+	private long lSlowCallThreshold = -1;
+	
+	/** the duration in milliseconds, after which a blocked event loop thread will be reported. */
+	private long lBlockedEventLoopThreshold = 2000;
+	
+	/** the duration in milliseconds, after which a waiting worker thread will be reported. */
+	private long lStalledWorkerThreshold = 60000;
+	
+	/** whether the session directory is enabled. */
+	private boolean bSessionDirectoryEnabled = false;
+	
 	//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 	// Initialization
 	//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -156,6 +250,8 @@ public class NetSocketServer implements ISessionListener
 		}
 		
 		((AbstractSession)pSession).putObject(ijoVertx);
+		
+		applications.sessionCreated(pSession);
 	}
 
 	/**
@@ -163,6 +259,18 @@ public class NetSocketServer implements ISessionListener
 	 */
 	public void sessionDestroyed(ISession pSession)
 	{
+	    String sSessionId = String.valueOf(pSession.getId());
+	    
+	    store.releaseSession(sSessionId);
+	    
+	    uploads.release(sSessionId);
+	    
+	    admission.remove(sSessionId);
+	    
+	    applications.sessionDestroyed(pSession);
+	    
+	    //the connections of the session aren't needed anymore
+	    sessions.sessionDestroyed(sSessionId);
 	}
 	
 	//~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -203,21 +311,91 @@ public class NetSocketServer implements ISessionListener
 		options.setTcpKeepAlive(true);
 		options.setTcpNoDelay(true);
 
+		if (bSessionDirectoryEnabled)
+		{
+		    directory = new SessionDirectory(vertx, srvJVx);
+		    directory.start();
+		    
+		    srvJVx.getSessionManager().addSessionListener(directory);
+		}
+		
+		store.start(vertx);
+		
+		watchdog = new Watchdog(metrics);
+		watchdog.setEventLoopThreshold(lBlockedEventLoopThreshold);
+		watchdog.setWorkerThreshold(lStalledWorkerThreshold);
+		watchdog.start();
+		
+		admission.setMetrics(metrics);
+		transfers.setMetrics(metrics);
+		applications.setMetrics(metrics);
+		
+		connections.setMetrics(metrics);
+		connections.start(vertx);
+		
 		srvVertx = vertx.createNetServer(options);
 		
 		srvVertx.connectHandler(new Handler<NetSocket>()
 		{
 			public void handle(NetSocket pSocket)
 			{
-			    AbstractDataHandler dataHandler = new NetDataHandler(srvJVx, pSocket); 
+			    NetDataHandler dataHandler = new NetDataHandler(srvJVx, pSocket, directory); 
+			    dataHandler.setFileHandleStore(store);
+			    dataHandler.setMetrics(metrics);
+			    dataHandler.setSlowCallThreshold(lSlowCallThreshold);
+			    dataHandler.setWatchdog(watchdog);
+			    dataHandler.setAdmissionControl(admission);
+			    dataHandler.setTransferAdmissionControl(transfers);
+			    dataHandler.setApplicationAdmission(applications);
+			    dataHandler.setBandwidthShaper(shaper);
+			    dataHandler.setSlowClientProtection(protection);
+			    dataHandler.setSessionIndex(sessions);
+			    dataHandler.setSegmentedUploadRegistry(uploads);
+			    dataHandler.setMaxFrameLength(iMaxFrameLength);
+			    //the open call of a connection is admitted by the socket, further calls by their session
+			    dataHandler.setSessionKey(String.valueOf(pSocket.remoteAddress()));
+			    dataHandler.setDescription("NetSocket " + pSocket.remoteAddress());
 
-		    	pSocket.handler(dataHandler);
+		    	pSocket.handler(watchdog.watch(dataHandler, dataHandler.getDescription()));
 		    	pSocket.endHandler(new StopHandler(dataHandler));
 		    	pSocket.exceptionHandler(new ExceptionHandler(dataHandler));
+		    	
+		    	connections.open(pSocket, dataHandler);
 			}
 		});
 		
 		srvVertx.listen(iPort, sInterface);
+		
+		if (iMetricsPort > 0)
+		{
+		    final MetricsHandler metricsHandler = new MetricsHandler(metrics);
+		    
+		    srvMetrics = vertx.createHttpServer().requestHandler(new Handler<HttpServerRequest>()
+		    {
+		        public void handle(HttpServerRequest pRequest)
+		        {
+		            if (pRequest.path().equals(sMetricsPath))
+		            {
+		                metricsHandler.handle(pRequest);
+		            }
+		            else
+		            {
+		                pRequest.response().setStatusCode(HttpResponseStatus.NOT_FOUND.code());
+		                pRequest.response().end();
+		            }
+		        }
+		    });
+		    
+		    srvMetrics.listen(iMetricsPort, sInterface);
+		}
+		
+		lUploadTimerId = vertx.setPeriodic(Math.max(1000, lUploadTimeout / 4), new Handler<Long>()
+		{
+		    public void handle(Long pTimerId)
+		    {
+		        uploads.expire(lUploadTimeout);
+		    }
+		});
 	}
 	
 	/**
@@ -229,6 +407,33 @@ public class NetSocketServer implements ISessionListener
 	    {
 	        srvVertx.close();
 	        
+	        if (srvMetrics != null)
+	        {
+	            srvMetrics.close();
+	            srvMetrics = null;
+	        }
+	        
+	        if (lUploadTimerId >= 0)
+	        {
+	            vertx.cancelTimer(lUploadTimerId);
+	            
+	            lUploadTimerId = -1;
+	        }
+	        
+	        if (directory != null)
+	        {
+	            srvJVx.getSessionManager().removeSessionListener(directory);
+	            
+	            directory.stop();
+	            directory = null;
+	        }
+	        
+	        store.stop();
+	        
+	        watchdog.stop();
+	        
+	        connections.stop();
+	        
 	        //stops main thread
 	        synchronized (this)
 	        {
@@ -277,4 +482,417 @@ public class NetSocketServer implements ISessionListener
 		return iPort;
 	}
 	
+	/**
+	 * Sets the time after which an incomplete segmented upload will be removed, if the client 
+	 * doesn't resume it. The timeout will be used after the next start of the server.
+	 * 
+	 * @param pTimeout the timeout in milliseconds
+	 */
+	public void setUploadTimeout(long pTimeout)
+	{
+	    lUploadTimeout = pTimeout;
+	}
+	
+	/**
+	 * Sets the maximum length of a pipelined request frame. A client which sends a greater frame
+	 * will be disconnected.
+	 * 
+	 * @param pLength the length in bytes
+	 */
+	public void setMaxFrameLength(int pLength)
+	{
+	    iMaxFrameLength = pLength;
+	}
+	
+	/**
+	 * Sets whether the sessions of this server will be recorded in a {@link SessionDirectory}. Pipelined
+	 * requests for sessions of other nodes will be forwarded to the owner. The setting will be used after
+	 * the next start of the server.
+	 * 
+	 * @param pEnabled <code>true</code> to enable the session directory
+	 */
+	public void setSessionDirectoryEnabled(boolean pEnabled)
+	{
+	    bSessionDirectoryEnabled = pEnabled;
+	}
+	
+	/**
+	 * Gets whether the session directory is enabled.
+	 * 
+	 * @return <code>true</code> if the session directory is enabled
+	 */
+	public boolean isSessionDirectoryEnabled()
+	{
+	    return bSessionDirectoryEnabled;
+	}
+	
+	/**
+	 * Sets the store for uploaded and downloadable content. The store will be used after the next
+	 * start of the server.
+	 * 
+	 * @param pStore the store, e.g. a {@link com.sibvisions.vertx.store.ClusterFileHandleStore}
+	 */
+	public void setFileHandleStore(IFileHandleStore pStore)
+	{
+	    if (pStore == null)
+	    {
+	        store = new LocalFileHandleStore();
+	    }
+	    else
+	    {
+	        store = pStore;
+	    }
+	}
+	
+	/**
+	 * Gets the store for uploaded and downloadable content.
+	 * 
+	 * @return the store
+	 */
+	public IFileHandleStore getFileHandleStore()
+	{
+	    return store;
+	}
+	
+	/**
+	 * Sets the admission control for JVx calls. Servers can share their admission control to limit
+	 * the calls of both servers.
+	 * 
+	 * @param pAdmission the admission control or <code>null</code> for an admission control without limit
+	 */
+	public void setAdmissionControl(AdmissionControl pAdmission)
+	{
+	    if (pAdmission == null)
+	    {
+	        admission = new AdmissionControl();
+	    }
+	    else
+	    {
+	        admission = pAdmission;
+	    }
+	}
+	
+	/**
+	 * Gets the admission control for JVx calls.
+	 * 
+	 * @return the admission control
+	 */
+	public AdmissionControl getAdmissionControl()
+	{
+	    return admission;
+	}
+	
+	/**
+	 * Sets the admission control for uploads and downloads. Transfers are admitted independently of
+	 * JVx calls, so long running transfers don't block calls.
+	 * 
+	 * @param pAdmission the admission control or <code>null</code> for an admission control without limit
+	 */
+	public void setTransferAdmissionControl(AdmissionControl pAdmission)
+	{
+	    if (pAdmission == null)
+	    {
+	        transfers = new AdmissionControl(AdmissionControl.LANE_TRANSFERS);
+	    }
+	    else
+	    {
+	        transfers = pAdmission;
+	    }
+	}
+	
+	/**
+	 * Gets the admission control for uploads and downloads.
+	 * 
+	 * @return the admission control
+	 */
+	public AdmissionControl getTransferAdmissionControl()
+	{
+	    return transfers;
+	}
+	
+	/**
+	 * Sets the admission control per application. Calls of sessions with a configured application are 
+	 * admitted by the admission control of the application instead of the admission control for JVx calls.
+	 * Servers can share the admission per application.
+	 * 
+	 * @param pApplications the admission per application or <code>null</code> for new admission per application
+	 */
+	public void setApplicationAdmission(ApplicationAdmission pApplications)
+	{
+	    if (pApplications == null)
+	    {
+	        applications = new ApplicationAdmission();
+	    }
+	    else
+	    {
+	        applications = pApplications;
+	    }
+	}
+	
+	/**
+	 * Gets the admission control per application.
+	 * 
+	 * @return the admission per application
+	 */
+	public ApplicationAdmission getApplicationAdmission()
+	{
+	    return applications;
+	}
+	
+	/**
+	 * Sets the bandwidth shaper for downloads. Servers can share the shaper, e.g. for a global limit.
+	 * 
+	 * @param pShaper the shaper or <code>null</code> for a new shaper without limit
+	 */
+	public void setBandwidthShaper(BandwidthShaper pShaper)
+	{
+	    if (pShaper == null)
+	    {
+	        shaper = new BandwidthShaper();
+	    }
+	    else
+	    {
+	        shaper = pShaper;
+	    }
+	}
+	
+	/**
+	 * Gets the bandwidth shaper for downloads.
+	 * 
+	 * @return the shaper
+	 */
+	public BandwidthShaper getBandwidthShaper()
+	{
+	    return shaper;
+	}
+	
+	/**
+	 * Sets the protection against slow clients. Servers can share the protection.
+	 * 
+	 * @param pProtection the protection or <code>null</code> for a new protection without limit
+	 */
+	public void setSlowClientProtection(SlowClientProtection pProtection)
+	{
+	    if (pProtection == null)
+	    {
+	        protection = new SlowClientProtection();
+	    }
+	    else
+	    {
+	        protection = pProtection;
+	    }
+	}
+	
+	/**
+	 * Gets the protection against slow clients.
+	 * 
+	 * @return the protection
+	 */
+	public SlowClientProtection getSlowClientProtection()
+	{
+	    return protection;
+	}
+	
+	/**
+	 * Gets the connection limit and the handling of idle connections.
+	 * 
+	 * @return the connection manager
+	 */
+	public ConnectionManager getConnectionManager()
+	{
+	    return connections;
+	}
+	
+	/**
+	 * Gets the index of the connections per session. The connections of a session will be closed, 
+	 * if the session was destroyed and the connections aren't used by other sessions.
+	 * 
+	 * @return the index
+	 */
+	public SessionIndex getSessionIndex()
+	{
+	    return sessions;
+	}
+	
+	/**
+	 * Gets the pending segmented uploads of this server.
+	 * 
+	 * @return the registry of the uploads
+	 */
+	public SegmentedUploadRegistry getSegmentedUploadRegistry()
+	{
+	    return uploads;
+	}
+	
+	/**
+	 * Sets the metrics of this server. Servers can share their metrics.
+	 * 
+	 * @param pMetrics the metrics or <code>null</code> for new metrics
+	 */
+	public void setMetrics(Metrics pMetrics)
+	{
+	    if (pMetrics == null)
+	    {
+	        metrics = new Metrics();
+	    }
+	    else
+	    {
+	        metrics = pMetrics;
+	    }
+	}
+	
+	/**
+	 * Gets the metrics of this server.
+	 * 
+	 * @return the metrics
+	 */
+	public Metrics getMetrics()
+	{
+	    return metrics;
+	}
+	
+	/**
+	 * Sets the duration after which a JVx call will be logged as slow call, with the duration
+	 * of its phases.
+	 * 
+	 * @param pThreshold the duration in milliseconds or <code>-1</code> to log no calls
+	 */
+	public void setSlowCallThreshold(long pThreshold)
+	{
+	    lSlowCallThreshold = pThreshold;
+	}
+	
+	/**
+	 * Gets the duration after which a JVx call will be logged as slow call.
+	 * 
+	 * @return the duration in milliseconds or <code>-1</code> if no calls will be logged
+	 */
+	public long getSlowCallThreshold()
+	{
+	    return lSlowCallThreshold;
+	}
+	
+	/**
+	 * Sets the duration after which a blocked event loop thread will be reported with its stack
+	 * and the connection.
+	 * 
+	 * @param pThreshold the duration in milliseconds or <code>-1</code> to report no event loop threads
+	 */
+	public void setBlockedEventLoopThreshold(long pThreshold)
+	{
+	    lBlockedEventLoopThreshold = pThreshold;
+	    
+	    if (watchdog != null)
+	    {
+	        watchdog.setEventLoopThreshold(pThreshold);
+	    }
+	}
+	
+	/**
+	 * Gets the duration after which a blocked event loop thread will be reported.
+	 * 
+	 * @return the duration in milliseconds or <code>-1</code> if no event loop threads will be reported
+	 */
+	public long getBlockedEventLoopThreshold()
+	{
+	    return lBlockedEventLoopThreshold;
+	}
+	
+	/**
+	 * Sets the duration after which a worker thread, which waits for request bytes, will be reported
+	 * with its stack and the connection.
+	 * 
+	 * @param pThreshold the duration in milliseconds or <code>-1</code> to report no worker threads
+	 */
+	public void setStalledWorkerThreshold(long pThreshold)
+	{
+	    lStalledWorkerThreshold = pThreshold;
+	    
+	    if (watchdog != null)
+	    {
+	        watchdog.setWorkerThreshold(pThreshold);
+	    }
+	}
+	
+	/**
+	 * Gets the duration after which a worker thread, which waits for request bytes, will be reported.
+	 * 
+	 * @return the duration in milliseconds or <code>-1</code> if no worker threads will be reported
+	 */
+	public long getStalledWorkerThreshold()
+	{
+	    return lStalledWorkerThreshold;
+	}
+	
+	/**
+	 * Sets the http port for metrics. The metrics will be available as JSON or in the Prometheus text
+	 * format with the metrics path. The port will be used after the next start of the server.
+	 * 
+	 * @param pPort the port number or <code>-1</code> to disable the http port
+	 */
+	public void setMetricsPort(int pPort)
+	{
+	    iMetricsPort = pPort;
+	}
+	
+	/**
+	 * Gets the http port for metrics.
+	 * 
+	 * @return the port number or <code>-1</code> if the http port is disabled
+	 */
+	public int getMetricsPort()
+	{
+	    return iMetricsPort;
+	}
+	
+	/**
+	 * Sets the path of the metrics on the http port for metrics.
+	 * 
+	 * @param pPath the path, e.g. /services/Metrics
+	 */
+	public void setMetricsPath(String pPath)
+	{
+	    sMetricsPath = pPath;
+	}
+	
+	/**
+	 * Gets the path of the metrics on the http port for metrics.
+	 * 
+	 * @return the path, e.g. /services/Metrics
+	 */
+	public String getMetricsPath()
+	{
+	    return sMetricsPath;
+	}
+	
+	/**
+	 * Gets the session directory.
+	 * 
+	 * @return the directory or <code>null</code> if the directory isn't enabled or the server isn't started
+	 */
+	public SessionDirectory getSessionDirectory()
+	{
+	    return directory;
+	}
+	
+	/**
+	 * Gets the time after which an incomplete segmented upload will be removed.
+	 * 
+	 * @return the timeout in milliseconds
+	 */
+	public long getUploadTimeout()
+	{
+	    return lUploadTimeout;
+	}
+	
+	/**
+	 * Gets the maximum length of a pipelined request frame.
+	 * 
+	 * @return the length in bytes
+	 */
+	public int getMaxFrameLength()
+	{
+	    return iMaxFrameLength;
+	}
+	
 }	// NetSocketServer
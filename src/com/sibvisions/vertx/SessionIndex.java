@@ -0,0 +1,177 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.sibvisions.vertx.handler.AbstractDataHandler;
+
+/**
+ * The <code>SessionIndex</code> maps sessions to the connections which were used by the sessions. A connection
+ * can be used by more than one session, e.g. a master connection and its sub connections. If a session was 
+ * destroyed, the connections without other sessions will be released, i.e. the transport will be closed and 
+ * the processing thread ends.
+ * 
+ * @author agent
+ */
+public class SessionIndex
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the connections per session id. */
+    private Map<String, Set<AbstractDataHandler>> mpConnections = new HashMap<String, Set<AbstractDataHandler>>();
+    
+    /** the session ids per connection. */
+    private Map<AbstractDataHandler, Set<String>> mpSessions = new HashMap<AbstractDataHandler, Set<String>>();
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Records that a session used a connection.
+     * 
+     * @param pSessionId the session id
+     * @param pConnection the data handler of the connection
+     */
+    public synchronized void put(String pSessionId, AbstractDataHandler pConnection)
+    {
+        Set<AbstractDataHandler> stConnections = mpConnections.get(pSessionId);
+        
+        if (stConnections == null)
+        {
+            stConnections = new HashSet<AbstractDataHandler>();
+            
+            mpConnections.put(pSessionId, stConnections);
+        }
+        
+        if (stConnections.add(pConnection))
+        {
+            Set<String> stSessions = mpSessions.get(pConnection);
+            
+            if (stSessions == null)
+            {
+                stSessions = new HashSet<String>();
+                
+                mpSessions.put(pConnection, stSessions);
+            }
+            
+            stSessions.add(pSessionId);
+        }
+    }
+    
+    /**
+     * Removes a closed connection.
+     * 
+     * @param pConnection the data handler of the connection
+     */
+    public synchronized void remove(AbstractDataHandler pConnection)
+    {
+        Set<String> stSessions = mpSessions.remove(pConnection);
+        
+        if (stSessions != null)
+        {
+            for (String sSessionId : stSessions)
+            {
+                Set<AbstractDataHandler> stConnections = mpConnections.get(sSessionId);
+                
+                if (stConnections != null)
+                {
+                    stConnections.remove(pConnection);
+                    
+                    if (stConnections.isEmpty())
+                    {
+                        mpConnections.remove(sSessionId);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Removes a destroyed session and releases the connections which aren't used by other sessions.
+     * 
+     * @param pSessionId the session id
+     * @see AbstractDataHandler#release()
+     */
+    public void sessionDestroyed(String pSessionId)
+    {
+        List<AbstractDataHandler> liRelease = new ArrayList<AbstractDataHandler>();
+        
+        synchronized (this)
+        {
+            Set<AbstractDataHandler> stConnections = mpConnections.remove(pSessionId);
+            
+            if (stConnections != null)
+            {
+                for (AbstractDataHandler connection : stConnections)
+                {
+                    Set<String> stSessions = mpSessions.get(connection);
+                    
+                    stSessions.remove(pSessionId);
+                    
+                    if (stSessions.isEmpty())
+                    {
+                        mpSessions.remove(connection);
+                        
+                        liRelease.add(connection);
+                    }
+                }
+            }
+        }
+        
+        for (AbstractDataHandler connection : liRelease)
+        {
+            connection.release();
+        }
+    }
+    
+    /**
+     * Gets the number of connections which were used by a session.
+     * 
+     * @param pSessionId the session id
+     * @return the number of connections
+     */
+    public synchronized int getConnections(String pSessionId)
+    {
+        Set<AbstractDataHandler> stConnections = mpConnections.get(pSessionId);
+        
+        return stConnections == null ? 0 : stConnections.size();
+    }
+    
+    /**
+     * Gets the number of indexed sessions.
+     * 
+     * @return the number of sessions
+     */
+    public synchronized int getSessions()
+    {
+        return mpConnections.size();
+    }
+    
+}   // SessionIndex
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+
+import com.sibvisions.rad.remote.vertx.io.SyncedInputStream;
+import com.sibvisions.vertx.io.WriteStallGuard;
+
+/**
+ * The <code>SlowClientProtection</code> contains the limits for slow clients. A request fails if the client 
+ * doesn't send bytes within the read idle timeout or sends the request slower than the minimum data rate. A
+ * response fails if the client doesn't read it within the write stall timeout. The connection of a slow client
+ * will be closed, so the processing thread and the buffers are released.
+ * <p>
+ * By default, clients aren't limited. Changed limits are used for new requests.
+ * 
+ * @author agent
+ */
+public class SlowClientProtection
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the maximum time without request bytes, while a request is read. */
+    private volatile long lReadIdleTimeout = -1;
+    
+    /** the minimum data rate of requests in bytes per second. */
+    private volatile long lMinDataRate = -1;
+    
+    /** the time before the data rate will be checked. */
+    private volatile long lMinDataRateGracePeriod = 10000;
+    
+    /** the maximum time, the client doesn't read the response. */
+    private volatile long lWriteStallTimeout = -1;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Sets the read limits of a request stream.
+     * 
+     * @param pStream the stream of a request
+     */
+    public void apply(SyncedInputStream pStream)
+    {
+        pStream.setReadTimeout(lReadIdleTimeout);
+        pStream.setMinDataRate(lMinDataRate, lMinDataRateGracePeriod);
+    }
+    
+    /**
+     * Guards a stream against write stalls.
+     * 
+     * @param pStream the stream
+     * @param pContext the context of the stream
+     * @param pStallHandler the handler which will be called once, if the stream stalled
+     * @return the guarded stream or <code>pStream</code> if there is no write stall timeout
+     */
+    public WriteStream<Buffer> guard(WriteStream<Buffer> pStream, Context pContext, Handler<Void> pStallHandler)
+    {
+        long lTimeout = lWriteStallTimeout;
+        
+        if (lTimeout <= 0 || pContext == null)
+        {
+            return pStream;
+        }
+        
+        return new WriteStallGuard(pStream, pContext, lTimeout, pStallHandler);
+    }
+    
+    /**
+     * Sets the maximum time without request bytes, while a request is read. The time between requests
+     * isn't limited.
+     * 
+     * @param pTimeout the time in milliseconds or <code>-1</code> to wait without limit
+     */
+    public void setReadIdleTimeout(long pTimeout)
+    {
+        lReadIdleTimeout = pTimeout;
+    }
+    
+    /**
+     * Gets the maximum time without request bytes, while a request is read.
+     * 
+     * @return the time in milliseconds or <code>-1</code> if reading waits without limit
+     */
+    public long getReadIdleTimeout()
+    {
+        return lReadIdleTimeout;
+    }
+    
+    /**
+     * Sets the minimum data rate of requests. The rate will be checked after the grace period, from the first
+     * byte of a request.
+     * 
+     * @param pRate the rate in bytes per second or <code>-1</code> for no minimum
+     */
+    public void setMinDataRate(long pRate)
+    {
+        lMinDataRate = pRate;
+    }
+    
+    /**
+     * Gets the minimum data rate of requests.
+     * 
+     * @return the rate in bytes per second or <code>-1</code> if there's no minimum
+     */
+    public long getMinDataRate()
+    {
+        return lMinDataRate;
+    }
+    
+    /**
+     * Sets the time before the data rate of a request will be checked.
+     * 
+     * @param pGracePeriod the time in milliseconds after the first byte of a request
+     */
+    public void setMinDataRateGracePeriod(long pGracePeriod)
+    {
+        lMinDataRateGracePeriod = pGracePeriod;
+    }
+    
+    /**
+     * Gets the time before the data rate of a request will be checked.
+     * 
+     * @return the time in milliseconds after the first byte of a request
+     */
+    public long getMinDataRateGracePeriod()
+    {
+        return lMinDataRateGracePeriod;
+    }
+    
+    /**
+     * Sets the maximum time, the write queue of a response stays full.
+     * 
+     * @param pTimeout the time in milliseconds or <code>-1</code> to wait without limit
+     */
+    public void setWriteStallTimeout(long pTimeout)
+    {
+        lWriteStallTimeout = pTimeout;
+    }
+    
+    /**
+     * Gets the maximum time, the write queue of a response stays full.
+     * 
+     * @return the time in milliseconds or <code>-1</code> if writing waits without limit
+     */
+    public long getWriteStallTimeout()
+    {
+        return lWriteStallTimeout;
+    }
+    
+}   // SlowClientProtection
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.cluster;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.shareddata.AsyncMap;
+import io.vertx.core.shareddata.LocalMap;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jvx.rad.server.ISession;
+import jvx.rad.server.event.ISessionListener;
+
+import com.sibvisions.rad.server.Server;
+import com.sibvisions.util.log.LoggerFactory;
+import com.sibvisions.vertx.handler.EventBusHandler;
+
+/**
+ * The <code>SessionDirectory</code> records which node owns a session. If the vert.x instance is clustered,
+ * the directory is a cluster-wide map (e.g. hazelcast, configured with <code>cluster.xml</code>), otherwise
+ * it's shared between all servers of the vert.x instance.
+ * <p>
+ * Every node consumes its own node address and processes forwarded requests for its sessions. An entry node
+ * which receives a request for a foreign session forwards the request to the owner, instead of failing
+ * with an expired session.
+ * 
+ * @author agent
+ */
+public class SessionDirectory implements ISessionListener
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the name of the directory map. */
+    public static final String MAP_NAME = "jvx.sessions";
+    
+    /** the prefix of node addresses. */
+    public static final String NODE_ADDRESS_PREFIX = "jvx.node.";
+    
+    /** the http header with the session id of a request. */
+    public static final String HEADER_SESSION = "X-JVx-Session";
+    
+    /** the vert.x instance. */
+    private Vertx vertx;
+    
+    /** the JVx server. */
+    private Server server;
+    
+    /** the cluster-wide directory. */
+    private AsyncMap<String, String> amSessions;
+    
+    /** the directory of a non clustered instance. */
+    private LocalMap<String, String> lmSessions;
+    
+    /** the consumer of forwarded requests. */
+    private MessageConsumer<Buffer> consumer;
+    
+    /** the sessions of this node. */
+    private Set<String> stLocal = ConcurrentHashMap.newKeySet();
+    
+    /** the address of this node. */
+    private String sNodeAddress;
+    
+    /** the timeout for forwarded requests. */
+    private long lForwardTimeout = 60000;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>SessionDirectory</code>.
+     * 
+     * @param pVertx the vert.x instance
+     * @param pServer the JVx server of this node
+     */
+    public SessionDirectory(Vertx pVertx, Server pServer)
+    {
+        vertx = pVertx;
+        server = pServer;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void sessionCreated(ISession pSession)
+    {
+        String sId = String.valueOf(pSession.getId());
+        
+        stLocal.add(sId);
+        
+        register(sId);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void sessionDestroyed(ISession pSession)
+    {
+        String sId = String.valueOf(pSession.getId());
+        
+        stLocal.remove(sId);
+        
+        unregister(sId);
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Starts consuming forwarded requests and connects the directory.
+     */
+    public void start()
+    {
+        sNodeAddress = NODE_ADDRESS_PREFIX + UUID.randomUUID().toString();
+        
+        consumer = vertx.eventBus().consumer(sNodeAddress, new EventBusHandler(vertx, server, sNodeAddress));
+        
+        if (vertx.isClustered())
+        {
+            vertx.sharedData().<String, String>getClusterWideMap(MAP_NAME, new Handler<AsyncResult<AsyncMap<String, String>>>()
+            {
+                public void handle(AsyncResult<AsyncMap<String, String>> pResult)
+                {
+                    if (pResult.succeeded())
+                    {
+                        amSessions = pResult.result();
+                        
+                        //sessions which were created before the map was available
+                        for (String sId : stLocal)
+                        {
+                            register(sId);
+                        }
+                    }
+                    else
+                    {
+                        LoggerFactory.getInstance(SessionDirectory.class).error(pResult.cause());
+                    }
+                }
+            });
+        }
+        else
+        {
+            lmSessions = vertx.sharedData().getLocalMap(MAP_NAME);
+        }
+    }
+    
+    /**
+     * Stops consuming forwarded requests and removes the sessions of this node from the directory.
+     */
+    public void stop()
+    {
+        if (consumer != null)
+        {
+            consumer.unregister();
+            consumer = null;
+        }
+        
+        for (String sId : stLocal)
+        {
+            unregister(sId);
+        }
+    }
+    
+    /**
+     * Gets the owner of a session.
+     * 
+     * @param pSessionId the session id
+     * @param pHandler the handler which gets the node address of the owner or <code>null</code> if the
+     *                 session is unknown or owned by this node
+     */
+    public void getOwner(String pSessionId, final Handler<String> pHandler)
+    {
+        if (pSessionId == null || pSessionId.length() == 0 || stLocal.contains(pSessionId))
+        {
+            pHandler.handle(null);
+        }
+        else if (lmSessions != null)
+        {
+            pHandler.handle(foreign(lmSessions.get(pSessionId)));
+        }
+        else if (amSessions != null)
+        {
+            amSessions.get(pSessionId, new Handler<AsyncResult<String>>()
+            {
+                public void handle(AsyncResult<String> pResult)
+                {
+                    pHandler.handle(pResult.succeeded() ? foreign(pResult.result()) : null);
+                }
+            });
+        }
+        else
+        {
+            pHandler.handle(null);
+        }
+    }
+    
+    /**
+     * Forwards a serialized request to the owner of the session.
+     * 
+     * @param pOwner the node address of the owner
+     * @param pRequest the serialized request
+     * @param pHandler the handler for the serialized response
+     */
+    public void forward(String pOwner, byte[] pRequest, final Handler<AsyncResult<byte[]>> pHandler)
+    {
+        DeliveryOptions options = new DeliveryOptions();
+        options.setSendTimeout(lForwardTimeout);
+        
+        vertx.eventBus().send(pOwner, Buffer.buffer(pRequest), options, new Handler<AsyncResult<Message<Buffer>>>()
+        {
+            public void handle(AsyncResult<Message<Buffer>> pResult)
+            {
+                if (pResult.succeeded())
+                {
+                    pHandler.handle(Future.succeededFuture(pResult.result().body().getBytes()));
+                }
+                else
+                {
+                    pHandler.handle(Future.<byte[]>failedFuture(pResult.cause()));
+                }
+            }
+        });
+    }
+    
+    /**
+     * Gets the address of this node.
+     * 
+     * @return the node address or <code>null</code> if the directory wasn't started
+     */
+    public String getNodeAddress()
+    {
+        return sNodeAddress;
+    }
+    
+    /**
+     * Sets the timeout for forwarded requests.
+     * 
+     * @param pTimeout the timeout in milliseconds
+     */
+    public void setForwardTimeout(long pTimeout)
+    {
+        lForwardTimeout = pTimeout;
+    }
+    
+    /**
+     * Gets the timeout for forwarded requests.
+     * 
+     * @return the timeout in milliseconds
+     */
+    public long getForwardTimeout()
+    {
+        return lForwardTimeout;
+    }
+    
+    /**
+     * Records this node as owner of a session.
+     * 
+     * @param pSessionId the session id
+     */
+    private void register(String pSessionId)
+    {
+        if (sNodeAddress == null)
+        {
+            return;
+        }
+        
+        if (lmSessions != null)
+        {
+            lmSessions.put(pSessionId, sNodeAddress);
+        }
+        else if (amSessions != null)
+        {
+            amSessions.put(pSessionId, sNodeAddress, new Handler<AsyncResult<Void>>()
+            {
+                public void handle(AsyncResult<Void> pResult)
+                {
+                    if (pResult.failed())
+                    {
+                        LoggerFactory.getInstance(SessionDirectory.class).error(pResult.cause());
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * Removes a session of this node.
+     * 
+     * @param pSessionId the session id
+     */
+    private void unregister(String pSessionId)
+    {
+        if (lmSessions != null)
+        {
+            lmSessions.remove(pSessionId);
+        }
+        else if (amSessions != null)
+        {
+            amSessions.remove(pSessionId, new Handler<AsyncResult<String>>()
+            {
+                public void handle(AsyncResult<String> pResult)
+                {
+                    if (pResult.failed())
+                    {
+                        LoggerFactory.getInstance(SessionDirectory.class).debug(pResult.cause());
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * Gets the owner, if it's not this node.
+     * 
+     * @param pOwner the node address of the owner
+     * @return <code>pOwner</code> or <code>null</code> if this node is the owner
+     */
+    private String foreign(String pOwner)
+    {
+        if (pOwner == null || pOwner.equals(sNodeAddress))
+        {
+            return null;
+        }
+        
+        return pOwner;
+    }
+    
+}   // SessionDirectory
@@ -17,28 +17,85 @@
  * History
  *
  * 07.02.2015 - [JR] - creation
+ * 19.10.2026 - [agent] - write responses on the context of the socket
+ * 19.10.2026 - [agent] - metrics
+ * 19.10.2026 - [agent] - call phases and slow call log
+ * 19.10.2026 - [agent] - watchdog for waiting worker threads
+ * 19.10.2026 - [agent] - admission control
+ * 19.10.2026 - [agent] - call deadline
+ * 19.10.2026 - [agent] - cancellation
+ * 19.10.2026 - [agent] - session key for fair admission
+ * 19.10.2026 - [agent] - busy response for other admission lanes
+ * 19.10.2026 - [agent] - fixed lost notification (check for data before waiting)
+ * 19.10.2026 - [agent] - admission per application
+ * 19.10.2026 - [agent] - slow client protection
+ * 19.10.2026 - [agent] - idle state for connection reaping
+ * 19.10.2026 - [agent] - release with destroyed sessions
+ * 19.10.2026 - [agent] - close the connection after a rejected or dropped call
+ * 19.10.2026 - [agent] - master session as session key for admission
+ * 19.10.2026 - [agent] - compactInputStream
  */
 package com.sibvisions.vertx.handler;
 
+import io.vertx.core.Context;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.streams.WriteStream;
 
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.SocketTimeoutException;
 import java.util.Hashtable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import jvx.rad.server.ISession;
+
+import com.sibvisions.rad.remote.vertx.NetSocketConnection;
 import com.sibvisions.rad.remote.vertx.io.BufferOutputStream;
 import com.sibvisions.rad.remote.vertx.io.SyncedInputStream;
 import com.sibvisions.rad.server.IRequest;
 import com.sibvisions.rad.server.IResponse;
+import com.sibvisions.rad.server.ISubSession;
 import com.sibvisions.rad.server.Server;
 import com.sibvisions.util.ThreadHandler;
+import com.sibvisions.util.log.LoggerFactory;
+import com.sibvisions.vertx.AdmissionControl;
+import com.sibvisions.vertx.ApplicationAdmission;
+import com.sibvisions.vertx.CallContext;
+import com.sibvisions.vertx.SessionIndex;
+import com.sibvisions.vertx.SlowClientProtection;
+import com.sibvisions.vertx.metrics.Gauge;
+import com.sibvisions.vertx.metrics.MeteredOutputStream;
+import com.sibvisions.vertx.metrics.Metrics;
+import com.sibvisions.vertx.metrics.Watchdog;
 
 /**
  * The <code>AbstractDataHandler</code> receives data from the client and delegates command
  * execution to the JVx server.
+ * <p>
+ * If an {@link AdmissionControl} is set, every call has to be admitted. A rejected call gets the busy
+ * response and the connection will be closed, because the rest of the request wasn't read and the next 
+ * request can't be found. The client reconnects with its next call. If an
+ * {@link ApplicationAdmission} is set, the calls are admitted by the admission control of the application
+ * of the previous call. The open call and calls of applications without configuration are admitted by the
+ * admission control of the handler. The session key for admission is the master session of the previous call,
+ * so the calls of a client share one session, also after a reconnect. The open call uses the session key of
+ * the handler, which will be removed from the admission control when the handler will be closed.
+ * <p>
+ * A request can start with the {@link NetSocketConnection#CALL_DEADLINE}. The call will be dropped if its
+ * deadline passed before it was executed and the connection will be closed, otherwise the deadline is available for server code via
+ * {@link CallContext#getCurrent()}. The current call will be cancelled, if the client closes the connection.
+ * <p>
+ * If a {@link SlowClientProtection} is set, the connection will be closed if the client sends a request too
+ * slowly or doesn't read the response. The processing thread ends and the buffered bytes are discarded.
+ * <p>
+ * If a {@link SessionIndex} is set, the sessions of the calls will be indexed. The connection will be released,
+ * if all its sessions were destroyed. A call in progress, e.g. the call which closes the session, will be 
+ * finished before.
  * 
  * @author Ren Jahn
  */
@@ -57,8 +114,44 @@ public abstract class AbstractDataHandler implements Handler<Buffer>
     /** the socket. */
     private WriteStream<Buffer> stream;
     
+    /** the stream for writing responses. */
+    private WriteStream<Buffer> output;
+    
+    /** the context of the socket. */
+    private Context context;
+    
     /** the input stream. */
     private SyncedInputStream inputStream;
+    
+    /** the metrics. */
+    private Metrics metrics;
+    
+    /** the watchdog. */
+    private Watchdog watchdog;
+    
+    /** the admission control. */
+    private AdmissionControl admission;
+    
+    /** the admission per application. */
+    private ApplicationAdmission applications;
+    
+    /** the protection against slow clients. */
+    private SlowClientProtection protection;
+    
+    /** the index of sessions and connections. */
+    private SessionIndex sessions;
+    
+    /** the session key for admission. */
+    private String sSessionKey;
+    
+    /** the application of the previous call. */
+    private volatile String sApplication;
+    
+    /** the master session of the previous call. */
+    private volatile String sMasterSessionId;
+    
+    /** the description of the connection. */
+    private String sDescription;
 
     /** the sync object for procesing. */
     private Object sync = new Object();
@@ -69,6 +162,45 @@ public abstract class AbstractDataHandler implements Handler<Buffer>
     /** whether to wait for end (endless processing). */
     private boolean bWaitForEnd;
     
+    /** whether a call was rejected or dropped and further data will be ignored until the connection is closed. */
+    private volatile boolean bRejected;
+    
+    /** whether the connection was closed because the client was too slow. */
+    private volatile boolean bSlowClient;
+    
+    /** whether a request is in progress. */
+    private volatile boolean bProcessing;
+    
+    /** whether the connection was released because all sessions were destroyed. */
+    private volatile boolean bReleased;
+    
+    /** the time of the last received data or the last finished request. */
+    private volatile long lLastActive = System.currentTimeMillis();
+    
+    /** the deadline of calls without {@link NetSocketConnection#CALL_DEADLINE}. */
+    private long lCallDeadline = -1;
+    
+    /** the current call. */
+    private volatile CallContext call;
+    
+    /** the duration in milliseconds, after which a call will be logged as slow call. */
+    private long lSlowCallThreshold = -1;
+    
+    /** whether the phases of the current call will be timed. */
+    private boolean bTimed;
+    
+    /** the time which the current call waited for request bytes. */
+    private long lWaitTime;
+    
+    /** the time when the current call read the request for the last time. */
+    private long lLastRead;
+    
+    /** the time when the current call started writing the response. */
+    private long lWriteStart;
+    
+    /** whether the current call started writing the response. */
+    private boolean bWriting;
+    
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Initialization
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -95,8 +227,9 @@ public abstract class AbstractDataHandler implements Handler<Buffer>
     {
         server = pServer;
         stream = pStream;
+        context = Vertx.currentContext();
         
-        inputStream = new SyncedInputStream();
+        inputStream = createInputStream();
         
         bWaitForEnd = pWaitForEnd;
     }
@@ -111,6 +244,18 @@ public abstract class AbstractDataHandler implements Handler<Buffer>
      */
     public void handle(Buffer pBuffer)
     {
+        touch();
+        
+        if (metrics != null)
+        {
+            metrics.addBytesIn(pBuffer.length());
+        }
+        
+        if (bRejected)
+        {
+            return;
+        }
+        
         synchronized (syncStream)
         {
             inputStream.receive(pBuffer);
@@ -136,13 +281,17 @@ public abstract class AbstractDataHandler implements Handler<Buffer>
                     {
                         while (!ThreadHandler.isStopped(thServer))
                         {
-                            process();
+                            processRequest();
                             
                             synchronized (sync)
                             {
                                 try
                                 {
-                                    sync.wait();
+                                    //the next request could arrive before we wait
+                                    if (!hasData())
+                                    {
+                                        sync.wait();
+                                    }
                                 }
                                 catch (Exception e)
                                 {
@@ -155,7 +304,7 @@ public abstract class AbstractDataHandler implements Handler<Buffer>
                     {
                         try
                         {
-                            process();
+                            processRequest();
                         }
                         finally
                         {
@@ -171,13 +320,117 @@ public abstract class AbstractDataHandler implements Handler<Buffer>
     }
     
     /**
-     * Forwards processing to the server.
+     * Gets whether received data wasn't read.
+     * 
+     * @return <code>true</code> if the next request is available
+     */
+    private boolean hasData()
+    {
+        synchronized (syncStream)
+        {
+            return inputStream.available() > 0;
+        }
+    }
+    
+    /**
+     * Processes the next request. Reading fails after the connection of a slow client was closed,
+     * so the error won't be reported.
+     */
+    private void processRequest()
+    {
+        synchronized (sync)
+        {
+            if (bReleased)
+            {
+                return;
+            }
+            
+            bProcessing = true;
+        }
+        
+        boolean bRelease;
+        
+        try
+        {
+            process();
+        }
+        catch (RuntimeException re)
+        {
+            if (!bSlowClient && !bReleased)
+            {
+                throw re;
+            }
+        }
+        finally
+        {
+            synchronized (sync)
+            {
+                bProcessing = false;
+                
+                bRelease = bReleased;
+            }
+            
+            touch();
+        }
+        
+        //the sessions were destroyed during the call
+        if (bRelease && bWaitForEnd)
+        {
+            releaseConnection();
+        }
+    }
+    
+    /**
+     * Forwards processing to the server. If metrics or the slow call log are enabled, the
+     * phases of the call will be timed.
      */
     protected void process()
     {
+        long lDeadline = readDeadline();
+        
+        AdmissionControl acCall = getCallAdmissionControl();
+        
+        String sKey = sMasterSessionId != null ? sMasterSessionId : sSessionKey;
+        
+        if (acCall != null && !acCall.acquire(sKey))
+        {
+            reject(acCall);
+            
+            return;
+        }
+        
+        bTimed = metrics != null || lSlowCallThreshold >= 0;
+        
         try
         {
-            server.process(createRequest(), createResponse());
+            //nobody waits for the response
+            if (CallContext.isExpired(lDeadline))
+            {
+                expired();
+                
+                return;
+            }
+            
+            call = CallContext.begin(lDeadline);
+            
+            if (bTimed)
+            {
+                long lStart = System.nanoTime();
+                
+                lWaitTime = 0;
+                lLastRead = lStart;
+                bWriting = false;
+                
+                ISession session = server.process(createRequest(), new TimedResponse(createResponse()));
+                
+                finish(session, lStart);
+                
+                remember(session);
+            }
+            else
+            {
+                remember(server.process(createRequest(), createResponse()));
+            }
         }
         catch (Exception e)
         {
@@ -185,175 +438,1145 @@ public abstract class AbstractDataHandler implements Handler<Buffer>
             
             throw new RuntimeException(e);
         }
+        finally
+        {
+            if (call != null)
+            {
+                call.end();
+                call = null;
+            }
+            
+            if (acCall != null)
+            {
+                acCall.release(sKey);
+            }
+        }
     }
     
     /**
-     * Closes the handler and stops processing of commands.
+     * Gets the admission control for the next call. 
+     * 
+     * @return the admission control of the application or the admission control of the handler
      */
-    public void close()
+    private AdmissionControl getCallAdmissionControl()
     {
-        if (bWaitForEnd)
+        if (applications != null)
         {
-            thServer = ThreadHandler.stop(thServer);
+            AdmissionControl acApplication = applications.getAdmissionControl(sApplication);
             
-            synchronized (sync)
+            if (acApplication != null)
             {
-                sync.notify();
+                return acApplication;
             }
         }
+        
+        return admission;
     }
     
     /**
-     * Creates a new request.
+     * Remembers the application of a call for the admission of the next call.
      * 
-     * @return the request
+     * @param pSession the session of the call or <code>null</code> if unknown
      */
-    protected IRequest createRequest()
+    private void remember(ISession pSession)
     {
-        return new Request();
+        if (pSession != null)
+        {
+            sApplication = pSession.getApplicationName();
+            
+            if (pSession instanceof ISubSession)
+            {
+                sMasterSessionId = String.valueOf(((ISubSession)pSession).getMasterSession().getId());
+            }
+            else
+            {
+                sMasterSessionId = String.valueOf(pSession.getId());
+            }
+            
+            addSession(String.valueOf(pSession.getId()));
+        }
     }
     
     /**
-     * Creates a new response.
+     * Records that a session uses this connection.
      * 
-     * @return the response
+     * @param pSessionId the session id
      */
-    protected IResponse createResponse()
+    protected void addSession(String pSessionId)
     {
-        return new Response();
+        SessionIndex index = sessions;
+        
+        if (index != null && !bReleased)
+        {
+            index.put(pSessionId, this);
+        }
     }
     
     /**
-     * Gets access to the server.
+     * Reads the deadline of the current call, if the request starts with a deadline.
      * 
-     * @return the server
+     * @return the deadline in milliseconds or <code>-1</code> if the call has no deadline
      */
-    protected Server getServer()
+    private long readDeadline()
     {
-        return server;
+        MeteredInputStream stream;
+        
+        synchronized (syncStream)
+        {
+            stream = (MeteredInputStream)inputStream;
+        }
+        
+        try
+        {
+            if (stream.peek() == NetSocketConnection.CALL_DEADLINE)
+            {
+                DataInputStream dis = new DataInputStream(stream);
+                dis.readByte();
+                
+                //the timeout starts when the request was received
+                return CallContext.getDeadline(stream.lReceived, dis.readInt());
+            }
+        }
+        catch (IOException ioe)
+        {
+            throw new RuntimeException(ioe);
+        }
+        
+        return lCallDeadline;
     }
     
     /**
-     * Gets access to the write stream.
-     * 
-     * @return the stream
+     * Drops a call because its deadline passed. Nobody waits for the response, so the request won't
+     * be read and a persistent connection will be closed.
      */
-    protected WriteStream<?> getStream()
+    protected void expired()
     {
-        return stream;
+        discard();
+        
+        if (bWaitForEnd)
+        {
+            closeConnectionOnContext();
+        }
+        
+        if (metrics != null)
+        {
+            metrics.recordExpired();
+        }
     }
     
     /**
-     * Reads a single byte from the input stream.
-     * 
-     * @return the read byte
-     * @throws IOException if reading failed
+     * Ignores the unread request and all further data.
      */
-    protected InputStream getInputStream() throws IOException
+    private void discard()
     {
+        bRejected = true;
+        
         synchronized (syncStream)
         {
-            return inputStream;
-        }        
+            //unread bytes are discarded
+            inputStream.finish();
+        }
     }
     
-    //****************************************************************
-    // Subclass definition
-    //****************************************************************
-
     /**
-     * The <code>Request</code> is a simple {@link IRequest} implementation
-     * for accessing the socket input stream.
+     * Sends the busy response for a rejected call. The request won't be read, so a persistent connection
+     * will be closed after the response.
      * 
-     * @author Ren Jahn
+     * @param pAdmission the admission control which rejected the call
      */
-    private final class Request implements IRequest
+    protected void reject(AdmissionControl pAdmission)
     {
-        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
-        // Class members
-        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
-
-        /** whether the request is close. */
-        private boolean bClosed;
-
-        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
-        // Interface implementation
-        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        discard();
         
-        /**
-         * {@inheritDoc}
-         */
-        public Object getProperty(String pKey)
+        try
         {
-            return null;
+            OutputStream os = meter(new BufferOutputStream(getWriteStream(), context));
+            os.write(pAdmission.createBusyResponse());
+            os.close();
+        }
+        catch (IOException ioe)
+        {
+            throw new RuntimeException(ioe);
         }
         
-        /**
-         * {@inheritDoc}
-         */
-        public Hashtable<String, Object> getProperties()
+        if (bWaitForEnd)
         {
-            return null;
+            //the close follows the busy response on the context
+            closeConnectionOnContext();
+        }
+    }
+    
+    /**
+     * Closes the connection of a slow client. Further data will be ignored and the processing thread ends.
+     * 
+     * @param pReason the reason, e.g. {@link Metrics#CLOSED_WRITE_STALL}
+     */
+    protected void closeSlowClient(String pReason)
+    {
+        if (bSlowClient)
+        {
+            return;
         }
         
-        /**
-         * {@inheritDoc}
-         */
-        public InputStream getInputStream() throws IOException
+        bSlowClient = true;
+        
+        LoggerFactory.getInstance(AbstractDataHandler.class).info("Slow client (", pReason, "): ", sDescription);
+        
+        if (metrics != null)
         {
-            bClosed = false;
+            metrics.recordClosed(pReason);
+        }
+        
+        discard();
+        
+        if (bWaitForEnd)
+        {
+            thServer = ThreadHandler.stop(thServer);
             
-            synchronized (syncStream)
+            synchronized (sync)
             {
-                return inputStream;
+                sync.notify();
             }
         }
         
-        /**
-         * {@inheritDoc}
-         */
-        public void close()
+        closeConnectionOnContext();
+    }
+    
+    /**
+     * Closes the connection to the client on the context of the socket, after the pending writes.
+     */
+    private void closeConnectionOnContext()
+    {
+        if (context != null)
         {
-            synchronized (syncStream)
+            context.runOnContext(new Handler<Void>()
             {
-                inputStream.close();
-                    
-                inputStream = new SyncedInputStream();
-            }
-            
-            bClosed = true;
+                public void handle(Void pEvent)
+                {
+                    closeConnection();
+                }
+            });
         }
-        
-        /**
-         * {@inheritDoc}
-         */
-        public boolean isClosed()
+        else
         {
-            return bClosed;
+            closeConnection();
         }
-        
-    }   // Request
+    }
     
     /**
-     * The <code>Response</code> is a simple {@link IResponse} for accessing the
-     * socket output stream.
+     * Closes the connection to the client. The default implementation does nothing.
+     */
+    protected void closeConnection()
+    {
+    }
+    
+    /**
+     * Records the phases of a finished call and logs the call, if it was slow. The phases are
+     * separated by the stream access of the JVx server: it reads and executes the calls, serializes
+     * the results into memory and writes the response at the end.
      * 
-     * @author Ren Jahn
+     * @param pSession the session of the call or <code>null</code> if unknown
+     * @param pStart the start time of the call
      */
-    private final class Response extends AbstractResponse
+    private void finish(ISession pSession, long pStart)
     {
-        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
-        // Abstract methods implementation
-        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
-
+        long lEnd = System.nanoTime();
+        long lWrite = bWriting ? lWriteStart : lEnd;
+        
+        long lWait = lWaitTime;
+        long lDeserialize = Math.max(0, lLastRead - pStart - lWait);
+        long lExecute = Math.max(0, lWrite - lLastRead);
+        long lWriting = lEnd - lWrite;
+        
+        if (metrics != null)
+        {
+            metrics.recordPhase(Metrics.PHASE_WAIT, lWait);
+            metrics.recordPhase(Metrics.PHASE_DESERIALIZE, lDeserialize);
+            metrics.recordPhase(Metrics.PHASE_EXECUTE, lExecute);
+            metrics.recordPhase(Metrics.PHASE_WRITE, lWriting);
+        }
+        
+        if (lSlowCallThreshold >= 0 && lEnd - pStart >= TimeUnit.MILLISECONDS.toNanos(lSlowCallThreshold))
+        {
+            LoggerFactory.getInstance(AbstractDataHandler.class).info("Slow call: ", 
+                                                                     Long.valueOf(TimeUnit.NANOSECONDS.toMillis(lEnd - pStart)), 
+                                                                     " ms (session ", pSession != null ? pSession.getId() : null, 
+                                                                     ", application ", pSession != null ? pSession.getApplicationName() : null, 
+                                                                     "), wait ", Long.valueOf(TimeUnit.NANOSECONDS.toMillis(lWait)), 
+                                                                     " ms, deserialize ", Long.valueOf(TimeUnit.NANOSECONDS.toMillis(lDeserialize)), 
+                                                                     " ms, execute ", Long.valueOf(TimeUnit.NANOSECONDS.toMillis(lExecute)), 
+                                                                     " ms, write ", Long.valueOf(TimeUnit.NANOSECONDS.toMillis(lWriting)), " ms");
+        }
+    }
+    
+    /**
+     * Closes the handler and stops processing of commands.
+     */
+    public void close()
+    {
+        SessionIndex index = sessions;
+        
+        if (index != null)
+        {
+            index.remove(this);
+        }
+        
+        AdmissionControl acHandler = admission;
+        
+        //the session key of the connection won't be used again
+        if (acHandler != null && sSessionKey != null)
+        {
+            acHandler.remove(sSessionKey);
+        }
+        
+        if (bWaitForEnd)
+        {
+            cancel();
+            
+            thServer = ThreadHandler.stop(thServer);
+            
+            synchronized (sync)
+            {
+                sync.notify();
+            }
+        }
+    }
+    
+    /**
+     * Releases the connection, because all its sessions were destroyed. The buffered data will be discarded, 
+     * the processing thread ends and the transport will be closed. A request in progress will be finished
+     * before.
+     */
+    public void release()
+    {
+        synchronized (sync)
+        {
+            if (bReleased)
+            {
+                return;
+            }
+            
+            bReleased = true;
+            
+            if (bProcessing)
+            {
+                return;
+            }
+        }
+        
+        releaseConnection();
+    }
+    
+    /**
+     * Discards the buffered data, stops the processing thread and closes the transport.
+     */
+    private void releaseConnection()
+    {
+        LoggerFactory.getInstance(AbstractDataHandler.class).debug("Sessions destroyed, connection released: ", sDescription);
+        
+        discard();
+        
+        close();
+        
+        if (context != null)
+        {
+            context.runOnContext(new Handler<Void>()
+            {
+                public void handle(Void pEvent)
+                {
+                    closeConnection();
+                }
+            });
+        }
+    }
+    
+    /**
+     * Gets whether the connection is idle. A connection is idle if no request is in progress and
+     * no received data waits for processing.
+     * 
+     * @return <code>true</code> if the connection is idle
+     */
+    public boolean isIdle()
+    {
+        return !bProcessing && !hasData();
+    }
+    
+    /**
+     * Gets the time of the last activity, i.e. received data or a finished request.
+     * 
+     * @return the time in milliseconds
+     */
+    public long getLastActive()
+    {
+        return lLastActive;
+    }
+    
+    /**
+     * Marks the connection as active.
+     */
+    protected void touch()
+    {
+        lLastActive = System.currentTimeMillis();
+    }
+    
+    /**
+     * Cancels the current call, e.g. if the client closed the connection. The processing thread will be
+     * interrupted and the call is marked as cancelled.
+     */
+    public void cancel()
+    {
+        CallContext ctx = call;
+        
+        if (ctx != null && !ctx.isCancelled())
+        {
+            ctx.cancel();
+            
+            if (metrics != null)
+            {
+                metrics.recordCancelled();
+            }
+        }
+    }
+    
+    /**
+     * Creates the input stream of a request with the limits for slow clients.
+     * 
+     * @return the input stream
+     */
+    private MeteredInputStream createInputStream()
+    {
+        MeteredInputStream stream = new MeteredInputStream();
+        
+        SlowClientProtection prot = protection;
+        
+        if (prot != null)
+        {
+            prot.apply(stream);
+        }
+        
+        return stream;
+    }
+    
+    /**
+     * Creates a new request.
+     * 
+     * @return the request
+     */
+    protected IRequest createRequest()
+    {
+        return new Request();
+    }
+    
+    /**
+     * Creates a new response.
+     * 
+     * @return the response
+     */
+    protected IResponse createResponse()
+    {
+        return new Response();
+    }
+    
+    /**
+     * Sets the metrics for received and sent bytes.
+     * 
+     * @param pMetrics the metrics or <code>null</code> to record nothing
+     */
+    public void setMetrics(Metrics pMetrics)
+    {
+        metrics = pMetrics;
+    }
+    
+    /**
+     * Gets the metrics for received and sent bytes.
+     * 
+     * @return the metrics or <code>null</code> if nothing will be recorded
+     */
+    public Metrics getMetrics()
+    {
+        return metrics;
+    }
+    
+    /**
+     * Sets the watchdog for the processing thread. The thread will be watched while it waits for
+     * request bytes.
+     * 
+     * @param pWatchdog the watchdog or <code>null</code> to watch nothing
+     */
+    public void setWatchdog(Watchdog pWatchdog)
+    {
+        watchdog = pWatchdog;
+    }
+    
+    /**
+     * Gets the watchdog for the processing thread.
+     * 
+     * @return the watchdog or <code>null</code> if nothing will be watched
+     */
+    public Watchdog getWatchdog()
+    {
+        return watchdog;
+    }
+    
+    /**
+     * Sets the description of the connection, e.g. the remote address. The description will be
+     * reported by the watchdog.
+     * 
+     * @param pDescription the description
+     */
+    public void setDescription(String pDescription)
+    {
+        sDescription = pDescription;
+    }
+    
+    /**
+     * Gets the description of the connection.
+     * 
+     * @return the description
+     */
+    public String getDescription()
+    {
+        return sDescription;
+    }
+    
+    /**
+     * Sets the admission control for calls.
+     * 
+     * @param pAdmission the admission control or <code>null</code> to admit all calls
+     */
+    public void setAdmissionControl(AdmissionControl pAdmission)
+    {
+        admission = pAdmission;
+    }
+    
+    /**
+     * Gets the admission control for calls.
+     * 
+     * @return the admission control or <code>null</code> if all calls will be admitted
+     */
+    public AdmissionControl getAdmissionControl()
+    {
+        return admission;
+    }
+    
+    /**
+     * Sets the admission per application.
+     * 
+     * @param pApplications the admission per application or <code>null</code> to admit all calls with the
+     *                      admission control of the handler
+     */
+    public void setApplicationAdmission(ApplicationAdmission pApplications)
+    {
+        applications = pApplications;
+    }
+    
+    /**
+     * Gets the admission per application.
+     * 
+     * @return the admission per application or <code>null</code> if all calls will be admitted with the
+     *         admission control of the handler
+     */
+    public ApplicationAdmission getApplicationAdmission()
+    {
+        return applications;
+    }
+    
+    /**
+     * Sets the protection against slow clients. The limits apply to the next request and the stream for
+     * writing responses, if it wasn't used before.
+     * 
+     * @param pProtection the protection or <code>null</code> to wait for clients without limit
+     */
+    public void setSlowClientProtection(SlowClientProtection pProtection)
+    {
+        protection = pProtection;
+        
+        if (pProtection != null)
+        {
+            synchronized (syncStream)
+            {
+                pProtection.apply(inputStream);
+            }
+        }
+    }
+    
+    /**
+     * Gets the protection against slow clients.
+     * 
+     * @return the protection or <code>null</code> if clients are not limited
+     */
+    public SlowClientProtection getSlowClientProtection()
+    {
+        return protection;
+    }
+    
+    /**
+     * Sets the index of sessions and connections.
+     * 
+     * @param pSessions the index or <code>null</code> to index no sessions
+     */
+    public void setSessionIndex(SessionIndex pSessions)
+    {
+        sessions = pSessions;
+    }
+    
+    /**
+     * Gets the index of sessions and connections.
+     * 
+     * @return the index or <code>null</code> if no sessions will be indexed
+     */
+    public SessionIndex getSessionIndex()
+    {
+        return sessions;
+    }
+    
+    /**
+     * Sets the session key for admission of calls before the first session is known, e.g. the open call. 
+     * Calls with the same key share their permits.
+     * 
+     * @param pKey the key or <code>null</code> for calls without session
+     * @see AdmissionControl#acquire(String)
+     */
+    public void setSessionKey(String pKey)
+    {
+        sSessionKey = pKey;
+    }
+    
+    /**
+     * Gets the session key for admission.
+     * 
+     * @return the key or <code>null</code> for calls without session
+     */
+    public String getSessionKey()
+    {
+        return sSessionKey;
+    }
+    
+    /**
+     * Sets the deadline of calls which don't start with a {@link NetSocketConnection#CALL_DEADLINE}, e.g.
+     * the deadline of a http request.
+     * 
+     * @param pDeadline the deadline in milliseconds (see {@link System#currentTimeMillis()}) or <code>-1</code>
+     *                  if calls have no deadline
+     */
+    public void setDeadline(long pDeadline)
+    {
+        lCallDeadline = pDeadline;
+    }
+    
+    /**
+     * Gets the deadline of calls which don't start with a {@link NetSocketConnection#CALL_DEADLINE}.
+     * 
+     * @return the deadline in milliseconds or <code>-1</code> if calls have no deadline
+     */
+    public long getDeadline()
+    {
+        return lCallDeadline;
+    }
+    
+    /**
+     * Sets the duration after which a call will be logged as slow call, with the
+     * duration of its phases.
+     * 
+     * @param pThreshold the duration in milliseconds or <code>-1</code> to log no calls
+     */
+    public void setSlowCallThreshold(long pThreshold)
+    {
+        lSlowCallThreshold = pThreshold;
+    }
+    
+    /**
+     * Gets the duration after which a call will be logged as slow call.
+     * 
+     * @return the duration in milliseconds or <code>-1</code> if no calls will be logged
+     */
+    public long getSlowCallThreshold()
+    {
+        return lSlowCallThreshold;
+    }
+    
+    /**
+     * Counts the bytes which will be written to a stream as sent bytes.
+     * 
+     * @param pStream the stream
+     * @return the metered stream
+     */
+    protected OutputStream meter(OutputStream pStream)
+    {
+        return MeteredOutputStream.wrap(pStream, metrics);
+    }
+    
+    /**
+     * Gets access to the server.
+     * 
+     * @return the server
+     */
+    protected Server getServer()
+    {
+        return server;
+    }
+    
+    /**
+     * Gets access to the write stream.
+     * 
+     * @return the stream
+     */
+    protected WriteStream<?> getStream()
+    {
+        return stream;
+    }
+    
+    /**
+     * Gets the stream for writing responses. If a write stall timeout is set, the connection will be closed
+     * when the client doesn't read the response.
+     * 
+     * @return the stream
+     */
+    protected synchronized WriteStream<Buffer> getWriteStream()
+    {
+        if (output == null)
+        {
+            if (protection != null)
+            {
+                output = protection.guard(stream, context, new Handler<Void>()
+                {
+                    public void handle(Void pEvent)
+                    {
+                        closeSlowClient(Metrics.CLOSED_WRITE_STALL);
+                    }
+                });
+            }
+            else
+            {
+                output = stream;
+            }
+        }
+        
+        return output;
+    }
+    
+    /**
+     * Gets the context of the write stream.
+     * 
+     * @return the context or <code>null</code> if the handler wasn't created on a context
+     */
+    protected Context getContext()
+    {
+        return context;
+    }
+    
+    /**
+     * Reads a single byte from the input stream.
+     * 
+     * @return the read byte
+     * @throws IOException if reading failed
+     */
+    protected InputStream getInputStream() throws IOException
+    {
+        synchronized (syncStream)
+        {
+            return inputStream;
+        }        
+    }
+    
+    /**
+     * Drops the read bytes of the input stream. A connection which handles several requests with the same
+     * stream doesn't keep the bytes of finished requests.
+     */
+    protected void compactInputStream()
+    {
+        synchronized (syncStream)
+        {
+            inputStream.compact();
+        }
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+
+    /**
+     * The <code>Request</code> is a simple {@link IRequest} implementation
+     * for accessing the socket input stream.
+     * 
+     * @author Ren Jahn
+     */
+    private final class Request implements IRequest
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+        /** whether the request is close. */
+        private boolean bClosed;
+
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Interface implementation
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * {@inheritDoc}
+         */
+        public Object getProperty(String pKey)
+        {
+            return null;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        public Hashtable<String, Object> getProperties()
+        {
+            return null;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        public InputStream getInputStream() throws IOException
+        {
+            bClosed = false;
+            
+            synchronized (syncStream)
+            {
+                return inputStream;
+            }
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        public void close()
+        {
+            synchronized (syncStream)
+            {
+                inputStream.close();
+                    
+                inputStream = createInputStream();
+            }
+            
+            bClosed = true;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        public boolean isClosed()
+        {
+            return bClosed;
+        }
+        
+    }   // Request
+    
+    /**
+     * The <code>Response</code> is a simple {@link IResponse} for accessing the
+     * socket output stream.
+     * 
+     * @author Ren Jahn
+     */
+    private final class Response extends AbstractResponse
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Abstract methods implementation
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
         /**
          * {@inheritDoc}
          */
         protected OutputStream createOutputStream()
         {
-            return new BufferOutputStream(stream);
+            return meter(new BufferOutputStream(getWriteStream(), context));
         }
         
     }   // Response
     
+    /**
+     * The <code>TimedResponse</code> delegates to a response and remembers when the JVx server
+     * started writing the response.
+     * 
+     * @author agent
+     */
+    private final class TimedResponse implements IResponse
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the response. */
+        private IResponse response;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>TimedResponse</code>.
+         * 
+         * @param pResponse the response
+         */
+        private TimedResponse(IResponse pResponse)
+        {
+            response = pResponse;
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Interface implementation
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * {@inheritDoc}
+         */
+        public void setProperty(String pKey, Object pValue)
+        {
+            response.setProperty(pKey, pValue);
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        public OutputStream getOutputStream() throws IOException
+        {
+            if (!bWriting)
+            {
+                lWriteStart = System.nanoTime();
+                bWriting = true;
+            }
+            
+            return response.getOutputStream();
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        public void close()
+        {
+            response.close();
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        public boolean isClosed()
+        {
+            return response.isClosed();
+        }
+        
+    }   // TimedResponse
+    
+    /**
+     * The <code>MeteredInputStream</code> counts received bytes, which weren't read, as
+     * buffered inbound bytes of the metrics.
+     * 
+     * @author agent
+     */
+    private final class MeteredInputStream extends SyncedInputStream
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the buffered bytes of this stream. */
+        private AtomicLong alBuffered = new AtomicLong();
+        
+        /** the gauge of all buffered bytes. */
+        private volatile Gauge gauge;
+        
+        /** the watched wait for request bytes. */
+        private Watchdog.Task task;
+        
+        /** the time in milliseconds, when the first bytes were received. */
+        private volatile long lReceived;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Overwritten methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void receive(Buffer pBuffer)
+        {
+            if (lReceived == 0)
+            {
+                lReceived = System.currentTimeMillis();
+            }
+            
+            if (gauge == null && metrics != null)
+            {
+                gauge = metrics.getBufferedInbound();
+            }
+            
+            if (gauge != null)
+            {
+                alBuffered.addAndGet(pBuffer.length());
+                
+                gauge.add(pBuffer.length());
+            }
+            
+            super.receive(pBuffer);
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read(byte[] pByte, int pOffset, int pLength) throws IOException
+        {
+            long lBefore = bTimed ? System.nanoTime() : 0;
+            
+            int iLength;
+            
+            try
+            {
+                iLength = super.read(pByte, pOffset, pLength);
+            }
+            catch (SocketTimeoutException ste)
+            {
+                timedOut();
+                
+                throw ste;
+            }
+            
+            if (bTimed)
+            {
+                timed(lBefore);
+            }
+            
+            if (iLength > 0)
+            {
+                consumed(iLength);
+            }
+            
+            return iLength;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read() throws IOException
+        {
+            long lBefore = bTimed ? System.nanoTime() : 0;
+            
+            int iByte;
+            
+            try
+            {
+                iByte = super.read();
+            }
+            catch (SocketTimeoutException ste)
+            {
+                timedOut();
+                
+                throw ste;
+            }
+            
+            if (bTimed)
+            {
+                timed(lBefore);
+            }
+            
+            if (iByte >= 0)
+            {
+                consumed(1);
+            }
+            
+            return iByte;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void finish()
+        {
+            super.finish();
+            
+            //unread bytes are discarded
+            consumed(alBuffered.get());
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void waitStarted()
+        {
+            Watchdog wdog = watchdog;
+            
+            if (wdog != null)
+            {
+                task = wdog.begin(Watchdog.WORKER, sDescription);
+            }
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void waitFinished()
+        {
+            if (task != null)
+            {
+                watchdog.end(task);
+                
+                task = null;
+            }
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Closes the connection, if reading failed because the client was too slow.
+         */
+        private void timedOut()
+        {
+            String sReason = getTimeoutReason();
+            
+            if (TIMEOUT_IDLE.equals(sReason))
+            {
+                closeSlowClient(Metrics.CLOSED_READ_IDLE);
+            }
+            else if (TIMEOUT_DATA_RATE.equals(sReason))
+            {
+                closeSlowClient(Metrics.CLOSED_DATA_RATE);
+            }
+        }
+        
+        /**
+         * Adds the duration of a read to the wait time of the current call. A read blocks until
+         * request bytes are available, so the duration is the time spent waiting.
+         * 
+         * @param pBefore the time before the read
+         */
+        private void timed(long pBefore)
+        {
+            long lNow = System.nanoTime();
+            
+            lWaitTime += lNow - pBefore;
+            lLastRead = lNow;
+        }
+        
+        /**
+         * Removes read or discarded bytes from the buffered bytes.
+         * 
+         * @param pBytes the number of bytes
+         */
+        private void consumed(long pBytes)
+        {
+            Gauge gaugeBuffered = gauge;
+            
+            if (gaugeBuffered != null && pBytes > 0)
+            {
+                alBuffered.addAndGet(-pBytes);
+                
+                gaugeBuffered.add(-pBytes);
+            }
+        }
+        
+    }   // MeteredInputStream
+    
 }   // AbstractDataHandler
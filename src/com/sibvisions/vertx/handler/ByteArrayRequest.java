@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.handler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Hashtable;
+
+import com.sibvisions.rad.server.IRequest;
+
+/**
+ * The <code>ByteArrayRequest</code> is an {@link IRequest} for a completely received request,
+ * e.g. the content of a frame or message.
+ * 
+ * @author agent
+ */
+final class ByteArrayRequest implements IRequest
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the request. */
+    private byte[] byRequest;
+    
+    /** whether the request is closed. */
+    private boolean bClosed;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>ByteArrayRequest</code>.
+     * 
+     * @param pRequest the request
+     */
+    ByteArrayRequest(byte[] pRequest)
+    {
+        byRequest = pRequest;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Object getProperty(String pKey)
+    {
+        return null;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public Hashtable<String, Object> getProperties()
+    {
+        return null;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public InputStream getInputStream() throws IOException
+    {
+        return new ByteArrayInputStream(byRequest);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void close()
+    {
+        bClosed = true;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isClosed()
+    {
+        return bClosed;
+    }
+    
+}   // ByteArrayRequest
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.handler;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+import com.sibvisions.rad.remote.vertx.EventBusConnection;
+import com.sibvisions.rad.server.Server;
+import com.sibvisions.util.log.LoggerFactory;
+
+/**
+ * The <code>EventBusHandler</code> processes serialized JVx requests which were sent over the
+ * event bus. The requests will be processed on worker threads and the reply contains the
+ * serialized response and the node address of this handler. All further requests of a connection
+ * will be sent to the node address, because the session only exists on this node.
+ * 
+ * @author agent
+ * @see EventBusConnection
+ */
+public class EventBusHandler implements Handler<Message<Buffer>>
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the vert.x instance. */
+    private Vertx vertx;
+    
+    /** the JVx server. */
+    private Server server;
+    
+    /** the node address. */
+    private String sNodeAddress;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>EventBusHandler</code>.
+     * 
+     * @param pVertx the vert.x instance
+     * @param pServer the JVx server
+     * @param pNodeAddress the address which only this node consumes
+     */
+    public EventBusHandler(Vertx pVertx, Server pServer, String pNodeAddress)
+    {
+        vertx = pVertx;
+        server = pServer;
+        sNodeAddress = pNodeAddress;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void handle(final Message<Buffer> pMessage)
+    {
+        vertx.executeBlocking(new Handler<Future<Buffer>>()
+        {
+            public void handle(Future<Buffer> pFuture)
+            {
+                try
+                {
+                    pFuture.complete(Buffer.buffer(process(pMessage.body().getBytes())));
+                }
+                catch (Exception e)
+                {
+                    pFuture.fail(e);
+                }
+            }
+        },
+        false,
+        new Handler<AsyncResult<Buffer>>()
+        {
+            public void handle(AsyncResult<Buffer> pResult)
+            {
+                if (pResult.succeeded())
+                {
+                    DeliveryOptions options = new DeliveryOptions();
+                    options.addHeader(EventBusConnection.HEADER_NODE, sNodeAddress);
+                    
+                    pMessage.reply(pResult.result(), options);
+                }
+                else
+                {
+                    LoggerFactory.getInstance(EventBusHandler.class).error(pResult.cause());
+                    
+                    pMessage.fail(500, String.valueOf(pResult.cause()));
+                }
+            }
+        });
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Processes a request.
+     * 
+     * @param pRequest the serialized request
+     * @return the serialized response
+     * @throws Exception if processing failed
+     */
+    private byte[] process(byte[] pRequest) throws Exception
+    {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        
+        server.process(new ByteArrayRequest(pRequest), new AbstractResponse()
+        {
+            protected OutputStream createOutputStream()
+            {
+                return baos;
+            }
+        });
+        
+        return baos.toByteArray();
+    }
+    
+}   // EventBusHandler
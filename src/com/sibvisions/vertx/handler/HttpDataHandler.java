@@ -17,9 +17,13 @@
  * History
  *
  * 14.02.2015 - [JR] - creation
+ * 19.10.2026 - [agent] - expired calls (504)
+ * 19.10.2026 - [agent] - slow client protection
  */
 package com.sibvisions.vertx.handler;
 
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.streams.WriteStream;
@@ -29,6 +33,7 @@ import java.io.OutputStream;
 import com.sibvisions.rad.server.IResponse;
 import com.sibvisions.rad.server.Server;
 import com.sibvisions.vertx.io.HttpResponseOutputStream;
+import com.sibvisions.vertx.io.WriteStallGuard;
 
 /**
  * The <code>HttpDataHandler</code> extends the {@link AbstractDataHandler} and uses a {@link HttpResponseOutputStream}
@@ -66,6 +71,52 @@ public class HttpDataHandler extends AbstractDataHandler
         return new Response();
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void expired()
+    {
+        super.expired();
+        
+        HttpServerResponse response = (HttpServerResponse)getStream();
+        response.setStatusCode(HttpResponseStatus.GATEWAY_TIMEOUT.code());
+        response.end();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void closeConnection()
+    {
+        ((HttpServerResponse)getStream()).close();
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Watches the written response for write stalls. The response is written directly, so the write
+     * queue will be checked after the response was written.
+     */
+    private void watchWrites()
+    {
+        final WriteStream<Buffer> output = getWriteStream();
+        
+        if (output instanceof WriteStallGuard)
+        {
+            getContext().runOnContext(new Handler<Void>()
+            {
+                public void handle(Void pEvent)
+                {
+                    ((WriteStallGuard)output).check();
+                }
+            });
+        }
+    }
+    
     //****************************************************************
     // Subclass definition
     //****************************************************************
@@ -117,6 +168,8 @@ public class HttpDataHandler extends AbstractDataHandler
             outputStream.close();
             
             super.close();
+            
+            watchWrites();
         }
         
     }   // Response    
@@ -17,37 +17,84 @@
  * History
  *
  * 14.02.2015 - [JR] - creation
+ * 19.10.2026 - [agent] - segmented uploads
+ * 19.10.2026 - [agent] - resumable uploads
+ * 19.10.2026 - [agent] - pipelined communication
+ * 19.10.2026 - [agent] - session directory
+ * 19.10.2026 - [agent] - file handle store
+ * 19.10.2026 - [agent] - uploads to temporary content
+ * 19.10.2026 - [agent] - session of segmented uploads
+ * 19.10.2026 - [agent] - metrics
+ * 19.10.2026 - [agent] - admission control
+ * 19.10.2026 - [agent] - admission lane for transfers
+ * 19.10.2026 - [agent] - admission per application
+ * 19.10.2026 - [agent] - bandwidth shaping of downloads
+ * 19.10.2026 - [agent] - slow client protection
+ * 19.10.2026 - [agent] - idle state of pipelined communication
+ * 19.10.2026 - [agent] - release with destroyed sessions
+ * 19.10.2026 - [agent] - several segment requests per transfer connection
+ * 19.10.2026 - [agent] - segmented uploads per registry, committed offset of completed uploads from the store
+ * 19.10.2026 - [agent] - timeout for store lookups
+ * 19.10.2026 - [agent] - validate segment length, drop the bytes of handled segments
+ * 19.10.2026 - [agent] - maximum frame length of pipelined requests
  */
 package com.sibvisions.vertx.handler;
 
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.NetSocket;
 import io.vertx.core.streams.WriteStream;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 import jvx.rad.io.IFileHandle;
 import jvx.rad.io.RemoteFileHandle;
+import jvx.rad.server.ISession;
 
 import com.sibvisions.rad.remote.vertx.NetSocketConnection;
+import com.sibvisions.rad.remote.vertx.Pipeline;
 import com.sibvisions.rad.remote.vertx.io.BufferOutputStream;
 import com.sibvisions.rad.server.Server;
-import com.sibvisions.util.ObjectCache;
 import com.sibvisions.util.io.MagicByteInputStream;
 import com.sibvisions.util.io.NonClosingInputStream;
 import com.sibvisions.util.io.ShadowCopyOutputStream;
 import com.sibvisions.util.type.CommonUtil;
 import com.sibvisions.util.type.FileUtil;
+import com.sibvisions.vertx.AdmissionControl;
+import com.sibvisions.vertx.cluster.SessionDirectory;
+import com.sibvisions.vertx.metrics.Metrics;
+import com.sibvisions.vertx.shaping.BandwidthShaper;
+import com.sibvisions.vertx.shaping.ShapedWriteStream;
+import com.sibvisions.vertx.shaping.Throttle;
+import com.sibvisions.vertx.store.IFileHandleStore;
+import com.sibvisions.vertx.store.LocalFileHandleStore;
+import com.sibvisions.vertx.store.TempContent;
 
 /**
  * The <code>NetDataHandler</code> extends the {@link AbstractDataHandler} and supports up/downloading of remote
  * file handles.
+ * <p>
+ * Uploads and downloads are admitted by their own {@link AdmissionControl}, so long running transfers don't
+ * occupy the permits of JVx calls. Every transfer uses a new connection, so transfers are admitted per
+ * client host. A rejected transfer gets the busy response. A connection for segmented uploads sends its
+ * segment requests one after another and every request will be admitted on its own.
+ * <p>
+ * Downloads are shaped by the {@link BandwidthShaper}. The download waits for the drain of the shaped stream
+ * after every chunk. JVx calls are never shaped.
  * 
  * @author Ren Jahn
  */
@@ -60,6 +107,33 @@ public class NetDataHandler extends AbstractDataHandler
     /** the operation mode. */
     private int iMode = -1;
     
+    /** whether the transfer request was handled. */
+    private boolean bTransferHandled;
+    
+    /** whether data was received. */
+    private boolean bReceived;
+    
+    /** the handler for pipelined communication. */
+    private volatile PipelineHandler pipeline;
+    
+    /** the session directory. */
+    private SessionDirectory directory;
+    
+    /** the store for uploaded and downloadable content. */
+    private IFileHandleStore store = new LocalFileHandleStore();
+    
+    /** the admission control for transfers. */
+    private AdmissionControl transfers;
+    
+    /** the pending segmented uploads. */
+    private SegmentedUploadRegistry uploads;
+    
+    /** the bandwidth shaper for downloads. */
+    private BandwidthShaper shaper;
+    
+    /** the maximum length of a pipelined request frame. */
+    private int iMaxFrameLength = Pipeline.MAX_FRAME_LENGTH;
+    
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Initialization
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -71,42 +145,232 @@ public class NetDataHandler extends AbstractDataHandler
      * @param pStream the write stream
      */
     public NetDataHandler(Server pServer, WriteStream<Buffer> pStream)
+    {
+        this(pServer, pStream, null);
+    }
+    
+    /**
+     * Creates a new instance of <code>NetDataHandler</code> with a session directory. Pipelined
+     * requests for sessions of other nodes will be forwarded to the owner.
+     * 
+     * @param pServer the JVx server
+     * @param pStream the write stream
+     * @param pDirectory the session directory or <code>null</code> to process all requests locally
+     */
+    public NetDataHandler(Server pServer, WriteStream<Buffer> pStream, SessionDirectory pDirectory)
     {
         super(pServer, pStream);
+        
+        directory = pDirectory;
     }
     
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Overwritten methods
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handle(Buffer pBuffer)
+    {
+        Buffer buffer = pBuffer;
+        
+        if (!bReceived)
+        {
+            bReceived = true;
+            
+            //pipelined requests will be parsed on the event loop
+            if (buffer.length() > 0 && buffer.getByte(0) == NetSocketConnection.STREAM_PIPELINE)
+            {
+                pipeline = new PipelineHandler(getServer(), (NetSocket)getStream(), getWriteStream(), getContext(), directory, 
+                                               getMetrics(), getAdmissionControl(), getApplicationAdmission(), 
+                                               new Handler<ISession>()
+                {
+                    public void handle(ISession pSession)
+                    {
+                        addSession(String.valueOf(pSession.getId()));
+                    }
+                });
+                pipeline.setMaxFrameLength(iMaxFrameLength);
+                
+                buffer = buffer.getBuffer(1, buffer.length());
+            }
+        }
+        
+        if (pipeline != null)
+        {
+            touch();
+            
+            if (getMetrics() != null)
+            {
+                getMetrics().addBytesIn(pBuffer.length());
+            }
+            
+            pipeline.handle(buffer);
+        }
+        else
+        {
+            super.handle(buffer);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close()
+    {
+        if (pipeline != null)
+        {
+            pipeline.close();
+        }
+        
+        super.close();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void release()
+    {
+        PipelineHandler handler = pipeline;
+        
+        if (handler != null)
+        {
+            handler.release();
+        }
+        else
+        {
+            super.release();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isIdle()
+    {
+        PipelineHandler handler = pipeline;
+        
+        if (handler != null)
+        {
+            return handler.isIdle();
+        }
+        
+        return super.isIdle();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLastActive()
+    {
+        PipelineHandler handler = pipeline;
+        
+        if (handler != null)
+        {
+            return Math.max(super.getLastActive(), handler.getLastActive());
+        }
+        
+        return super.getLastActive();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void closeConnection()
+    {
+        ((NetSocket)getStream()).close();
+    }
+    
     /**
      * Forwards processing to the server.
      */
     protected void process()
     {
-        if (iMode == -1)
+        try
         {
-            try
+            if (iMode == -1)
             {
                 iMode = getInputStream().read();
             }
-            catch (IOException e)
+            
+            //the next segment request doesn't hold a permit while it waits for data
+            if (iMode == NetSocketConnection.STREAM_UPLOAD_SEGMENT && getInputStream().available() == 0)
             {
-                throw new RuntimeException(e);
+                return;
             }
         }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
         
-        if (iMode == NetSocketConnection.STREAM_COMMUNICATION)
+        if (iMode != NetSocketConnection.STREAM_COMMUNICATION && iMode != NetSocketConnection.STREAM_UPLOAD_SEGMENT)
         {
-            super.process();
+            //a transfer connection handles exactly one request, but a late notification 
+            //about received data could start processing again
+            if (bTransferHandled)
+            {
+                return;
+            }
+            
+            bTransferHandled = true;
         }
-        else if (iMode == NetSocketConnection.STREAM_UPLOAD)
+        
+        String sTransferKey = null;
+        
+        if (iMode != NetSocketConnection.STREAM_COMMUNICATION && transfers != null)
         {
-            handleUpload();
+            sTransferKey = ((NetSocket)getStream()).remoteAddress().host();
+            
+            if (!transfers.acquire(sTransferKey))
+            {
+                reject(transfers);
+                
+                return;
+            }
         }
-        else if (iMode == NetSocketConnection.STREAM_DOWNLOAD)
+        
+        Metrics metrics = getMetrics();
+        
+        long lStart = metrics != null ? metrics.begin() : 0;
+        
+        try
         {
-            handleDownload();
+            if (iMode == NetSocketConnection.STREAM_COMMUNICATION)
+            {
+                super.process();
+            }
+            else if (iMode == NetSocketConnection.STREAM_UPLOAD)
+            {
+                handleUpload();
+            }
+            else if (iMode == NetSocketConnection.STREAM_DOWNLOAD)
+            {
+                handleDownload();
+            }
+            else if (iMode == NetSocketConnection.STREAM_UPLOAD_SEGMENT)
+            {
+                handleSegment();
+            }
+        }
+        finally
+        {
+            if (metrics != null)
+            {
+                metrics.end(getRoute(), lStart);
+            }
+            
+            if (sTransferKey != null)
+            {
+                transfers.release(sTransferKey);
+            }
         }
     }
     
@@ -114,6 +378,108 @@ public class NetDataHandler extends AbstractDataHandler
     // User-defined methods
     //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 
+    /**
+     * Sets the registry for segmented uploads. All connections of a server share the registry, because
+     * the segments of an upload arrive from different connections.
+     * 
+     * @param pUploads the registry or <code>null</code> if segmented uploads aren't supported
+     */
+    public void setSegmentedUploadRegistry(SegmentedUploadRegistry pUploads)
+    {
+        uploads = pUploads;
+    }
+    
+    /**
+     * Gets the registry for segmented uploads.
+     * 
+     * @return the registry or <code>null</code> if segmented uploads aren't supported
+     */
+    public SegmentedUploadRegistry getSegmentedUploadRegistry()
+    {
+        return uploads;
+    }
+    
+    /**
+     * Sets the store for uploaded and downloadable content.
+     * 
+     * @param pStore the store
+     */
+    public void setFileHandleStore(IFileHandleStore pStore)
+    {
+        store = pStore;
+    }
+    
+    /**
+     * Gets the store for uploaded and downloadable content.
+     * 
+     * @return the store
+     */
+    public IFileHandleStore getFileHandleStore()
+    {
+        return store;
+    }
+    
+    /**
+     * Sets the admission control for uploads and downloads.
+     * 
+     * @param pAdmission the admission control or <code>null</code> to admit all transfers
+     */
+    public void setTransferAdmissionControl(AdmissionControl pAdmission)
+    {
+        transfers = pAdmission;
+    }
+    
+    /**
+     * Gets the admission control for uploads and downloads.
+     * 
+     * @return the admission control or <code>null</code> if all transfers will be admitted
+     */
+    public AdmissionControl getTransferAdmissionControl()
+    {
+        return transfers;
+    }
+    
+    /**
+     * Sets the bandwidth shaper for downloads.
+     * 
+     * @param pShaper the shaper or <code>null</code> to send downloads without limit
+     */
+    public void setBandwidthShaper(BandwidthShaper pShaper)
+    {
+        shaper = pShaper;
+    }
+    
+    /**
+     * Gets the bandwidth shaper for downloads.
+     * 
+     * @return the shaper or <code>null</code> if downloads will be sent without limit
+     */
+    public BandwidthShaper getBandwidthShaper()
+    {
+        return shaper;
+    }
+    
+    /**
+     * Sets the maximum length of a pipelined request frame. The socket will be closed after a frame
+     * with a greater length.
+     * 
+     * @param pLength the length in bytes
+     */
+    public void setMaxFrameLength(int pLength)
+    {
+        iMaxFrameLength = pLength;
+    }
+    
+    /**
+     * Gets the maximum length of a pipelined request frame.
+     * 
+     * @return the length in bytes
+     */
+    public int getMaxFrameLength()
+    {
+        return iMaxFrameLength;
+    }
+    
     /**
      * Handles content upload.
      */
@@ -127,8 +493,10 @@ public class NetDataHandler extends AbstractDataHandler
             
             long lContentLength; 
             
-            RemoteFileHandle rfh = new RemoteFileHandle(null, RemoteFileHandle.createObjectCacheKey());
-
+            String sKey = (String)RemoteFileHandle.createObjectCacheKey();
+            
+            TempContent content = null;
+            
             try
             {
                 GZIPInputStream gzis = new GZIPInputStream(mbis);
@@ -137,7 +505,9 @@ public class NetDataHandler extends AbstractDataHandler
                 
                 lContentLength = dis.readLong();
 
-                OutputStream osFile = rfh.getOutputStream();
+                content = store.create(null, null, sKey, lContentLength);
+                
+                OutputStream osFile = content.getOutputStream();
                 
                 try
                 {
@@ -168,12 +538,24 @@ public class NetDataHandler extends AbstractDataHandler
                             lRead += iLen;
                         }
                     }
+                    
+                    //publishes the content
+                    osFile.close();
                 }
                 finally
                 {
                     mbis.close();
                 }
             }
+            catch (Exception e)
+            {
+                if (content != null)
+                {
+                    content.invalidate(sKey);
+                }
+                
+                throw e;
+            }
             finally
             {
                 mbis.readMagicByte();
@@ -181,14 +563,14 @@ public class NetDataHandler extends AbstractDataHandler
                 in.close();
             }
             
-            NetSocket socket = (NetSocket)getStream();
+            store.register(sKey);
             
-            OutputStream os = new BufferOutputStream(socket);
+            OutputStream os = meter(new BufferOutputStream(getWriteStream(), getContext()));
             
             GZIPOutputStream gzos = new GZIPOutputStream(os);
             
             DataOutputStream dos = new DataOutputStream(gzos);
-            dos.writeUTF((String)rfh.getObjectCacheKey());
+            dos.writeUTF(sKey);
             
             gzos.finish();
             
@@ -203,6 +585,156 @@ public class NetDataHandler extends AbstractDataHandler
         }        
     }
 
+    /**
+     * Handles the next request of a segmented upload. The upload will be opened, a single segment will be 
+     * written to its position or the committed offset will be sent. The connection stays open for the
+     * next request, until the client closes it.
+     */
+    private void handleSegment()
+    {
+        NetSocket socket = (NetSocket)getStream();
+        
+        try
+        {
+            InputStream in = getInputStream();
+            
+            byte[] byResponse;
+            
+            int iOperation = in.read();
+            
+            //the client closed the connection
+            if (iOperation < 0)
+            {
+                return;
+            }
+            
+            char chOperation = (char)iOperation;
+            
+            if (uploads == null)
+            {
+                throw new IOException("Segmented uploads are not supported!");
+            }
+            
+            MagicByteInputStream mbis = new MagicByteInputStream(new NonClosingInputStream(in), 
+                                                                 NetSocketConnection.MAGIC_BYTES);
+            
+            try
+            {
+                GZIPInputStream gzis = new GZIPInputStream(mbis);
+                
+                DataInputStream dis = new DataInputStream(gzis);
+                
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                DataOutputStream dosResponse = new DataOutputStream(baos);
+                
+                if (chOperation == NetSocketConnection.SEGMENT_OPEN)
+                {
+                    long lLength = dis.readLong();
+                    
+                    SegmentedUpload upload = uploads.create(lLength, store, readSessionId(dis));
+                    
+                    //an empty upload is complete without segments
+                    if (upload.isComplete())
+                    {
+                        store.register(upload.getKey());
+                    }
+                    
+                    dosResponse.writeUTF(upload.getKey());
+                }
+                else if (chOperation == NetSocketConnection.SEGMENT_DATA)
+                {
+                    SegmentedUpload upload = uploads.get(dis.readUTF());
+                    
+                    long lOffset = dis.readLong();
+                    int iLength = dis.readInt();
+                    
+                    if (iLength <= 0)
+                    {
+                        throw new IOException("Invalid segment length: " + iLength);
+                    }
+                    
+                    byte[] byContent = new byte[Math.min(iLength, 65536)];
+                    
+                    int iRead = 0;
+                    int iLen;
+                    
+                    while (iRead < iLength)
+                    {
+                        iLen = gzis.read(byContent, 0, Math.min(byContent.length, iLength - iRead));
+                        
+                        if (iLen < 0)
+                        {
+                            throw new EOFException("Segment is incomplete!");
+                        }
+                        
+                        upload.write(lOffset + iRead, byContent, 0, iLen);
+                        
+                        iRead += iLen;
+                    }
+                    
+                    long lCommitted = upload.commit(lOffset, iLength);
+                    
+                    if (lCommitted == upload.getLength())
+                    {
+                        store.register(upload.getKey());
+                    }
+                    
+                    dosResponse.writeLong(lCommitted);
+                }
+                else if (chOperation == NetSocketConnection.SEGMENT_STATUS)
+                {
+                    String sKey = dis.readUTF();
+                    
+                    long lCommitted = uploads.getCommittedOffset(sKey);
+                    
+                    //a completed upload is available in the store, maybe on another node
+                    if (lCommitted < 0)
+                    {
+                        IFileHandle fhContent = getFileHandle(sKey);
+                        
+                        if (fhContent != null)
+                        {
+                            lCommitted = fhContent.getLength();
+                        }
+                    }
+                    
+                    dosResponse.writeLong(lCommitted);
+                }
+                else
+                {
+                    throw new IOException("Unknown segment operation: " + (int)chOperation);
+                }
+                
+                dosResponse.close();
+                
+                byResponse = baos.toByteArray();
+            }
+            finally
+            {
+                mbis.close();
+            }
+            
+            OutputStream os = meter(new BufferOutputStream(getWriteStream(), getContext()));
+            
+            GZIPOutputStream gzos = new GZIPOutputStream(os);
+            gzos.write(byResponse);
+            gzos.finish();
+            
+            os.write(NetSocketConnection.MAGIC_BYTES);
+            os.flush();
+            
+            //the connection sends all segments of a writer
+            compactInputStream();
+        }
+        catch (Exception ex)
+        {
+            //the client waits for the response
+            socket.close();
+            
+            throw new RuntimeException(ex);
+        }
+    }
+    
     /**
      * Handles content download.
      */
@@ -217,6 +749,7 @@ public class NetDataHandler extends AbstractDataHandler
             char chDownloadMode;
             
             String sKey;
+            String sSessionId;
 
             try
             {
@@ -233,6 +766,7 @@ public class NetDataHandler extends AbstractDataHandler
 
                     dis = new DataInputStream(gzin);
                     sKey = dis.readUTF();
+                    sSessionId = readSessionId(dis);
                 }
                 finally
                 {
@@ -244,35 +778,68 @@ public class NetDataHandler extends AbstractDataHandler
                 in.close();
             }
 
-            IFileHandle tempFile = (IFileHandle)ObjectCache.get(sKey);
+            IFileHandle tempFile = getFileHandle(sKey);
             
-            OutputStream os = new ShadowCopyOutputStream(new BufferOutputStream(socket));
-
-            GZIPOutputStream gzos = new GZIPOutputStream(os);
+            Throttle throttle = null;
             
-            DataOutputStream dos = null;
+            if (shaper != null && chDownloadMode == NetSocketConnection.DOWNLOAD_DATA && tempFile != null)
+            {
+                //older clients don't send the session
+                throttle = shaper.open(sSessionId != null ? sSessionId : socket.remoteAddress().host());
+            }
             
-            if (chDownloadMode == NetSocketConnection.DOWNLOAD_DATA)
+            try
             {
-                if (tempFile != null)
+                ShapedWriteStream shaped = null;
+                
+                if (throttle != null)
                 {
-                    //send back the content
-                    FileUtil.copy(tempFile.getInputStream(), true, gzos, false);
-                    
-                    gzos.finish();
+                    shaped = new ShapedWriteStream(getWriteStream(), throttle, getContext());
                 }
+                
+                OutputStream os = new ShadowCopyOutputStream(meter(new BufferOutputStream(shaped != null ? shaped : getWriteStream(), 
+                                                                                          getContext())));
+    
+                GZIPOutputStream gzos = new GZIPOutputStream(os);
+                
+                DataOutputStream dos = null;
+                
+                if (chDownloadMode == NetSocketConnection.DOWNLOAD_DATA)
+                {
+                    if (tempFile != null)
+                    {
+                        //send back the content
+                        if (shaped != null)
+                        {
+                            copy(tempFile.getInputStream(), gzos, shaped);
+                        }
+                        else
+                        {
+                            FileUtil.copy(tempFile.getInputStream(), true, gzos, false);
+                        }
+                        
+                        gzos.finish();
+                    }
+                }
+                else if (chDownloadMode == NetSocketConnection.DOWNLOAD_LENGTH)
+                {
+                    dos = new DataOutputStream(gzos);
+    
+                    dos.writeLong(tempFile.getLength());
+                }
+                
+                gzos.finish();
+                
+                os.write(NetSocketConnection.MAGIC_BYTES);
+                os.flush();
             }
-            else if (chDownloadMode == NetSocketConnection.DOWNLOAD_LENGTH)
+            finally
             {
-                dos = new DataOutputStream(gzos);
-
-                dos.writeLong(tempFile.getLength());
+                if (throttle != null)
+                {
+                    throttle.close();
+                }
             }
-            
-            gzos.finish();
-            
-            os.write(NetSocketConnection.MAGIC_BYTES);
-            os.flush();
         }
         catch (Exception ex)
         {
@@ -280,4 +847,178 @@ public class NetDataHandler extends AbstractDataHandler
         }        
     }    
     
+    /**
+     * Copies content to a shaped stream. The current thread waits for the drain of the stream
+     * after every chunk, so the content won't be sent faster than the limits allow.
+     * 
+     * @param pIn the content
+     * @param pOut the output stream which writes to the shaped stream
+     * @param pShaped the shaped stream
+     * @throws IOException if copying failed
+     */
+    private void copy(InputStream pIn, OutputStream pOut, ShapedWriteStream pShaped) throws IOException
+    {
+        try
+        {
+            byte[] byContent = new byte[8192];
+            
+            int iLen;
+            
+            while ((iLen = pIn.read(byContent)) >= 0)
+            {
+                pOut.write(byContent, 0, iLen);
+                
+                awaitDrain(pShaped);
+            }
+        }
+        finally
+        {
+            CommonUtil.close(pIn);
+        }
+    }
+    
+    /**
+     * Waits until the write queue of a shaped stream isn't full.
+     * 
+     * @param pShaped the shaped stream
+     * @throws IOException if waiting was interrupted or the stream didn't drain within a minute
+     */
+    private void awaitDrain(final ShapedWriteStream pShaped) throws IOException
+    {
+        final CompletableFuture<Void> future = new CompletableFuture<Void>();
+        
+        getContext().runOnContext(new Handler<Void>()
+        {
+            public void handle(Void pEvent)
+            {
+                if (pShaped.writeQueueFull())
+                {
+                    pShaped.drainHandler(new Handler<Void>()
+                    {
+                        public void handle(Void pDrained)
+                        {
+                            future.complete(null);
+                        }
+                    });
+                }
+                else
+                {
+                    future.complete(null);
+                }
+            }
+        });
+        
+        try
+        {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException ie)
+        {
+            throw new InterruptedIOException("Download interrupted!");
+        }
+        catch (ExecutionException ee)
+        {
+            throw new IOException(ee.getCause().getMessage(), ee.getCause());
+        }
+        catch (TimeoutException te)
+        {
+            throw new IOException("Download stalled!");
+        }
+    }
+    
+    /**
+     * Gets content from the store. The content may be streamed from another node, so the
+     * current thread waits until the content is available, but not longer than one minute,
+     * e.g. if the lookup was lost because a node left the cluster.
+     * 
+     * @param pKey the key
+     * @return the content or <code>null</code> if the key is unknown
+     * @throws IOException if getting the content failed or timed out
+     */
+    private IFileHandle getFileHandle(String pKey) throws IOException
+    {
+        final CompletableFuture<IFileHandle> future = new CompletableFuture<IFileHandle>();
+        
+        store.get(pKey, new Handler<AsyncResult<IFileHandle>>()
+        {
+            public void handle(AsyncResult<IFileHandle> pResult)
+            {
+                if (pResult.succeeded())
+                {
+                    future.complete(pResult.result());
+                }
+                else
+                {
+                    future.completeExceptionally(pResult.cause());
+                }
+            }
+        });
+        
+        try
+        {
+            return future.get(1, TimeUnit.MINUTES);
+        }
+        catch (InterruptedException ie)
+        {
+            throw new InterruptedIOException("Lookup of '" + pKey + "' interrupted!");
+        }
+        catch (ExecutionException ee)
+        {
+            throw new IOException(ee.getCause().getMessage(), ee.getCause());
+        }
+        catch (TimeoutException te)
+        {
+            throw new IOException("Lookup of '" + pKey + "' timed out!");
+        }
+    }
+    
+    /**
+     * Gets the metrics route of the connection mode.
+     * 
+     * @return the route
+     */
+    private String getRoute()
+    {
+        if (iMode == NetSocketConnection.STREAM_UPLOAD)
+        {
+            return Metrics.ROUTE_UPLOAD;
+        }
+        else if (iMode == NetSocketConnection.STREAM_DOWNLOAD)
+        {
+            return Metrics.ROUTE_DOWNLOAD;
+        }
+        else if (iMode == NetSocketConnection.STREAM_UPLOAD_SEGMENT)
+        {
+            return Metrics.ROUTE_SEGMENT;
+        }
+        
+        return Metrics.ROUTE_SERVICE;
+    }
+    
+    /**
+     * Reads the session of an upload or download. Older clients don't send the session.
+     * 
+     * @param pInput the request
+     * @return the session id or <code>null</code> if the transfer doesn't belong to a session
+     * @throws IOException if reading failed
+     */
+    private String readSessionId(DataInputStream pInput) throws IOException
+    {
+        try
+        {
+            String sSessionId = pInput.readUTF();
+            
+            if (sSessionId.length() > 0)
+            {
+                return sSessionId;
+            }
+        }
+        catch (EOFException eof)
+        {
+            //older client
+        }
+        
+        return null;
+    }
+    
 }   // NetDataHandler
@@ -0,0 +1,821 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - use ByteArrayRequest
+ * 19.10.2026 - [agent] - forward requests of foreign sessions
+ * 19.10.2026 - [agent] - metrics
+ * 19.10.2026 - [agent] - admission control
+ * 19.10.2026 - [agent] - call deadline
+ * 19.10.2026 - [agent] - cancel frames
+ * 19.10.2026 - [agent] - fair admission per ordering key
+ * 19.10.2026 - [agent] - admission per application
+ * 19.10.2026 - [agent] - responses with write stall guard
+ * 19.10.2026 - [agent] - idle state for connection reaping
+ * 19.10.2026 - [agent] - sessions of requests, release with destroyed sessions
+ * 19.10.2026 - [agent] - validate frames, frame state independent of the id
+ * 19.10.2026 - [agent] - admission by the master session
+ */
+package com.sibvisions.vertx.handler;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.parsetools.RecordParser;
+import io.vertx.core.streams.WriteStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jvx.rad.server.ISession;
+
+import com.sibvisions.rad.remote.vertx.NetSocketConnection;
+import com.sibvisions.rad.remote.vertx.Pipeline;
+import com.sibvisions.rad.server.ISubSession;
+import com.sibvisions.rad.server.Server;
+import com.sibvisions.util.log.LoggerFactory;
+import com.sibvisions.vertx.AdmissionControl;
+import com.sibvisions.vertx.ApplicationAdmission;
+import com.sibvisions.vertx.CallContext;
+import com.sibvisions.vertx.cluster.SessionDirectory;
+import com.sibvisions.vertx.metrics.Metrics;
+
+/**
+ * The <code>PipelineHandler</code> handles pipelined communication. The request frames will be
+ * parsed on the event loop and processed on worker threads. Requests with the same ordering key
+ * will be processed in the received order, requests with different keys concurrently. The responses
+ * will be sent as soon as they are available.
+ * <p>
+ * The ordering key is the connection id. If a {@link SessionDirectory} is set, requests for sessions
+ * of other nodes will be forwarded to the owner.
+ * <p>
+ * Local requests have to be admitted by the {@link AdmissionControl}. The session key is the master session of the
+ * ordering key, after a request with the key was processed for the session with the same id. Requests with other keys
+ * share the socket as session key, so a client can't bypass the limits with its own keys. A rejected request gets the
+ * busy response instead of a JVx response. If an {@link ApplicationAdmission} is set, requests of sessions 
+ * with a configured application are admitted by the admission control of the application. A request which starts with a deadline will be dropped, if
+ * the deadline passed before it was executed. The response of a dropped request is empty.
+ * <p>
+ * A cancel frame ({@link Pipeline#FRAME_CANCEL}) cancels a request. A waiting request won't be executed,
+ * the worker of a request in progress will be interrupted. Cancelled requests don't get a response.
+ * <p>
+ * A frame with an invalid length, a length above the maximum frame length or an invalid ordering key closes the socket,
+ * because the following frames can't be parsed.
+ * <p>
+ * The sessions of processed requests are reported to the session handler. If the handler was released, the socket 
+ * will be closed after the last response.
+ * 
+ * @author agent
+ * @see Pipeline
+ */
+final class PipelineHandler implements Handler<Buffer>
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the JVx server. */
+    private Server server;
+    
+    /** the socket. */
+    private NetSocket socket;
+    
+    /** the stream for writing responses. */
+    private WriteStream<Buffer> output;
+    
+    /** the context of the socket. */
+    private Context context;
+    
+    /** the session directory. */
+    private SessionDirectory directory;
+    
+    /** the metrics. */
+    private Metrics metrics;
+    
+    /** the admission control. */
+    private AdmissionControl admission;
+    
+    /** the admission per application. */
+    private ApplicationAdmission applications;
+    
+    /** the handler for the sessions of processed requests. */
+    private Handler<ISession> hndSession;
+    
+    /** the frame parser. */
+    private RecordParser parser;
+    
+    /** the requests per ordering key. The first request of a queue is in progress. */
+    private Map<String, ArrayDeque<Frame>> mpQueues = new HashMap<String, ArrayDeque<Frame>>();
+    
+    /** the session keys for admission per ordering key. */
+    private Map<String, String> mpSessionKeys = new ConcurrentHashMap<String, String>();
+    
+    /** the session key for admission of requests with an unknown ordering key. */
+    private String sSocketKey;
+    
+    /** the id of the current frame. */
+    private int iId;
+    
+    /** the maximum length of a request frame. */
+    private int iMaxFrameLength = Pipeline.MAX_FRAME_LENGTH;
+    
+    /** whether the content of the current frame is expected. */
+    private boolean bContent;
+    
+    /** whether a malformed frame was received. */
+    private boolean bMalformed;
+    
+    /** the number of requests without response. */
+    private volatile int iPending;
+    
+    /** the time of the last response. */
+    private volatile long lLastActive = System.currentTimeMillis();
+    
+    /** whether the handler is closed. */
+    private volatile boolean bClosed;
+    
+    /** whether the socket will be closed after the last response. */
+    private boolean bReleased;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>PipelineHandler</code>.
+     * 
+     * @param pServer the JVx server
+     * @param pSocket the socket
+     * @param pOutput the stream for writing responses, e.g. the socket
+     * @param pContext the context of the socket
+     * @param pDirectory the session directory or <code>null</code> to process all requests locally
+     * @param pMetrics the metrics or <code>null</code> to record nothing
+     * @param pAdmission the admission control or <code>null</code> to admit all requests
+     * @param pApplications the admission per application or <code>null</code> to admit all requests with 
+     *                      <code>pAdmission</code>
+     * @param pSessionHandler the handler for the sessions of processed requests or <code>null</code>
+     */
+    PipelineHandler(Server pServer, NetSocket pSocket, WriteStream<Buffer> pOutput, Context pContext, SessionDirectory pDirectory, 
+                    Metrics pMetrics, AdmissionControl pAdmission, ApplicationAdmission pApplications, Handler<ISession> pSessionHandler)
+    {
+        server = pServer;
+        socket = pSocket;
+        output = pOutput;
+        context = pContext;
+        directory = pDirectory;
+        metrics = pMetrics;
+        admission = pAdmission;
+        applications = pApplications;
+        hndSession = pSessionHandler;
+        
+        sSocketKey = String.valueOf(pSocket.remoteAddress());
+        
+        parser = RecordParser.newFixed(Pipeline.HEADER_LENGTH, new Handler<Buffer>()
+        {
+            public void handle(Buffer pBuffer)
+            {
+                handleFrame(pBuffer);
+            }
+        });
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void handle(Buffer pBuffer)
+    {
+        parser.handle(pBuffer);
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Closes the handler. Requests in progress will be cancelled and their responses won't be sent.
+     */
+    void close()
+    {
+        bClosed = true;
+        
+        context.runOnContext(new Handler<Void>()
+        {
+            public void handle(Void pVoid)
+            {
+                for (ArrayDeque<Frame> queue : mpQueues.values())
+                {
+                    for (Frame frame : queue)
+                    {
+                        cancel(frame);
+                    }
+                }
+            }
+        });
+    }
+    
+    /**
+     * Releases the handler, because all sessions of the connection were destroyed. The socket will be
+     * closed after the responses of the requests in progress were sent.
+     */
+    void release()
+    {
+        context.runOnContext(new Handler<Void>()
+        {
+            public void handle(Void pVoid)
+            {
+                bReleased = true;
+                
+                if (iPending == 0)
+                {
+                    socket.close();
+                }
+            }
+        });
+    }
+    
+    /**
+     * Sets the maximum length of a request frame. A frame with a greater length closes the socket.
+     * 
+     * @param pLength the length in bytes
+     */
+    void setMaxFrameLength(int pLength)
+    {
+        iMaxFrameLength = pLength;
+    }
+    
+    /**
+     * Gets the maximum length of a request frame.
+     * 
+     * @return the length in bytes
+     */
+    int getMaxFrameLength()
+    {
+        return iMaxFrameLength;
+    }
+    
+    /**
+     * Gets whether all requests got their response.
+     * 
+     * @return <code>true</code> if no request is in progress
+     */
+    boolean isIdle()
+    {
+        return iPending == 0;
+    }
+    
+    /**
+     * Gets the time of the last response.
+     * 
+     * @return the time in milliseconds
+     */
+    long getLastActive()
+    {
+        return lLastActive;
+    }
+    
+    /**
+     * Cancels a request.
+     * 
+     * @param pId the request id
+     */
+    private void cancel(int pId)
+    {
+        for (ArrayDeque<Frame> queue : mpQueues.values())
+        {
+            for (Frame frame : queue)
+            {
+                if (frame.id == pId)
+                {
+                    cancel(frame);
+                    
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Cancels a request. The worker will be interrupted, if the request is in progress.
+     * 
+     * @param pFrame the request frame
+     */
+    private void cancel(Frame pFrame)
+    {
+        if (pFrame.cancelled)
+        {
+            return;
+        }
+        
+        pFrame.cancelled = true;
+        
+        CallContext call = pFrame.call;
+        
+        if (call != null)
+        {
+            call.cancel();
+        }
+        
+        if (metrics != null)
+        {
+            metrics.recordCancelled();
+        }
+    }
+    
+    /**
+     * Handles the header or the content of a frame.
+     * 
+     * @param pBuffer the header or content
+     */
+    private void handleFrame(Buffer pBuffer)
+    {
+        if (bMalformed)
+        {
+            return;
+        }
+        
+        if (!bContent)
+        {
+            int iLength = pBuffer.getInt(4);
+            
+            if (iLength == Pipeline.FRAME_CANCEL)
+            {
+                cancel(pBuffer.getInt(0));
+            }
+            //the content starts with the length of the ordering key
+            else if (iLength < 2 || iLength > iMaxFrameLength)
+            {
+                malformed("Invalid frame length: " + iLength);
+            }
+            else
+            {
+                iId = pBuffer.getInt(0);
+                
+                bContent = true;
+                
+                parser.fixedSizeMode(iLength);
+            }
+            
+            return;
+        }
+        
+        bContent = false;
+        
+        parser.fixedSizeMode(Pipeline.HEADER_LENGTH);
+        
+        int iKeyLength = pBuffer.getShort(0) & 0xFFFF;
+        
+        if (2 + iKeyLength > pBuffer.length())
+        {
+            malformed("Invalid key length: " + iKeyLength);
+            
+            return;
+        }
+        
+        Frame frame = new Frame();
+        frame.id = iId;
+        frame.key = pBuffer.getString(2, 2 + iKeyLength, "UTF-8");
+        
+        int iRequest = 2 + iKeyLength;
+        
+        if (pBuffer.length() >= iRequest + 5 && pBuffer.getByte(iRequest) == NetSocketConnection.CALL_DEADLINE)
+        {
+            frame.deadline = CallContext.getDeadline(System.currentTimeMillis(), pBuffer.getInt(iRequest + 1));
+            
+            iRequest += 5;
+        }
+        
+        frame.request = pBuffer.getBytes(iRequest, pBuffer.length());
+        
+        if (metrics != null)
+        {
+            frame.start = metrics.begin();
+        }
+        
+        //only changed on the event loop
+        iPending++;
+        
+        ArrayDeque<Frame> queue = mpQueues.get(frame.key);
+        
+        if (queue == null)
+        {
+            queue = new ArrayDeque<Frame>();
+            queue.add(frame);
+            
+            mpQueues.put(frame.key, queue);
+            
+            execute(frame);
+        }
+        else
+        {
+            //wait for the previous requests with the same key
+            queue.add(frame);
+        }
+    }
+    
+    /**
+     * Closes the socket, because a frame is malformed and the following frames can't be parsed.
+     * 
+     * @param pReason the reason
+     */
+    private void malformed(String pReason)
+    {
+        LoggerFactory.getInstance(PipelineHandler.class).error(pReason, " from ", sSocketKey);
+        
+        bMalformed = true;
+        
+        socket.close();
+    }
+    
+    /**
+     * Processes a request locally or forwards it to the owner of the session.
+     * 
+     * @param pFrame the request frame
+     */
+    private void execute(final Frame pFrame)
+    {
+        if (directory == null)
+        {
+            executeLocal(pFrame);
+            
+            return;
+        }
+        
+        directory.getOwner(pFrame.key, new Handler<String>()
+        {
+            public void handle(String pOwner)
+            {
+                if (pOwner == null)
+                {
+                    executeLocal(pFrame);
+                }
+                else
+                {
+                    directory.forward(pOwner, pFrame.request, new Handler<AsyncResult<byte[]>>()
+                    {
+                        public void handle(AsyncResult<byte[]> pResult)
+                        {
+                            complete(pFrame, pResult);
+                        }
+                    });
+                }
+            }
+        });
+    }
+    
+    /**
+     * Processes a request on a worker thread, if the request was admitted.
+     * 
+     * @param pFrame the request frame
+     */
+    private void executeLocal(final Frame pFrame)
+    {
+        final AdmissionControl acFrame = getAdmissionControl(pFrame);
+        
+        if (acFrame == null)
+        {
+            executeBlocking(pFrame);
+            
+            return;
+        }
+        
+        final String sKey = getSessionKey(pFrame);
+        
+        acFrame.acquire(sKey, context, new Handler<Boolean>()
+        {
+            public void handle(Boolean pAdmitted)
+            {
+                if (pAdmitted.booleanValue())
+                {
+                    pFrame.admission = acFrame;
+                    pFrame.sessionKey = sKey;
+                    
+                    executeBlocking(pFrame);
+                }
+                else
+                {
+                    complete(pFrame, Future.succeededFuture(acFrame.createBusyResponse()));
+                }
+            }
+        });
+    }
+    
+    /**
+     * Gets the session key of a request for admission.
+     * 
+     * @param pFrame the request frame
+     * @return the master session of the ordering key or the socket, if the ordering key isn't a known session
+     */
+    private String getSessionKey(Frame pFrame)
+    {
+        String sKey = mpSessionKeys.get(pFrame.key);
+        
+        if (sKey != null)
+        {
+            return sKey;
+        }
+        
+        return sSocketKey;
+    }
+    
+    /**
+     * Gets the admission control of a request.
+     * 
+     * @param pFrame the request frame
+     * @return the admission control of the application of the session or the admission control of the handler
+     */
+    private AdmissionControl getAdmissionControl(Frame pFrame)
+    {
+        if (applications != null)
+        {
+            AdmissionControl acApplication = applications.getSessionAdmissionControl(pFrame.key);
+            
+            if (acApplication != null)
+            {
+                return acApplication;
+            }
+        }
+        
+        return admission;
+    }
+    
+    /**
+     * Processes a request on a worker thread.
+     * 
+     * @param pFrame the request frame
+     */
+    private void executeBlocking(final Frame pFrame)
+    {
+        if (metrics != null)
+        {
+            metrics.getWorkerQueue().increment();
+        }
+        
+        context.owner().executeBlocking(new Handler<Future<byte[]>>()
+        {
+            public void handle(Future<byte[]> pFuture)
+            {
+                if (metrics != null)
+                {
+                    metrics.getWorkerQueue().decrement();
+                }
+                
+                try
+                {
+                    if (pFrame.cancelled)
+                    {
+                        pFuture.complete(new byte[0]);
+                    }
+                    //nobody waits for the response
+                    else if (CallContext.isExpired(pFrame.deadline))
+                    {
+                        if (metrics != null)
+                        {
+                            metrics.recordExpired();
+                        }
+                        
+                        pFuture.complete(new byte[0]);
+                    }
+                    else
+                    {
+                        pFuture.complete(process(pFrame));
+                    }
+                }
+                catch (Exception e)
+                {
+                    pFuture.fail(e);
+                }
+                finally
+                {
+                    if (pFrame.admission != null)
+                    {
+                        pFrame.admission.release(pFrame.sessionKey);
+                    }
+                }
+            }
+        },
+        false,
+        new Handler<AsyncResult<byte[]>>()
+        {
+            public void handle(AsyncResult<byte[]> pResult)
+            {
+                complete(pFrame, pResult);
+            }
+        });
+    }
+    
+    /**
+     * Sends the response of a request and executes the next request with the same key.
+     * 
+     * @param pFrame the request frame
+     * @param pResult the response
+     */
+    private void complete(Frame pFrame, AsyncResult<byte[]> pResult)
+    {
+        if (metrics != null)
+        {
+            metrics.end(Metrics.ROUTE_PIPELINE, pFrame.start);
+        }
+        
+        iPending--;
+        
+        lLastActive = System.currentTimeMillis();
+        
+        if (bClosed)
+        {
+            return;
+        }
+        
+        if (pFrame.cancelled)
+        {
+            //the client doesn't wait for the response
+        }
+        else if (pResult.failed())
+        {
+            LoggerFactory.getInstance(PipelineHandler.class).error(pResult.cause());
+            
+            //the client waits for the response
+            socket.close();
+            
+            return;
+        }
+        else
+        {
+            byte[] byResponse = pResult.result();
+            
+            Buffer buffer = Buffer.buffer(Pipeline.HEADER_LENGTH + byResponse.length);
+            buffer.appendInt(pFrame.id);
+            buffer.appendInt(byResponse.length);
+            buffer.appendBytes(byResponse);
+            
+            output.write(buffer);
+            
+            if (metrics != null)
+            {
+                metrics.addBytesOut(buffer.length());
+            }
+        }
+        
+        ArrayDeque<Frame> queue = mpQueues.get(pFrame.key);
+        queue.poll();
+        
+        if (queue.isEmpty())
+        {
+            mpQueues.remove(pFrame.key);
+        }
+        else
+        {
+            execute(queue.peek());
+        }
+        
+        if (bReleased && iPending == 0)
+        {
+            socket.close();
+        }
+    }
+    
+    /**
+     * Processes a request.
+     * 
+     * @param pFrame the request frame
+     * @return the response
+     * @throws Exception if processing failed
+     */
+    private byte[] process(Frame pFrame) throws Exception
+    {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        
+        CallContext call = CallContext.begin(pFrame.deadline);
+        
+        pFrame.call = call;
+        
+        //cancelled before the call was published
+        if (pFrame.cancelled)
+        {
+            call.cancel();
+        }
+        
+        try
+        {
+            ISession session = server.process(new ByteArrayRequest(pFrame.request), new AbstractResponse()
+            {
+                protected OutputStream createOutputStream()
+                {
+                    return baos;
+                }
+            });
+            
+            if (session != null)
+            {
+                remember(pFrame, session);
+            }
+        }
+        finally
+        {
+            pFrame.call = null;
+            
+            call.end();
+        }
+        
+        return baos.toByteArray();
+    }
+    
+    /**
+     * Remembers the session of a processed request. The master session will be the session key of the
+     * ordering key, if the ordering key is the id of the session.
+     * 
+     * @param pFrame the request frame
+     * @param pSession the session
+     */
+    private void remember(Frame pFrame, ISession pSession)
+    {
+        String sSessionId = String.valueOf(pSession.getId());
+        
+        if (sSessionId.equals(pFrame.key))
+        {
+            if (pSession instanceof ISubSession)
+            {
+                mpSessionKeys.put(pFrame.key, String.valueOf(((ISubSession)pSession).getMasterSession().getId()));
+            }
+            else
+            {
+                mpSessionKeys.put(pFrame.key, sSessionId);
+            }
+        }
+        
+        if (hndSession != null)
+        {
+            hndSession.handle(pSession);
+        }
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+    
+    /**
+     * The <code>Frame</code> is a received request.
+     * 
+     * @author agent
+     */
+    private static final class Frame
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the request id. */
+        private int id;
+        
+        /** the ordering key. */
+        private String key;
+        
+        /** the request. */
+        private byte[] request;
+        
+        /** the receive time. */
+        private long start;
+        
+        /** the deadline in milliseconds or <code>-1</code> if the request has no deadline. */
+        private long deadline = -1;
+        
+        /** the call in progress. */
+        private volatile CallContext call;
+        
+        /** the admission control which admitted the request. */
+        private AdmissionControl admission;
+        
+        /** the session key of the admission. */
+        private String sessionKey;
+        
+        /** whether the request was cancelled. */
+        private volatile boolean cancelled;
+        
+    }   // Frame
+    
+}   // PipelineHandler
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - committed offset, expiration of abandoned uploads
+ * 19.10.2026 - [agent] - completed uploads as temporary content
+ * 19.10.2026 - [agent] - owning session
+ * 19.10.2026 - [agent] - release uploads of a session
+ * 19.10.2026 - [agent] - pending uploads per registry, empty uploads
+ * 19.10.2026 - [agent] - complete with the committed offset, overlapping segments
+ * 19.10.2026 - [agent] - delete the file if allocation failed
+ */
+package com.sibvisions.vertx.handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.sibvisions.util.log.LoggerFactory;
+import com.sibvisions.vertx.store.IFileHandleStore;
+
+/**
+ * The <code>SegmentedUpload</code> reassembles the segments of an upload. The segments may
+ * arrive in any order and from different connections. Every segment will be written to its 
+ * position in a preallocated temporary file. If all segments were received, the file will
+ * be available as temporary content of the store with the key of the upload.
+ * <p>
+ * The committed offset is the end of the contiguous range of received segments, starting at 
+ * position <code>0</code>. A client can resume an interrupted upload from this offset. The 
+ * {@link SegmentedUploadRegistry} contains the upload until it is complete or aborted.
+ * 
+ * @author agent
+ */
+final class SegmentedUpload
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the registry of the pending upload. */
+    private SegmentedUploadRegistry registry;
+    
+    /** the received segments (offset / length). */
+    private TreeMap<Long, Integer> tmpSegments = new TreeMap<Long, Integer>();
+    
+    /** the store for the completed content. */
+    private IFileHandleStore store;
+    
+    /** the temporary file. */
+    private File file;
+    
+    /** the file channel for positional writes. */
+    private FileChannel channel;
+    
+    /** the owning session. */
+    private String sSessionId;
+    
+    /** the key of the upload. */
+    private String sKey;
+    
+    /** the content length. */
+    private long lLength;
+    
+    /** the last access time. */
+    private volatile long lLastAccess = System.currentTimeMillis();
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>SegmentedUpload</code>.
+     * 
+     * @param pRegistry the registry of the pending upload
+     * @param pKey the key of the upload
+     * @param pLength the content length
+     * @param pStore the store for the completed content
+     * @param pSessionId the owning session or <code>null</code>
+     * @throws IOException if creating or allocating the temporary file failed
+     */
+    SegmentedUpload(SegmentedUploadRegistry pRegistry, String pKey, long pLength, IFileHandleStore pStore, String pSessionId) throws IOException
+    {
+        registry = pRegistry;
+        sKey = pKey;
+        lLength = pLength;
+        store = pStore;
+        sSessionId = pSessionId;
+        
+        file = File.createTempFile(getClass().getSimpleName(), ".tmp");
+        file.deleteOnExit();
+        
+        RandomAccessFile raf = null;
+        
+        try
+        {
+            raf = new RandomAccessFile(file, "rw");
+            raf.setLength(pLength);
+        }
+        catch (IOException ioe)
+        {
+            if (raf != null)
+            {
+                raf.close();
+            }
+            
+            file.delete();
+            
+            throw ioe;
+        }
+        
+        channel = raf.getChannel();
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Gets the key of the upload.
+     * 
+     * @return the key
+     */
+    String getKey()
+    {
+        return sKey;
+    }
+    
+    /**
+     * Gets the content length.
+     * 
+     * @return the length
+     */
+    long getLength()
+    {
+        return lLength;
+    }
+    
+    /**
+     * Gets the owning session.
+     * 
+     * @return the session id or <code>null</code>
+     */
+    String getSessionId()
+    {
+        return sSessionId;
+    }
+    
+    /**
+     * Gets the last access time.
+     * 
+     * @return the time in milliseconds
+     */
+    long getLastAccess()
+    {
+        return lLastAccess;
+    }
+    
+    /**
+     * Gets whether all segments were received.
+     * 
+     * @return <code>true</code> if the content is available in the store
+     */
+    synchronized boolean isComplete()
+    {
+        return getCommittedOffset() == lLength;
+    }
+    
+    /**
+     * Writes segment data at the given position.
+     * 
+     * @param pPosition the position in the content
+     * @param pData the data
+     * @param pOffset the start offset in the data
+     * @param pLength the number of bytes to write
+     * @throws IOException if writing failed or position is out of range
+     */
+    void write(long pPosition, byte[] pData, int pOffset, int pLength) throws IOException
+    {
+        if (pPosition < 0 || pPosition + pLength > lLength)
+        {
+            throw new IOException("Segment [" + pPosition + ", " + (pPosition + pLength) + "] is out of range!");
+        }
+        
+        lLastAccess = System.currentTimeMillis();
+        
+        ByteBuffer buffer = ByteBuffer.wrap(pData, pOffset, pLength);
+        
+        long lPosition = pPosition;
+        
+        while (buffer.hasRemaining())
+        {
+            lPosition += channel.write(buffer, lPosition);
+        }
+    }
+    
+    /**
+     * Marks a segment as received. If the received segments cover the content, it will be
+     * available in the store. Segments may overlap, e.g. if a client resends a segment with 
+     * another size.
+     * 
+     * @param pOffset the position of the segment
+     * @param pLength the length of the segment
+     * @return the committed offset
+     * @throws IOException if completing the upload failed
+     */
+    synchronized long commit(long pOffset, int pLength) throws IOException
+    {
+        lLastAccess = System.currentTimeMillis();
+        
+        Integer iLength = tmpSegments.get(Long.valueOf(pOffset));
+        
+        if (iLength == null || iLength.intValue() < pLength)
+        {
+            tmpSegments.put(Long.valueOf(pOffset), Integer.valueOf(pLength));
+        }
+        
+        long lCommitted = getCommittedOffset();
+        
+        if (lCommitted == lLength && registry.remove(this))
+        {
+            channel.close();
+            
+            store.create(sSessionId, null, sKey, file);
+        }
+        
+        return lCommitted;
+    }
+    
+    /**
+     * Gets the end of the contiguous range of received segments, starting at position <code>0</code>.
+     * 
+     * @return the committed offset
+     */
+    synchronized long getCommittedOffset()
+    {
+        lLastAccess = System.currentTimeMillis();
+        
+        long lOffset = 0;
+        
+        for (Map.Entry<Long, Integer> entry : tmpSegments.entrySet())
+        {
+            if (entry.getKey().longValue() > lOffset)
+            {
+                break;
+            }
+            
+            lOffset = Math.max(lOffset, entry.getKey().longValue() + entry.getValue().intValue());
+        }
+        
+        return lOffset;
+    }
+    
+    /**
+     * Aborts the upload and deletes the temporary file.
+     */
+    synchronized void abort()
+    {
+        if (registry.remove(this))
+        {
+            try
+            {
+                channel.close();
+            }
+            catch (IOException ioe)
+            {
+                LoggerFactory.getInstance(SegmentedUpload.class).debug(ioe);
+            }
+            
+            file.delete();
+        }
+    }
+    
+}   // SegmentedUpload
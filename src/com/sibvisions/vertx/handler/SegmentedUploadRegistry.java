@@ -0,0 +1,217 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - check the content length against the store
+ */
+package com.sibvisions.vertx.handler;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jvx.rad.io.RemoteFileHandle;
+
+import com.sibvisions.util.log.LoggerFactory;
+import com.sibvisions.vertx.store.IFileHandleStore;
+
+/**
+ * The <code>SegmentedUploadRegistry</code> contains the pending segmented uploads of a server. All connections
+ * of the server share the registry, because the segments of an upload arrive from different connections.
+ * Uploads which aren't accessed for a while will be removed by {@link #expire(long)}, the uploads of a
+ * destroyed session by {@link #release(String)}.
+ * 
+ * @author agent
+ */
+public class SegmentedUploadRegistry
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the pending uploads. */
+    private Map<String, SegmentedUpload> mpUploads = new ConcurrentHashMap<String, SegmentedUpload>();
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new pending upload. An empty upload will be completed immediately, because it
+     * has no segments. The content length and the pending uploads of the session are checked against
+     * the limits of the store, before the file will be allocated.
+     * 
+     * @param pLength the content length
+     * @param pStore the store for the completed content
+     * @param pSessionId the owning session or <code>null</code>
+     * @return the upload
+     * @throws IOException if the length exceeds a limit of the store or creating the upload failed
+     */
+    SegmentedUpload create(long pLength, IFileHandleStore pStore, String pSessionId) throws IOException
+    {
+        if (pLength < 0)
+        {
+            throw new IOException("Invalid content length: " + pLength);
+        }
+        
+        pStore.check(pSessionId, getPendingLength(pSessionId) + pLength);
+        
+        SegmentedUpload upload = new SegmentedUpload(this, (String)RemoteFileHandle.createObjectCacheKey(), pLength, pStore, pSessionId);
+        
+        mpUploads.put(upload.getKey(), upload);
+        
+        if (pLength == 0)
+        {
+            upload.commit(0, 0);
+        }
+        
+        return upload;
+    }
+    
+    /**
+     * Gets a pending upload.
+     * 
+     * @param pKey the key of the upload
+     * @return the upload
+     * @throws IOException if the upload is unknown
+     */
+    SegmentedUpload get(String pKey) throws IOException
+    {
+        SegmentedUpload upload = mpUploads.get(pKey);
+        
+        if (upload == null)
+        {
+            throw new IOException("Upload '" + pKey + "' not found!");
+        }
+        
+        return upload;
+    }
+    
+    /**
+     * Removes a completed or aborted upload.
+     * 
+     * @param pUpload the upload
+     * @return <code>true</code> if the upload was pending, <code>false</code> otherwise
+     */
+    boolean remove(SegmentedUpload pUpload)
+    {
+        return mpUploads.remove(pUpload.getKey(), pUpload);
+    }
+    
+    /**
+     * Gets the committed offset of a pending upload. A completed upload is no longer pending and 
+     * its content is available in the store.
+     * 
+     * @param pKey the key of the upload
+     * @return the committed offset or <code>-1</code> if the upload isn't pending
+     */
+    public long getCommittedOffset(String pKey)
+    {
+        SegmentedUpload upload = mpUploads.get(pKey);
+        
+        if (upload != null)
+        {
+            return upload.getCommittedOffset();
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Gets the length of the pending uploads of a session.
+     * 
+     * @param pSessionId the session id or <code>null</code>
+     * @return the length of all uploads of the session or <code>0</code> without session
+     */
+    private long getPendingLength(String pSessionId)
+    {
+        long lLength = 0;
+        
+        if (pSessionId != null)
+        {
+            for (SegmentedUpload upload : mpUploads.values())
+            {
+                if (pSessionId.equals(upload.getSessionId()))
+                {
+                    lLength += upload.getLength();
+                }
+            }
+        }
+        
+        return lLength;
+    }
+    
+    /**
+     * Gets the number of pending uploads.
+     * 
+     * @return the number of uploads
+     */
+    public int size()
+    {
+        return mpUploads.size();
+    }
+    
+    /**
+     * Aborts all pending uploads which weren't accessed within the given time. The partially
+     * uploaded content will be deleted.
+     * 
+     * @param pTimeout the timeout in milliseconds
+     */
+    public void expire(long pTimeout)
+    {
+        long lNow = System.currentTimeMillis();
+        
+        SegmentedUpload upload;
+        
+        for (Iterator<SegmentedUpload> it = mpUploads.values().iterator(); it.hasNext();)
+        {
+            upload = it.next();
+            
+            if (lNow - upload.getLastAccess() > pTimeout)
+            {
+                LoggerFactory.getInstance(SegmentedUploadRegistry.class).debug("Upload '", upload.getKey(), "' expired");
+                
+                upload.abort();
+            }
+        }
+    }
+    
+    /**
+     * Aborts all pending uploads of a session. The partially uploaded content will be deleted.
+     * 
+     * @param pSessionId the session id
+     */
+    public void release(String pSessionId)
+    {
+        SegmentedUpload upload;
+        
+        for (Iterator<SegmentedUpload> it = mpUploads.values().iterator(); it.hasNext();)
+        {
+            upload = it.next();
+            
+            if (pSessionId.equals(upload.getSessionId()))
+            {
+                LoggerFactory.getInstance(SegmentedUploadRegistry.class).debug("Upload '", upload.getKey(), "' released");
+                
+                upload.abort();
+            }
+        }
+    }
+    
+}   // SegmentedUploadRegistry
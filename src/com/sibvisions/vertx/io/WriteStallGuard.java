@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.io;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * The <code>WriteStallGuard</code> watches the write queue of a {@link WriteStream}. If the write queue stays
+ * full without drain for the timeout, the client doesn't read and the stall handler will be called. The stream
+ * has to be written from the context.
+ * 
+ * @author agent
+ */
+public final class WriteStallGuard implements WriteStream<Buffer>
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the stream. */
+    private WriteStream<Buffer> stream;
+    
+    /** the context. */
+    private Context context;
+    
+    /** the stall handler. */
+    private Handler<Void> hndStall;
+    
+    /** the drain handler. */
+    private Handler<Void> hndDrain;
+    
+    /** the timeout in milliseconds. */
+    private long lTimeout;
+    
+    /** the timer of a full write queue. */
+    private long lTimerId = -1;
+    
+    /** whether the stream stalled. */
+    private boolean bStalled;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>WriteStallGuard</code>.
+     * 
+     * @param pStream the stream
+     * @param pContext the context of the stream
+     * @param pTimeout the maximum time in milliseconds, the write queue stays full
+     * @param pStallHandler the handler which will be called once, if the stream stalled
+     */
+    public WriteStallGuard(WriteStream<Buffer> pStream, Context pContext, long pTimeout, Handler<Void> pStallHandler)
+    {
+        stream = pStream;
+        context = pContext;
+        lTimeout = pTimeout;
+        hndStall = pStallHandler;
+        
+        stream.drainHandler(new Handler<Void>()
+        {
+            public void handle(Void pEvent)
+            {
+                drained();
+            }
+        });
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public WriteStallGuard exceptionHandler(Handler<Throwable> pHandler)
+    {
+        stream.exceptionHandler(pHandler);
+        
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public WriteStallGuard write(Buffer pData)
+    {
+        stream.write(pData);
+        
+        check();
+        
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public WriteStallGuard setWriteQueueMaxSize(int pMaxSize)
+    {
+        stream.setWriteQueueMaxSize(pMaxSize);
+        
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean writeQueueFull()
+    {
+        return stream.writeQueueFull();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public WriteStallGuard drainHandler(Handler<Void> pHandler)
+    {
+        hndDrain = pHandler;
+        
+        return this;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Starts the timer, if the write queue is full. Has to be called on the context, if the stream
+     * was written directly.
+     */
+    public void check()
+    {
+        if (lTimerId < 0 && !bStalled && stream.writeQueueFull())
+        {
+            lTimerId = context.owner().setTimer(lTimeout, new Handler<Long>()
+            {
+                public void handle(Long pTimerId)
+                {
+                    lTimerId = -1;
+                    
+                    if (stream.writeQueueFull() && !bStalled)
+                    {
+                        bStalled = true;
+                        
+                        hndStall.handle(null);
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * Gets whether the stream stalled.
+     * 
+     * @return <code>true</code> if the write queue stayed full for the timeout
+     */
+    public boolean isStalled()
+    {
+        return bStalled;
+    }
+    
+    /**
+     * Stops the timer and forwards the drain.
+     */
+    private void drained()
+    {
+        if (lTimerId >= 0)
+        {
+            context.owner().cancelTimer(lTimerId);
+            
+            lTimerId = -1;
+        }
+        
+        Handler<Void> handler = hndDrain;
+        
+        if (handler != null)
+        {
+            handler.handle(null);
+        }
+    }
+    
+}   // WriteStallGuard
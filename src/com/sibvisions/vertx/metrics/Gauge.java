@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The <code>Gauge</code> is a value which goes up and down, e.g. the number of calls in progress.
+ * 
+ * @author agent
+ */
+public final class Gauge
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the value. */
+    private LongAdder ladValue = new LongAdder();
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Increments the value.
+     */
+    public void increment()
+    {
+        ladValue.increment();
+    }
+    
+    /**
+     * Decrements the value.
+     */
+    public void decrement()
+    {
+        ladValue.decrement();
+    }
+    
+    /**
+     * Adds to the value.
+     * 
+     * @param pDelta the delta
+     */
+    public void add(long pDelta)
+    {
+        ladValue.add(pDelta);
+    }
+    
+    /**
+     * Gets the value.
+     * 
+     * @return the value
+     */
+    public long get()
+    {
+        return ladValue.sum();
+    }
+    
+}   // Gauge
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The <code>Meter</code> counts events and calculates the event rate. The rate of the last minute is an
+ * exponentially weighted moving average, which will be updated every 5 seconds. Marking an event doesn't
+ * lock.
+ * 
+ * @author agent
+ */
+public final class Meter
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the update interval of the rate. */
+    private static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+    
+    /** the weight of a new rate (one minute average). */
+    private static final double ALPHA = 1 - Math.exp(-5 / 60.0);
+    
+    /** the number of events. */
+    private LongAdder ladCount = new LongAdder();
+    
+    /** the number of events since the last update of the rate. */
+    private LongAdder ladUncounted = new LongAdder();
+    
+    /** the time of the last update of the rate. */
+    private AtomicLong alLastTick;
+    
+    /** the creation time. */
+    private long lStart;
+    
+    /** the rate of the last minute in events per nanosecond. */
+    private volatile double dRate = -1;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>Meter</code>.
+     */
+    public Meter()
+    {
+        lStart = System.nanoTime();
+        
+        alLastTick = new AtomicLong(lStart);
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Marks an event.
+     */
+    public void mark()
+    {
+        mark(1);
+    }
+    
+    /**
+     * Marks events.
+     * 
+     * @param pCount the number of events
+     */
+    public void mark(long pCount)
+    {
+        tickIfNecessary();
+        
+        ladCount.add(pCount);
+        ladUncounted.add(pCount);
+    }
+    
+    /**
+     * Gets the number of events.
+     * 
+     * @return the number of events
+     */
+    public long getCount()
+    {
+        return ladCount.sum();
+    }
+    
+    /**
+     * Gets the event rate of the last minute.
+     * 
+     * @return the events per second
+     */
+    public double getRate()
+    {
+        tickIfNecessary();
+        
+        return Math.max(0, dRate) * TimeUnit.SECONDS.toNanos(1);
+    }
+    
+    /**
+     * Gets the event rate since the creation of the meter.
+     * 
+     * @return the events per second
+     */
+    public double getMeanRate()
+    {
+        long lElapsed = System.nanoTime() - lStart;
+        
+        if (lElapsed <= 0)
+        {
+            return 0;
+        }
+        
+        return (double)getCount() * TimeUnit.SECONDS.toNanos(1) / lElapsed;
+    }
+    
+    /**
+     * Updates the rate, if the update interval elapsed. Only the thread which wins the update
+     * calculates the rate.
+     */
+    private void tickIfNecessary()
+    {
+        long lOldTick = alLastTick.get();
+        long lNow = System.nanoTime();
+        long lAge = lNow - lOldTick;
+        
+        if (lAge > TICK_INTERVAL)
+        {
+            long lNewTick = lNow - lAge % TICK_INTERVAL;
+            
+            if (alLastTick.compareAndSet(lOldTick, lNewTick))
+            {
+                for (long i = 0, cnt = lAge / TICK_INTERVAL; i < cnt; i++)
+                {
+                    double dCurrent = (double)ladUncounted.sumThenReset() / TICK_INTERVAL;
+                    
+                    if (dRate < 0)
+                    {
+                        dRate = dCurrent;
+                    }
+                    else
+                    {
+                        dRate += ALPHA * (dCurrent - dRate);
+                    }
+                }
+            }
+        }
+    }
+    
+}   // Meter
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The <code>MeteredOutputStream</code> counts the written bytes as sent bytes of the {@link Metrics}.
+ * 
+ * @author agent
+ */
+public final class MeteredOutputStream extends FilterOutputStream
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the metrics. */
+    private Metrics metrics;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>MeteredOutputStream</code>.
+     * 
+     * @param pStream the stream
+     * @param pMetrics the metrics
+     */
+    public MeteredOutputStream(OutputStream pStream, Metrics pMetrics)
+    {
+        super(pStream);
+        
+        metrics = pMetrics;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Overwritten methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(int pByte) throws IOException
+    {
+        out.write(pByte);
+        
+        metrics.addBytesOut(1);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(byte[] pData, int pOffset, int pLength) throws IOException
+    {
+        out.write(pData, pOffset, pLength);
+        
+        metrics.addBytesOut(pLength);
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Wraps a stream, if metrics are available.
+     * 
+     * @param pStream the stream
+     * @param pMetrics the metrics or <code>null</code>
+     * @return the metered stream or <code>pStream</code> if there are no metrics
+     */
+    public static OutputStream wrap(OutputStream pStream, Metrics pMetrics)
+    {
+        if (pMetrics == null)
+        {
+            return pStream;
+        }
+        
+        return new MeteredOutputStream(pStream, pMetrics);
+    }
+    
+}   // MeteredOutputStream
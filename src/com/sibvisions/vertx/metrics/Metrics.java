@@ -0,0 +1,1006 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - call phases
+ * 19.10.2026 - [agent] - blocked time of threads
+ * 19.10.2026 - [agent] - admission control
+ * 19.10.2026 - [agent] - expired calls
+ * 19.10.2026 - [agent] - cancelled calls
+ * 19.10.2026 - [agent] - closed slow clients
+ * 19.10.2026 - [agent] - admission per lane
+ * 19.10.2026 - [agent] - connections
+ */
+package com.sibvisions.vertx.metrics;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The <code>Metrics</code> records the requests of a server. Requests are grouped by route, e.g. the
+ * http path or the mode of a NetSocket connection. Every route has a {@link Meter} for the request rate
+ * and a {@link Histogram} for the latency. Recording doesn't lock, only the first request of a route
+ * creates the meter and the histogram. JVx calls are additionally split into phases, e.g. waiting for
+ * the request or executing the actions, and every phase has its own histogram. The {@link Watchdog}
+ * records the blocked time of event loop and worker threads, the admission control counts running, waiting
+ * and rejected calls per lane, e.g. calls and transfers. Calls which were dropped because their deadline passed are counted as expired calls,
+ * calls which were cancelled by the client as cancelled calls. Connections of slow clients, which were closed, are counted per reason.
+ * The open connections and the connections which wait for acceptance are gauges, refused connections and reaped idle connections
+ * are counted.
+ * <p>
+ * The metrics are available as JSON and in the Prometheus text format.
+ * 
+ * @author agent
+ */
+public class Metrics
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the reason for closing a connection because the client didn't send request bytes. */
+    public static final String CLOSED_READ_IDLE = "read_idle";
+    
+    /** the reason for closing a connection because the client sent the request too slowly. */
+    public static final String CLOSED_DATA_RATE = "data_rate";
+    
+    /** the reason for closing a connection because the client didn't read the response. */
+    public static final String CLOSED_WRITE_STALL = "write_stall";
+    
+    /** the reason for a connection which was idle too long. */
+    public static final String REAPED_IDLE = "idle";
+    
+    /** the reason for an idle connection which was closed because of memory pressure. */
+    public static final String REAPED_MEMORY = "memory";
+    
+    /** the reason for an idle connection which was closed for a new connection. */
+    public static final String REAPED_LIMIT = "limit";
+    
+    /** the route of JVx calls. */
+    public static final String ROUTE_SERVICE = "service";
+    
+    /** the route of uploads. */
+    public static final String ROUTE_UPLOAD = "upload";
+    
+    /** the route of downloads. */
+    public static final String ROUTE_DOWNLOAD = "download";
+    
+    /** the route of segmented uploads. */
+    public static final String ROUTE_SEGMENT = "segment";
+    
+    /** the route of pipelined JVx calls. */
+    public static final String ROUTE_PIPELINE = "pipeline";
+    
+    /** the route of static web content. */
+    public static final String ROUTE_STATIC = "static";
+    
+    /** the phase of a call which waits for request bytes. */
+    public static final String PHASE_WAIT = "wait";
+    
+    /** the phase of a call which deserializes the request. */
+    public static final String PHASE_DESERIALIZE = "deserialize";
+    
+    /** the phase of a call which executes the actions and serializes the results. */
+    public static final String PHASE_EXECUTE = "execute";
+    
+    /** the phase of a call which writes the response. */
+    public static final String PHASE_WRITE = "write";
+    
+    /** the percentiles of the latency. */
+    private static final double[] PERCENTILES = new double[] {50, 90, 99, 99.9};
+    
+    /** the names of the percentiles. */
+    private static final String[] PERCENTILE_NAMES = new String[] {"p50", "p90", "p99", "p999"};
+    
+    /** the quantiles of the percentiles. */
+    private static final String[] QUANTILES = new String[] {"0.5", "0.9", "0.99", "0.999"};
+    
+    /** the request rates per route. */
+    private ConcurrentMap<String, Meter> mpRequests = new ConcurrentHashMap<String, Meter>();
+    
+    /** the latencies per route. */
+    private ConcurrentMap<String, Histogram> mpLatencies = new ConcurrentHashMap<String, Histogram>();
+    
+    /** the durations per call phase. */
+    private ConcurrentMap<String, Histogram> mpPhases = new ConcurrentHashMap<String, Histogram>();
+    
+    /** the blocked time per thread type. */
+    private ConcurrentMap<String, Histogram> mpBlocked = new ConcurrentHashMap<String, Histogram>();
+    
+    /** the requests in progress. */
+    private Gauge gInFlight = new Gauge();
+    
+    /** the buffered inbound bytes, which weren't read. */
+    private Gauge gBufferedInbound = new Gauge();
+    
+    /** the tasks which wait for a worker thread. */
+    private Gauge gWorkerQueue = new Gauge();
+    
+    /** the calls which wait for admission per lane. */
+    private ConcurrentMap<String, Gauge> mpAdmissionQueue = new ConcurrentHashMap<String, Gauge>();
+    
+    /** the admitted calls per lane. */
+    private ConcurrentMap<String, Gauge> mpAdmissionRunning = new ConcurrentHashMap<String, Gauge>();
+    
+    /** the rejected calls per lane and reason. */
+    private ConcurrentMap<String, ConcurrentMap<String, Meter>> mpRejected = new ConcurrentHashMap<String, ConcurrentMap<String, Meter>>();
+    
+    /** the calls which were dropped because their deadline passed. */
+    private Meter mtExpired = new Meter();
+    
+    /** the calls which were cancelled by the client. */
+    private Meter mtCancelled = new Meter();
+    
+    /** the closed connections of slow clients per reason. */
+    private ConcurrentMap<String, Meter> mpClosed = new ConcurrentHashMap<String, Meter>();
+    
+    /** the open connections. */
+    private Gauge gConnections = new Gauge();
+    
+    /** the connections which wait for acceptance. */
+    private Gauge gPendingConnections = new Gauge();
+    
+    /** the refused connections. */
+    private Meter mtRefused = new Meter();
+    
+    /** the reaped idle connections per reason. */
+    private ConcurrentMap<String, Meter> mpReaped = new ConcurrentHashMap<String, Meter>();
+    
+    /** the received bytes. */
+    private Meter mtBytesIn = new Meter();
+    
+    /** the sent bytes. */
+    private Meter mtBytesOut = new Meter();
+    
+    /** the creation time. */
+    private long lStart = System.currentTimeMillis();
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Marks the begin of a request.
+     * 
+     * @return the start time for {@link #end(String, long)}
+     */
+    public long begin()
+    {
+        gInFlight.increment();
+        
+        return System.nanoTime();
+    }
+    
+    /**
+     * Marks the end of a request.
+     * 
+     * @param pRoute the route
+     * @param pStart the start time from {@link #begin()}
+     */
+    public void end(String pRoute, long pStart)
+    {
+        gInFlight.decrement();
+        
+        record(pRoute, System.nanoTime() - pStart);
+    }
+    
+    /**
+     * Records a finished request.
+     * 
+     * @param pRoute the route
+     * @param pDuration the duration in nanoseconds
+     */
+    public void record(String pRoute, long pDuration)
+    {
+        getRequests(pRoute).mark();
+        getLatency(pRoute).record(pDuration);
+    }
+    
+    /**
+     * Gets the request rate of a route.
+     * 
+     * @param pRoute the route
+     * @return the meter
+     */
+    public Meter getRequests(String pRoute)
+    {
+        return getMeter(mpRequests, pRoute);
+    }
+    
+    /**
+     * Gets the latency of a route.
+     * 
+     * @param pRoute the route
+     * @return the histogram
+     */
+    public Histogram getLatency(String pRoute)
+    {
+        return getHistogram(mpLatencies, pRoute);
+    }
+    
+    /**
+     * Records the duration of a call phase.
+     * 
+     * @param pPhase the phase, e.g. {@link #PHASE_EXECUTE}
+     * @param pDuration the duration in nanoseconds
+     */
+    public void recordPhase(String pPhase, long pDuration)
+    {
+        getPhase(pPhase).record(pDuration);
+    }
+    
+    /**
+     * Gets the durations of a call phase.
+     * 
+     * @param pPhase the phase
+     * @return the histogram
+     */
+    public Histogram getPhase(String pPhase)
+    {
+        return getHistogram(mpPhases, pPhase);
+    }
+    
+    /**
+     * Records the blocked time of a thread.
+     * 
+     * @param pType the thread type, e.g. {@link Watchdog#EVENT_LOOP}
+     * @param pDuration the duration in nanoseconds
+     */
+    public void recordBlocked(String pType, long pDuration)
+    {
+        getBlocked(pType).record(pDuration);
+    }
+    
+    /**
+     * Gets the blocked time of a thread type.
+     * 
+     * @param pType the thread type
+     * @return the histogram
+     */
+    public Histogram getBlocked(String pType)
+    {
+        return getHistogram(mpBlocked, pType);
+    }
+    
+    /**
+     * Records a rejected call.
+     * 
+     * @param pLane the admission lane, e.g. calls or transfers
+     * @param pReason the reason, e.g. a full queue
+     */
+    public void recordRejected(String pLane, String pReason)
+    {
+        getRejected(pLane, pReason).mark();
+    }
+    
+    /**
+     * Gets the rejected calls of a lane and reason.
+     * 
+     * @param pLane the admission lane
+     * @param pReason the reason
+     * @return the meter
+     */
+    public Meter getRejected(String pLane, String pReason)
+    {
+        ConcurrentMap<String, Meter> mpReasons = mpRejected.get(pLane);
+        
+        if (mpReasons == null)
+        {
+            mpReasons = new ConcurrentHashMap<String, Meter>();
+            
+            ConcurrentMap<String, Meter> mpExisting = mpRejected.putIfAbsent(pLane, mpReasons);
+            
+            if (mpExisting != null)
+            {
+                mpReasons = mpExisting;
+            }
+        }
+        
+        return getMeter(mpReasons, pReason);
+    }
+    
+    /**
+     * Records a call which was dropped because its deadline passed.
+     */
+    public void recordExpired()
+    {
+        mtExpired.mark();
+    }
+    
+    /**
+     * Gets the calls which were dropped because their deadline passed.
+     * 
+     * @return the meter
+     */
+    public Meter getExpired()
+    {
+        return mtExpired;
+    }
+    
+    /**
+     * Records a call which was cancelled by the client.
+     */
+    public void recordCancelled()
+    {
+        mtCancelled.mark();
+    }
+    
+    /**
+     * Gets the calls which were cancelled by the client.
+     * 
+     * @return the meter
+     */
+    public Meter getCancelled()
+    {
+        return mtCancelled;
+    }
+    
+    /**
+     * Records a closed connection of a slow client.
+     * 
+     * @param pReason the reason, e.g. {@link #CLOSED_READ_IDLE}
+     */
+    public void recordClosed(String pReason)
+    {
+        getClosed(pReason).mark();
+    }
+    
+    /**
+     * Gets the closed connections of slow clients for a reason.
+     * 
+     * @param pReason the reason
+     * @return the meter
+     */
+    public Meter getClosed(String pReason)
+    {
+        return getMeter(mpClosed, pReason);
+    }
+    
+    /**
+     * Gets the open connections.
+     * 
+     * @return the gauge
+     */
+    public Gauge getConnections()
+    {
+        return gConnections;
+    }
+    
+    /**
+     * Gets the connections which wait for acceptance.
+     * 
+     * @return the gauge
+     */
+    public Gauge getPendingConnections()
+    {
+        return gPendingConnections;
+    }
+    
+    /**
+     * Records a refused connection.
+     */
+    public void recordRefused()
+    {
+        mtRefused.mark();
+    }
+    
+    /**
+     * Gets the refused connections.
+     * 
+     * @return the meter
+     */
+    public Meter getRefused()
+    {
+        return mtRefused;
+    }
+    
+    /**
+     * Records a reaped idle connection.
+     * 
+     * @param pReason the reason, e.g. {@link #REAPED_IDLE}
+     */
+    public void recordReaped(String pReason)
+    {
+        getReaped(pReason).mark();
+    }
+    
+    /**
+     * Gets the reaped idle connections for a reason.
+     * 
+     * @param pReason the reason
+     * @return the meter
+     */
+    public Meter getReaped(String pReason)
+    {
+        return getMeter(mpReaped, pReason);
+    }
+    
+    /**
+     * Counts received bytes.
+     * 
+     * @param pBytes the number of bytes
+     */
+    public void addBytesIn(long pBytes)
+    {
+        mtBytesIn.mark(pBytes);
+    }
+    
+    /**
+     * Counts sent bytes.
+     * 
+     * @param pBytes the number of bytes
+     */
+    public void addBytesOut(long pBytes)
+    {
+        mtBytesOut.mark(pBytes);
+    }
+    
+    /**
+     * Gets the received bytes.
+     * 
+     * @return the meter
+     */
+    public Meter getBytesIn()
+    {
+        return mtBytesIn;
+    }
+    
+    /**
+     * Gets the sent bytes.
+     * 
+     * @return the meter
+     */
+    public Meter getBytesOut()
+    {
+        return mtBytesOut;
+    }
+    
+    /**
+     * Gets the requests in progress.
+     * 
+     * @return the gauge
+     */
+    public Gauge getInFlight()
+    {
+        return gInFlight;
+    }
+    
+    /**
+     * Gets the buffered inbound bytes, which weren't read by a worker thread.
+     * 
+     * @return the gauge
+     */
+    public Gauge getBufferedInbound()
+    {
+        return gBufferedInbound;
+    }
+    
+    /**
+     * Gets the tasks which wait for a worker thread.
+     * 
+     * @return the gauge
+     */
+    public Gauge getWorkerQueue()
+    {
+        return gWorkerQueue;
+    }
+    
+    /**
+     * Gets the calls which wait for admission.
+     * 
+     * @param pLane the admission lane, e.g. calls or transfers
+     * @return the gauge
+     */
+    public Gauge getAdmissionQueue(String pLane)
+    {
+        return getGauge(mpAdmissionQueue, pLane);
+    }
+    
+    /**
+     * Gets the admitted calls which didn't finish.
+     * 
+     * @param pLane the admission lane, e.g. calls or transfers
+     * @return the gauge
+     */
+    public Gauge getAdmissionRunning(String pLane)
+    {
+        return getGauge(mpAdmissionRunning, pLane);
+    }
+    
+    /**
+     * Gets the admission lanes with recorded calls.
+     * 
+     * @return the sorted lane names
+     */
+    public Set<String> getAdmissionLanes()
+    {
+        Set<String> stLanes = new TreeSet<String>(mpAdmissionRunning.keySet());
+        stLanes.addAll(mpAdmissionQueue.keySet());
+        stLanes.addAll(mpRejected.keySet());
+        
+        return stLanes;
+    }
+    
+    /**
+     * Gets the metrics as JSON. Latencies are in milliseconds, rates in events per second.
+     * 
+     * @return the JSON document
+     */
+    public String toJson()
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        
+        ObjectNode root = mapper.createObjectNode();
+        root.put("uptime", System.currentTimeMillis() - lStart);
+        root.put("inFlight", gInFlight.get());
+        root.put("bufferedInboundBytes", gBufferedInbound.get());
+        root.put("workerQueueDepth", gWorkerQueue.get());
+        root.put("bytesIn", mtBytesIn.getCount());
+        root.put("bytesInRate", mtBytesIn.getRate());
+        root.put("bytesOut", mtBytesOut.getCount());
+        root.put("bytesOutRate", mtBytesOut.getRate());
+        
+        ObjectNode routes = root.putObject("routes");
+        
+        for (Map.Entry<String, Meter> entry : new TreeMap<String, Meter>(mpRequests).entrySet())
+        {
+            Meter meter = entry.getValue();
+            Histogram histogram = getLatency(entry.getKey());
+            
+            ObjectNode route = routes.putObject(entry.getKey());
+            route.put("count", meter.getCount());
+            route.put("rate", meter.getRate());
+            route.put("meanRate", meter.getMeanRate());
+            
+            putLatency(route.putObject("latency"), histogram);
+        }
+        
+        ObjectNode phases = root.putObject("phases");
+        
+        for (Map.Entry<String, Histogram> entry : new TreeMap<String, Histogram>(mpPhases).entrySet())
+        {
+            ObjectNode phase = phases.putObject(entry.getKey());
+            phase.put("count", entry.getValue().getCount());
+            
+            putLatency(phase.putObject("latency"), entry.getValue());
+        }
+        
+        ObjectNode blocked = root.putObject("blocked");
+        
+        for (Map.Entry<String, Histogram> entry : new TreeMap<String, Histogram>(mpBlocked).entrySet())
+        {
+            ObjectNode type = blocked.putObject(entry.getKey());
+            type.put("count", entry.getValue().getCount());
+            
+            putLatency(type.putObject("duration"), entry.getValue());
+        }
+        
+        ObjectNode admission = root.putObject("admission");
+        
+        for (String sLane : getAdmissionLanes())
+        {
+            ObjectNode lane = admission.putObject(sLane);
+            lane.put("running", getAdmissionRunning(sLane).get());
+            lane.put("queued", getAdmissionQueue(sLane).get());
+            
+            ObjectNode rejected = lane.putObject("rejected");
+            
+            ConcurrentMap<String, Meter> mpReasons = mpRejected.get(sLane);
+            
+            if (mpReasons != null)
+            {
+                for (Map.Entry<String, Meter> entry : new TreeMap<String, Meter>(mpReasons).entrySet())
+                {
+                    ObjectNode reason = rejected.putObject(entry.getKey());
+                    reason.put("count", entry.getValue().getCount());
+                    reason.put("rate", entry.getValue().getRate());
+                }
+            }
+        }
+        
+        ObjectNode expired = root.putObject("expired");
+        expired.put("count", mtExpired.getCount());
+        expired.put("rate", mtExpired.getRate());
+        
+        ObjectNode cancelled = root.putObject("cancelled");
+        cancelled.put("count", mtCancelled.getCount());
+        cancelled.put("rate", mtCancelled.getRate());
+        
+        ObjectNode closed = root.putObject("closed");
+        
+        for (Map.Entry<String, Meter> entry : new TreeMap<String, Meter>(mpClosed).entrySet())
+        {
+            ObjectNode reason = closed.putObject(entry.getKey());
+            reason.put("count", entry.getValue().getCount());
+            reason.put("rate", entry.getValue().getRate());
+        }
+        
+        ObjectNode connections = root.putObject("connections");
+        connections.put("open", gConnections.get());
+        connections.put("pending", gPendingConnections.get());
+        
+        ObjectNode refused = connections.putObject("refused");
+        refused.put("count", mtRefused.getCount());
+        refused.put("rate", mtRefused.getRate());
+        
+        ObjectNode reaped = connections.putObject("reaped");
+        
+        for (Map.Entry<String, Meter> entry : new TreeMap<String, Meter>(mpReaped).entrySet())
+        {
+            ObjectNode reason = reaped.putObject(entry.getKey());
+            reason.put("count", entry.getValue().getCount());
+            reason.put("rate", entry.getValue().getRate());
+        }
+        
+        try
+        {
+            return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+        }
+        catch (JsonProcessingException jpe)
+        {
+            throw new RuntimeException(jpe);
+        }
+    }
+    
+    /**
+     * Gets the metrics in the Prometheus text format. Latencies are in seconds.
+     * 
+     * @return the metrics
+     */
+    public String toPrometheus()
+    {
+        StringBuilder sb = new StringBuilder();
+        
+        Map<String, Meter> mpSortedRequests = new TreeMap<String, Meter>(mpRequests);
+        
+        appendType(sb, "jvx_requests_total", "Number of finished requests.", "counter");
+        
+        for (Map.Entry<String, Meter> entry : mpSortedRequests.entrySet())
+        {
+            sb.append("jvx_requests_total{route=\"");
+            sb.append(entry.getKey());
+            sb.append("\"} ");
+            sb.append(entry.getValue().getCount());
+            sb.append('\n');
+        }
+        
+        appendType(sb, "jvx_request_duration_seconds", "Latency of requests.", "summary");
+        
+        for (String sRoute : mpSortedRequests.keySet())
+        {
+            appendSummary(sb, "jvx_request_duration_seconds", "route", sRoute, getLatency(sRoute));
+        }
+        
+        Map<String, Histogram> mpSortedPhases = new TreeMap<String, Histogram>(mpPhases);
+        
+        if (!mpSortedPhases.isEmpty())
+        {
+            appendType(sb, "jvx_call_phase_duration_seconds", "Duration of the phases of JVx calls.", "summary");
+            
+            for (Map.Entry<String, Histogram> entry : mpSortedPhases.entrySet())
+            {
+                appendSummary(sb, "jvx_call_phase_duration_seconds", "phase", entry.getKey(), entry.getValue());
+            }
+        }
+        
+        Map<String, Histogram> mpSortedBlocked = new TreeMap<String, Histogram>(mpBlocked);
+        
+        if (!mpSortedBlocked.isEmpty())
+        {
+            appendType(sb, "jvx_blocked_duration_seconds", "Blocked time of event loop and worker threads.", "summary");
+            
+            for (Map.Entry<String, Histogram> entry : mpSortedBlocked.entrySet())
+            {
+                appendSummary(sb, "jvx_blocked_duration_seconds", "thread", entry.getKey(), entry.getValue());
+            }
+        }
+        
+        Set<String> stLanes = getAdmissionLanes();
+        
+        if (!stLanes.isEmpty())
+        {
+            appendType(sb, "jvx_admission_running", "Admitted calls which didn't finish.", "gauge");
+            
+            for (String sLane : stLanes)
+            {
+                appendLane(sb, "jvx_admission_running", sLane, getAdmissionRunning(sLane).get());
+            }
+            
+            appendType(sb, "jvx_admission_queued", "Calls which wait for admission.", "gauge");
+            
+            for (String sLane : stLanes)
+            {
+                appendLane(sb, "jvx_admission_queued", sLane, getAdmissionQueue(sLane).get());
+            }
+        }
+        
+        Map<String, ConcurrentMap<String, Meter>> mpSortedRejected = new TreeMap<String, ConcurrentMap<String, Meter>>(mpRejected);
+        
+        if (!mpSortedRejected.isEmpty())
+        {
+            appendType(sb, "jvx_admission_rejected_total", "Calls which were rejected by the admission control.", "counter");
+            
+            for (Map.Entry<String, ConcurrentMap<String, Meter>> lane : mpSortedRejected.entrySet())
+            {
+                for (Map.Entry<String, Meter> entry : new TreeMap<String, Meter>(lane.getValue()).entrySet())
+                {
+                    sb.append("jvx_admission_rejected_total{lane=\"");
+                    sb.append(lane.getKey());
+                    sb.append("\",reason=\"");
+                    sb.append(entry.getKey());
+                    sb.append("\"} ");
+                    sb.append(entry.getValue().getCount());
+                    sb.append('\n');
+                }
+            }
+        }
+        
+        appendValue(sb, "jvx_requests_in_flight", "Requests in progress.", "gauge", gInFlight.get());
+        appendValue(sb, "jvx_buffered_inbound_bytes", "Received bytes which weren't read.", "gauge", gBufferedInbound.get());
+        appendValue(sb, "jvx_worker_queue_depth", "Tasks which wait for a worker thread.", "gauge", gWorkerQueue.get());
+        appendValue(sb, "jvx_expired_calls_total", "Calls which were dropped because their deadline passed.", "counter", mtExpired.getCount());
+        appendValue(sb, "jvx_cancelled_calls_total", "Calls which were cancelled by the client.", "counter", mtCancelled.getCount());
+        
+        Map<String, Meter> mpSortedClosed = new TreeMap<String, Meter>(mpClosed);
+        
+        if (!mpSortedClosed.isEmpty())
+        {
+            appendType(sb, "jvx_slow_client_closed_total", "Connections which were closed because the client was too slow.", "counter");
+            
+            for (Map.Entry<String, Meter> entry : mpSortedClosed.entrySet())
+            {
+                sb.append("jvx_slow_client_closed_total{reason=\"");
+                sb.append(entry.getKey());
+                sb.append("\"} ");
+                sb.append(entry.getValue().getCount());
+                sb.append('\n');
+            }
+        }
+        
+        appendValue(sb, "jvx_connections_open", "Open connections.", "gauge", gConnections.get());
+        appendValue(sb, "jvx_connections_pending", "Connections which wait for acceptance.", "gauge", gPendingConnections.get());
+        appendValue(sb, "jvx_connections_refused_total", "Connections which were refused because of the connection limit.", "counter", mtRefused.getCount());
+        
+        Map<String, Meter> mpSortedReaped = new TreeMap<String, Meter>(mpReaped);
+        
+        if (!mpSortedReaped.isEmpty())
+        {
+            appendType(sb, "jvx_connections_reaped_total", "Idle connections which were closed.", "counter");
+            
+            for (Map.Entry<String, Meter> entry : mpSortedReaped.entrySet())
+            {
+                sb.append("jvx_connections_reaped_total{reason=\"");
+                sb.append(entry.getKey());
+                sb.append("\"} ");
+                sb.append(entry.getValue().getCount());
+                sb.append('\n');
+            }
+        }
+        
+        appendValue(sb, "jvx_received_bytes_total", "Received bytes.", "counter", mtBytesIn.getCount());
+        appendValue(sb, "jvx_sent_bytes_total", "Sent bytes.", "counter", mtBytesOut.getCount());
+        
+        return sb.toString();
+    }
+    
+    /**
+     * Gets the meter of a key and creates it, if necessary.
+     * 
+     * @param pMeters the meters
+     * @param pKey the key
+     * @return the meter
+     */
+    private static Meter getMeter(ConcurrentMap<String, Meter> pMeters, String pKey)
+    {
+        Meter meter = pMeters.get(pKey);
+        
+        if (meter == null)
+        {
+            meter = new Meter();
+            
+            Meter existing = pMeters.putIfAbsent(pKey, meter);
+            
+            if (existing != null)
+            {
+                meter = existing;
+            }
+        }
+        
+        return meter;
+    }
+    
+    /**
+     * Gets the gauge of a key and creates it, if necessary.
+     * 
+     * @param pGauges the gauges
+     * @param pKey the key
+     * @return the gauge
+     */
+    private static Gauge getGauge(ConcurrentMap<String, Gauge> pGauges, String pKey)
+    {
+        Gauge gauge = pGauges.get(pKey);
+        
+        if (gauge == null)
+        {
+            gauge = new Gauge();
+            
+            Gauge existing = pGauges.putIfAbsent(pKey, gauge);
+            
+            if (existing != null)
+            {
+                gauge = existing;
+            }
+        }
+        
+        return gauge;
+    }
+    
+    /**
+     * Gets the histogram of a key and creates it, if necessary.
+     * 
+     * @param pHistograms the histograms
+     * @param pKey the key
+     * @return the histogram
+     */
+    private static Histogram getHistogram(ConcurrentMap<String, Histogram> pHistograms, String pKey)
+    {
+        Histogram histogram = pHistograms.get(pKey);
+        
+        if (histogram == null)
+        {
+            histogram = new Histogram();
+            
+            Histogram existing = pHistograms.putIfAbsent(pKey, histogram);
+            
+            if (existing != null)
+            {
+                histogram = existing;
+            }
+        }
+        
+        return histogram;
+    }
+    
+    /**
+     * Puts the mean, maximum and percentiles of a histogram in milliseconds.
+     * 
+     * @param pNode the JSON node
+     * @param pHistogram the histogram
+     */
+    private static void putLatency(ObjectNode pNode, Histogram pHistogram)
+    {
+        pNode.put("mean", pHistogram.getMean() / 1000000);
+        pNode.put("max", pHistogram.getMax() / 1000000.0);
+        
+        for (int i = 0; i < PERCENTILES.length; i++)
+        {
+            pNode.put(PERCENTILE_NAMES[i], pHistogram.getPercentile(PERCENTILES[i]) / 1000000.0);
+        }
+    }
+    
+    /**
+     * Appends the quantiles, the sum and the count of a histogram as summary in seconds.
+     * 
+     * @param pBuilder the output
+     * @param pName the metric name
+     * @param pLabel the label name
+     * @param pValue the label value
+     * @param pHistogram the histogram
+     */
+    private static void appendSummary(StringBuilder pBuilder, String pName, String pLabel, String pValue, Histogram pHistogram)
+    {
+        for (int i = 0; i < PERCENTILES.length; i++)
+        {
+            pBuilder.append(pName);
+            pBuilder.append('{');
+            pBuilder.append(pLabel);
+            pBuilder.append("=\"");
+            pBuilder.append(pValue);
+            pBuilder.append("\",quantile=\"");
+            pBuilder.append(QUANTILES[i]);
+            pBuilder.append("\"} ");
+            pBuilder.append(pHistogram.getPercentile(PERCENTILES[i]) / 1e9);
+            pBuilder.append('\n');
+        }
+        
+        pBuilder.append(pName);
+        pBuilder.append("_sum{");
+        pBuilder.append(pLabel);
+        pBuilder.append("=\"");
+        pBuilder.append(pValue);
+        pBuilder.append("\"} ");
+        pBuilder.append(pHistogram.getSum() / 1e9);
+        pBuilder.append('\n');
+        
+        pBuilder.append(pName);
+        pBuilder.append("_count{");
+        pBuilder.append(pLabel);
+        pBuilder.append("=\"");
+        pBuilder.append(pValue);
+        pBuilder.append("\"} ");
+        pBuilder.append(pHistogram.getCount());
+        pBuilder.append('\n');
+    }
+    
+    /**
+     * Appends the value of an admission lane.
+     * 
+     * @param pBuilder the output
+     * @param pName the metric name
+     * @param pLane the lane
+     * @param pValue the value
+     */
+    private static void appendLane(StringBuilder pBuilder, String pName, String pLane, long pValue)
+    {
+        pBuilder.append(pName);
+        pBuilder.append("{lane=\"");
+        pBuilder.append(pLane);
+        pBuilder.append("\"} ");
+        pBuilder.append(pValue);
+        pBuilder.append('\n');
+    }
+    
+    /**
+     * Appends the help and type line of a metric.
+     * 
+     * @param pBuilder the output
+     * @param pName the metric name
+     * @param pHelp the description
+     * @param pType the metric type
+     */
+    private static void appendType(StringBuilder pBuilder, String pName, String pHelp, String pType)
+    {
+        pBuilder.append("# HELP ");
+        pBuilder.append(pName);
+        pBuilder.append(' ');
+        pBuilder.append(pHelp);
+        pBuilder.append("\n# TYPE ");
+        pBuilder.append(pName);
+        pBuilder.append(' ');
+        pBuilder.append(pType);
+        pBuilder.append('\n');
+    }
+    
+    /**
+     * Appends a metric without labels.
+     * 
+     * @param pBuilder the output
+     * @param pName the metric name
+     * @param pHelp the description
+     * @param pType the metric type
+     * @param pValue the value
+     */
+    private static void appendValue(StringBuilder pBuilder, String pName, String pHelp, String pType, long pValue)
+    {
+        appendType(pBuilder, pName, pHelp, pType);
+        
+        pBuilder.append(pName);
+        pBuilder.append(' ');
+        pBuilder.append(pValue);
+        pBuilder.append('\n');
+    }
+    
+}   // Metrics
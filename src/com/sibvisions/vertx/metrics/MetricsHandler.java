@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.metrics;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+
+/**
+ * The <code>MetricsHandler</code> answers http requests with the {@link Metrics}. The response is JSON,
+ * unless the request asks for the Prometheus text format with <code>?format=prometheus</code> or an
+ * <code>Accept: text/plain</code> header, as sent by Prometheus.
+ * 
+ * @author agent
+ */
+public class MetricsHandler implements Handler<HttpServerRequest>
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the content type of the Prometheus text format. */
+    public static final String CONTENT_TYPE_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+    
+    /** the content type of JSON. */
+    public static final String CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+    
+    /** the metrics. */
+    private Metrics metrics;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>MetricsHandler</code>.
+     * 
+     * @param pMetrics the metrics
+     */
+    public MetricsHandler(Metrics pMetrics)
+    {
+        metrics = pMetrics;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void handle(HttpServerRequest pRequest)
+    {
+        HttpServerResponse response = pRequest.response();
+        
+        if (isPrometheus(pRequest))
+        {
+            response.putHeader(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_PROMETHEUS);
+            response.end(metrics.toPrometheus(), "UTF-8");
+        }
+        else
+        {
+            response.putHeader(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_JSON);
+            response.end(metrics.toJson(), "UTF-8");
+        }
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Gets whether a request asks for the Prometheus text format.
+     * 
+     * @param pRequest the request
+     * @return <code>true</code> for the Prometheus text format, <code>false</code> for JSON
+     */
+    private boolean isPrometheus(HttpServerRequest pRequest)
+    {
+        String sFormat = pRequest.params().get("format");
+        
+        if (sFormat != null)
+        {
+            return "prometheus".equalsIgnoreCase(sFormat);
+        }
+        
+        String sAccept = pRequest.headers().get(HttpHeaders.ACCEPT);
+        
+        return sAccept != null && sAccept.contains("text/plain") && !sAccept.contains("application/json");
+    }
+    
+}   // MetricsHandler
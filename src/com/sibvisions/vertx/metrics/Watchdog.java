@@ -0,0 +1,349 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.metrics;
+
+import io.vertx.core.Handler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.sibvisions.util.ThreadHandler;
+import com.sibvisions.util.log.LoggerFactory;
+
+/**
+ * The <code>Watchdog</code> finds blocked event loop threads and stalled worker threads. A thread
+ * registers a task while it runs code of the server on the event loop or while a worker thread waits for
+ * request bytes. The duration of every task will be recorded as blocked time in the {@link Metrics}.
+ * <p>
+ * A check thread looks at the running tasks. If a task runs longer than the threshold of its thread type,
+ * the stack of the thread will be captured and reported together with the details of the connection. Every
+ * task will be reported once.
+ * 
+ * @author agent
+ */
+public class Watchdog implements Runnable
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the type of event loop threads. */
+    public static final String EVENT_LOOP = "eventloop";
+    
+    /** the type of worker threads. */
+    public static final String WORKER = "worker";
+    
+    /** the interval of the check thread in milliseconds. */
+    private static final long CHECK_INTERVAL = 100;
+    
+    /** the running tasks per thread. */
+    private ConcurrentMap<Thread, Task> mpTasks = new ConcurrentHashMap<Thread, Task>();
+    
+    /** the metrics. */
+    private Metrics metrics;
+    
+    /** the check thread. */
+    private Thread thCheck;
+    
+    /** the duration in milliseconds, after which an event loop task will be reported. */
+    private long lEventLoopThreshold = 2000;
+    
+    /** the duration in milliseconds, after which a worker task will be reported. */
+    private long lWorkerThreshold = 60000;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>Watchdog</code>.
+     * 
+     * @param pMetrics the metrics for the blocked time
+     */
+    public Watchdog(Metrics pMetrics)
+    {
+        metrics = pMetrics;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void run()
+    {
+        while (!ThreadHandler.isStopped(thCheck))
+        {
+            try
+            {
+                Thread.sleep(CHECK_INTERVAL);
+            }
+            catch (InterruptedException ie)
+            {
+                return;
+            }
+            
+            check();
+        }
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Starts the check thread.
+     */
+    public synchronized void start()
+    {
+        if (thCheck == null)
+        {
+            thCheck = new Thread(this, "Watchdog@" + System.identityHashCode(this));
+            thCheck.setDaemon(true);
+            thCheck.start();
+        }
+    }
+    
+    /**
+     * Stops the check thread. Tasks will be recorded, but not reported.
+     */
+    public synchronized void stop()
+    {
+        thCheck = ThreadHandler.stop(thCheck);
+    }
+    
+    /**
+     * Registers a task of the current thread. Tasks don't nest: if the thread already runs a task,
+     * the running task continues and nothing will be registered.
+     * 
+     * @param pType the thread type, e.g. {@link #EVENT_LOOP}
+     * @param pDetails the details of the connection for the report
+     * @return the task for {@link #end(Task)} or <code>null</code> if the thread already runs a task
+     */
+    public Task begin(String pType, String pDetails)
+    {
+        Thread thread = Thread.currentThread();
+        
+        Task task = new Task(thread, pType, pDetails);
+        
+        if (mpTasks.putIfAbsent(thread, task) != null)
+        {
+            return null;
+        }
+        
+        return task;
+    }
+    
+    /**
+     * Finishes a task and records its duration as blocked time.
+     * 
+     * @param pTask the task from {@link #begin(String, String)} or <code>null</code>
+     */
+    public void end(Task pTask)
+    {
+        if (pTask != null)
+        {
+            mpTasks.remove(pTask.thread, pTask);
+            
+            metrics.recordBlocked(pTask.sType, System.nanoTime() - pTask.lStart);
+        }
+    }
+    
+    /**
+     * Creates a handler which runs another handler as event loop task.
+     * 
+     * @param <T> the event type
+     * @param pHandler the handler
+     * @param pDetails the details of the connection for the report
+     * @return the watched handler
+     */
+    public <T> Handler<T> watch(final Handler<T> pHandler, final String pDetails)
+    {
+        return new Handler<T>()
+        {
+            public void handle(T pEvent)
+            {
+                Task task = begin(EVENT_LOOP, pDetails);
+                
+                try
+                {
+                    pHandler.handle(pEvent);
+                }
+                finally
+                {
+                    end(task);
+                }
+            }
+        };
+    }
+    
+    /**
+     * Reports all running tasks which exceeded the threshold of their thread type.
+     */
+    protected void check()
+    {
+        long lNow = System.nanoTime();
+        
+        for (Map.Entry<Thread, Task> entry : mpTasks.entrySet())
+        {
+            Task task = entry.getValue();
+            
+            long lThreshold = EVENT_LOOP.equals(task.sType) ? lEventLoopThreshold : lWorkerThreshold;
+            
+            if (!task.bReported
+                && lThreshold >= 0
+                && lNow - task.lStart >= TimeUnit.MILLISECONDS.toNanos(lThreshold))
+            {
+                task.bReported = true;
+                
+                StackTraceElement[] stack = task.thread.getStackTrace();
+                
+                //the task could have finished while capturing the stack
+                if (mpTasks.get(task.thread) == task)
+                {
+                    try
+                    {
+                        report(task.thread, task.sType, task.sDetails, TimeUnit.NANOSECONDS.toMillis(lNow - task.lStart), stack);
+                    }
+                    catch (RuntimeException re)
+                    {
+                        //the check thread must survive a failed report
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Reports a blocked or stalled thread. The stack will be logged as exception.
+     * 
+     * @param pThread the thread
+     * @param pType the thread type
+     * @param pDetails the details of the connection
+     * @param pDuration the duration of the task in milliseconds
+     * @param pStack the captured stack of the thread
+     */
+    protected void report(Thread pThread, String pType, String pDetails, long pDuration, StackTraceElement[] pStack)
+    {
+        Exception exStack = new Exception("Stack of " + pThread.getName());
+        exStack.setStackTrace(pStack);
+        
+        LoggerFactory.getInstance(Watchdog.class).error(EVENT_LOOP.equals(pType) ? "Blocked event loop thread " : "Stalled worker thread ", 
+                                                        pThread.getName(), " (", pThread.getState(), ") for ", 
+                                                        Long.valueOf(pDuration), " ms: ", pDetails, exStack);
+    }
+    
+    /**
+     * Sets the duration after which a blocked event loop thread will be reported.
+     * 
+     * @param pThreshold the duration in milliseconds or <code>-1</code> to report no event loop threads
+     */
+    public void setEventLoopThreshold(long pThreshold)
+    {
+        lEventLoopThreshold = pThreshold;
+    }
+    
+    /**
+     * Gets the duration after which a blocked event loop thread will be reported.
+     * 
+     * @return the duration in milliseconds or <code>-1</code> if no event loop threads will be reported
+     */
+    public long getEventLoopThreshold()
+    {
+        return lEventLoopThreshold;
+    }
+    
+    /**
+     * Sets the duration after which a worker thread, which waits for request bytes, will be reported.
+     * 
+     * @param pThreshold the duration in milliseconds or <code>-1</code> to report no worker threads
+     */
+    public void setWorkerThreshold(long pThreshold)
+    {
+        lWorkerThreshold = pThreshold;
+    }
+    
+    /**
+     * Gets the duration after which a worker thread, which waits for request bytes, will be reported.
+     * 
+     * @return the duration in milliseconds or <code>-1</code> if no worker threads will be reported
+     */
+    public long getWorkerThreshold()
+    {
+        return lWorkerThreshold;
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+    
+    /**
+     * The <code>Task</code> is a running task of a thread.
+     * 
+     * @author agent
+     */
+    public static final class Task
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the thread. */
+        private Thread thread;
+        
+        /** the thread type. */
+        private String sType;
+        
+        /** the details of the connection. */
+        private String sDetails;
+        
+        /** the start time. */
+        private long lStart;
+        
+        /** whether the task was reported. */
+        private volatile boolean bReported;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>Task</code>.
+         * 
+         * @param pThread the thread
+         * @param pType the thread type
+         * @param pDetails the details of the connection
+         */
+        private Task(Thread pThread, String pType, String pDetails)
+        {
+            thread = pThread;
+            sType = pType;
+            sDetails = pDetails;
+            lStart = System.nanoTime();
+        }
+        
+    }   // Task
+    
+}   // Watchdog
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.shaping;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The <code>BandwidthShaper</code> limits the byte rate of downloads with token buckets: a global limit for all
+ * downloads of a server, a limit per connection and a limit per session. Every download opens a {@link Throttle}
+ * with the buckets. The limits are enforced with backpressure: a {@link ShapedWriteStream} reports a full write 
+ * queue while a bucket is in debt, so writers wait for the drain handler. JVx calls are never shaped.
+ * <p>
+ * Changed limits are used for new downloads. By default, the rate isn't limited.
+ * 
+ * @author agent
+ */
+public class BandwidthShaper
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the buckets of the sessions with running downloads. */
+    private Map<String, SessionBucket> mpSessions = new HashMap<String, SessionBucket>();
+    
+    /** the global bucket. */
+    private TokenBucket tbGlobal;
+    
+    /** the global rate in bytes per second. */
+    private long lGlobalRate = -1;
+    
+    /** the rate per connection in bytes per second. */
+    private long lConnectionRate = -1;
+    
+    /** the rate per session in bytes per second. */
+    private long lSessionRate = -1;
+    
+    /** the capacity of the buckets in bytes. */
+    private long lBurst = 64 * 1024;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Opens the throttle of a download.
+     * 
+     * @param pSessionKey the session key, e.g. the session id or the client host
+     * @return the throttle or <code>null</code> if no rate is limited
+     */
+    public synchronized Throttle open(String pSessionKey)
+    {
+        if (!isEnabled())
+        {
+            return null;
+        }
+        
+        List<TokenBucket> liBuckets = new ArrayList<TokenBucket>(3);
+        
+        if (lGlobalRate > 0)
+        {
+            if (tbGlobal == null)
+            {
+                tbGlobal = new TokenBucket(lGlobalRate, lBurst);
+            }
+            
+            liBuckets.add(tbGlobal);
+        }
+        
+        if (lConnectionRate > 0)
+        {
+            liBuckets.add(new TokenBucket(lConnectionRate, lBurst));
+        }
+        
+        String sKey = null;
+        
+        if (lSessionRate > 0 && pSessionKey != null)
+        {
+            SessionBucket session = mpSessions.get(pSessionKey);
+            
+            if (session == null)
+            {
+                session = new SessionBucket(new TokenBucket(lSessionRate, lBurst));
+                
+                mpSessions.put(pSessionKey, session);
+            }
+            
+            session.iUsers++;
+            
+            liBuckets.add(session.bucket);
+            
+            sKey = pSessionKey;
+        }
+        
+        return new Throttle(this, sKey, liBuckets.toArray(new TokenBucket[liBuckets.size()]));
+    }
+    
+    /**
+     * Releases the bucket of a session after a download.
+     * 
+     * @param pSessionKey the session key or <code>null</code> if the download had no session bucket
+     */
+    synchronized void release(String pSessionKey)
+    {
+        if (pSessionKey == null)
+        {
+            return;
+        }
+        
+        SessionBucket session = mpSessions.get(pSessionKey);
+        
+        if (session != null && --session.iUsers <= 0)
+        {
+            mpSessions.remove(pSessionKey);
+        }
+    }
+    
+    /**
+     * Gets whether a rate is limited.
+     * 
+     * @return <code>true</code> if downloads will be shaped
+     */
+    public synchronized boolean isEnabled()
+    {
+        return lGlobalRate > 0 || lConnectionRate > 0 || lSessionRate > 0;
+    }
+    
+    /**
+     * Sets the rate of all downloads.
+     * 
+     * @param pRate the rate in bytes per second or <code>-1</code> for no limit
+     */
+    public synchronized void setGlobalRate(long pRate)
+    {
+        lGlobalRate = pRate;
+        
+        tbGlobal = null;
+    }
+    
+    /**
+     * Gets the rate of all downloads.
+     * 
+     * @return the rate in bytes per second or <code>-1</code> if the rate isn't limited
+     */
+    public synchronized long getGlobalRate()
+    {
+        return lGlobalRate;
+    }
+    
+    /**
+     * Sets the rate per connection.
+     * 
+     * @param pRate the rate in bytes per second or <code>-1</code> for no limit
+     */
+    public synchronized void setConnectionRate(long pRate)
+    {
+        lConnectionRate = pRate;
+    }
+    
+    /**
+     * Gets the rate per connection.
+     * 
+     * @return the rate in bytes per second or <code>-1</code> if the rate isn't limited
+     */
+    public synchronized long getConnectionRate()
+    {
+        return lConnectionRate;
+    }
+    
+    /**
+     * Sets the rate per session. All downloads of a session share the rate.
+     * 
+     * @param pRate the rate in bytes per second or <code>-1</code> for no limit
+     */
+    public synchronized void setSessionRate(long pRate)
+    {
+        lSessionRate = pRate;
+    }
+    
+    /**
+     * Gets the rate per session.
+     * 
+     * @return the rate in bytes per second or <code>-1</code> if the rate isn't limited
+     */
+    public synchronized long getSessionRate()
+    {
+        return lSessionRate;
+    }
+    
+    /**
+     * Sets the capacity of the buckets. A download can send this number of bytes without delay, after
+     * it was idle.
+     * 
+     * @param pBurst the capacity in bytes
+     */
+    public synchronized void setBurst(long pBurst)
+    {
+        lBurst = pBurst;
+        
+        tbGlobal = null;
+    }
+    
+    /**
+     * Gets the capacity of the buckets.
+     * 
+     * @return the capacity in bytes
+     */
+    public synchronized long getBurst()
+    {
+        return lBurst;
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+    
+    /**
+     * The <code>SessionBucket</code> is the bucket of a session with the number of running downloads.
+     * 
+     * @author agent
+     */
+    private static final class SessionBucket
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the bucket. */
+        private TokenBucket bucket;
+        
+        /** the number of running downloads. */
+        private int iUsers;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>SessionBucket</code>.
+         * 
+         * @param pBucket the bucket
+         */
+        private SessionBucket(TokenBucket pBucket)
+        {
+            bucket = pBucket;
+        }
+        
+    }   // SessionBucket
+    
+}   // BandwidthShaper
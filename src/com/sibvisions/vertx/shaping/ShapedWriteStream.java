@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.shaping;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * The <code>ShapedWriteStream</code> limits the byte rate of a {@link WriteStream} with a {@link Throttle}.
+ * The write queue is full while a bucket is in debt or the write queue of the stream is full. The drain 
+ * handler will be called once, after the buckets were refilled and the stream was drained, e.g. by a
+ * {@link io.vertx.core.streams.Pump}. The stream has to be used from the context.
+ * 
+ * @author agent
+ */
+public final class ShapedWriteStream implements WriteStream<Buffer>
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the stream. */
+    private WriteStream<Buffer> stream;
+    
+    /** the throttle. */
+    private Throttle throttle;
+    
+    /** the context. */
+    private Context context;
+    
+    /** the drain handler. */
+    private Handler<Void> hndDrain;
+    
+    /** whether a refill or drain is awaited. */
+    private boolean bScheduled;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>ShapedWriteStream</code>.
+     * 
+     * @param pStream the stream
+     * @param pThrottle the throttle
+     * @param pContext the context of the stream
+     */
+    public ShapedWriteStream(WriteStream<Buffer> pStream, Throttle pThrottle, Context pContext)
+    {
+        stream = pStream;
+        throttle = pThrottle;
+        context = pContext;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public ShapedWriteStream exceptionHandler(Handler<Throwable> pHandler)
+    {
+        stream.exceptionHandler(pHandler);
+        
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public ShapedWriteStream write(Buffer pData)
+    {
+        throttle.consume(pData.length());
+        
+        stream.write(pData);
+        
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public ShapedWriteStream setWriteQueueMaxSize(int pMaxSize)
+    {
+        stream.setWriteQueueMaxSize(pMaxSize);
+        
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean writeQueueFull()
+    {
+        return throttle.getDelay() > 0 || stream.writeQueueFull();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public ShapedWriteStream drainHandler(Handler<Void> pHandler)
+    {
+        hndDrain = pHandler;
+        
+        if (pHandler != null)
+        {
+            schedule();
+        }
+        
+        return this;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Waits for the refill of the buckets with a timer or for the drain of the stream.
+     */
+    private void schedule()
+    {
+        if (bScheduled)
+        {
+            return;
+        }
+        
+        bScheduled = true;
+        
+        long lDelay = throttle.getDelay();
+        
+        if (lDelay > 0)
+        {
+            context.owner().setTimer(lDelay, new Handler<Long>()
+            {
+                public void handle(Long pTimerId)
+                {
+                    drained();
+                }
+            });
+        }
+        else if (stream.writeQueueFull())
+        {
+            stream.drainHandler(new Handler<Void>()
+            {
+                public void handle(Void pEvent)
+                {
+                    drained();
+                }
+            });
+        }
+        else
+        {
+            context.runOnContext(new Handler<Void>()
+            {
+                public void handle(Void pEvent)
+                {
+                    drained();
+                }
+            });
+        }
+    }
+    
+    /**
+     * Calls the drain handler, if the write queue isn't full anymore.
+     */
+    private void drained()
+    {
+        bScheduled = false;
+        
+        Handler<Void> handler = hndDrain;
+        
+        if (handler == null)
+        {
+            return;
+        }
+        
+        if (writeQueueFull())
+        {
+            schedule();
+        }
+        else
+        {
+            hndDrain = null;
+            
+            handler.handle(null);
+        }
+    }
+    
+}   // ShapedWriteStream
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.shaping;
+
+/**
+ * The <code>Throttle</code> combines the token buckets of one transfer: the global bucket, the bucket of the
+ * connection and the bucket of the session. A throttle has to be closed when the transfer ends.
+ * 
+ * @author agent
+ * @see BandwidthShaper#open(String)
+ */
+public final class Throttle
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the shaper. */
+    private BandwidthShaper shaper;
+    
+    /** the buckets. */
+    private TokenBucket[] buckets;
+    
+    /** the session key. */
+    private String sSessionKey;
+    
+    /** whether the throttle is closed. */
+    private boolean bClosed;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>Throttle</code>.
+     * 
+     * @param pShaper the shaper
+     * @param pSessionKey the session key or <code>null</code> if the transfer has no session bucket
+     * @param pBuckets the buckets
+     */
+    Throttle(BandwidthShaper pShaper, String pSessionKey, TokenBucket[] pBuckets)
+    {
+        shaper = pShaper;
+        sSessionKey = pSessionKey;
+        buckets = pBuckets;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Takes tokens of all buckets for sent bytes.
+     * 
+     * @param pBytes the number of bytes
+     */
+    public void consume(long pBytes)
+    {
+        for (int i = 0; i < buckets.length; i++)
+        {
+            buckets[i].consume(pBytes);
+        }
+    }
+    
+    /**
+     * Gets the time until no bucket is in debt.
+     * 
+     * @return the delay in milliseconds or <code>0</code> if the next chunk can be sent
+     */
+    public long getDelay()
+    {
+        long lDelay = 0;
+        
+        for (int i = 0; i < buckets.length; i++)
+        {
+            lDelay = Math.max(lDelay, buckets[i].getDelay());
+        }
+        
+        return lDelay;
+    }
+    
+    /**
+     * Releases the session bucket, if no other transfer of the session uses it.
+     */
+    public void close()
+    {
+        synchronized (this)
+        {
+            if (bClosed)
+            {
+                return;
+            }
+            
+            bClosed = true;
+        }
+        
+        shaper.release(sSessionKey);
+    }
+    
+}   // Throttle
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.shaping;
+
+/**
+ * The <code>TokenBucket</code> limits a byte rate. The bucket fills with the rate up to its capacity, every sent
+ * byte takes a token. A write may take more tokens than available, the bucket is in debt until enough tokens
+ * were refilled. So a writer never splits its chunks, it only waits for the delay before the next chunk.
+ * 
+ * @author agent
+ */
+public final class TokenBucket
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the rate in bytes per second. */
+    private long lRate;
+    
+    /** the capacity in bytes. */
+    private long lCapacity;
+    
+    /** the available tokens, negative if the bucket is in debt. */
+    private double dTokens;
+    
+    /** the time of the last refill in nanoseconds. */
+    private long lLastRefill;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>TokenBucket</code>. The bucket is full.
+     * 
+     * @param pRate the rate in bytes per second
+     * @param pCapacity the capacity in bytes, i.e. the maximum burst
+     */
+    public TokenBucket(long pRate, long pCapacity)
+    {
+        lRate = Math.max(1, pRate);
+        lCapacity = Math.max(1, pCapacity);
+        
+        dTokens = lCapacity;
+        lLastRefill = System.nanoTime();
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Takes tokens for sent bytes.
+     * 
+     * @param pBytes the number of bytes
+     */
+    public synchronized void consume(long pBytes)
+    {
+        refill();
+        
+        dTokens -= pBytes;
+    }
+    
+    /**
+     * Gets the time until the bucket isn't in debt.
+     * 
+     * @return the delay in milliseconds or <code>0</code> if the next chunk can be sent
+     */
+    public synchronized long getDelay()
+    {
+        refill();
+        
+        if (dTokens >= 0)
+        {
+            return 0;
+        }
+        
+        return Math.max(1, (long)Math.ceil(-dTokens * 1000 / lRate));
+    }
+    
+    /**
+     * Gets the rate.
+     * 
+     * @return the rate in bytes per second
+     */
+    public long getRate()
+    {
+        return lRate;
+    }
+    
+    /**
+     * Gets the capacity.
+     * 
+     * @return the capacity in bytes
+     */
+    public long getCapacity()
+    {
+        return lCapacity;
+    }
+    
+    /**
+     * Adds the tokens of the elapsed time.
+     */
+    private void refill()
+    {
+        long lNow = System.nanoTime();
+        
+        dTokens = Math.min(lCapacity, dTokens + (lNow - lLastRefill) * (double)lRate / 1000000000L);
+        
+        lLastRefill = lNow;
+    }
+    
+}   // TokenBucket
@@ -0,0 +1,937 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - copies as temporary content
+ * 19.10.2026 - [agent] - counted lookups
+ */
+package com.sibvisions.vertx.store;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.shareddata.AsyncMap;
+import io.vertx.core.shareddata.LocalMap;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jvx.rad.io.IFileHandle;
+import jvx.rad.io.RemoteFileHandle;
+
+import com.sibvisions.util.log.LoggerFactory;
+import com.sibvisions.util.type.CommonUtil;
+import com.sibvisions.util.type.FileUtil;
+
+/**
+ * The <code>ClusterFileHandleStore</code> publishes the location of content in a directory. If the
+ * vert.x instance is clustered, the directory is a cluster-wide map, otherwise it's shared between all
+ * servers of the vert.x instance.
+ * <p>
+ * A node which doesn't have the content streams it from the owner over the event bus. The content will
+ * be pulled in chunks and every chunk will be written to local {@link TempContent} before the next chunk
+ * will be requested, so large content is never loaded into memory. If a shared directory is configured,
+ * the owner copies the content into the shared directory and other nodes read the file directly.
+ * <p>
+ * The copy is available with the same key in the object cache of the requesting node.
+ * 
+ * @author agent
+ */
+public class ClusterFileHandleStore extends LocalFileHandleStore
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the name of the directory map. */
+    public static final String MAP_NAME = "jvx.filehandles";
+    
+    /** the prefix of node addresses. */
+    public static final String ADDRESS_PREFIX = "jvx.store.";
+    
+    /** the prefix of locations in the shared directory. */
+    private static final String FILE_PREFIX = "file:";
+    
+    /** the header with the operation. */
+    private static final String HEADER_OPERATION = "op";
+    
+    /** the header with the key or transfer id. */
+    private static final String HEADER_ID = "id";
+    
+    /** the open operation. */
+    private static final String OP_OPEN = "open";
+    
+    /** the read operation. */
+    private static final String OP_READ = "read";
+    
+    /** the close operation. */
+    private static final String OP_CLOSE = "close";
+    
+    /** the vert.x instance. */
+    private Vertx vertx;
+    
+    /** the cluster-wide directory. */
+    private AsyncMap<String, String> amLocations;
+    
+    /** the directory of a non clustered instance. */
+    private LocalMap<String, String> lmLocations;
+    
+    /** the consumer of transfer requests. */
+    private MessageConsumer<Buffer> consumer;
+    
+    /** the published keys of this node. */
+    private Set<String> stPublished = ConcurrentHashMap.newKeySet();
+    
+    /** the open transfers of this node. */
+    private Map<String, Transfer> mpTransfers = new ConcurrentHashMap<String, Transfer>();
+    
+    /** the shared directory. */
+    private File fiSharedDirectory;
+    
+    /** the address of this node. */
+    private String sAddress;
+    
+    /** the timer id for cleanup. */
+    private long lTimerId = -1;
+    
+    /** the timeout for transfers. */
+    private long lTimeout = 60000;
+    
+    /** the chunk size. */
+    private int iChunkSize = 65536;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start(Vertx pVertx)
+    {
+        super.start(pVertx);
+        
+        vertx = pVertx;
+        
+        sAddress = ADDRESS_PREFIX + UUID.randomUUID().toString();
+        
+        consumer = vertx.eventBus().consumer(sAddress, new Handler<Message<Buffer>>()
+        {
+            public void handle(Message<Buffer> pMessage)
+            {
+                handleRequest(pMessage);
+            }
+        });
+        
+        if (vertx.isClustered())
+        {
+            vertx.sharedData().<String, String>getClusterWideMap(MAP_NAME, new Handler<AsyncResult<AsyncMap<String, String>>>()
+            {
+                public void handle(AsyncResult<AsyncMap<String, String>> pResult)
+                {
+                    if (pResult.succeeded())
+                    {
+                        amLocations = pResult.result();
+                    }
+                    else
+                    {
+                        LoggerFactory.getInstance(ClusterFileHandleStore.class).error(pResult.cause());
+                    }
+                }
+            });
+        }
+        else
+        {
+            lmLocations = vertx.sharedData().getLocalMap(MAP_NAME);
+        }
+        
+        lTimerId = vertx.setPeriodic(Math.max(1000, lTimeout / 2), new Handler<Long>()
+        {
+            public void handle(Long pTimerId)
+            {
+                cleanup();
+            }
+        });
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop()
+    {
+        super.stop();
+        
+        if (consumer != null)
+        {
+            consumer.unregister();
+            consumer = null;
+        }
+        
+        if (lTimerId >= 0)
+        {
+            vertx.cancelTimer(lTimerId);
+            lTimerId = -1;
+        }
+        
+        for (String sKey : stPublished)
+        {
+            unpublish(sKey);
+        }
+        
+        stPublished.clear();
+        
+        for (Transfer transfer : mpTransfers.values())
+        {
+            transfer.close();
+        }
+        
+        mpTransfers.clear();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void register(final String pKey)
+    {
+        if (sAddress == null)
+        {
+            return;
+        }
+        
+        final IFileHandle fhContent = getLocal(pKey);
+        
+        if (fhContent == null)
+        {
+            return;
+        }
+        
+        stPublished.add(pKey);
+        
+        if (fiSharedDirectory == null)
+        {
+            publish(pKey, sAddress);
+        }
+        else
+        {
+            vertx.executeBlocking(new Handler<Future<String>>()
+            {
+                public void handle(Future<String> pFuture)
+                {
+                    try
+                    {
+                        File file = new File(fiSharedDirectory, pKey);
+                        
+                        FileUtil.copy(fhContent.getInputStream(), true, new FileOutputStream(file), true);
+                        
+                        String sName = fhContent.getFileName();
+                        
+                        pFuture.complete(FILE_PREFIX + file.getAbsolutePath() + "\n" + (sName == null ? "" : sName));
+                    }
+                    catch (Exception e)
+                    {
+                        pFuture.fail(e);
+                    }
+                }
+            },
+            false,
+            new Handler<AsyncResult<String>>()
+            {
+                public void handle(AsyncResult<String> pResult)
+                {
+                    if (pResult.succeeded())
+                    {
+                        publish(pKey, pResult.result());
+                    }
+                    else
+                    {
+                        LoggerFactory.getInstance(ClusterFileHandleStore.class).error(pResult.cause());
+                        
+                        //the content is still available from this node
+                        publish(pKey, sAddress);
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void get(final String pKey, final Handler<AsyncResult<IFileHandle>> pHandler)
+    {
+        IFileHandle fhContent = lookup(pKey);
+        
+        if (fhContent != null || sAddress == null)
+        {
+            pHandler.handle(Future.succeededFuture(fhContent));
+            
+            return;
+        }
+        
+        locate(pKey, new Handler<String>()
+        {
+            public void handle(String pLocation)
+            {
+                if (pLocation == null || pLocation.equals(sAddress))
+                {
+                    pHandler.handle(Future.<IFileHandle>succeededFuture(null));
+                }
+                else if (pLocation.startsWith(FILE_PREFIX))
+                {
+                    int iPos = pLocation.indexOf('\n');
+                    
+                    String sName = pLocation.substring(iPos + 1);
+                    
+                    RemoteFileHandle rfh = new RemoteFileHandle(sName.length() == 0 ? null : sName, pKey);
+                    rfh.setContent(new File(pLocation.substring(FILE_PREFIX.length(), iPos)));
+                    
+                    pHandler.handle(Future.<IFileHandle>succeededFuture(rfh));
+                }
+                else
+                {
+                    new Fetch(pLocation, pKey, pHandler).open();
+                }
+            }
+        });
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove(String pKey)
+    {
+        super.remove(pKey);
+        
+        if (stPublished.remove(pKey))
+        {
+            unpublish(pKey);
+        }
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Sets a directory which is shared between all nodes, e.g. a network share. Published content will
+     * be copied into this directory and other nodes read the file directly instead of streaming it from
+     * the owner.
+     * 
+     * @param pDirectory the directory or <code>null</code> to stream content over the event bus
+     */
+    public void setSharedDirectory(File pDirectory)
+    {
+        fiSharedDirectory = pDirectory;
+    }
+    
+    /**
+     * Gets the shared directory.
+     * 
+     * @return the directory or <code>null</code> if content will be streamed over the event bus
+     */
+    public File getSharedDirectory()
+    {
+        return fiSharedDirectory;
+    }
+    
+    /**
+     * Sets the size of the chunks which will be requested from the owner.
+     * 
+     * @param pChunkSize the size in bytes
+     */
+    public void setChunkSize(int pChunkSize)
+    {
+        iChunkSize = pChunkSize;
+    }
+    
+    /**
+     * Gets the size of the chunks which will be requested from the owner.
+     * 
+     * @return the size in bytes
+     */
+    public int getChunkSize()
+    {
+        return iChunkSize;
+    }
+    
+    /**
+     * Sets the timeout for transfers. A request to the owner fails after this time and an unused transfer
+     * will be closed by the owner.
+     * 
+     * @param pTimeout the timeout in milliseconds
+     */
+    public void setTimeout(long pTimeout)
+    {
+        lTimeout = pTimeout;
+    }
+    
+    /**
+     * Gets the timeout for transfers.
+     * 
+     * @return the timeout in milliseconds
+     */
+    public long getTimeout()
+    {
+        return lTimeout;
+    }
+    
+    /**
+     * Gets the address of this node.
+     * 
+     * @return the address or <code>null</code> if the store wasn't started
+     */
+    public String getAddress()
+    {
+        return sAddress;
+    }
+    
+    /**
+     * Records the location of content.
+     * 
+     * @param pKey the key
+     * @param pLocation the node address or the shared file
+     */
+    private void publish(String pKey, String pLocation)
+    {
+        if (lmLocations != null)
+        {
+            lmLocations.put(pKey, pLocation);
+        }
+        else if (amLocations != null)
+        {
+            amLocations.put(pKey, pLocation, new Handler<AsyncResult<Void>>()
+            {
+                public void handle(AsyncResult<Void> pResult)
+                {
+                    if (pResult.failed())
+                    {
+                        LoggerFactory.getInstance(ClusterFileHandleStore.class).error(pResult.cause());
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * Removes the location of content and deletes the copy in the shared directory.
+     * 
+     * @param pKey the key
+     */
+    private void unpublish(String pKey)
+    {
+        if (lmLocations != null)
+        {
+            lmLocations.remove(pKey);
+        }
+        else if (amLocations != null)
+        {
+            amLocations.remove(pKey, new Handler<AsyncResult<String>>()
+            {
+                public void handle(AsyncResult<String> pResult)
+                {
+                    if (pResult.failed())
+                    {
+                        LoggerFactory.getInstance(ClusterFileHandleStore.class).debug(pResult.cause());
+                    }
+                }
+            });
+        }
+        
+        if (fiSharedDirectory != null)
+        {
+            new File(fiSharedDirectory, pKey).delete();
+        }
+    }
+    
+    /**
+     * Gets the location of content.
+     * 
+     * @param pKey the key
+     * @param pHandler the handler which gets the location or <code>null</code> if the key is unknown
+     */
+    private void locate(String pKey, final Handler<String> pHandler)
+    {
+        if (lmLocations != null)
+        {
+            pHandler.handle(lmLocations.get(pKey));
+        }
+        else if (amLocations != null)
+        {
+            amLocations.get(pKey, new Handler<AsyncResult<String>>()
+            {
+                public void handle(AsyncResult<String> pResult)
+                {
+                    pHandler.handle(pResult.succeeded() ? pResult.result() : null);
+                }
+            });
+        }
+        else
+        {
+            pHandler.handle(null);
+        }
+    }
+    
+    /**
+     * Unpublishes content which isn't available anymore and closes unused transfers.
+     */
+    private void cleanup()
+    {
+        String sKey;
+        
+        for (Iterator<String> it = stPublished.iterator(); it.hasNext();)
+        {
+            sKey = it.next();
+            
+            if (getLocal(sKey) == null)
+            {
+                it.remove();
+                
+                unpublish(sKey);
+            }
+        }
+        
+        long lNow = System.currentTimeMillis();
+        
+        Transfer transfer;
+        
+        for (Iterator<Transfer> it = mpTransfers.values().iterator(); it.hasNext();)
+        {
+            transfer = it.next();
+            
+            if (lNow - transfer.lLastAccess > lTimeout)
+            {
+                it.remove();
+                
+                transfer.close();
+            }
+        }
+    }
+    
+    /**
+     * Handles a transfer request of another node. The stream of the content will be read on a worker
+     * thread.
+     * 
+     * @param pMessage the request
+     */
+    private void handleRequest(final Message<Buffer> pMessage)
+    {
+        final String sOperation = pMessage.headers().get(HEADER_OPERATION);
+        final String sId = pMessage.headers().get(HEADER_ID);
+        
+        if (OP_CLOSE.equals(sOperation))
+        {
+            Transfer transfer = mpTransfers.remove(sId);
+            
+            if (transfer != null)
+            {
+                transfer.close();
+            }
+            
+            pMessage.reply(Buffer.buffer());
+            
+            return;
+        }
+        
+        vertx.executeBlocking(new Handler<Future<Buffer>>()
+        {
+            public void handle(Future<Buffer> pFuture)
+            {
+                try
+                {
+                    if (OP_OPEN.equals(sOperation))
+                    {
+                        IFileHandle fhContent = getLocal(sId);
+                        
+                        if (fhContent == null)
+                        {
+                            throw new IOException("Content '" + sId + "' not found!");
+                        }
+                        
+                        Transfer transfer = new Transfer(fhContent.getInputStream());
+                        
+                        String sTransferId = UUID.randomUUID().toString();
+                        
+                        mpTransfers.put(sTransferId, transfer);
+                        
+                        Buffer buffer = Buffer.buffer();
+                        buffer.appendString(sTransferId);
+                        buffer.appendString("\n");
+                        
+                        String sName = fhContent.getFileName();
+                        
+                        if (sName != null)
+                        {
+                            buffer.appendString(sName);
+                        }
+                        
+                        pFuture.complete(buffer);
+                    }
+                    else if (OP_READ.equals(sOperation))
+                    {
+                        Transfer transfer = mpTransfers.get(sId);
+                        
+                        if (transfer == null)
+                        {
+                            throw new IOException("Transfer '" + sId + "' not found!");
+                        }
+                        
+                        Buffer buffer = transfer.read(iChunkSize);
+                        
+                        if (buffer.length() == 0)
+                        {
+                            mpTransfers.remove(sId);
+                            
+                            transfer.close();
+                        }
+                        
+                        pFuture.complete(buffer);
+                    }
+                    else
+                    {
+                        throw new IOException("Unknown operation: " + sOperation);
+                    }
+                }
+                catch (Exception e)
+                {
+                    pFuture.fail(e);
+                }
+            }
+        },
+        false,
+        new Handler<AsyncResult<Buffer>>()
+        {
+            public void handle(AsyncResult<Buffer> pResult)
+            {
+                if (pResult.succeeded())
+                {
+                    pMessage.reply(pResult.result());
+                }
+                else
+                {
+                    LoggerFactory.getInstance(ClusterFileHandleStore.class).debug(pResult.cause());
+                    
+                    pMessage.fail(404, String.valueOf(pResult.cause().getMessage()));
+                }
+            }
+        });
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+    
+    /**
+     * The <code>Transfer</code> is an open content stream of this node.
+     * 
+     * @author agent
+     */
+    private static final class Transfer
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the content stream. */
+        private InputStream in;
+        
+        /** the last access time. */
+        private volatile long lLastAccess = System.currentTimeMillis();
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>Transfer</code>.
+         * 
+         * @param pStream the content stream
+         */
+        private Transfer(InputStream pStream)
+        {
+            in = pStream;
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Reads the next chunk.
+         * 
+         * @param pSize the maximum size of the chunk
+         * @return the chunk or an empty buffer if the stream is at the end
+         * @throws IOException if reading failed
+         */
+        private synchronized Buffer read(int pSize) throws IOException
+        {
+            lLastAccess = System.currentTimeMillis();
+            
+            byte[] byChunk = new byte[pSize];
+            
+            int iRead = 0;
+            int iLen = 0;
+            
+            while (iRead < pSize && (iLen = in.read(byChunk, iRead, pSize - iRead)) >= 0)
+            {
+                iRead += iLen;
+            }
+            
+            return Buffer.buffer(iRead).appendBytes(byChunk, 0, iRead);
+        }
+        
+        /**
+         * Closes the content stream.
+         */
+        private void close()
+        {
+            CommonUtil.close(in);
+        }
+        
+    }   // Transfer
+    
+    /**
+     * The <code>Fetch</code> pulls content from the owner. The next chunk will be requested after the
+     * previous chunk was written. The copy will be available in the object cache after the last chunk
+     * was written.
+     * 
+     * @author agent
+     */
+    private final class Fetch
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the handler for the content. */
+        private Handler<AsyncResult<IFileHandle>> handler;
+        
+        /** the local copy. */
+        private TempContent content;
+        
+        /** the output stream of the local copy. */
+        private OutputStream out;
+        
+        /** the file name. */
+        private String sName;
+        
+        /** the address of the owner. */
+        private String sOwner;
+        
+        /** the key. */
+        private String sKey;
+        
+        /** the transfer id. */
+        private String sTransferId;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>Fetch</code>.
+         * 
+         * @param pOwner the address of the owner
+         * @param pKey the key
+         * @param pHandler the handler for the content
+         */
+        private Fetch(String pOwner, String pKey, Handler<AsyncResult<IFileHandle>> pHandler)
+        {
+            sOwner = pOwner;
+            sKey = pKey;
+            handler = pHandler;
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Opens the transfer.
+         */
+        private void open()
+        {
+            send(OP_OPEN, sKey, new Handler<Buffer>()
+            {
+                public void handle(Buffer pBuffer)
+                {
+                    String sReply = pBuffer.toString();
+                    
+                    int iPos = sReply.indexOf('\n');
+                    
+                    sTransferId = sReply.substring(0, iPos);
+                    sName = sReply.substring(iPos + 1);
+                    
+                    if (sName.length() == 0)
+                    {
+                        sName = null;
+                    }
+                    
+                    write(null);
+                }
+            });
+        }
+        
+        /**
+         * Writes a chunk to the local copy and requests the next chunk.
+         * 
+         * @param pChunk the chunk or <code>null</code> to request the first chunk
+         */
+        private void write(final Buffer pChunk)
+        {
+            vertx.executeBlocking(new Handler<Future<IFileHandle>>()
+            {
+                public void handle(Future<IFileHandle> pFuture)
+                {
+                    try
+                    {
+                        if (out == null)
+                        {
+                            content = create(null, sName, sKey, -1);
+                            
+                            out = content.getOutputStream();
+                        }
+                        
+                        if (pChunk != null)
+                        {
+                            if (pChunk.length() == 0)
+                            {
+                                //publishes the content
+                                out.close();
+                                
+                                pFuture.complete(content);
+                                
+                                return;
+                            }
+                            else
+                            {
+                                out.write(pChunk.getBytes());
+                            }
+                        }
+                        
+                        pFuture.complete();
+                    }
+                    catch (Exception e)
+                    {
+                        pFuture.fail(e);
+                    }
+                }
+            },
+            true,
+            new Handler<AsyncResult<IFileHandle>>()
+            {
+                public void handle(AsyncResult<IFileHandle> pResult)
+                {
+                    if (pResult.failed())
+                    {
+                        fail(pResult.cause());
+                    }
+                    else if (pResult.result() != null)
+                    {
+                        handler.handle(pResult);
+                    }
+                    else
+                    {
+                        send(OP_READ, sTransferId, new Handler<Buffer>()
+                        {
+                            public void handle(Buffer pBuffer)
+                            {
+                                write(pBuffer);
+                            }
+                        });
+                    }
+                }
+            });
+        }
+        
+        /**
+         * Sends a request to the owner.
+         * 
+         * @param pOperation the operation
+         * @param pId the key or transfer id
+         * @param pHandler the handler for the reply
+         */
+        private void send(String pOperation, String pId, final Handler<Buffer> pHandler)
+        {
+            DeliveryOptions options = new DeliveryOptions();
+            options.setSendTimeout(lTimeout);
+            options.addHeader(HEADER_OPERATION, pOperation);
+            options.addHeader(HEADER_ID, pId);
+            
+            vertx.eventBus().send(sOwner, Buffer.buffer(), options, new Handler<AsyncResult<Message<Buffer>>>()
+            {
+                public void handle(AsyncResult<Message<Buffer>> pResult)
+                {
+                    if (pResult.succeeded())
+                    {
+                        pHandler.handle(pResult.result().body());
+                    }
+                    else
+                    {
+                        fail(pResult.cause());
+                    }
+                }
+            });
+        }
+        
+        /**
+         * Aborts the transfer and removes the local copy.
+         * 
+         * @param pCause the cause
+         */
+        private void fail(Throwable pCause)
+        {
+            CommonUtil.close(out);
+            
+            if (content != null)
+            {
+                content.invalidate(sKey);
+            }
+            
+            if (sTransferId != null)
+            {
+                DeliveryOptions options = new DeliveryOptions();
+                options.addHeader(HEADER_OPERATION, OP_CLOSE);
+                options.addHeader(HEADER_ID, sTransferId);
+                
+                vertx.eventBus().send(sOwner, Buffer.buffer(), options);
+            }
+            
+            handler.handle(Future.<IFileHandle>failedFuture(pCause));
+        }
+        
+    }   // Fetch
+    
+}   // ClusterFileHandleStore
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - temporary content
+ * 19.10.2026 - [agent] - content of sessions
+ * 19.10.2026 - [agent] - check
+ */
+package com.sibvisions.vertx.store;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+import java.io.File;
+import java.io.IOException;
+
+import jvx.rad.io.IFileHandle;
+
+/**
+ * The <code>IFileHandleStore</code> defines the access to uploaded and downloadable content. The
+ * content is identified by the object cache key of a {@link jvx.rad.io.RemoteFileHandle}.
+ * 
+ * @author agent
+ */
+public interface IFileHandleStore
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Method definitions
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Starts the store.
+     * 
+     * @param pVertx the vert.x instance of the server
+     */
+    public void start(Vertx pVertx);
+    
+    /**
+     * Stops the store.
+     */
+    public void stop();
+    
+    /**
+     * Publishes content of this node. The content is available in the object cache.
+     * 
+     * @param pKey the key
+     */
+    public void register(String pKey);
+    
+    /**
+     * Gets content. The handler will be notified on the event loop or on a worker thread.
+     * 
+     * @param pKey the key
+     * @param pHandler the handler which gets the content or <code>null</code> if the key is unknown
+     */
+    public void get(String pKey, Handler<AsyncResult<IFileHandle>> pHandler);
+    
+    /**
+     * Removes content.
+     * 
+     * @param pKey the key
+     */
+    public void remove(String pKey);
+    
+    /**
+     * Removes all content of a session.
+     * 
+     * @param pSessionId the session id
+     */
+    public void releaseSession(String pSessionId);
+    
+    /**
+     * Checks whether content with the given length would be accepted, before it will be received.
+     * 
+     * @param pSessionId the owning session or <code>null</code>
+     * @param pLength the content length
+     * @throws IOException if the length exceeds a limit of the store
+     */
+    public void check(String pSessionId, long pLength) throws IOException;
+    
+    /**
+     * Creates new temporary content. The content will be available with the given key, after the
+     * output stream of the content was closed.
+     * 
+     * @param pSessionId the owning session or <code>null</code>
+     * @param pFileName the file name
+     * @param pKey the key
+     * @param pExpectedLength the expected length or <code>-1</code> if the length is unknown
+     * @return the content
+     * @throws IOException if the expected length exceeds a limit of the store
+     */
+    public TempContent create(String pSessionId, String pFileName, String pKey, long pExpectedLength) throws IOException;
+    
+    /**
+     * Creates temporary content for a completely written file. The content is available with the
+     * given key and the file will be deleted when the content expires.
+     * 
+     * @param pSessionId the owning session or <code>null</code>
+     * @param pFileName the file name
+     * @param pKey the key
+     * @param pFile the file
+     * @return the content
+     * @throws IOException if the file exceeds a limit of the store
+     */
+    public TempContent create(String pSessionId, String pFileName, String pKey, File pFile) throws IOException;
+    
+}   // IFileHandleStore
@@ -0,0 +1,409 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - tiered temporary content
+ * 19.10.2026 - [agent] - bounded content registry, release with session
+ * 19.10.2026 - [agent] - check
+ */
+package com.sibvisions.vertx.store;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jvx.rad.io.IFileHandle;
+
+import com.sibvisions.util.ObjectCache;
+
+/**
+ * The <code>LocalFileHandleStore</code> is the default {@link IFileHandleStore}. The content is only
+ * available on the node which received the upload, because it's stored in the {@link ObjectCache}.
+ * <p>
+ * New content stays on the heap up to the memory threshold, as long as the memory budget of the store
+ * isn't exhausted. All other content spills to temporary files. The {@link TransferHandleRegistry}
+ * bounds the size of all content and of the content of a session.
+ * 
+ * @author agent
+ */
+public class LocalFileHandleStore implements IFileHandleStore
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the content of this store. */
+    private TransferHandleRegistry registry = new TransferHandleRegistry();
+    
+    /** the used heap memory. */
+    private AtomicLong alMemoryUsed = new AtomicLong();
+    
+    /** the vert.x instance. */
+    private Vertx vertx;
+    
+    /** the directory for temporary files. */
+    private File fiTempDirectory;
+    
+    /** the timer id for cleanup. */
+    private long lCleanupTimerId = -1;
+    
+    /** the heap memory budget of all content. */
+    private long lMemoryBudget = 64 * 1024 * 1024;
+    
+    /** the maximum size of content on the heap. */
+    private long lMemoryThreshold = 256 * 1024;
+    
+    /** the time after which unused content expires. */
+    private long lContentTimeout = 300000;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void start(Vertx pVertx)
+    {
+        vertx = pVertx;
+        
+        lCleanupTimerId = vertx.setPeriodic(Math.max(1000, lContentTimeout / 10), new Handler<Long>()
+        {
+            public void handle(Long pTimerId)
+            {
+                cleanupContent();
+            }
+        });
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void stop()
+    {
+        if (lCleanupTimerId >= 0)
+        {
+            vertx.cancelTimer(lCleanupTimerId);
+            
+            lCleanupTimerId = -1;
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void register(String pKey)
+    {
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void get(String pKey, Handler<AsyncResult<IFileHandle>> pHandler)
+    {
+        pHandler.handle(Future.succeededFuture(lookup(pKey)));
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void remove(String pKey)
+    {
+        Object oContent = ObjectCache.remove(pKey);
+        
+        if (oContent instanceof TempContent)
+        {
+            ((TempContent)oContent).invalidate(pKey);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void releaseSession(String pSessionId)
+    {
+        registry.release(pSessionId);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public void check(String pSessionId, long pLength) throws IOException
+    {
+        registry.check(pSessionId, pLength);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public TempContent create(String pSessionId, String pFileName, String pKey, long pExpectedLength) throws IOException
+    {
+        if (pExpectedLength > 0)
+        {
+            registry.check(pSessionId, pExpectedLength);
+        }
+        
+        return new TempContent(this, pSessionId, pFileName, pKey, pExpectedLength);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public TempContent create(String pSessionId, String pFileName, String pKey, File pFile) throws IOException
+    {
+        TempContent content = new TempContent(this, pSessionId, pFileName, pKey, pFile);
+        content.publish();
+        
+        return content;
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Gets content from the object cache of this node.
+     * 
+     * @param pKey the key
+     * @return the content or <code>null</code> if the key is unknown
+     */
+    protected IFileHandle getLocal(String pKey)
+    {
+        Object oContent = ObjectCache.get(pKey);
+        
+        if (oContent instanceof IFileHandle)
+        {
+            return (IFileHandle)oContent;
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Gets content from the object cache of this node and counts the lookup.
+     * 
+     * @param pKey the key
+     * @return the content or <code>null</code> if the key is unknown
+     */
+    protected IFileHandle lookup(String pKey)
+    {
+        IFileHandle content = getLocal(pKey);
+        
+        registry.lookup(content != null);
+        
+        return content;
+    }
+    
+    /**
+     * Gets the registry which bounds the content of this store.
+     * 
+     * @return the registry
+     */
+    public TransferHandleRegistry getRegistry()
+    {
+        return registry;
+    }
+    
+    /**
+     * Sets the heap memory budget of all content. If the budget is exhausted, new content
+     * spills to temporary files.
+     * 
+     * @param pBudget the budget in bytes
+     */
+    public void setMemoryBudget(long pBudget)
+    {
+        lMemoryBudget = pBudget;
+    }
+    
+    /**
+     * Gets the heap memory budget of all content.
+     * 
+     * @return the budget in bytes
+     */
+    public long getMemoryBudget()
+    {
+        return lMemoryBudget;
+    }
+    
+    /**
+     * Sets the maximum size of content on the heap. Larger content spills to a temporary file.
+     * 
+     * @param pThreshold the size in bytes, <code>0</code> to write all content to temporary files
+     */
+    public void setMemoryThreshold(long pThreshold)
+    {
+        lMemoryThreshold = Math.min(pThreshold, Integer.MAX_VALUE - 8);
+    }
+    
+    /**
+     * Gets the maximum size of content on the heap.
+     * 
+     * @return the size in bytes
+     */
+    public long getMemoryThreshold()
+    {
+        return lMemoryThreshold;
+    }
+    
+    /**
+     * Gets the heap memory which is used by content.
+     * 
+     * @return the memory in bytes
+     */
+    public long getMemoryUsed()
+    {
+        return alMemoryUsed.get();
+    }
+    
+    /**
+     * Sets the directory for temporary files.
+     * 
+     * @param pDirectory the directory or <code>null</code> to use the default temporary directory
+     */
+    public void setTempDirectory(File pDirectory)
+    {
+        fiTempDirectory = pDirectory;
+    }
+    
+    /**
+     * Gets the directory for temporary files.
+     * 
+     * @return the directory or <code>null</code> if the default temporary directory is used
+     */
+    public File getTempDirectory()
+    {
+        return fiTempDirectory;
+    }
+    
+    /**
+     * Sets the time after which unused content expires. The timeout restarts with every read.
+     * 
+     * @param pTimeout the timeout in milliseconds
+     */
+    public void setContentTimeout(long pTimeout)
+    {
+        lContentTimeout = pTimeout;
+    }
+    
+    /**
+     * Gets the time after which unused content expires.
+     * 
+     * @return the timeout in milliseconds
+     */
+    public long getContentTimeout()
+    {
+        return lContentTimeout;
+    }
+    
+    /**
+     * Reserves heap memory.
+     * 
+     * @param pBytes the number of bytes
+     * @return <code>true</code> if the memory was reserved, <code>false</code> if the budget is exhausted
+     */
+    boolean reserve(long pBytes)
+    {
+        long lUsed;
+        
+        do
+        {
+            lUsed = alMemoryUsed.get();
+            
+            if (lUsed + pBytes > lMemoryBudget)
+            {
+                return false;
+            }
+        }
+        while (!alMemoryUsed.compareAndSet(lUsed, lUsed + pBytes));
+        
+        return true;
+    }
+    
+    /**
+     * Releases reserved heap memory.
+     * 
+     * @param pBytes the number of bytes
+     */
+    void release(long pBytes)
+    {
+        if (pBytes != 0)
+        {
+            alMemoryUsed.addAndGet(-pBytes);
+        }
+    }
+    
+    /**
+     * Creates a temporary file for content.
+     * 
+     * @return the file
+     * @throws IOException if creating the file failed
+     */
+    File createTempFile() throws IOException
+    {
+        File file = File.createTempFile(TempContent.class.getSimpleName(), ".tmp", fiTempDirectory);
+        file.deleteOnExit();
+        
+        return file;
+    }
+    
+    /**
+     * Records published content.
+     * 
+     * @param pContent the content
+     * @throws IOException if the content exceeds a limit
+     */
+    void track(TempContent pContent) throws IOException
+    {
+        registry.add(pContent);
+    }
+    
+    /**
+     * Forgets invalidated content.
+     * 
+     * @param pContent the content
+     */
+    void untrack(TempContent pContent)
+    {
+        registry.remove(pContent);
+    }
+    
+    /**
+     * Marks content as recently used.
+     * 
+     * @param pContent the content
+     */
+    void touch(TempContent pContent)
+    {
+        registry.touch(pContent);
+    }
+    
+    /**
+     * Invalidates expired content and content which was removed from the object cache without
+     * notification.
+     */
+    private void cleanupContent()
+    {
+        registry.expire();
+    }
+    
+}   // LocalFileHandleStore
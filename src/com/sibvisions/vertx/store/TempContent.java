@@ -0,0 +1,625 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ * 19.10.2026 - [agent] - session, idle timeout
+ */
+package com.sibvisions.vertx.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import jvx.rad.io.IFileHandle;
+
+import com.sibvisions.util.IInvalidator;
+import com.sibvisions.util.IValidatable;
+import com.sibvisions.util.ObjectCache;
+import com.sibvisions.util.log.LoggerFactory;
+
+/**
+ * The <code>TempContent</code> is temporary content, e.g. an upload. Small content stays on the heap,
+ * as long as the memory budget of the store isn't exhausted. Larger content spills to a temporary file,
+ * which will be preallocated if the expected length is known. File content will be read through a
+ * memory mapping and {@link #getFile()} allows zero-copy transfers.
+ * <p>
+ * The content will be available in the {@link ObjectCache} after the output stream was closed. The
+ * content expires, if it wasn't read within the content timeout of the store. The temporary file will
+ * be deleted and the memory will be released, when the content expires, will be evicted or will be
+ * removed from the store.
+ * 
+ * @author agent
+ */
+public final class TempContent implements IFileHandle, IValidatable, IInvalidator
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the store. */
+    private LocalFileHandleStore store;
+    
+    /** the heap content. */
+    private byte[] byContent;
+    
+    /** the temporary file. */
+    private File file;
+    
+    /** the key. */
+    private String sKey;
+    
+    /** the owning session. */
+    private String sSessionId;
+    
+    /** the file name. */
+    private String sFileName;
+    
+    /** the content length. */
+    private long lLength;
+    
+    /** the expected length. */
+    private long lExpectedLength;
+    
+    /** the reserved heap memory. */
+    private long lReserved;
+    
+    /** the time of the last access. */
+    private volatile long lLastAccess;
+    
+    /** whether the content was invalidated. */
+    private volatile boolean bInvalid;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>TempContent</code>.
+     * 
+     * @param pStore the store
+     * @param pSessionId the owning session or <code>null</code>
+     * @param pFileName the file name
+     * @param pKey the key
+     * @param pExpectedLength the expected length or <code>-1</code> if the length is unknown
+     */
+    TempContent(LocalFileHandleStore pStore, String pSessionId, String pFileName, String pKey, long pExpectedLength)
+    {
+        store = pStore;
+        sSessionId = pSessionId;
+        sFileName = pFileName;
+        sKey = pKey;
+        lExpectedLength = pExpectedLength;
+    }
+    
+    /**
+     * Creates a new instance of <code>TempContent</code> for a completely written file.
+     * 
+     * @param pStore the store
+     * @param pSessionId the owning session or <code>null</code>
+     * @param pFileName the file name
+     * @param pKey the key
+     * @param pFile the file
+     */
+    TempContent(LocalFileHandleStore pStore, String pSessionId, String pFileName, String pKey, File pFile)
+    {
+        this(pStore, pSessionId, pFileName, pKey, pFile.length());
+        
+        file = pFile;
+        lLength = pFile.length();
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Interface implementation
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * {@inheritDoc}
+     */
+    public String getFileName()
+    {
+        return sFileName;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized InputStream getInputStream() throws IOException
+    {
+        if (bInvalid)
+        {
+            throw new IOException("Content '" + sKey + "' is not available!");
+        }
+        
+        lLastAccess = System.currentTimeMillis();
+        
+        store.touch(this);
+        
+        if (byContent != null)
+        {
+            return new ByteArrayInputStream(byContent, 0, (int)lLength);
+        }
+        
+        if (file == null)
+        {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        
+        if (lLength > Integer.MAX_VALUE)
+        {
+            return new FileInputStream(file);
+        }
+        
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        
+        try
+        {
+            return new MappedInputStream(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, lLength));
+        }
+        finally
+        {
+            //the mapping stays valid
+            raf.close();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public long getLength()
+    {
+        return lLength;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public boolean isValid()
+    {
+        return !bInvalid && !isExpired();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized void invalidate(Object pKey)
+    {
+        store.untrack(this);
+        
+        if (bInvalid)
+        {
+            return;
+        }
+        
+        bInvalid = true;
+        
+        byContent = null;
+        
+        store.release(lReserved);
+        
+        lReserved = 0;
+        
+        if (file != null)
+        {
+            if (!file.delete() && file.exists())
+            {
+                LoggerFactory.getInstance(TempContent.class).debug("Can't delete ", file);
+                
+                file.deleteOnExit();
+            }
+            
+            file = null;
+        }
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Gets the key.
+     * 
+     * @return the key
+     */
+    public String getKey()
+    {
+        return sKey;
+    }
+    
+    /**
+     * Gets the owning session.
+     * 
+     * @return the session id or <code>null</code> if the content doesn't belong to a session
+     */
+    public String getSessionId()
+    {
+        return sSessionId;
+    }
+    
+    /**
+     * Gets whether the content wasn't read within the content timeout of the store.
+     * 
+     * @return <code>true</code> if the content expired
+     */
+    public boolean isExpired()
+    {
+        return lLastAccess > 0 && System.currentTimeMillis() - lLastAccess > store.getContentTimeout();
+    }
+    
+    /**
+     * Gets the temporary file.
+     * 
+     * @return the file or <code>null</code> if the content is on the heap
+     */
+    public synchronized File getFile()
+    {
+        return file;
+    }
+    
+    /**
+     * Gets whether the content is on the heap.
+     * 
+     * @return <code>true</code> if the content is on the heap
+     */
+    public synchronized boolean isInMemory()
+    {
+        return byContent != null;
+    }
+    
+    /**
+     * Gets the stream for writing the content. The content will be available in the object cache
+     * after the stream was closed.
+     * 
+     * @return the stream
+     */
+    public OutputStream getOutputStream()
+    {
+        return new ContentOutputStream();
+    }
+    
+    /**
+     * Puts the content into the object cache.
+     * 
+     * @throws IOException if the content exceeds a limit of the store
+     */
+    void publish() throws IOException
+    {
+        lLastAccess = System.currentTimeMillis();
+        
+        ObjectCache.put(sKey, this, this);
+        
+        try
+        {
+            store.track(this);
+        }
+        catch (IOException ioe)
+        {
+            if (ObjectCache.get(sKey) == this)
+            {
+                ObjectCache.remove(sKey);
+            }
+            
+            invalidate(sKey);
+            
+            throw ioe;
+        }
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+    
+    /**
+     * The <code>ContentOutputStream</code> writes to the heap until the content exceeds the memory
+     * threshold or the memory budget and spills to a temporary file afterwards.
+     * 
+     * @author agent
+     */
+    private final class ContentOutputStream extends OutputStream
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the heap buffer. */
+        private byte[] byBuffer = new byte[0];
+        
+        /** the file channel. */
+        private FileChannel channel;
+        
+        /** the number of written bytes. */
+        private long lWritten;
+        
+        /** whether the stream is closed. */
+        private boolean bClosed;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Overwritten methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(int pByte) throws IOException
+        {
+            write(new byte[] {(byte)pByte}, 0, 1);
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(byte[] pData, int pOffset, int pLength) throws IOException
+        {
+            if (bClosed)
+            {
+                throw new IOException("Stream is closed!");
+            }
+            
+            if (channel == null && !ensureCapacity(lWritten + pLength))
+            {
+                spill();
+            }
+            
+            if (channel == null)
+            {
+                System.arraycopy(pData, pOffset, byBuffer, (int)lWritten, pLength);
+            }
+            else
+            {
+                ByteBuffer buffer = ByteBuffer.wrap(pData, pOffset, pLength);
+                
+                long lPosition = lWritten;
+                
+                while (buffer.hasRemaining())
+                {
+                    lPosition += channel.write(buffer, lPosition);
+                }
+            }
+            
+            lWritten += pLength;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException
+        {
+            if (bClosed)
+            {
+                return;
+            }
+            
+            bClosed = true;
+            
+            synchronized (TempContent.this)
+            {
+                lLength = lWritten;
+                
+                if (channel == null)
+                {
+                    byContent = byBuffer;
+                }
+                else
+                {
+                    //the preallocated size could be larger
+                    channel.truncate(lWritten);
+                    channel.close();
+                }
+                
+                byBuffer = null;
+            }
+            
+            publish();
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Ensures that the heap buffer is large enough.
+         * 
+         * @param pCapacity the needed capacity
+         * @return <code>true</code> if the heap buffer is large enough, <code>false</code> if the
+         *         content has to spill
+         */
+        private boolean ensureCapacity(long pCapacity)
+        {
+            if (pCapacity <= byBuffer.length)
+            {
+                return true;
+            }
+            
+            if (pCapacity > store.getMemoryThreshold())
+            {
+                return false;
+            }
+            
+            long lCapacity;
+            
+            if (lExpectedLength >= pCapacity && lExpectedLength <= store.getMemoryThreshold())
+            {
+                lCapacity = lExpectedLength;
+            }
+            else
+            {
+                lCapacity = Math.min(Math.max(pCapacity, Math.max(byBuffer.length * 2L, 1024)), store.getMemoryThreshold());
+            }
+            
+            synchronized (TempContent.this)
+            {
+                if (!store.reserve(lCapacity - lReserved))
+                {
+                    return false;
+                }
+                
+                lReserved = lCapacity;
+            }
+            
+            byte[] byNew = new byte[(int)lCapacity];
+            System.arraycopy(byBuffer, 0, byNew, 0, (int)lWritten);
+            
+            byBuffer = byNew;
+            
+            return true;
+        }
+        
+        /**
+         * Moves the heap buffer to a temporary file.
+         * 
+         * @throws IOException if creating the file failed
+         */
+        private void spill() throws IOException
+        {
+            File fiTemp = store.createTempFile();
+            
+            RandomAccessFile raf = new RandomAccessFile(fiTemp, "rw");
+            
+            if (lExpectedLength > 0)
+            {
+                raf.setLength(lExpectedLength);
+            }
+            
+            channel = raf.getChannel();
+            
+            ByteBuffer buffer = ByteBuffer.wrap(byBuffer, 0, (int)lWritten);
+            
+            long lPosition = 0;
+            
+            while (buffer.hasRemaining())
+            {
+                lPosition += channel.write(buffer, lPosition);
+            }
+            
+            byBuffer = null;
+            
+            synchronized (TempContent.this)
+            {
+                file = fiTemp;
+                
+                store.release(lReserved);
+                
+                lReserved = 0;
+            }
+        }
+        
+    }   // ContentOutputStream
+    
+    /**
+     * The <code>MappedInputStream</code> reads a memory mapped file.
+     * 
+     * @author agent
+     */
+    private static final class MappedInputStream extends InputStream
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the mapped content. */
+        private MappedByteBuffer buffer;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>MappedInputStream</code>.
+         * 
+         * @param pBuffer the mapped content
+         */
+        private MappedInputStream(MappedByteBuffer pBuffer)
+        {
+            buffer = pBuffer;
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Overwritten methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read()
+        {
+            if (!buffer.hasRemaining())
+            {
+                return -1;
+            }
+            
+            return buffer.get() & 0xFF;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read(byte[] pData, int pOffset, int pLength)
+        {
+            if (pLength == 0)
+            {
+                return 0;
+            }
+            
+            if (!buffer.hasRemaining())
+            {
+                return -1;
+            }
+            
+            int iLength = Math.min(pLength, buffer.remaining());
+            
+            buffer.get(pData, pOffset, iLength);
+            
+            return iLength;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long skip(long pCount)
+        {
+            int iCount = (int)Math.max(0, Math.min(pCount, buffer.remaining()));
+            
+            buffer.position(buffer.position() + iCount);
+            
+            return iCount;
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int available()
+        {
+            return buffer.remaining();
+        }
+        
+    }   // MappedInputStream
+    
+}   // TempContent
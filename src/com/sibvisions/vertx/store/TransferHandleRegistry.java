@@ -0,0 +1,479 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.store;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sibvisions.util.ObjectCache;
+import com.sibvisions.util.log.LoggerFactory;
+
+/**
+ * The <code>TransferHandleRegistry</code> bounds the temporary content of a store. It limits the total
+ * size of all content and the size of the content of a session. If the total size would be exceeded,
+ * the least recently used content will be evicted. Content of a session which would exceed the quota
+ * will be rejected. Content expires after the time to live and all content of a session will be
+ * released when the session ends.
+ * 
+ * @author agent
+ */
+public final class TransferHandleRegistry
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the content in access order. */
+    private LinkedHashMap<String, TempContent> lhmContents = new LinkedHashMap<String, TempContent>(16, 0.75f, true);
+    
+    /** the content size per session. */
+    private Map<String, Long> mpSessionBytes = new HashMap<String, Long>();
+    
+    /** the number of found handles. */
+    private AtomicLong alHits = new AtomicLong();
+    
+    /** the number of unknown handles. */
+    private AtomicLong alMisses = new AtomicLong();
+    
+    /** the number of evicted handles. */
+    private AtomicLong alEvictions = new AtomicLong();
+    
+    /** the number of expired handles. */
+    private AtomicLong alExpirations = new AtomicLong();
+    
+    /** the number of rejected handles. */
+    private AtomicLong alRejections = new AtomicLong();
+    
+    /** the number of handles which were released with their session. */
+    private AtomicLong alReleases = new AtomicLong();
+    
+    /** the total size of all content. */
+    private long lTotalBytes;
+    
+    /** the maximum total size. */
+    private long lMaxTotalBytes = 2L * 1024 * 1024 * 1024;
+    
+    /** the maximum size per session. */
+    private long lSessionQuota = 512L * 1024 * 1024;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new instance of <code>TransferHandleRegistry</code>.
+     */
+    TransferHandleRegistry()
+    {
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Checks whether content with the given length would be accepted.
+     * 
+     * @param pSessionId the owning session or <code>null</code>
+     * @param pLength the content length
+     * @throws IOException if the content would exceed a limit
+     */
+    synchronized void check(String pSessionId, long pLength) throws IOException
+    {
+        if (lMaxTotalBytes >= 0 && pLength > lMaxTotalBytes)
+        {
+            alRejections.incrementAndGet();
+            
+            throw new IOException("Content of " + pLength + " bytes exceeds the limit of " + lMaxTotalBytes + " bytes!");
+        }
+        
+        if (pSessionId != null && lSessionQuota >= 0 && getSessionBytes(pSessionId) + pLength > lSessionQuota)
+        {
+            alRejections.incrementAndGet();
+            
+            throw new IOException("Quota of session '" + pSessionId + "' exceeded!");
+        }
+    }
+    
+    /**
+     * Adds content. The least recently used content will be evicted, if the total size would be exceeded.
+     * 
+     * @param pContent the completely written content
+     * @throws IOException if the content exceeds a limit
+     */
+    void add(TempContent pContent) throws IOException
+    {
+        List<TempContent> liEvict = new ArrayList<TempContent>();
+        
+        synchronized (this)
+        {
+            long lLength = pContent.getLength();
+            
+            check(pContent.getSessionId(), lLength);
+            
+            TempContent previous = lhmContents.put(pContent.getKey(), pContent);
+            
+            if (previous != null)
+            {
+                unregister(previous);
+                
+                liEvict.add(previous);
+            }
+            
+            register(pContent);
+            
+            if (lMaxTotalBytes >= 0)
+            {
+                TempContent content;
+                
+                for (Iterator<TempContent> it = lhmContents.values().iterator(); lTotalBytes > lMaxTotalBytes && it.hasNext();)
+                {
+                    content = it.next();
+                    
+                    if (content != pContent)
+                    {
+                        it.remove();
+                        
+                        unregister(content);
+                        
+                        liEvict.add(content);
+                        
+                        alEvictions.incrementAndGet();
+                    }
+                }
+            }
+        }
+        
+        //without lock, because invalidation removes the content
+        for (TempContent content : liEvict)
+        {
+            LoggerFactory.getInstance(TransferHandleRegistry.class).debug("Content '", content.getKey(), "' evicted");
+            
+            discard(content);
+        }
+    }
+    
+    /**
+     * Removes invalidated content.
+     * 
+     * @param pContent the content
+     */
+    synchronized void remove(TempContent pContent)
+    {
+        if (lhmContents.get(pContent.getKey()) == pContent)
+        {
+            lhmContents.remove(pContent.getKey());
+            
+            unregister(pContent);
+            
+            if (pContent.isExpired())
+            {
+                alExpirations.incrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * Marks content as recently used.
+     * 
+     * @param pContent the content
+     */
+    synchronized void touch(TempContent pContent)
+    {
+        lhmContents.get(pContent.getKey());
+    }
+    
+    /**
+     * Counts a lookup.
+     * 
+     * @param pFound <code>true</code> if the handle was found
+     */
+    void lookup(boolean pFound)
+    {
+        if (pFound)
+        {
+            alHits.incrementAndGet();
+        }
+        else
+        {
+            alMisses.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Releases all content of a session.
+     * 
+     * @param pSessionId the session id
+     */
+    void release(String pSessionId)
+    {
+        List<TempContent> liRelease = new ArrayList<TempContent>();
+        
+        synchronized (this)
+        {
+            if (!mpSessionBytes.containsKey(pSessionId))
+            {
+                return;
+            }
+            
+            for (TempContent content : lhmContents.values())
+            {
+                if (pSessionId.equals(content.getSessionId()))
+                {
+                    liRelease.add(content);
+                }
+            }
+        }
+        
+        for (TempContent content : liRelease)
+        {
+            discard(content);
+            
+            alReleases.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Discards expired content and content which was removed from the object cache without
+     * notification, e.g. replaced or expired during access.
+     */
+    void expire()
+    {
+        List<TempContent> liContents;
+        
+        //the object cache invalidates with its own lock
+        synchronized (this)
+        {
+            liContents = new ArrayList<TempContent>(lhmContents.values());
+        }
+        
+        for (TempContent content : liContents)
+        {
+            if (content.isExpired() || ObjectCache.get(content.getKey()) != content)
+            {
+                discard(content);
+            }
+        }
+    }
+    
+    /**
+     * Removes content from the object cache and invalidates it.
+     * 
+     * @param pContent the content
+     */
+    private void discard(TempContent pContent)
+    {
+        if (ObjectCache.get(pContent.getKey()) == pContent)
+        {
+            ObjectCache.remove(pContent.getKey());
+        }
+        
+        pContent.invalidate(pContent.getKey());
+    }
+    
+    /**
+     * Adds the size of content to the totals.
+     * 
+     * @param pContent the content
+     */
+    private void register(TempContent pContent)
+    {
+        lTotalBytes += pContent.getLength();
+        
+        String sSessionId = pContent.getSessionId();
+        
+        if (sSessionId != null)
+        {
+            mpSessionBytes.put(sSessionId, Long.valueOf(getSessionBytes(sSessionId) + pContent.getLength()));
+        }
+    }
+    
+    /**
+     * Subtracts the size of content from the totals.
+     * 
+     * @param pContent the content
+     */
+    private void unregister(TempContent pContent)
+    {
+        lTotalBytes -= pContent.getLength();
+        
+        String sSessionId = pContent.getSessionId();
+        
+        if (sSessionId != null)
+        {
+            long lBytes = getSessionBytes(sSessionId) - pContent.getLength();
+            
+            if (lBytes <= 0)
+            {
+                mpSessionBytes.remove(sSessionId);
+            }
+            else
+            {
+                mpSessionBytes.put(sSessionId, Long.valueOf(lBytes));
+            }
+        }
+    }
+    
+    /**
+     * Gets the content size of a session.
+     * 
+     * @param pSessionId the session id
+     * @return the size in bytes
+     */
+    public synchronized long getSessionBytes(String pSessionId)
+    {
+        Long lBytes = mpSessionBytes.get(pSessionId);
+        
+        if (lBytes == null)
+        {
+            return 0;
+        }
+        
+        return lBytes.longValue();
+    }
+    
+    /**
+     * Sets the maximum total size of all content.
+     * 
+     * @param pBytes the size in bytes or <code>-1</code> for no limit
+     */
+    public void setMaxTotalBytes(long pBytes)
+    {
+        lMaxTotalBytes = pBytes;
+    }
+    
+    /**
+     * Gets the maximum total size of all content.
+     * 
+     * @return the size in bytes or <code>-1</code> for no limit
+     */
+    public long getMaxTotalBytes()
+    {
+        return lMaxTotalBytes;
+    }
+    
+    /**
+     * Sets the maximum size of the content of a session.
+     * 
+     * @param pBytes the size in bytes or <code>-1</code> for no limit
+     */
+    public void setSessionQuota(long pBytes)
+    {
+        lSessionQuota = pBytes;
+    }
+    
+    /**
+     * Gets the maximum size of the content of a session.
+     * 
+     * @return the size in bytes or <code>-1</code> for no limit
+     */
+    public long getSessionQuota()
+    {
+        return lSessionQuota;
+    }
+    
+    /**
+     * Gets the total size of all content.
+     * 
+     * @return the size in bytes
+     */
+    public synchronized long getTotalBytes()
+    {
+        return lTotalBytes;
+    }
+    
+    /**
+     * Gets the number of handles.
+     * 
+     * @return the number of handles
+     */
+    public synchronized int getCount()
+    {
+        return lhmContents.size();
+    }
+    
+    /**
+     * Gets the number of lookups which found the handle.
+     * 
+     * @return the number of hits
+     */
+    public long getHitCount()
+    {
+        return alHits.get();
+    }
+    
+    /**
+     * Gets the number of lookups which didn't find the handle.
+     * 
+     * @return the number of misses
+     */
+    public long getMissCount()
+    {
+        return alMisses.get();
+    }
+    
+    /**
+     * Gets the number of handles which were evicted because the total size was exceeded.
+     * 
+     * @return the number of evictions
+     */
+    public long getEvictionCount()
+    {
+        return alEvictions.get();
+    }
+    
+    /**
+     * Gets the number of handles which expired.
+     * 
+     * @return the number of expirations
+     */
+    public long getExpirationCount()
+    {
+        return alExpirations.get();
+    }
+    
+    /**
+     * Gets the number of handles which were rejected because a limit was exceeded.
+     * 
+     * @return the number of rejections
+     */
+    public long getRejectionCount()
+    {
+        return alRejections.get();
+    }
+    
+    /**
+     * Gets the number of handles which were released with their session.
+     * 
+     * @return the number of released handles
+     */
+    public long getReleaseCount()
+    {
+        return alReleases.get();
+    }
+    
+}   // TransferHandleRegistry
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.verticle;
+
+import io.vertx.core.AbstractVerticle;
+
+import com.sibvisions.vertx.EventBusServer;
+
+/**
+ * The <code>EventBusVerticle</code> is the {@link io.vertx.core.Verticle} for {@link EventBusServer}.
+ * The shared address can be configured with the <code>address</code> property of the verticle configuration.
+ * 
+ * @author agent
+ */
+public class EventBusVerticle extends AbstractVerticle
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the server. */
+    private EventBusServer server;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void start()
+    {
+        server = new EventBusServer(vertx);
+        
+        String sAddress = config().getString("address");
+        
+        if (sAddress != null)
+        {
+            server.setAddress(sAddress);
+        }
+        
+        server.start();
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void stop()
+    {
+        if (server != null)
+        {
+            server.stop();
+        }
+    }
+    
+}   // EventBusVerticle
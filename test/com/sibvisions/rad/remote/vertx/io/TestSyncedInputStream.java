@@ -0,0 +1,490 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.rad.remote.vertx.io;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the functionality of {@link SyncedInputStream}.
+ * 
+ * @author agent
+ */
+public class TestSyncedInputStream
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the stream. */
+    private SyncedInputStream stream = new SyncedInputStream();
+    
+    /** the reading thread. */
+    private Thread thRead;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Tests that a waiting read gets the received bytes.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testReceive() throws Exception
+    {
+        FutureTask<Integer> ftRead = readLater();
+        
+        waitForReader();
+        
+        stream.receive(Buffer.buffer(new byte[] {7, 8}));
+        
+        Assert.assertEquals(7, ftRead.get(5, TimeUnit.SECONDS).intValue());
+        Assert.assertEquals(1, stream.available());
+        Assert.assertEquals(8, stream.read());
+    }
+    
+    /**
+     * Tests that compacting drops the read bytes and keeps the unread bytes.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testCompact() throws Exception
+    {
+        stream.receive(Buffer.buffer(new byte[] {1, 2, 3}));
+        
+        Assert.assertEquals(1, stream.read());
+        Assert.assertEquals(2, stream.read());
+        
+        stream.compact();
+        
+        Assert.assertEquals(1, stream.available());
+        
+        stream.receive(Buffer.buffer(new byte[] {4}));
+        
+        byte[] byData = new byte[2];
+        
+        Assert.assertEquals(2, stream.read(byData, 0, 2));
+        Assert.assertArrayEquals(new byte[] {3, 4}, byData);
+        
+        stream.compact();
+        
+        Assert.assertEquals(0, stream.available());
+    }
+    
+    /**
+     * Tests that a waiting read fails when the deadline passed.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testDeadline() throws Exception
+    {
+        stream.setDeadline(System.currentTimeMillis() + 200);
+        
+        long lStart = System.currentTimeMillis();
+        
+        try
+        {
+            stream.read();
+            
+            Assert.fail("Read without data");
+        }
+        catch (SocketTimeoutException ste)
+        {
+            Assert.assertTrue(System.currentTimeMillis() - lStart >= 150);
+            Assert.assertTrue(stream.isExpired());
+        }
+    }
+    
+    /**
+     * Tests that received bytes can be read after the deadline passed, and that a stream without
+     * deadline doesn't expire.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testDeadlineWithData() throws Exception
+    {
+        stream.receive(Buffer.buffer(new byte[] {5}));
+        stream.setDeadline(System.currentTimeMillis() - 1);
+        
+        Assert.assertEquals(5, stream.peek());
+        Assert.assertEquals(5, stream.read());
+        Assert.assertFalse(stream.isExpired());
+        
+        stream.setDeadline(-1);
+        
+        FutureTask<Integer> ftRead = readLater();
+        
+        waitForReader();
+        
+        stream.receive(Buffer.buffer(new byte[] {6}));
+        
+        Assert.assertEquals(6, ftRead.get(5, TimeUnit.SECONDS).intValue());
+    }
+    
+    /**
+     * Tests that reading fails if no bytes were received within the read timeout.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testReadTimeout() throws Exception
+    {
+        stream.setReadTimeout(200);
+        
+        long lStart = System.currentTimeMillis();
+        
+        try
+        {
+            stream.read();
+            
+            Assert.fail("Read without data");
+        }
+        catch (SocketTimeoutException ste)
+        {
+            Assert.assertTrue(System.currentTimeMillis() - lStart >= 150);
+            Assert.assertEquals(SyncedInputStream.TIMEOUT_IDLE, stream.getTimeoutReason());
+            Assert.assertFalse(stream.isExpired());
+        }
+    }
+    
+    /**
+     * Tests that the read timeout starts again with every received byte.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testReadTimeoutWithData() throws Exception
+    {
+        stream.setReadTimeout(300);
+        
+        Thread thSend = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    for (int i = 0; i < 5; i++)
+                    {
+                        Thread.sleep(100);
+                        
+                        stream.receive(Buffer.buffer(new byte[] {(byte)i}));
+                    }
+                }
+                catch (InterruptedException ie)
+                {
+                    //stop sending
+                }
+            }
+        });
+        thSend.setDaemon(true);
+        thSend.start();
+        
+        for (int i = 0; i < 5; i++)
+        {
+            Assert.assertEquals(i, stream.read());
+        }
+        
+        Assert.assertNull(stream.getTimeoutReason());
+    }
+    
+    /**
+     * Tests that reading fails if the bytes were received slower than the minimum data rate, after
+     * the grace period.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testMinDataRate() throws Exception
+    {
+        stream.setMinDataRate(1000, 200);
+        
+        stream.receive(Buffer.buffer(new byte[10]));
+        
+        Assert.assertEquals(10, stream.read(new byte[10], 0, 10));
+        
+        long lStart = System.currentTimeMillis();
+        
+        try
+        {
+            stream.read();
+            
+            Assert.fail("Read with low data rate");
+        }
+        catch (SocketTimeoutException ste)
+        {
+            Assert.assertTrue(System.currentTimeMillis() - lStart >= 100);
+            Assert.assertEquals(SyncedInputStream.TIMEOUT_DATA_RATE, stream.getTimeoutReason());
+        }
+    }
+    
+    /**
+     * Tests that the data rate won't be checked before the first byte was received and that enough
+     * received bytes extend the time for the next bytes.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testMinDataRateNotReached() throws Exception
+    {
+        stream.setMinDataRate(1000, 100);
+        stream.setDeadline(System.currentTimeMillis() + 300);
+        
+        try
+        {
+            stream.read();
+            
+            Assert.fail("Read without data");
+        }
+        catch (SocketTimeoutException ste)
+        {
+            //the deadline passed, the rate wasn't checked without data
+            Assert.assertTrue(stream.isExpired());
+            Assert.assertNull(stream.getTimeoutReason());
+        }
+        
+        stream = new SyncedInputStream();
+        stream.setMinDataRate(1000, 100);
+        
+        //enough bytes for one second
+        stream.receive(Buffer.buffer(new byte[1000]));
+        
+        Assert.assertEquals(1000, stream.read(new byte[1000], 0, 1000));
+        
+        FutureTask<Integer> ftRead = readLater();
+        
+        Thread.sleep(300);
+        
+        stream.receive(Buffer.buffer(new byte[] {9}));
+        
+        Assert.assertEquals(9, ftRead.get(5, TimeUnit.SECONDS).intValue());
+    }
+    
+    /**
+     * Tests that a cancelled stream fails reading, also for a waiting read.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testCancel() throws Exception
+    {
+        FutureTask<Integer> ftRead = readLater();
+        
+        waitForReader();
+        
+        stream.cancel();
+        
+        assertFailed(ftRead, InterruptedIOException.class);
+        
+        Assert.assertTrue(stream.isCancelled());
+        
+        try
+        {
+            stream.read(new byte[1], 0, 1);
+            
+            Assert.fail("Read after cancel");
+        }
+        catch (IOException ioe)
+        {
+            //expected
+        }
+    }
+    
+    /**
+     * Tests that an interrupted read fails instead of reporting the end of the stream, and that the
+     * interrupt status stays set.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testInterrupt() throws Exception
+    {
+        final boolean[] bInterrupted = new boolean[1];
+        
+        FutureTask<Integer> ftRead = new FutureTask<Integer>(new Callable<Integer>()
+        {
+            public Integer call() throws IOException
+            {
+                try
+                {
+                    return Integer.valueOf(stream.read());
+                }
+                finally
+                {
+                    bInterrupted[0] = Thread.currentThread().isInterrupted();
+                }
+            }
+        });
+        
+        start(ftRead);
+        
+        waitForReader();
+        
+        thRead.interrupt();
+        
+        assertFailed(ftRead, InterruptedIOException.class);
+        
+        Assert.assertTrue(bInterrupted[0]);
+        Assert.assertTrue(stream.isInterrupted());
+        Assert.assertFalse(stream.isCancelled());
+    }
+    
+    /**
+     * Tests that the received bytes of an ended stream can be read.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testEnd() throws Exception
+    {
+        stream.receive(Buffer.buffer(new byte[] {1, 2, 3}));
+        stream.end();
+        
+        byte[] byData = new byte[5];
+        
+        Assert.assertEquals(3, stream.read(byData, 0, 5));
+        Assert.assertEquals(-1, stream.read());
+        Assert.assertEquals(-1, stream.read(byData, 0, 5));
+    }
+    
+    /**
+     * Tests that a waiting read ends with the stream.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testEndWhileWaiting() throws Exception
+    {
+        FutureTask<Integer> ftRead = readLater();
+        
+        waitForReader();
+        
+        stream.end();
+        
+        Assert.assertEquals(-1, ftRead.get(5, TimeUnit.SECONDS).intValue());
+    }
+    
+    /**
+     * Tests that a finished stream doesn't return received bytes.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testFinish() throws Exception
+    {
+        stream.receive(Buffer.buffer(new byte[] {1, 2, 3}));
+        stream.finish();
+        
+        Assert.assertEquals(0, stream.available());
+        Assert.assertEquals(-1, stream.read());
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Reads one byte in a new thread.
+     * 
+     * @return the read byte
+     */
+    private FutureTask<Integer> readLater()
+    {
+        FutureTask<Integer> ftRead = new FutureTask<Integer>(new Callable<Integer>()
+        {
+            public Integer call() throws IOException
+            {
+                return Integer.valueOf(stream.read());
+            }
+        });
+        
+        start(ftRead);
+        
+        return ftRead;
+    }
+    
+    /**
+     * Starts the reading thread.
+     * 
+     * @param pTask the read task
+     */
+    private void start(FutureTask<Integer> pTask)
+    {
+        thRead = new Thread(pTask);
+        thRead.setDaemon(true);
+        thRead.start();
+    }
+    
+    /**
+     * Waits until the reading thread waits for data.
+     * 
+     * @throws InterruptedException if waiting was interrupted
+     */
+    private void waitForReader() throws InterruptedException
+    {
+        long lEnd = System.currentTimeMillis() + 5000;
+        
+        Thread.State state = thRead.getState();
+        
+        while (state != Thread.State.WAITING && state != Thread.State.TIMED_WAITING)
+        {
+            Assert.assertTrue("Reader didn't wait", System.currentTimeMillis() < lEnd);
+            
+            Thread.sleep(10);
+            
+            state = thRead.getState();
+        }
+    }
+    
+    /**
+     * Checks that a read failed.
+     * 
+     * @param pTask the read task
+     * @param pClass the expected exception
+     * @throws Exception if waiting for the read failed
+     */
+    private static void assertFailed(FutureTask<Integer> pTask, Class<? extends Exception> pClass) throws Exception
+    {
+        try
+        {
+            Assert.fail("Read " + pTask.get(5, TimeUnit.SECONDS));
+        }
+        catch (ExecutionException ee)
+        {
+            Assert.assertSame(pClass, ee.getCause().getClass());
+        }
+    }
+    
+}   // TestSyncedInputStream
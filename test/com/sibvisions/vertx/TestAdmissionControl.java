@@ -0,0 +1,398 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sibvisions.rad.remote.vertx.NetSocketConnection;
+
+/**
+ * Tests the functionality of {@link AdmissionControl}.
+ * 
+ * @author agent
+ */
+public class TestAdmissionControl
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the admission control. */
+    private AdmissionControl admission;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates an admission control with one permit.
+     */
+    @Before
+    public void before()
+    {
+        admission = new AdmissionControl();
+        admission.setMaxConcurrentCalls(1);
+        admission.setQueueTimeout(5000);
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Tests that calls aren't limited by default.
+     */
+    @Test
+    public void testUnlimited()
+    {
+        AdmissionControl acUnlimited = new AdmissionControl();
+        
+        for (int i = 0; i < 1000; i++)
+        {
+            Assert.assertTrue(acUnlimited.acquire());
+        }
+        
+        Assert.assertEquals(1000, acUnlimited.getRunningCalls());
+        
+        for (int i = 0; i < 1000; i++)
+        {
+            acUnlimited.release();
+        }
+        
+        Assert.assertEquals(0, acUnlimited.getRunningCalls());
+    }
+    
+    /**
+     * Tests that a waiting call gets the permit of a finished call.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testQueued() throws Exception
+    {
+        Assert.assertTrue(admission.acquire("a"));
+        
+        FutureTask<Boolean> ftWaiting = acquireLater("b");
+        
+        waitForQueued(1);
+        
+        Assert.assertFalse(ftWaiting.isDone());
+        Assert.assertEquals(1, admission.getQueuedCalls("b"));
+        
+        admission.release("a");
+        
+        Assert.assertTrue(ftWaiting.get(5, TimeUnit.SECONDS).booleanValue());
+        Assert.assertEquals(1, admission.getRunningCalls());
+        Assert.assertEquals(1, admission.getRunningCalls("b"));
+        Assert.assertEquals(0, admission.getQueuedCalls());
+        
+        admission.release("b");
+        
+        Assert.assertEquals(0, admission.getRunningCalls());
+    }
+    
+    /**
+     * Tests that a call will be rejected immediately, if the queue is full.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testQueueFull() throws Exception
+    {
+        admission.setMaxQueuedCalls(1);
+        
+        Assert.assertTrue(admission.acquire("a"));
+        
+        FutureTask<Boolean> ftWaiting = acquireLater("b");
+        
+        waitForQueued(1);
+        
+        long lStart = System.currentTimeMillis();
+        
+        Assert.assertFalse(admission.acquire("c"));
+        Assert.assertTrue(System.currentTimeMillis() - lStart < 1000);
+        
+        Assert.assertEquals(1, admission.getQueuedCalls());
+        Assert.assertEquals(0, admission.getQueuedCalls("c"));
+        
+        admission.release("a");
+        
+        Assert.assertTrue(ftWaiting.get(5, TimeUnit.SECONDS).booleanValue());
+        
+        admission.release("b");
+    }
+    
+    /**
+     * Tests that a waiting call will be rejected after the queue timeout and that the queue
+     * doesn't keep the rejected call.
+     */
+    @Test
+    public void testQueueTimeout()
+    {
+        admission.setQueueTimeout(200);
+        
+        Assert.assertTrue(admission.acquire("a"));
+        
+        long lStart = System.currentTimeMillis();
+        
+        Assert.assertFalse(admission.acquire("b"));
+        Assert.assertTrue(System.currentTimeMillis() - lStart >= 200);
+        
+        Assert.assertEquals(0, admission.getQueuedCalls());
+        Assert.assertEquals(1, admission.getRunningCalls());
+        
+        admission.release("a");
+        
+        Assert.assertTrue(admission.acquire("b"));
+        
+        admission.release("b");
+    }
+    
+    /**
+     * Tests the busy response with the retry time.
+     */
+    @Test
+    public void testBusyResponse()
+    {
+        admission.setRetryAfter(0x01020304L);
+        
+        Assert.assertArrayEquals(new byte[] {NetSocketConnection.RESPONSE_BUSY, 1, 2, 3, 4}, admission.createBusyResponse());
+    }
+    
+    /**
+     * Tests that the calls of a session are limited, even if permits are available.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testSessionLimit() throws Exception
+    {
+        admission.setMaxConcurrentCalls(-1);
+        admission.setMaxSessionCalls(1);
+        
+        Assert.assertTrue(admission.acquire("a"));
+        Assert.assertTrue(admission.acquire("b"));
+        
+        FutureTask<Boolean> ftWaiting = acquireLater("a");
+        
+        waitForQueued(1);
+        
+        admission.release("b");
+        
+        Assert.assertFalse(ftWaiting.isDone());
+        
+        admission.release("a");
+        
+        Assert.assertTrue(ftWaiting.get(5, TimeUnit.SECONDS).booleanValue());
+        
+        admission.release("a");
+    }
+    
+    
+    /**
+     * Tests that a free permit goes to the session with the least worker time in relation to its weight,
+     * even if another session waits longer.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testWeightedOrder() throws Exception
+    {
+        admission.setWeight("light", 4);
+        
+        runFor("heavy", 100);
+        runFor("light", 100);
+        
+        Assert.assertTrue(admission.acquire("a"));
+        
+        FutureTask<Boolean> ftHeavy = acquireLater("heavy");
+        
+        waitForQueued(1);
+        
+        FutureTask<Boolean> ftLight = acquireLater("light");
+        
+        waitForQueued(2);
+        
+        admission.release("a");
+        
+        Assert.assertTrue(ftLight.get(5, TimeUnit.SECONDS).booleanValue());
+        Assert.assertFalse(ftHeavy.isDone());
+        
+        admission.release("light");
+        
+        Assert.assertTrue(ftHeavy.get(5, TimeUnit.SECONDS).booleanValue());
+        
+        admission.release("heavy");
+    }
+    
+    /**
+     * Tests that a removed session doesn't keep its worker time.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testRemove() throws Exception
+    {
+        runFor("a", 100);
+        runFor("b", 50);
+        
+        admission.remove("a");
+        
+        assertFirst("a", "b");
+    }
+    
+    /**
+     * Tests that a session which is removed while a call is running will be removed after the call.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testRemoveRunning() throws Exception
+    {
+        Assert.assertTrue(admission.acquire("a"));
+        
+        Thread.sleep(100);
+        
+        admission.remove("a");
+        
+        Assert.assertEquals(1, admission.getRunningCalls("a"));
+        
+        admission.release("a");
+        
+        runFor("b", 50);
+        
+        assertFirst("a", "b");
+    }
+    
+    /**
+     * Tests that a session keeps its worker time, if it wasn't removed.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testKeepWorkerTime() throws Exception
+    {
+        runFor("a", 100);
+        runFor("b", 50);
+        
+        assertFirst("b", "a");
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Acquires a permit in a new thread.
+     * 
+     * @param pKey the session key
+     * @return the result of the admission
+     */
+    private FutureTask<Boolean> acquireLater(final String pKey)
+    {
+        FutureTask<Boolean> ftAcquire = new FutureTask<Boolean>(new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                return Boolean.valueOf(admission.acquire(pKey));
+            }
+        });
+        
+        Thread th = new Thread(ftAcquire);
+        th.setDaemon(true);
+        th.start();
+        
+        return ftAcquire;
+    }
+    
+    /**
+     * Runs a call of a session for the given time.
+     * 
+     * @param pKey the session key
+     * @param pMillis the execution time
+     * @throws InterruptedException if the call was interrupted
+     */
+    private void runFor(String pKey, long pMillis) throws InterruptedException
+    {
+        Assert.assertTrue(admission.acquire(pKey));
+        
+        Thread.sleep(pMillis);
+        
+        admission.release(pKey);
+    }
+    
+    /**
+     * Checks which of two waiting sessions gets the next permit. The call of the second session
+     * waits longer.
+     * 
+     * @param pFirst the session which should be admitted first
+     * @param pSecond the session which should be admitted second
+     * @throws Exception if the check fails
+     */
+    private void assertFirst(String pFirst, String pSecond) throws Exception
+    {
+        Assert.assertTrue(admission.acquire("x"));
+        
+        FutureTask<Boolean> ftSecond = acquireLater(pSecond);
+        
+        waitForQueued(1);
+        
+        FutureTask<Boolean> ftFirst = acquireLater(pFirst);
+        
+        waitForQueued(2);
+        
+        admission.release("x");
+        
+        Assert.assertTrue(ftFirst.get(5, TimeUnit.SECONDS).booleanValue());
+        Assert.assertFalse(ftSecond.isDone());
+        
+        admission.release(pFirst);
+        
+        Assert.assertTrue(ftSecond.get(5, TimeUnit.SECONDS).booleanValue());
+        
+        admission.release(pSecond);
+    }
+    
+    /**
+     * Waits until the given number of calls wait for admission.
+     * 
+     * @param pCount the number of waiting calls
+     * @throws InterruptedException if waiting was interrupted
+     */
+    private void waitForQueued(int pCount) throws InterruptedException
+    {
+        long lEnd = System.currentTimeMillis() + 5000;
+        
+        while (admission.getQueuedCalls() < pCount)
+        {
+            Assert.assertTrue("Calls didn't wait", System.currentTimeMillis() < lEnd);
+            
+            Thread.sleep(10);
+        }
+    }
+    
+}   // TestAdmissionControl
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the functionality of {@link CallContext}.
+ * 
+ * @author agent
+ */
+public class TestCallContext
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Clears the interrupt status of the test thread.
+     */
+    @After
+    public void after()
+    {
+        Thread.interrupted();
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Tests the context of the current thread.
+     */
+    @Test
+    public void testCurrent()
+    {
+        Assert.assertNull(CallContext.getCurrent());
+        
+        CallContext context = CallContext.begin(-1);
+        
+        Assert.assertSame(context, CallContext.getCurrent());
+        
+        context.end();
+        
+        Assert.assertNull(CallContext.getCurrent());
+    }
+    
+    /**
+     * Tests the deadline and remaining time of a call.
+     */
+    @Test
+    public void testDeadline()
+    {
+        Assert.assertEquals(1500, CallContext.getDeadline(1000, 500));
+        Assert.assertEquals(1000, CallContext.getDeadline(1000, 0));
+        Assert.assertEquals(-1, CallContext.getDeadline(1000, -1));
+        
+        Assert.assertFalse(CallContext.isExpired(-1));
+        Assert.assertEquals(Long.MAX_VALUE, CallContext.getRemainingTime(-1));
+        
+        long lNow = System.currentTimeMillis();
+        
+        Assert.assertTrue(CallContext.isExpired(lNow - 1));
+        Assert.assertEquals(0, CallContext.getRemainingTime(lNow - 1000));
+        
+        CallContext context = CallContext.begin(lNow + 60000);
+        
+        try
+        {
+            Assert.assertEquals(lNow + 60000, context.getDeadline());
+            Assert.assertFalse(context.isExpired());
+            Assert.assertTrue(context.getRemainingTime() > 50000);
+            Assert.assertTrue(context.getRemainingTime() <= 60000);
+        }
+        finally
+        {
+            context.end();
+        }
+    }
+    
+    /**
+     * Tests that cancel interrupts the thread of the call and end clears the interrupt.
+     */
+    @Test
+    public void testCancel()
+    {
+        CallContext context = CallContext.begin(-1);
+        
+        context.cancel();
+        
+        Assert.assertTrue(context.isCancelled());
+        Assert.assertTrue(Thread.currentThread().isInterrupted());
+        
+        context.end();
+        
+        Assert.assertFalse(Thread.currentThread().isInterrupted());
+    }
+    
+    /**
+     * Tests that cancel interrupts a waiting thread of the call.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testCancelWaiting() throws Exception
+    {
+        final CallContext[] context = new CallContext[1];
+        final boolean[] bResult = new boolean[2];
+        
+        final Object sync = new Object();
+        
+        Thread th = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                synchronized (sync)
+                {
+                    context[0] = CallContext.begin(-1);
+                    
+                    sync.notify();
+                    
+                    try
+                    {
+                        sync.wait(5000);
+                    }
+                    catch (InterruptedException ie)
+                    {
+                        bResult[0] = true;
+                        
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                
+                context[0].end();
+                
+                bResult[1] = Thread.currentThread().isInterrupted();
+            }
+        });
+        
+        synchronized (sync)
+        {
+            th.start();
+            
+            while (context[0] == null)
+            {
+                sync.wait(5000);
+            }
+        }
+        
+        //the thread waits again after the notification
+        synchronized (sync)
+        {
+            context[0].cancel();
+        }
+        
+        th.join(5000);
+        
+        Assert.assertTrue("Interrupted", bResult[0]);
+        Assert.assertFalse("Interrupt after end", bResult[1]);
+    }
+    
+    /**
+     * Tests that a call which ended won't be interrupted.
+     */
+    @Test
+    public void testCancelAfterEnd()
+    {
+        CallContext context = CallContext.begin(-1);
+        
+        context.end();
+        context.cancel();
+        
+        Assert.assertTrue(context.isCancelled());
+        Assert.assertFalse(Thread.currentThread().isInterrupted());
+    }
+    
+    /**
+     * Tests that end keeps the interrupt of a call which wasn't cancelled.
+     */
+    @Test
+    public void testEndWithoutCancel()
+    {
+        CallContext context = CallContext.begin(-1);
+        
+        Thread.currentThread().interrupt();
+        
+        context.end();
+        
+        Assert.assertTrue(Thread.currentThread().isInterrupted());
+    }
+    
+}   // TestCallContext
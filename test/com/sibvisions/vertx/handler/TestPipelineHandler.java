@@ -0,0 +1,564 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.handler;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetServer;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.parsetools.RecordParser;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import jvx.rad.server.ISession;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sibvisions.rad.remote.vertx.Pipeline;
+import com.sibvisions.rad.server.IRequest;
+import com.sibvisions.rad.server.IResponse;
+import com.sibvisions.rad.server.Server;
+import com.sibvisions.util.type.FileUtil;
+
+/**
+ * Tests the frame protocol of {@link PipelineHandler} with a server which echoes the requests.
+ * 
+ * @author agent
+ */
+public class TestPipelineHandler
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the maximum frame length of the tests. */
+    private static final int MAX_FRAME_LENGTH = 1024;
+    
+    /** the vert.x instance. */
+    private static Vertx vertx;
+    
+    /** the socket server. */
+    private static NetServer netServer;
+    
+    /** the interrupted requests. */
+    private static LinkedBlockingQueue<String> liInterrupted = new LinkedBlockingQueue<String>();
+    
+    /** the client connection. */
+    private Client client;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Starts the socket server with pipelined communication.
+     * 
+     * @throws Exception if starting failed
+     */
+    @BeforeClass
+    public static void beforeClass() throws Exception
+    {
+        vertx = Vertx.vertx();
+        
+        final Server server = new EchoServer();
+        
+        final CompletableFuture<NetServer> future = new CompletableFuture<NetServer>();
+        
+        netServer = vertx.createNetServer();
+        netServer.connectHandler(new Handler<NetSocket>()
+        {
+            public void handle(NetSocket pSocket)
+            {
+                PipelineHandler handler = new PipelineHandler(server, pSocket, pSocket, Vertx.currentContext(), null, 
+                                                              null, null, null, null);
+                handler.setMaxFrameLength(MAX_FRAME_LENGTH);
+                
+                pSocket.handler(handler);
+            }
+        });
+        netServer.listen(0, "127.0.0.1", new Handler<AsyncResult<NetServer>>()
+        {
+            public void handle(AsyncResult<NetServer> pResult)
+            {
+                future.complete(pResult.result());
+            }
+        });
+        
+        future.get(10, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Stops the socket server.
+     */
+    @AfterClass
+    public static void afterClass()
+    {
+        vertx.close();
+    }
+    
+    /**
+     * Connects a client.
+     * 
+     * @throws Exception if connecting failed
+     */
+    @Before
+    public void before() throws Exception
+    {
+        client = new Client();
+        
+        liInterrupted.clear();
+    }
+    
+    /**
+     * Disconnects the client.
+     */
+    @After
+    public void after()
+    {
+        client.close();
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Tests that requests with different ordering keys are answered in any order and the responses
+     * have the ids of their requests.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testOutOfOrder() throws Exception
+    {
+        client.send(1, "a", "sleep 500");
+        client.send(2, "b", "x");
+        
+        Assert.assertEquals("2 x", client.take());
+        Assert.assertEquals("1 sleep 500", client.take());
+    }
+    
+    /**
+     * Tests that requests with the same ordering key are answered in the sent order.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testOrderingKey() throws Exception
+    {
+        client.send(1, "a", "sleep 300");
+        client.send(2, "a", "x");
+        
+        Assert.assertEquals("1 sleep 300", client.take());
+        Assert.assertEquals("2 x", client.take());
+    }
+    
+    /**
+     * Tests that ids are only used for correlation, also negative ids after the sequence of
+     * a client wrapped around.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testNegativeIds() throws Exception
+    {
+        client.send(Integer.MIN_VALUE, "a", "x");
+        client.send(-1, "a", "y");
+        
+        Assert.assertEquals(Integer.MIN_VALUE + " x", client.take());
+        Assert.assertEquals("-1 y", client.take());
+    }
+    
+    /**
+     * Tests that a cancel frame interrupts a request in progress, the request gets no response
+     * and the next request with the same ordering key will be processed.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testCancel() throws Exception
+    {
+        client.send(1, "a", "sleep 10000");
+        
+        Thread.sleep(200);
+        
+        client.cancel(1);
+        client.send(2, "a", "x");
+        
+        Assert.assertEquals("sleep 10000", liInterrupted.poll(5, TimeUnit.SECONDS));
+        Assert.assertEquals("2 x", client.take());
+        Assert.assertNull(client.responses.poll(200, TimeUnit.MILLISECONDS));
+    }
+    
+    /**
+     * Tests that a cancel frame for an unknown request is ignored.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testCancelUnknown() throws Exception
+    {
+        client.cancel(99);
+        client.send(1, "a", "x");
+        
+        Assert.assertEquals("1 x", client.take());
+    }
+    
+    /**
+     * Tests that a frame without content closes the socket.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testEmptyFrame() throws Exception
+    {
+        client.sendHeader(1, 0);
+        
+        client.assertClosed();
+    }
+    
+    /**
+     * Tests that a negative frame length other than {@link Pipeline#FRAME_CANCEL} closes the socket.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testNegativeLength() throws Exception
+    {
+        client.sendHeader(1, -5);
+        
+        client.assertClosed();
+    }
+    
+    /**
+     * Tests that a frame which is too short for the ordering key closes the socket.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testInvalidKeyLength() throws Exception
+    {
+        client.sendHeader(1, 4);
+        client.write(Buffer.buffer().appendShort((short)100).appendShort((short)0));
+        
+        client.assertClosed();
+    }
+    
+    /**
+     * Tests that a frame up to the maximum length will be processed and a greater frame closes
+     * the socket.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testOversizedFrame() throws Exception
+    {
+        StringBuilder sbRequest = new StringBuilder();
+        
+        while (sbRequest.length() < MAX_FRAME_LENGTH - 3)
+        {
+            sbRequest.append('x');
+        }
+        
+        client.send(1, "a", sbRequest.toString());
+        
+        Assert.assertEquals("1 " + sbRequest, client.take());
+        
+        client.sendHeader(2, MAX_FRAME_LENGTH + 1);
+        
+        client.assertClosed();
+    }
+    
+    //****************************************************************
+    // Subclass definition
+    //****************************************************************
+    
+    /**
+     * The <code>EchoServer</code> answers a request with its content. A request 
+     * <code>sleep &lt;millis&gt;</code> will be answered after the given time.
+     * 
+     * @author agent
+     */
+    private static final class EchoServer extends Server
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Overwritten methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ISession process(IRequest pRequest, IResponse pResponse) throws Exception
+        {
+            byte[] byRequest = FileUtil.getContent(pRequest.getInputStream());
+            
+            String sRequest = new String(byRequest, "UTF-8");
+            
+            if (sRequest.startsWith("sleep "))
+            {
+                try
+                {
+                    Thread.sleep(Long.parseLong(sRequest.substring(6)));
+                }
+                catch (InterruptedException ie)
+                {
+                    liInterrupted.add(sRequest);
+                    
+                    throw ie;
+                }
+            }
+            
+            pResponse.getOutputStream().write(byRequest);
+            
+            return null;
+        }
+        
+    }   // EchoServer
+    
+    /**
+     * The <code>Client</code> sends request frames and receives the responses.
+     * 
+     * @author agent
+     */
+    private static final class Client
+    {
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Class members
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /** the responses as id and content. */
+        private LinkedBlockingQueue<String> responses = new LinkedBlockingQueue<String>();
+        
+        /** the notification about the closed socket. */
+        private CountDownLatch closed = new CountDownLatch(1);
+        
+        /** the client of the socket. */
+        private NetClient netClient;
+        
+        /** the socket. */
+        private NetSocket socket;
+        
+        /** the context of the socket. */
+        private Context context;
+        
+        /** the parser of the response frames. */
+        private RecordParser parser;
+        
+        /** the id of the current response. */
+        private int iId;
+        
+        /** whether the content of the current response is expected. */
+        private boolean bContent;
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // Initialization
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Creates a new instance of <code>Client</code> and connects the socket.
+         * 
+         * @throws Exception if connecting failed
+         */
+        private Client() throws Exception
+        {
+            final CompletableFuture<NetSocket> future = new CompletableFuture<NetSocket>();
+            
+            parser = RecordParser.newFixed(Pipeline.HEADER_LENGTH, new Handler<Buffer>()
+            {
+                public void handle(Buffer pBuffer)
+                {
+                    receive(pBuffer);
+                }
+            });
+            
+            netClient = vertx.createNetClient();
+            netClient.connect(netServer.actualPort(), "127.0.0.1", new Handler<AsyncResult<NetSocket>>()
+            {
+                public void handle(AsyncResult<NetSocket> pResult)
+                {
+                    NetSocket sock = pResult.result();
+                    
+                    sock.handler(parser);
+                    sock.closeHandler(new Handler<Void>()
+                    {
+                        public void handle(Void pParam)
+                        {
+                            closed.countDown();
+                        }
+                    });
+                    
+                    context = Vertx.currentContext();
+                    
+                    future.complete(sock);
+                }
+            });
+            
+            socket = future.get(10, TimeUnit.SECONDS);
+        }
+        
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        // User-defined methods
+        //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+        
+        /**
+         * Sends a request frame.
+         * 
+         * @param pId the request id
+         * @param pKey the ordering key
+         * @param pRequest the request
+         */
+        private void send(int pId, String pKey, String pRequest)
+        {
+            Buffer bufKey = Buffer.buffer(pKey, "UTF-8");
+            Buffer bufRequest = Buffer.buffer(pRequest, "UTF-8");
+            
+            Buffer buffer = Buffer.buffer();
+            buffer.appendInt(pId);
+            buffer.appendInt(2 + bufKey.length() + bufRequest.length());
+            buffer.appendShort((short)bufKey.length());
+            buffer.appendBuffer(bufKey);
+            buffer.appendBuffer(bufRequest);
+            
+            write(buffer);
+        }
+        
+        /**
+         * Sends a cancel frame.
+         * 
+         * @param pId the request id
+         */
+        private void cancel(int pId)
+        {
+            sendHeader(pId, Pipeline.FRAME_CANCEL);
+        }
+        
+        /**
+         * Sends a frame header.
+         * 
+         * @param pId the request id
+         * @param pLength the frame length
+         */
+        private void sendHeader(int pId, int pLength)
+        {
+            write(Buffer.buffer().appendInt(pId).appendInt(pLength));
+        }
+        
+        /**
+         * Writes on the context of the socket.
+         * 
+         * @param pBuffer the data
+         */
+        private void write(final Buffer pBuffer)
+        {
+            context.runOnContext(new Handler<Void>()
+            {
+                public void handle(Void pParam)
+                {
+                    socket.write(pBuffer);
+                }
+            });
+        }
+        
+        /**
+         * Closes the client and its socket.
+         */
+        private void close()
+        {
+            netClient.close();
+        }
+        
+        /**
+         * Gets the next response.
+         * 
+         * @return the id and the content, separated by a blank
+         * @throws Exception if no response was received
+         */
+        private String take() throws Exception
+        {
+            String sResponse = responses.poll(5, TimeUnit.SECONDS);
+            
+            if (sResponse == null)
+            {
+                throw new IOException("No response!");
+            }
+            
+            return sResponse;
+        }
+        
+        /**
+         * Checks that the server closed the socket.
+         * 
+         * @throws InterruptedException if waiting was interrupted
+         */
+        private void assertClosed() throws InterruptedException
+        {
+            Assert.assertTrue("Socket wasn't closed", closed.await(5, TimeUnit.SECONDS));
+        }
+        
+        /**
+         * Handles the header or the content of a response frame.
+         * 
+         * @param pBuffer the header or content
+         */
+        private void receive(Buffer pBuffer)
+        {
+            if (!bContent)
+            {
+                iId = pBuffer.getInt(0);
+                
+                int iLength = pBuffer.getInt(4);
+                
+                if (iLength > 0)
+                {
+                    bContent = true;
+                    
+                    parser.fixedSizeMode(iLength);
+                    
+                    return;
+                }
+                
+                pBuffer = Buffer.buffer();
+            }
+            
+            responses.add(iId + " " + pBuffer.toString("UTF-8"));
+            
+            bContent = false;
+            
+            parser.fixedSizeMode(Pipeline.HEADER_LENGTH);
+        }
+        
+    }   // Client
+    
+}   // TestPipelineHandler
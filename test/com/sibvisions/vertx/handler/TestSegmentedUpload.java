@@ -0,0 +1,371 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.handler;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import jvx.rad.io.IFileHandle;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sibvisions.util.ObjectCache;
+import com.sibvisions.util.type.FileUtil;
+import com.sibvisions.vertx.store.LocalFileHandleStore;
+
+/**
+ * Tests the functionality of {@link SegmentedUpload} and {@link SegmentedUploadRegistry}.
+ * 
+ * @author agent
+ */
+public class TestSegmentedUpload
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Class members
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /** the registry. */
+    private SegmentedUploadRegistry registry;
+    
+    /** the store for completed uploads. */
+    private LocalFileHandleStore store;
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Initialization
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates a new registry and store.
+     */
+    @Before
+    public void before()
+    {
+        registry = new SegmentedUploadRegistry();
+        store = new LocalFileHandleStore();
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Tests segments which arrive out of order. The committed offset is the end of the contiguous
+     * range and the content is available after the last segment.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testOutOfOrder() throws Exception
+    {
+        byte[] byData = createData(10);
+        
+        SegmentedUpload upload = registry.create(byData.length, store, null);
+        
+        Assert.assertEquals(0, send(upload, byData, 4, 4));
+        Assert.assertEquals(0, send(upload, byData, 8, 2));
+        Assert.assertFalse(upload.isComplete());
+        Assert.assertEquals(0, registry.getCommittedOffset(upload.getKey()));
+        
+        Assert.assertEquals(10, send(upload, byData, 0, 4));
+        Assert.assertTrue(upload.isComplete());
+        
+        Assert.assertArrayEquals(byData, getContent(upload.getKey()));
+    }
+    
+    /**
+     * Tests the committed offset of a pending upload.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testCommittedOffset() throws Exception
+    {
+        byte[] byData = createData(12);
+        
+        SegmentedUpload upload = registry.create(byData.length, store, null);
+        
+        Assert.assertEquals(0, registry.getCommittedOffset(upload.getKey()));
+        
+        send(upload, byData, 0, 4);
+        send(upload, byData, 8, 4);
+        
+        Assert.assertEquals(4, registry.getCommittedOffset(upload.getKey()));
+        
+        send(upload, byData, 4, 4);
+        
+        //completed uploads are available in the store
+        Assert.assertEquals(-1, registry.getCommittedOffset(upload.getKey()));
+        Assert.assertEquals(-1, registry.getCommittedOffset("unknown"));
+        Assert.assertEquals(0, registry.size());
+    }
+    
+    /**
+     * Tests that a segment, which was sent twice, will be counted once.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testDuplicateSegment() throws Exception
+    {
+        byte[] byData = createData(8);
+        
+        SegmentedUpload upload = registry.create(byData.length, store, null);
+        
+        Assert.assertEquals(4, send(upload, byData, 0, 4));
+        Assert.assertEquals(4, send(upload, byData, 0, 4));
+        Assert.assertFalse(upload.isComplete());
+        
+        Assert.assertEquals(8, send(upload, byData, 4, 4));
+        
+        Assert.assertArrayEquals(byData, getContent(upload.getKey()));
+        
+        //a late duplicate of a completed upload
+        Assert.assertEquals(8, send(upload, byData, 4, 4));
+    }
+    
+    /**
+     * Tests that overlapping segments don't complete an upload with missing bytes.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testOverlappingSegments() throws Exception
+    {
+        byte[] byData = createData(15);
+        
+        SegmentedUpload upload = registry.create(byData.length, store, null);
+        
+        Assert.assertEquals(10, send(upload, byData, 0, 10));
+        Assert.assertEquals(10, send(upload, byData, 5, 5));
+        Assert.assertFalse(upload.isComplete());
+        
+        Assert.assertEquals(15, send(upload, byData, 5, 10));
+        Assert.assertTrue(upload.isComplete());
+        
+        Assert.assertArrayEquals(byData, getContent(upload.getKey()));
+    }
+    
+    /**
+     * Tests that an empty upload is complete without segments.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testEmptyUpload() throws Exception
+    {
+        SegmentedUpload upload = registry.create(0, store, null);
+        
+        Assert.assertTrue(upload.isComplete());
+        Assert.assertEquals(0, registry.size());
+        
+        Assert.assertEquals(0, getContent(upload.getKey()).length);
+    }
+    
+    /**
+     * Tests that segments outside of the content will be rejected.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test(expected = IOException.class)
+    public void testOutOfRange() throws Exception
+    {
+        SegmentedUpload upload = registry.create(4, store, null);
+        
+        upload.write(2, new byte[4], 0, 4);
+    }
+    
+    /**
+     * Tests that uploads which exceed the limits of the store won't be created.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testLimits() throws Exception
+    {
+        store.getRegistry().setMaxTotalBytes(100);
+        store.getRegistry().setSessionQuota(50);
+        
+        assertRejected(101, null);
+        
+        registry.create(30, store, "1");
+        
+        //the pending upload counts for the quota of the session
+        assertRejected(30, "1");
+        
+        registry.create(30, store, "2");
+        
+        Assert.assertEquals(2, registry.size());
+    }
+    
+    /**
+     * Tests the expiration and the release of pending uploads.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testExpireAndRelease() throws Exception
+    {
+        SegmentedUpload upload1 = registry.create(10, store, "1");
+        SegmentedUpload upload2 = registry.create(10, store, "2");
+        
+        registry.expire(60000);
+        
+        Assert.assertEquals(2, registry.size());
+        
+        registry.release("1");
+        
+        Assert.assertEquals(1, registry.size());
+        Assert.assertEquals(-1, registry.getCommittedOffset(upload1.getKey()));
+        
+        Thread.sleep(20);
+        
+        registry.expire(10);
+        
+        Assert.assertEquals(0, registry.size());
+        Assert.assertEquals(-1, registry.getCommittedOffset(upload2.getKey()));
+        
+        try
+        {
+            registry.get(upload2.getKey());
+            
+            Assert.fail("Expired upload is available!");
+        }
+        catch (IOException ioe)
+        {
+            //expected
+        }
+    }
+    
+    /**
+     * Tests that the registries of different servers are independent.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testIndependentRegistries() throws Exception
+    {
+        SegmentedUploadRegistry other = new SegmentedUploadRegistry();
+        
+        SegmentedUpload upload = registry.create(10, store, null);
+        
+        Thread.sleep(20);
+        
+        other.expire(10);
+        
+        Assert.assertEquals(1, registry.size());
+        Assert.assertSame(upload, registry.get(upload.getKey()));
+        Assert.assertEquals(-1, other.getCommittedOffset(upload.getKey()));
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Creates test content.
+     * 
+     * @param pLength the length
+     * @return the content
+     */
+    private static byte[] createData(int pLength)
+    {
+        byte[] byData = new byte[pLength];
+        
+        for (int i = 0; i < pLength; i++)
+        {
+            byData[i] = (byte)(i + 1);
+        }
+        
+        return byData;
+    }
+    
+    /**
+     * Checks that an upload will be rejected.
+     * 
+     * @param pLength the content length
+     * @param pSessionId the owning session or <code>null</code>
+     */
+    private void assertRejected(long pLength, String pSessionId)
+    {
+        int iSize = registry.size();
+        
+        try
+        {
+            registry.create(pLength, store, pSessionId);
+            
+            Assert.fail("Upload of " + pLength + " bytes was created!");
+        }
+        catch (IOException ioe)
+        {
+            //expected
+        }
+        
+        Assert.assertEquals(iSize, registry.size());
+    }
+    
+    /**
+     * Writes and commits a segment.
+     * 
+     * @param pUpload the upload
+     * @param pData the content
+     * @param pOffset the position of the segment
+     * @param pLength the length of the segment
+     * @return the committed offset
+     * @throws IOException if writing failed
+     */
+    private static long send(SegmentedUpload pUpload, byte[] pData, int pOffset, int pLength) throws IOException
+    {
+        if (!pUpload.isComplete())
+        {
+            pUpload.write(pOffset, pData, pOffset, pLength);
+        }
+        
+        return pUpload.commit(pOffset, pLength);
+    }
+    
+    /**
+     * Gets the content of a completed upload.
+     * 
+     * @param pKey the key of the upload
+     * @return the content
+     * @throws IOException if reading failed
+     */
+    private static byte[] getContent(String pKey) throws IOException
+    {
+        IFileHandle fhContent = (IFileHandle)ObjectCache.get(pKey);
+        
+        Assert.assertNotNull("Content not found: " + pKey, fhContent);
+        
+        InputStream in = fhContent.getInputStream();
+        
+        try
+        {
+            return FileUtil.getContent(in);
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+    
+}   // TestSegmentedUpload
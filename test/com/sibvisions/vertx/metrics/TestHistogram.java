@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the functionality of {@link Histogram}.
+ * 
+ * @author agent
+ */
+public class TestHistogram
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Tests that small values have their own bucket.
+     */
+    @Test
+    public void testExactBuckets()
+    {
+        for (int i = 0; i < 64; i++)
+        {
+            Assert.assertEquals(i, Histogram.getIndex(i));
+            Assert.assertEquals(i, Histogram.getHighestValue(i));
+        }
+    }
+    
+    /**
+     * Tests that the buckets are contiguous: the highest value of a bucket belongs to the bucket and
+     * the next value to the next bucket.
+     */
+    @Test
+    public void testBucketBoundaries()
+    {
+        int iLast = Histogram.getIndex(Long.MAX_VALUE);
+        
+        long lHighest;
+        
+        for (int i = 0; i < iLast; i++)
+        {
+            lHighest = Histogram.getHighestValue(i);
+            
+            Assert.assertEquals("Highest value of bucket " + i, i, Histogram.getIndex(lHighest));
+            Assert.assertEquals("Next value of bucket " + i, i + 1, Histogram.getIndex(lHighest + 1));
+        }
+        
+        Assert.assertEquals(Long.MAX_VALUE, Histogram.getHighestValue(iLast));
+    }
+    
+    /**
+     * Tests that a bucket is at most about 3% of its values wide.
+     */
+    @Test
+    public void testBucketWidth()
+    {
+        for (long lValue = 64; lValue > 0 && lValue < Long.MAX_VALUE / 3; lValue = lValue * 3 + 1)
+        {
+            long lHighest = Histogram.getHighestValue(Histogram.getIndex(lValue));
+            
+            Assert.assertTrue("Bucket of " + lValue + " ends at " + lHighest, lHighest >= lValue);
+            Assert.assertTrue("Bucket of " + lValue + " ends at " + lHighest, (double)(lHighest - lValue) / lValue <= 1.0 / 32);
+        }
+    }
+    
+    /**
+     * Tests the percentiles of uniformly distributed values.
+     */
+    @Test
+    public void testPercentiles()
+    {
+        Histogram histogram = new Histogram();
+        
+        for (int i = 1; i <= 10000; i++)
+        {
+            histogram.record(i * 1000L);
+        }
+        
+        Assert.assertEquals(10000, histogram.getCount());
+        Assert.assertEquals(10000000L, histogram.getMax());
+        Assert.assertEquals(5000500.0, histogram.getMean(), 0.001);
+        
+        assertPercentile(histogram, 50, 5000000L);
+        assertPercentile(histogram, 90, 9000000L);
+        assertPercentile(histogram, 99, 9900000L);
+        assertPercentile(histogram, 99.9, 9990000L);
+        
+        Assert.assertEquals(10000000L, histogram.getPercentile(100));
+        Assert.assertEquals(histogram.getPercentile(0.001), histogram.getPercentile(0));
+    }
+    
+    /**
+     * Tests that a percentile never exceeds the maximum value.
+     */
+    @Test
+    public void testPercentileBelowMax()
+    {
+        Histogram histogram = new Histogram();
+        histogram.record(1000001);
+        
+        Assert.assertEquals(1000001, histogram.getPercentile(50));
+        Assert.assertEquals(1000001, histogram.getPercentile(99.9));
+    }
+    
+    /**
+     * Tests an empty histogram and negative values.
+     */
+    @Test
+    public void testEmptyAndNegative()
+    {
+        Histogram histogram = new Histogram();
+        
+        Assert.assertEquals(0, histogram.getPercentile(99));
+        Assert.assertEquals(0.0, histogram.getMean(), 0);
+        
+        histogram.record(-5);
+        
+        Assert.assertEquals(1, histogram.getCount());
+        Assert.assertEquals(0, histogram.getSum());
+        Assert.assertEquals(0, histogram.getPercentile(50));
+    }
+    
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // User-defined methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Checks that a percentile is not lower than the expected value and at most 1/32 higher.
+     * 
+     * @param pHistogram the histogram
+     * @param pPercentile the percentile
+     * @param pExpected the exact value
+     */
+    private static void assertPercentile(Histogram pHistogram, double pPercentile, long pExpected)
+    {
+        long lValue = pHistogram.getPercentile(pPercentile);
+        
+        Assert.assertTrue("p" + pPercentile + " = " + lValue, lValue >= pExpected);
+        Assert.assertTrue("p" + pPercentile + " = " + lValue, lValue <= pExpected + pExpected / 32);
+    }
+    
+}   // TestHistogram
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 SIB Visions GmbH
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ *
+ * History
+ *
+ * 19.10.2026 - [agent] - creation
+ */
+package com.sibvisions.vertx.shaping;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the functionality of {@link TokenBucket}.
+ * 
+ * @author agent
+ */
+public class TestTokenBucket
+{
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    // Test methods
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    
+    /**
+     * Tests that a burst up to the capacity isn't delayed.
+     */
+    @Test
+    public void testBurst()
+    {
+        TokenBucket bucket = new TokenBucket(1000, 4000);
+        
+        bucket.consume(4000);
+        
+        Assert.assertEquals(0, bucket.getDelay());
+    }
+    
+    /**
+     * Tests that a chunk beyond the capacity puts the bucket in debt and the delay is the time 
+     * to refill the debt.
+     */
+    @Test
+    public void testDebt()
+    {
+        TokenBucket bucket = new TokenBucket(1000, 1000);
+        
+        bucket.consume(1500);
+        
+        long lDelay = bucket.getDelay();
+        
+        Assert.assertTrue("Delay " + lDelay, lDelay > 400 && lDelay <= 500);
+    }
+    
+    /**
+     * Tests that the debt will be paid off with the rate.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testRefill() throws Exception
+    {
+        TokenBucket bucket = new TokenBucket(10000, 1000);
+        
+        bucket.consume(2000);
+        
+        long lDelay = bucket.getDelay();
+        
+        Assert.assertTrue("Delay " + lDelay, lDelay > 50 && lDelay <= 100);
+        
+        Thread.sleep(lDelay + 20);
+        
+        Assert.assertEquals(0, bucket.getDelay());
+    }
+    
+    /**
+     * Tests that the bucket doesn't save up more tokens than its capacity.
+     * 
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testCapacity() throws Exception
+    {
+        TokenBucket bucket = new TokenBucket(100000, 1000);
+        
+        Thread.sleep(100);
+        
+        bucket.consume(2000);
+        
+        Assert.assertTrue(bucket.getDelay() > 0);
+    }
+    
+    /**
+     * Tests that a bucket without rate or capacity still refills.
+     */
+    @Test
+    public void testMinimum()
+    {
+        TokenBucket bucket = new TokenBucket(0, 0);
+        
+        Assert.assertEquals(1, bucket.getRate());
+        Assert.assertEquals(1, bucket.getCapacity());
+        
+        bucket.consume(2);
+        
+        long lDelay = bucket.getDelay();
+        
+        Assert.assertTrue("Delay " + lDelay, lDelay > 900 && lDelay <= 1000);
+    }
+    
+}   // TestTokenBucket